@@ -0,0 +1,82 @@
+package dev.jraf;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the construction and of the queries of an adjacency graph,
+ * over graph sizes and out-degree distributions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AdjacencyGraphBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    @Param({"UNIFORM", "POWER_LAW"})
+    public Fixtures.Distribution distribution;
+
+    private int[][] arcs;
+    private AdjacencyGraph graph;
+    private AdjacencyGraph dag;
+    private Vertex[] vertices;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        arcs = Fixtures.arcs(size, distribution);
+        graph = Fixtures.graph(size, arcs);
+        dag = Fixtures.dag(size, arcs);
+        vertices = new Vertex[size];
+        for (int v = 0; v < size; v++)
+            vertices[v] = Vertex.of(v);
+    }
+
+    private Vertex nextVertex() {
+        next = (next + 7919) % size;
+        return vertices[next];
+    }
+
+    @Benchmark
+    public AdjacencyGraph add() {
+        return Fixtures.graph(size, arcs);
+    }
+
+    @Benchmark
+    public List<Vertex> neighborsOf() {
+        return graph.neighborsOf(nextVertex());
+    }
+
+    @Benchmark
+    public int degreeOf() {
+        return graph.degreeOf(nextVertex());
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> breadthFirstSearch() {
+        return graph.breadthFirstSearch(nextVertex());
+    }
+
+    @Benchmark
+    public boolean isAcyclic() {
+        return dag.isAcyclic();
+    }
+}
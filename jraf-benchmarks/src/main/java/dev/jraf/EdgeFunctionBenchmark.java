@@ -0,0 +1,69 @@
+package dev.jraf;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the lookups and updates of an edge function holding the arcs
+ * of a random graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EdgeFunctionBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"UNIFORM", "POWER_LAW"})
+    public Fixtures.Distribution distribution;
+
+    private EdgeFunction function;
+    private Vertex[] tails;
+    private Vertex[] heads;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[][] arcs = Fixtures.arcs(size, distribution);
+        function = new EdgeFunction();
+        tails = new Vertex[arcs.length];
+        heads = new Vertex[arcs.length];
+        for (int i = 0; i < arcs.length; i++) {
+            tails[i] = Vertex.of(arcs[i][0]);
+            heads[i] = Vertex.of(arcs[i][1]);
+            function.add(tails[i], heads[i], i);
+        }
+    }
+
+    private int nextArc() {
+        next = (next + 7919) % tails.length;
+        return next;
+    }
+
+    @Benchmark
+    public int get() {
+        int i = nextArc();
+        return function.get(tails[i], heads[i]);
+    }
+
+    @Benchmark
+    public void add() {
+        int i = nextArc();
+        function.add(tails[i], heads[i], i);
+    }
+}
@@ -0,0 +1,94 @@
+package dev.jraf;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic random graphs used by the benchmarks. The arcs are generated
+ * from a fixed seed, so that every run measures the same graphs.
+ */
+public final class Fixtures {
+
+    static final long SEED = 0x5EEDL;
+    static final int MEAN_DEGREE = 6;
+
+    /**
+     * The distribution of the out-degrees of the vertices.
+     */
+    public enum Distribution {
+        /** Out-degrees drawn uniformly between 0 and twice the mean. */
+        UNIFORM,
+        /** Out-degrees drawn from a Pareto law of index 1.5. */
+        POWER_LAW
+    }
+
+    private Fixtures() {
+    }
+
+    /**
+     * Returns the arcs of a random graph on the vertices 0 to n - 1, as pairs
+     * of tail and head labels, tails in increasing order.
+     *
+     * @param n            an int, the number of vertices
+     * @param distribution the distribution of the out-degrees
+     * @return             an array of {tail, head} pairs
+     */
+    static int[][] arcs(int n, Distribution distribution) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        int[][] arcs = new int[n * MEAN_DEGREE * 2][];
+        int m = 0;
+        for (int tail = 0; tail < n; tail++) {
+            int degree = degree(random, n, distribution);
+            if (m + degree > arcs.length)
+                arcs = Arrays.copyOf(arcs, (m + degree) * 2);
+            for (int i = 0; i < degree; i++)
+                arcs[m++] = new int[] {tail, random.nextInt(n)};
+        }
+        return Arrays.copyOf(arcs, m);
+    }
+
+    private static int degree(SplittableRandom random, int n,
+            Distribution distribution) {
+        if (distribution == Distribution.UNIFORM)
+            return random.nextInt(2 * MEAN_DEGREE + 1);
+        double pareto = 2 * Math.pow(1 - random.nextDouble(), -1 / 1.5);
+        return (int) Math.min(n - 1, pareto);
+    }
+
+    /**
+     * Returns a new adjacency graph with the vertices 0 to n - 1 and the
+     * given arcs.
+     *
+     * @param n    an int, the number of vertices
+     * @param arcs an array of {tail, head} pairs
+     * @return     a new adjacency graph
+     */
+    static AdjacencyGraph graph(int n, int[][] arcs) {
+        AdjacencyGraph graph = new AdjacencyGraph();
+        for (int v = 0; v < n; v++)
+            graph.add(v);
+        for (int[] arc: arcs)
+            graph.add(arc[0], arc[1]);
+        return graph;
+    }
+
+    /**
+     * Returns a new acyclic adjacency graph with the vertices 0 to n - 1 and
+     * the given arcs oriented from the smaller label to the greater one.
+     * Loops are dropped.
+     *
+     * @param n    an int, the number of vertices
+     * @param arcs an array of {tail, head} pairs
+     * @return     a new acyclic adjacency graph
+     */
+    static AdjacencyGraph dag(int n, int[][] arcs) {
+        AdjacencyGraph graph = new AdjacencyGraph();
+        for (int v = 0; v < n; v++)
+            graph.add(v);
+        for (int[] arc: arcs) {
+            if (arc[0] != arc[1])
+                graph.add(Math.min(arc[0], arc[1]), Math.max(arc[0], arc[1]));
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,77 @@
+package dev.jraf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of batched reachability queries: the same sources are searched
+ * one at a time in a reused workspace, and together by the multi-source
+ * search, with the scalar bitset kernels and, in a JVM that adds the vector
+ * module, with the vector ones. All report the total number of reached
+ * vertices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultiSourceSearchBenchmark {
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    @Param({"64", "512"})
+    public int sources;
+
+    private Graph graph;
+    private List<Vertex> batch;
+    private TraversalWorkspace workspace;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = CompactGraph.of(Fixtures.graph(size,
+                    Fixtures.arcs(size, Fixtures.Distribution.POWER_LAW)));
+        batch = new ArrayList<>(sources);
+        for (int i = 0; i < sources; i++)
+            batch.add(Vertex.of((int) ((long) i * 7919 % size)));
+        workspace = new TraversalWorkspace();
+    }
+
+    @Benchmark
+    public long separateSearches() {
+        long reached = 0;
+        for (Vertex source: batch)
+            reached += graph.breadthFirstSearch(source, workspace);
+        return reached;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+    public long multiSourceSearchVector() {
+        return multiSourceSearch();
+    }
+
+    @Benchmark
+    public long multiSourceSearch() {
+        MultiSourceSearch search = MultiSourceSearch.reachability(graph,
+                batch);
+        long reached = 0;
+        for (int s = 0; s < sources; s++)
+            reached += search.reachedCount(s);
+        return reached;
+    }
+}
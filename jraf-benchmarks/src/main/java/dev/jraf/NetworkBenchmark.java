@@ -0,0 +1,60 @@
+package dev.jraf;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the residual network computation. The network is made of the
+ * random arcs oriented from the smaller to the greater label, between the
+ * source 0 and the sink size - 1, and the flow uses half of every capacity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NetworkBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    @Param({"UNIFORM", "POWER_LAW"})
+    public Fixtures.Distribution distribution;
+
+    private Network network;
+    private EdgeToNaturalFunction flow;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Vertex source = Vertex.of(0);
+        Vertex sink = Vertex.of(size - 1);
+        network = Network.newAdjacency(source, sink);
+        flow = new EdgeToNaturalFunction();
+        for (int[] arc: Fixtures.arcs(size, distribution)) {
+            int tail = Math.min(arc[0], arc[1]);
+            int head = Math.max(arc[0], arc[1]);
+            if (tail == head)
+                continue;
+            int capacity = 2 + (tail + head) % 10;
+            network.add(Vertex.of(tail), Vertex.of(head), capacity);
+            flow.add(Vertex.of(tail), Vertex.of(head), capacity / 2);
+        }
+    }
+
+    @Benchmark
+    public Network residual() {
+        return network.residual(flow);
+    }
+}
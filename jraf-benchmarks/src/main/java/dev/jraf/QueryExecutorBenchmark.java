@@ -0,0 +1,92 @@
+package dev.jraf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of a batch of reachability queries run by a query executor on
+ * pools of increasing parallelism, to measure how the throughput scales with
+ * the number of cores. The batch is also run in a single workspace on the
+ * calling thread, as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryExecutorBenchmark {
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"10000"})
+    public int queries;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private CompactGraph graph;
+    private List<Edge> pairs;
+    private ForkJoinPool pool;
+    private QueryExecutor executor;
+    private TraversalWorkspace workspace;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = CompactGraph.of(Fixtures.graph(size,
+                    Fixtures.arcs(size, Fixtures.Distribution.UNIFORM)));
+        pairs = new ArrayList<>(queries);
+        for (int i = 0; i < queries; i++) {
+            pairs.add(Edge.of((int) ((long) i * 7919 % size),
+                        (int) ((long) i * 104729 % size)));
+        }
+        pool = new ForkJoinPool(threads);
+        executor = QueryExecutor.of(graph, pool);
+        workspace = new TraversalWorkspace();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int sequential() {
+        CompactGraph backward = graph.transposed();
+        int reachable = 0;
+        for (Edge pair: pairs) {
+            int src = graph.idOf(pair.tail().label());
+            int dst = graph.idOf(pair.head().label());
+            if (graph.shortestPath(src, dst, backward, workspace) != null)
+                reachable++;
+        }
+        return reachable;
+    }
+
+    @Benchmark
+    public int batched() {
+        int reachable = 0;
+        for (CompletableFuture<Boolean> answer: executor.reachability(pairs)) {
+            if (answer.join())
+                reachable++;
+        }
+        return reachable;
+    }
+}
@@ -4,14 +4,7 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.Stack;
 import java.util.NoSuchElementException;
-import java.util.Set;
-import java.util.HashSet;
-import java.util.Stack;
-import java.util.Queue;
-import java.util.ArrayDeque;
-import java.util.Optional;
 
 /**
  * An implementation of the graph interface that uses an adjacency list.
@@ -23,12 +16,85 @@ public class AdjacencyGraph implements Graph {
 
     private static final String NULL_VERTEX_ERR = "vertex must be non-null";
     private final Map<Vertex, List<Vertex>> adjacencyMap;
+    // reverse index: the tails of the arcs that end at each vertex
+    private final Map<Vertex, List<Vertex>> predecessorMap;
+    private TraversalListener listener = TraversalListener.none();
+    // compact copies searched by the traversals, null when outdated
+    private CompactGraph snapshot;
+    private CompactGraph transposed;
+    // the number of changes of the vertices and arcs
+    private long version;
 
     /**
      * Class constructor that creates a new empty graph.
      */
     AdjacencyGraph() {
         adjacencyMap = new HashMap<>();
+        predecessorMap = new HashMap<>();
+    }
+
+    private AdjacencyGraph(int expected) {
+        adjacencyMap = new HashMap<>(expected * 4 / 3 + 1);
+        predecessorMap = new HashMap<>(expected * 4 / 3 + 1);
+    }
+
+    /**
+     * Creates a new graph with the vertices and arcs of the given compact
+     * graph. The arcs of the compact graph must be distinct, so that they are
+     * added without checking the neighbors already present.
+     *
+     * @param graph a non-null compact graph without parallel arcs
+     * @return      a new graph with the same vertices and arcs
+     */
+    static AdjacencyGraph of(CompactGraph graph) {
+        GraphMutationEvent event = new GraphMutationEvent();
+        event.begin();
+        int n = graph.size();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        CompactGraph transpose = graph.transpose();
+        int[] tOffsets = transpose.offsets();
+        int[] tTargets = transpose.targets();
+        Vertex[] vertices = new Vertex[n];
+        for (int u = 0; u < n; u++)
+            vertices[u] = Vertex.of(graph.labelOf(u));
+        AdjacencyGraph copy = new AdjacencyGraph(n);
+        for (int u = 0; u < n; u++) {
+            List<Vertex> neigh = new ArrayList<>(offsets[u + 1] - offsets[u]);
+            for (int i = offsets[u]; i < offsets[u + 1]; i++)
+                neigh.add(vertices[targets[i]]);
+            copy.adjacencyMap.put(vertices[u], neigh);
+            List<Vertex> pred = new ArrayList<>(tOffsets[u + 1] - tOffsets[u]);
+            for (int i = tOffsets[u]; i < tOffsets[u + 1]; i++)
+                pred.add(vertices[tTargets[i]]);
+            copy.predecessorMap.put(vertices[u], pred);
+        }
+        copy.snapshot = graph;
+        copy.transposed = transpose;
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = "bulk load";
+            event.graphSize = n;
+            event.arcs = targets.length;
+            event.commit();
+        }
+        return copy;
+    }
+
+    /**
+     * Sets the listener notified of the runs of the breadth-first search, of
+     * the shortest path search and of the acyclicity check of this graph. The
+     * searches have the phase "search" and the check the phase "sort", all
+     * preceded by the phase "snapshot" when the graph changed since the last
+     * run.
+     *
+     * @param listener a non-null listener, TraversalListener.none() to stop
+     *                 listening
+     */
+    public void setTraversalListener(TraversalListener listener) {
+        if (listener == null)
+            throw new NullPointerException("listener must be non-null");
+        this.listener = listener;
     }
 
     /**
@@ -37,7 +103,10 @@ public class AdjacencyGraph implements Graph {
     @Override public void add(Vertex vertex) {
         if (vertex == null)
             throw new NullPointerException(NULL_VERTEX_ERR);
-        adjacencyMap.putIfAbsent(vertex, new ArrayList<>());
+        if (adjacencyMap.putIfAbsent(vertex, new ArrayList<>()) == null) {
+            predecessorMap.put(vertex, new ArrayList<>());
+            dropSnapshots();
+        }
     }
 
     /**
@@ -53,11 +122,14 @@ public class AdjacencyGraph implements Graph {
     @Override public void add(Vertex tail, Vertex head) {
         if (tail == null || head == null)
             throw new NullPointerException("vertices must be non-null");
-        adjacencyMap.putIfAbsent(tail, new ArrayList<>());
-        adjacencyMap.putIfAbsent(head, new ArrayList<>());
+        add(tail);
+        add(head);
         List<Vertex> neigh = adjacencyMap.get(tail);
-        if (!neigh.contains(head))
+        if (!neigh.contains(head)) {
             neigh.add(head);
+            predecessorMap.get(head).add(tail);
+            dropSnapshots();
+        }
     }
 
     /**
@@ -80,6 +152,22 @@ public class AdjacencyGraph implements Graph {
         return copy;
     }
 
+    /**
+     * {@inheritDoc}
+     * The predecessors are read from a reverse index, updated with the arcs.
+     *
+     * @param vertex a non-null, present vertex
+     * @return       a list of vertices, the predecessors of the given vertex
+     *               in this graph
+     */
+    @Override public List<Vertex> predecessorsOf(Vertex vertex) {
+        if (vertex == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        if (!predecessorMap.containsKey(vertex))
+            throw new NoSuchElementException("no such vertex");
+        return new ArrayList<>(predecessorMap.get(vertex));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -101,115 +189,162 @@ public class AdjacencyGraph implements Graph {
         if (!vertices.contains(head))
             throw new IllegalArgumentException("vertices must be present");
         List<Vertex> assoc = adjacencyMap.get(tail);
-        assoc.remove(head);
+        if (assoc.remove(head)) {
+            predecessorMap.get(head).remove(tail);
+            dropSnapshots();
+        }
     }
 
     /**
      * {@inheritDoc}
+     * The arcs that end at the vertex are found with the reverse index, so
+     * that only the lists of its neighbors and predecessors are scanned.
+     *
+     * @param vertex a non-null present vertex, the vertex to remove
      */
-    @Override public Map<Integer, Integer> breadthFirstSearch(Vertex source) {
-        if (source == null)
-            throw new NullPointerException("vertex must be non-null");
-        if (!adjacencyMap.containsKey(source))
-            throw new IllegalArgumentException("vertex must be present");
-        Map<Integer, Integer> parents = new HashMap<>();
-        parents.put(source.label(), source.label());
-        Queue<Vertex> visit = new ArrayDeque<>();
-        Set<Vertex> visited = new HashSet<>();
-        visit.add(source);
-        Vertex current = null;
-        while (!visit.isEmpty()) {
-            current = visit.remove();
-            visited.add(current);
-            for (Vertex neighbor: neighborsOf(current)) {
-                if (!visited.contains(neighbor) && !visit.contains(neighbor)) {
-                    parents.put(neighbor.label(), current.label());
-                    visit.add(neighbor);
-                }
-            }
+    @Override public void remove(Vertex vertex) {
+        if (vertex == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        List<Vertex> neigh = adjacencyMap.remove(vertex);
+        if (neigh == null)
+            throw new NoSuchElementException("no such vertex");
+        List<Vertex> pred = predecessorMap.remove(vertex);
+        for (Vertex head: neigh) {
+            if (!head.equals(vertex))
+                predecessorMap.get(head).remove(vertex);
         }
-        return parents;
+        for (Vertex tail: pred) {
+            if (!tail.equals(vertex))
+                adjacencyMap.get(tail).remove(vertex);
+        }
+        dropSnapshots();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public long version() {
+        return version;
     }
 
     /*
-     * Dives from src into this graph, adds to visited the vertices visited
-     * during the dive, adds the untaken arcs in the untaken set and returns a
-     * parent map, such that u -> v means that v is the parent of u in the dive.
-     * src is the only vertex that has itself as a parent. If the graph contains
-     * a vertex that loops on itself, returns the empty optional.
-     */
-    private Optional<Map<Integer, Integer>> diveAndUpdate(Vertex src,
-            Set<Vertex> visited, Set<Edge> untaken) {
-        Map<Integer, Integer> parents = new HashMap<>();
-        parents.put(src.label(), src.label());
-        Stack<Vertex> stack = new Stack<>();
-        stack.add(src);
-        Vertex current = null;
-        while (!stack.isEmpty()) {
-            current = stack.pop();
-            visited.add(current);
-            for (Vertex neighbor: neighborsOf(current)) {
-                if (neighbor.equals(current)) // self-loop
-                    return Optional.empty();
-                if (visited.contains(neighbor))
-                    untaken.add(Edge.of(current.label(), neighbor.label()));
-                else {
-                    stack.push(neighbor);
-                    parents.put(neighbor.label(), current.label());
-                }
-            }
+     * Returns the compact copy of this graph, and copies the graph again in
+     * the phase "snapshot" if it changed since the last copy.
+     */
+    private CompactGraph snapshot(TraversalRecorder recorder) {
+        if (snapshot == null) {
+            long start = recorder.clock();
+            snapshot = CompactGraph.of(this);
+            recorder.phase("snapshot", start);
         }
-        return Optional.of(parents);
+        return snapshot;
     }
 
     /*
-     * Returns true if tail is a descendant of head in the parents map. parents
-     * is of the same form than returned in diveAndUpdate.
-     */
-    private static boolean isTailDescendantOfHead(Vertex tail, Vertex head,
-            Map<Integer, Integer> parents) {
-        int cur = tail.label();
-        int parent = parents.get(cur);
-        while (parent != head.label() && parent != cur) {
-            cur = parent;
-            parent = parents.get(cur);
+     * Returns the transpose of the compact copy of this graph, and makes it
+     * in the phase "snapshot" if the graph changed since the last one.
+     */
+    private CompactGraph transposed(TraversalRecorder recorder) {
+        CompactGraph graph = snapshot(recorder);
+        if (transposed == null) {
+            long start = recorder.clock();
+            transposed = graph.transpose();
+            recorder.phase("snapshot", start);
+        }
+        return transposed;
+    }
+
+    /* Counts a change of this graph and drops its compact copies. */
+    private void dropSnapshots() {
+        version++;
+        snapshot = null;
+        transposed = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public Map<Integer, Integer> breadthFirstSearch(Vertex source) {
+        if (source == null)
+            throw new NullPointerException("vertex must be non-null");
+        try (TraversalWorkspace workspace = TraversalWorkspace.borrow()) {
+            breadthFirstSearch(source, workspace);
+            return workspace.parents();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The search runs on a compact copy of this graph, which is only made
+     * again when the graph changed since the last traversal.
+     *
+     * @param source    a non-null present vertex
+     * @param workspace a non-null workspace
+     * @return          an int, the number of vertices reached from the source
+     */
+    @Override public int breadthFirstSearch(Vertex source,
+            TraversalWorkspace workspace) {
+        if (source == null)
+            throw new NullPointerException("vertex must be non-null");
+        if (workspace == null)
+            throw new NullPointerException("workspace must be non-null");
+        if (!adjacencyMap.containsKey(source))
+            throw new IllegalArgumentException("vertex must be present");
+        TraversalRecorder recorder = TraversalRecorder.start(listener,
+                TraversalSummary.Algorithm.BREADTH_FIRST_SEARCH);
+        recorder.graphSize(adjacencyMap.size());
+        recorder.source(source.label());
+        CompactGraph graph = snapshot(recorder);
+        long start = recorder.clock();
+        graph.search(graph.idOf(source.label()), workspace);
+        recorder.phase("search", start);
+        recorder.complete(workspace.reached, workspace.scanned,
+                workspace.peak);
+        return workspace.reached;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> shortestPath(Vertex from, Vertex to) {
+        if (from == null || to == null)
+            throw new NullPointerException("vertices must be non-null");
+        if (!adjacencyMap.containsKey(from) || !adjacencyMap.containsKey(to))
+            throw new IllegalArgumentException("vertices must be present");
+        TraversalRecorder recorder = TraversalRecorder.start(listener,
+                TraversalSummary.Algorithm.SHORTEST_PATH);
+        recorder.graphSize(adjacencyMap.size());
+        recorder.source(from.label());
+        CompactGraph backward = transposed(recorder);
+        CompactGraph graph = snapshot;
+        int[] path;
+        try (TraversalWorkspace workspace = TraversalWorkspace.borrow()) {
+            long start = recorder.clock();
+            path = graph.shortestPath(graph.idOf(from.label()),
+                    graph.idOf(to.label()), backward, workspace);
+            recorder.phase("search", start);
+            recorder.complete(workspace.reached, workspace.scanned,
+                    workspace.peak);
         }
-        if (parent == head.label())
-            return true;
-        return false;
+        return graph.verticesOf(path);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override public boolean isAcyclic() {
-        if (adjacencyMap.isEmpty())
-            return true;
-        Set<Vertex> vertices = Set.copyOf(vertices());
-        Set<Vertex> visited = new HashSet<>();
-        while (!visited.containsAll(vertices)) {
-            Set<Vertex> rem = new HashSet<>();
-            for (Vertex vertex: vertices()) {
-                if (!visited.contains(vertex))
-                    rem.add(vertex);
-            }
-            if (rem.size() == 0)
-                throw new IllegalStateException("remaining vertices set should "
-                        + "not be empty");
-            // safe because rem contains Vertex type elements and has size != 0
-            Vertex source = (Vertex) rem.toArray()[0];
-            Set<Edge> untaken = new HashSet<>();
-            Optional<Map<Integer, Integer>> opt = diveAndUpdate(source, visited,
-                    untaken);
-            if (opt.isEmpty())
-                return false;
-            Map<Integer, Integer> parents = opt.get();
-            for (Edge edge: untaken) {
-                if (AdjacencyGraph.isTailDescendantOfHead(edge.tail(),
-                                edge.head(), parents))
-                    return false;
-            }
+        TraversalRecorder recorder = TraversalRecorder.start(listener,
+                TraversalSummary.Algorithm.ACYCLICITY_CHECK);
+        recorder.graphSize(adjacencyMap.size());
+        CompactGraph graph = snapshot(recorder);
+        boolean acyclic;
+        try (TraversalWorkspace workspace = TraversalWorkspace.borrow()) {
+            long start = recorder.clock();
+            acyclic = graph.isAcyclic(workspace);
+            recorder.phase("sort", start);
+            recorder.complete(workspace.reached, workspace.scanned,
+                    workspace.peak);
         }
-        return true;
+        return acyclic;
     }
 }
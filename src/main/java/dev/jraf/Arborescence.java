@@ -0,0 +1,259 @@
+package dev.jraf;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The minimum arborescence of a weighted graph rooted at a vertex, that is
+ * the tree of least total weight whose arcs lead from the root to every
+ * vertex reachable from it, found with the Chu–Liu/Edmonds algorithm in
+ * Tarjan's O(m log n) version. Every vertex keeps a leftist heap of its
+ * incoming arcs, in which the weights are lowered lazily when the vertex is
+ * contracted with a cycle, and the contractions are recorded in a union-find
+ * without path compression so that they can be undone to expand the cycles.
+ *
+ * @see WeightedGraph#minimumArborescence(Vertex)
+ */
+final class Arborescence {
+
+    private static final int NONE = -1;
+    private final int[] tails;
+    private final int[] heads;
+    // the leftist heaps of arcs: key, pending addition to the keys of the
+    // subtree, children and length of the rightmost path, by arc
+    private final long[] key;
+    private final long[] lazy;
+    private final int[] left;
+    private final int[] right;
+    private final int[] rank;
+    // the union-find of the contracted vertices, with the history of its
+    // writes as pairs of id and previous value
+    private final int[] link;
+    private final int[] history;
+    private int time;
+
+    private Arborescence(int n, int[] tails, int[] heads, long[] key) {
+        int m = tails.length;
+        this.tails = tails;
+        this.heads = heads;
+        this.key = key;
+        lazy = new long[m];
+        left = new int[m];
+        right = new int[m];
+        rank = new int[m];
+        Arrays.fill(left, NONE);
+        Arrays.fill(right, NONE);
+        link = new int[n];
+        Arrays.fill(link, NONE);
+        history = new int[4 * n];
+    }
+
+    /**
+     * Returns the minimum arborescence of the given graph, whose arcs have the
+     * given weights, rooted at the vertex of id root. It spans the vertices
+     * reachable from the root.
+     *
+     * @param graph   a non-null compact graph
+     * @param weights the weights of the arcs of graph, by index
+     * @param root    an int, the id of the root
+     * @return        the minimum arborescence, as a tree of labels
+     */
+    static Tree of(CompactGraph graph, int[] weights, int root) {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        // number the reachable vertices in breadth-first order from 0, the
+        // root, and keep the arcs between them that are not loops
+        int[] order = new int[graph.size()];
+        Arrays.fill(order, NONE);
+        int[] queue = new int[graph.size()];
+        int n = 0;
+        int arcs = 0;
+        order[root] = n;
+        queue[n++] = root;
+        for (int first = 0; first < n; first++) {
+            int u = queue[first];
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = targets[i];
+                if (order[v] == NONE) {
+                    order[v] = n;
+                    queue[n++] = v;
+                }
+                if (v != u)
+                    arcs++;
+            }
+        }
+        int[] tails = new int[arcs];
+        int[] heads = new int[arcs];
+        long[] key = new long[arcs];
+        int e = 0;
+        for (int k = 0; k < n; k++) {
+            int u = queue[k];
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                if (targets[i] != u) {
+                    tails[e] = k;
+                    heads[e] = order[targets[i]];
+                    key[e++] = weights[i];
+                }
+            }
+        }
+        int[] in = new Arborescence(n, tails, heads, key).solve();
+        Map<Integer, Integer> parents = new HashMap<>();
+        parents.put(graph.labelOf(root), graph.labelOf(root));
+        for (int v = 1; v < n; v++) {
+            parents.put(graph.labelOf(queue[v]),
+                    graph.labelOf(queue[tails[in[v]]]));
+        }
+        return Tree.of(parents);
+    }
+
+    /*
+     * Returns the arc chosen to enter every vertex but the root 0. From each
+     * vertex not yet attached, follows the lightest arcs entering the current
+     * contracted vertex backwards, charging their weight to the other arcs
+     * that enter it, until the path reaches an attached vertex or closes a
+     * cycle, which is contracted into one vertex whose heap is the union of
+     * the heaps of the cycle.
+     */
+    private int[] solve() {
+        int n = link.length;
+        int[] heap = new int[n];
+        Arrays.fill(heap, NONE);
+        for (int e = 0; e < tails.length; e++)
+            heap[heads[e]] = merge(heap[heads[e]], e);
+        int[] seen = new int[n];
+        Arrays.fill(seen, NONE);
+        seen[0] = 0;
+        int[] path = new int[n];
+        int[] arcsOnPath = new int[n];
+        int[] in = new int[n];
+        Arrays.fill(in, NONE);
+        Deque<int[]> cycles = new ArrayDeque<>();
+        for (int s = 1; s < n; s++) {
+            int u = s;
+            int length = 0;
+            while (seen[u] == NONE) {
+                int e = heap[u];
+                prop(e);
+                lazy[e] -= key[e];
+                prop(e);
+                heap[u] = merge(left[e], right[e]);
+                arcsOnPath[length] = e;
+                path[length++] = u;
+                seen[u] = s;
+                u = find(tails[e]);
+                if (seen[u] == s) {
+                    int end = length;
+                    int before = time;
+                    int cycle = NONE;
+                    int w;
+                    do {
+                        w = path[--length];
+                        cycle = merge(cycle, heap[w]);
+                    } while (union(u, w));
+                    u = find(u);
+                    heap[u] = cycle;
+                    seen[u] = NONE;
+                    int[] record = new int[end - length + 2];
+                    record[0] = u;
+                    record[1] = before;
+                    System.arraycopy(arcsOnPath, length, record, 2,
+                            end - length);
+                    cycles.push(record);
+                }
+            }
+            for (int k = 0; k < length; k++)
+                in[find(heads[arcsOnPath[k]])] = arcsOnPath[k];
+        }
+        // expand the cycles, the last contracted first: the arcs of a cycle
+        // enter its vertices but the one entered from outside the cycle
+        for (int[] record: cycles) {
+            int entering = in[record[0]];
+            rollback(record[1]);
+            for (int k = 2; k < record.length; k++)
+                in[find(heads[record[k]])] = record[k];
+            in[find(heads[entering])] = entering;
+        }
+        return in;
+    }
+
+    /* Applies the pending addition of arc e to its key and its children. */
+    private void prop(int e) {
+        key[e] += lazy[e];
+        if (left[e] != NONE)
+            lazy[left[e]] += lazy[e];
+        if (right[e] != NONE)
+            lazy[right[e]] += lazy[e];
+        lazy[e] = 0;
+    }
+
+    /*
+     * Merges the heaps of roots a and b and returns the root of the result.
+     * The recursion follows the rightmost paths, of logarithmic length.
+     */
+    private int merge(int a, int b) {
+        if (a == NONE)
+            return b;
+        if (b == NONE)
+            return a;
+        prop(a);
+        prop(b);
+        if (key[a] > key[b]) {
+            int tmp = a;
+            a = b;
+            b = tmp;
+        }
+        right[a] = merge(right[a], b);
+        if (rankOf(left[a]) < rankOf(right[a])) {
+            int tmp = left[a];
+            left[a] = right[a];
+            right[a] = tmp;
+        }
+        rank[a] = rankOf(right[a]) + 1;
+        return a;
+    }
+
+    private int rankOf(int e) {
+        return e == NONE ? 0 : rank[e];
+    }
+
+    private int find(int u) {
+        while (link[u] >= 0)
+            u = link[u];
+        return u;
+    }
+
+    /*
+     * Joins the sets of u and v, the smaller below the larger, and returns
+     * false if they were the same set. The size of a set is stored negated in
+     * its root.
+     */
+    private boolean union(int u, int v) {
+        u = find(u);
+        v = find(v);
+        if (u == v)
+            return false;
+        if (link[u] > link[v]) {
+            int tmp = u;
+            u = v;
+            v = tmp;
+        }
+        history[time++] = u;
+        history[time++] = link[u];
+        history[time++] = v;
+        history[time++] = link[v];
+        link[u] += link[v];
+        link[v] = u;
+        return true;
+    }
+
+    /* Undoes the unions made since the given time. */
+    private void rollback(int before) {
+        while (time > before) {
+            time -= 2;
+            link[history[time]] = history[time + 1];
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package dev.jraf;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * A maximum matching of a bipartite graph, with a minimum vertex cover that
+ * certifies its maximality. The graph is made of a left set of vertices, a
+ * disjoint right set of vertices, and edges that go from the left set to the
+ * right set. A matching is a set of edges that share no vertex, and a vertex
+ * cover is a set of vertices that contains an end of every edge. By König's
+ * theorem, the minimum vertex cover has as many vertices as the maximum
+ * matching has edges.
+ *
+ * The matching is computed with the Hopcroft-Karp algorithm on the adjacency
+ * arrays of the left vertices, in O(E sqrt(V)) time: each phase finds a
+ * maximal set of vertex-disjoint shortest augmenting paths, and there are
+ * O(sqrt(V)) phases.
+ *
+ * @see Network
+ */
+public final class BipartiteMatching {
+
+    private static final int FREE = -1;
+    private static final int UNREACHED = Integer.MAX_VALUE;
+    private final int[] leftLabels;
+    private final int[] rightLabels;
+    private final LabelIndex leftIndex;
+    private final LabelIndex rightIndex;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] leftMate;
+    private final int[] rightMate;
+    private int size;
+
+    private BipartiteMatching(int[] leftLabels, int[] rightLabels,
+            LabelIndex leftIndex, LabelIndex rightIndex, int[] offsets,
+            int[] targets) {
+        this.leftLabels = leftLabels;
+        this.rightLabels = rightLabels;
+        this.leftIndex = leftIndex;
+        this.rightIndex = rightIndex;
+        this.offsets = offsets;
+        this.targets = targets;
+        leftMate = new int[leftLabels.length];
+        rightMate = new int[rightLabels.length];
+        Arrays.fill(leftMate, FREE);
+        Arrays.fill(rightMate, FREE);
+        match();
+    }
+
+    /**
+     * Computes a maximum matching of the bipartite graph made of the given
+     * sets of vertices and edges. The sets must be disjoint, and every edge
+     * must go from a vertex of the left set to a vertex of the right set.
+     * Duplicated vertices and edges are ignored.
+     *
+     * @param left  a non-null collection of non-null vertices
+     * @param right a non-null collection of non-null vertices, disjoint from
+     *              left
+     * @param edges a non-null collection of non-null edges from left to right
+     * @return      a maximum matching of the bipartite graph
+     */
+    public static BipartiteMatching of(Collection<Vertex> left,
+            Collection<Vertex> right, Collection<Edge> edges) {
+        if (left == null || right == null)
+            throw new NullPointerException("vertices must be non-null");
+        if (edges == null)
+            throw new NullPointerException("edges must be non-null");
+        LabelIndex leftIndex = index(left);
+        LabelIndex rightIndex = index(right);
+        int[] leftLabels = leftIndex.labels();
+        int[] rightLabels = rightIndex.labels();
+        for (int label: rightLabels) {
+            if (leftIndex.idOf(label) >= 0)
+                throw new IllegalArgumentException("sides must be disjoint");
+        }
+        int[] tails = new int[edges.size()];
+        int[] heads = new int[edges.size()];
+        int m = 0;
+        for (Edge edge: edges) {
+            if (edge == null)
+                throw new NullPointerException("edges must be non-null");
+            tails[m] = leftIndex.idOf(edge.tail().label());
+            heads[m] = rightIndex.idOf(edge.head().label());
+            if (tails[m] < 0 || heads[m] < 0) {
+                throw new IllegalArgumentException("edge must go from left "
+                        + "to right");
+            }
+            m++;
+        }
+        return fromArcs(leftLabels, rightLabels, leftIndex, rightIndex,
+                tails, heads);
+    }
+
+    /**
+     * Computes a maximum matching of the bipartite graph modelled by the given
+     * unit capacity network. The left vertices are the heads of the edges that
+     * start at the source, and the right vertices are the tails of the edges
+     * that end at the sink. Every other edge must go from a left vertex to a
+     * right vertex, and every edge must have a capacity of 1. The matching has
+     * the same size as the value of a maximum flow of the network.
+     *
+     * @param network a non-null network with unit capacities
+     * @return        a maximum matching of the modelled bipartite graph
+     */
+    public static BipartiteMatching of(Network network) {
+        if (network == null)
+            throw new NullPointerException("network must be non-null");
+        CompactGraph graph = CompactGraph.of(network);
+        int source = graph.idOf(network.source().label());
+        int sink = graph.idOf(network.sink().label());
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        LabelIndex leftIndex = new LabelIndex(graph.size());
+        LabelIndex rightIndex = new LabelIndex(graph.size());
+        for (int i = offsets[source]; i < offsets[source + 1]; i++)
+            leftIndex.add(graph.labelOf(targets[i]));
+        for (int u = 0; u < graph.size(); u++) {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                if (targets[i] == sink)
+                    rightIndex.add(graph.labelOf(u));
+                Vertex tail = Vertex.of(graph.labelOf(u));
+                Vertex head = Vertex.of(graph.labelOf(targets[i]));
+                if (network.capacity(tail, head) != 1) {
+                    throw new IllegalArgumentException("network must have "
+                            + "unit capacities");
+                }
+            }
+        }
+        int[] leftLabels = leftIndex.labels();
+        for (int label: leftLabels) {
+            if (label == network.sink().label()
+                    || rightIndex.idOf(label) >= 0) {
+                throw new IllegalArgumentException("network must be "
+                        + "bipartite");
+            }
+        }
+        int[] tails = new int[graph.arcCount()];
+        int[] heads = new int[graph.arcCount()];
+        int m = 0;
+        for (int u = 0; u < graph.size(); u++) {
+            if (u == source)
+                continue;
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                if (targets[i] == sink)
+                    continue;
+                tails[m] = leftIndex.idOf(graph.labelOf(u));
+                heads[m] = rightIndex.idOf(graph.labelOf(targets[i]));
+                if (tails[m] < 0 || heads[m] < 0) {
+                    throw new IllegalArgumentException("network must be "
+                            + "bipartite");
+                }
+                m++;
+            }
+        }
+        return fromArcs(leftLabels, rightIndex.labels(), leftIndex,
+                rightIndex, Arrays.copyOf(tails, m), Arrays.copyOf(heads, m));
+    }
+
+    private static LabelIndex index(Collection<Vertex> vertices) {
+        LabelIndex index = new LabelIndex(vertices.size());
+        for (Vertex vertex: vertices) {
+            if (vertex == null)
+                throw new NullPointerException("vertices must be non-null");
+            index.add(vertex.label());
+        }
+        return index;
+    }
+
+    private static BipartiteMatching fromArcs(int[] leftLabels,
+            int[] rightLabels, LabelIndex leftIndex, LabelIndex rightIndex,
+            int[] tails, int[] heads) {
+        int n = leftLabels.length;
+        int[] offsets = new int[n + 1];
+        for (int tail: tails)
+            offsets[tail + 1]++;
+        for (int u = 0; u < n; u++)
+            offsets[u + 1] += offsets[u];
+        int[] fill = Arrays.copyOf(offsets, n);
+        int[] targets = new int[tails.length];
+        for (int i = 0; i < tails.length; i++)
+            targets[fill[tails[i]]++] = heads[i];
+        return new BipartiteMatching(leftLabels, rightLabels, leftIndex,
+                rightIndex, offsets, targets);
+    }
+
+    /*
+     * Hopcroft-Karp phases: a BFS from the free left vertices layers the left
+     * vertices by the length of the shortest alternating path that reaches
+     * them, and an iterative DFS then augments along vertex-disjoint shortest
+     * paths that follow the layers.
+     */
+    private void match() {
+        int n = leftLabels.length;
+        int[] layer = new int[n];
+        int[] queue = new int[n];
+        int[] next = new int[n];
+        int[] stack = new int[n];
+        int[] chosen = new int[n];
+        while (layer(layer, queue)) {
+            for (int u = 0; u < n; u++)
+                next[u] = offsets[u];
+            for (int root = 0; root < n; root++) {
+                if (leftMate[root] != FREE || layer[root] != 0)
+                    continue;
+                int top = 0;
+                stack[top++] = root;
+                while (top > 0) {
+                    int x = stack[top - 1];
+                    if (next[x] == offsets[x + 1]) {
+                        layer[x] = UNREACHED;
+                        top--;
+                        continue;
+                    }
+                    int y = targets[next[x]++];
+                    int mate = rightMate[y];
+                    if (mate == FREE) {
+                        chosen[x] = y;
+                        for (int i = top - 1; i >= 0; i--) {
+                            int u = stack[i];
+                            leftMate[u] = chosen[u];
+                            rightMate[chosen[u]] = u;
+                        }
+                        size++;
+                        break;
+                    }
+                    if (layer[mate] == layer[x] + 1) {
+                        chosen[x] = y;
+                        stack[top++] = mate;
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * Fills the layers and returns true if some augmenting path exists. The
+     * search stops at the first layer that reaches a free right vertex.
+     */
+    private boolean layer(int[] layer, int[] queue) {
+        int n = leftLabels.length;
+        int last = 0;
+        for (int u = 0; u < n; u++) {
+            if (leftMate[u] == FREE) {
+                layer[u] = 0;
+                queue[last++] = u;
+            } else {
+                layer[u] = UNREACHED;
+            }
+        }
+        int limit = UNREACHED;
+        for (int first = 0; first < last; first++) {
+            int u = queue[first];
+            if (layer[u] >= limit)
+                break;
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int mate = rightMate[targets[i]];
+                if (mate == FREE) {
+                    limit = layer[u] + 1;
+                } else if (layer[mate] == UNREACHED) {
+                    layer[mate] = layer[u] + 1;
+                    queue[last++] = mate;
+                }
+            }
+        }
+        return limit != UNREACHED;
+    }
+
+    /**
+     * Returns the number of edges of this matching.
+     *
+     * @return an int, the size of this matching
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the edges of this matching, from their left vertex to their
+     * right vertex.
+     *
+     * @return a list of edges, the edges of this matching
+     */
+    public List<Edge> edges() {
+        List<Edge> edges = new ArrayList<>(size);
+        for (int u = 0; u < leftLabels.length; u++) {
+            if (leftMate[u] != FREE)
+                edges.add(Edge.of(leftLabels[u], rightLabels[leftMate[u]]));
+        }
+        return edges;
+    }
+
+    /**
+     * Returns the vertex matched with the given vertex, or the empty optional
+     * if it is not matched. The vertex must be non-null and belong to one of
+     * the sides.
+     *
+     * @param vertex a non-null vertex of the left or right side
+     * @return       the vertex matched with the given vertex, if any
+     */
+    public Optional<Vertex> mateOf(Vertex vertex) {
+        if (vertex == null)
+            throw new NullPointerException("vertex must be non-null");
+        int id = leftIndex.idOf(vertex.label());
+        if (id >= 0) {
+            return leftMate[id] == FREE ? Optional.empty()
+                : Optional.of(Vertex.of(rightLabels[leftMate[id]]));
+        }
+        id = rightIndex.idOf(vertex.label());
+        if (id < 0)
+            throw new NoSuchElementException("no such vertex");
+        return rightMate[id] == FREE ? Optional.empty()
+            : Optional.of(Vertex.of(leftLabels[rightMate[id]]));
+    }
+
+    /**
+     * Returns a minimum vertex cover of the bipartite graph, built from this
+     * matching with König's construction: the vertices reachable from the
+     * free left vertices by alternating paths are marked, and the cover is
+     * made of the unmarked left vertices and of the marked right vertices. It
+     * has exactly size() vertices.
+     *
+     * @return a list of vertices, a minimum vertex cover
+     */
+    public List<Vertex> minimumVertexCover() {
+        int n = leftLabels.length;
+        boolean[] leftMarked = new boolean[n];
+        boolean[] rightMarked = new boolean[rightLabels.length];
+        int[] queue = new int[n];
+        int last = 0;
+        for (int u = 0; u < n; u++) {
+            if (leftMate[u] == FREE) {
+                leftMarked[u] = true;
+                queue[last++] = u;
+            }
+        }
+        for (int first = 0; first < last; first++) {
+            int u = queue[first];
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int y = targets[i];
+                if (rightMarked[y])
+                    continue;
+                rightMarked[y] = true;
+                int mate = rightMate[y];
+                if (mate != FREE && !leftMarked[mate]) {
+                    leftMarked[mate] = true;
+                    queue[last++] = mate;
+                }
+            }
+        }
+        List<Vertex> cover = new ArrayList<>(size);
+        for (int u = 0; u < n; u++) {
+            if (!leftMarked[u])
+                cover.add(Vertex.of(leftLabels[u]));
+        }
+        for (int y = 0; y < rightLabels.length; y++) {
+            if (rightMarked[y])
+                cover.add(Vertex.of(rightLabels[y]));
+        }
+        return cover;
+    }
+}
@@ -0,0 +1,109 @@
+package dev.jraf;
+
+/**
+ * The loops over arrays of bitsets run by the bit-parallel searches, such as
+ * the union of frontiers and the level sweep of MultiSourceSearch. The
+ * kernels used by the searches are chosen once, when this class is loaded:
+ * the kernels of VectorBitKernels if the jdk.incubator.vector module is
+ * present, that is if the JVM was started with
+ * --add-modules jdk.incubator.vector, and those of ScalarBitKernels
+ * otherwise. The system property dev.jraf.vector set to false forces the
+ * scalar kernels.
+ *
+ * Both implementations give the same results; the vector one processes
+ * several longs per instruction where the JIT does not vectorise the loops
+ * by itself.
+ *
+ * @see MultiSourceSearch
+ */
+abstract class BitKernels {
+
+    private static final BitKernels SCALAR = new ScalarBitKernels();
+    private static final BitKernels VECTOR = loadVector();
+    /** The kernels used by the searches. */
+    static final BitKernels INSTANCE = VECTOR != null
+        && !"false".equals(System.getProperty("dev.jraf.vector"))
+        ? VECTOR : SCALAR;
+
+    /*
+     * Returns the vector kernels, loaded by reflection so that their classes
+     * are only resolved when the module is present, or null.
+     */
+    private static BitKernels loadVector() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+            return null;
+        try {
+            BitKernels kernels = (BitKernels) Class
+                .forName("dev.jraf.VectorBitKernels")
+                .getDeclaredConstructor().newInstance();
+            return kernels.isUseful() ? kernels : null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the scalar kernels.
+     *
+     * @return the scalar kernels
+     */
+    static BitKernels scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * Returns the vector kernels, or null if they are not available.
+     *
+     * @return the vector kernels, or null
+     */
+    static BitKernels vector() {
+        return VECTOR;
+    }
+
+    /**
+     * Returns true if these kernels are worth using on this machine.
+     *
+     * @return true if these kernels can be used
+     */
+    boolean isUseful() {
+        return true;
+    }
+
+    /**
+     * Ors the w longs of src from index from into the w longs of dst from
+     * index to.
+     *
+     * @param dst  a non-null array, the bitset to update
+     * @param to   an int, the first index of the bitset in dst
+     * @param src  a non-null array, the bitset to add
+     * @param from an int, the first index of the bitset in src
+     * @param w    a non-negative int, the number of longs of the bitsets
+     */
+    abstract void or(long[] dst, int to, long[] src, int from, int w);
+
+    /**
+     * Returns true if the w longs of the given array from index from are all
+     * zero.
+     *
+     * @param bits a non-null array of bitsets
+     * @param from an int, the first index of the bitset
+     * @param w    a non-negative int, the number of longs of the bitset
+     * @return     true if the bitset is empty
+     */
+    abstract boolean isZero(long[] bits, int from, int w);
+
+    /**
+     * Ends a level of a bit-parallel search over the first length longs of
+     * the given arrays: clears frontier, keeps in next only the bits that are
+     * not in seen, and adds them to seen. Returns true if a bit is left in
+     * next.
+     *
+     * @param frontier a non-null array, the frontier of the level
+     * @param next     a non-null array, the bits reached by the level
+     * @param seen     a non-null array, the bits reached so far
+     * @param length   a non-negative int, the number of longs to sweep
+     * @return         true if the level reached a new bit
+     */
+    abstract boolean sweep(long[] frontier, long[] next, long[] seen,
+            int length);
+}
@@ -0,0 +1,393 @@
+package dev.jraf;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A graph that remembers the results of the breadth-first searches and of the
+ * acyclicity check of another graph, so that the same queries between two
+ * changes of the graph are answered without traversing it again. Every other
+ * operation, the changes included, is delegated to the graph.
+ *
+ * The results are kept with the version of the graph they were computed at,
+ * and are all dropped as soon as the version changes, whether the graph was
+ * changed through this cached graph or directly. A graph whose version is -1
+ * does not count its changes, and its results are never kept.
+ *
+ * The searches are kept by source, up to a capacity in bytes, and the least
+ * recently used are evicted first. The size of a search is an estimate of the
+ * memory of its map, ENTRY_BYTES per reached vertex plus MAP_BYTES, and a
+ * search larger than the whole capacity is not kept. The maps returned by
+ * breadthFirstSearch(Vertex) are unmodifiable, as they are shared by the
+ * calls that hit the cache.
+ *
+ * Like the graphs of this package, a cached graph is not thread-safe: even
+ * the queries update the order of use of the cache.
+ *
+ * @see Graph#version()
+ */
+public final class CachedGraph implements Graph {
+
+    /** The estimated size of an entry of a search map, in bytes. */
+    public static final int ENTRY_BYTES = 72;
+    /** The estimated size of a search map without its entries, in bytes. */
+    public static final int MAP_BYTES = 64;
+    private final Graph graph;
+    private final long capacity;
+    // the searches by source label, from the least recently used
+    private final LinkedHashMap<Integer, Map<Integer, Integer>> searches;
+    // the version of the graph the results were computed at
+    private long version;
+    private Boolean acyclic;
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    private CachedGraph(Graph graph, long capacity) {
+        this.graph = graph;
+        this.capacity = capacity;
+        searches = new LinkedHashMap<>(16, 0.75f, true);
+        version = graph.version();
+    }
+
+    /**
+     * Creates a cached graph of the given graph, that keeps searches up to
+     * the given number of bytes.
+     *
+     * @param graph    a non-null graph
+     * @param capacity a non-negative long, the capacity of the cache in bytes
+     * @return         a new cached graph of the graph, with an empty cache
+     */
+    public static CachedGraph of(Graph graph, long capacity) {
+        if (graph == null)
+            throw new NullPointerException("graph must be non-null");
+        if (capacity < 0)
+            throw new IllegalArgumentException("capacity must be "
+                    + "non-negative");
+        return new CachedGraph(graph, capacity);
+    }
+
+    /**
+     * Returns the graph whose results this cached graph keeps.
+     *
+     * @return the graph of this cached graph
+     */
+    public Graph graph() {
+        return graph;
+    }
+
+    /**
+     * Returns the capacity of the cache, in bytes.
+     *
+     * @return a long, the capacity of the cache
+     */
+    public long capacity() {
+        return capacity;
+    }
+
+    /*
+     * Drops every result if the version of the graph changed since they were
+     * computed, and returns true if results can be kept.
+     */
+    private boolean validate() {
+        long current = graph.version();
+        if (current != version) {
+            invalidations += searches.size() + (acyclic != null ? 1 : 0);
+            searches.clear();
+            acyclic = null;
+            bytes = 0;
+            version = current;
+        }
+        return current >= 0;
+    }
+
+    /* Returns the estimated size of a search map of the given size. */
+    private static long bytesOf(int size) {
+        return MAP_BYTES + (long) ENTRY_BYTES * size;
+    }
+
+    /* Keeps the given search, after evicting enough searches to fit it. */
+    private void keep(int label, Map<Integer, Integer> search) {
+        long size = bytesOf(search.size());
+        if (size > capacity)
+            return;
+        Iterator<Map<Integer, Integer>> it = searches.values().iterator();
+        while (bytes + size > capacity) {
+            bytes -= bytesOf(it.next().size());
+            it.remove();
+            evictions++;
+        }
+        searches.put(label, search);
+        bytes += size;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The map is read from the cache if a search from the same source was
+     * kept at the current version of the graph, and is unmodifiable.
+     *
+     * @param source a non-null present vertex
+     * @return       an unmodifiable map, the parents association of the search
+     */
+    @Override public Map<Integer, Integer> breadthFirstSearch(Vertex source) {
+        if (source == null)
+            throw new NullPointerException("vertex must be non-null");
+        boolean keeping = validate();
+        Map<Integer, Integer> search = searches.get(source.label());
+        if (search != null) {
+            hits++;
+            return search;
+        }
+        misses++;
+        search = Collections.unmodifiableMap(
+                graph.breadthFirstSearch(source));
+        if (keeping)
+            keep(source.label(), search);
+        return search;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The result is read from the cache if it was computed at the current
+     * version of the graph.
+     *
+     * @return a boolean, true if this graph contains no cycle
+     */
+    @Override public boolean isAcyclic() {
+        boolean keeping = validate();
+        if (acyclic != null) {
+            hits++;
+            return acyclic;
+        }
+        misses++;
+        boolean result = graph.isAcyclic();
+        if (keeping)
+            acyclic = result;
+        return result;
+    }
+
+    /**
+     * Returns the statistics of the cache since this cached graph was
+     * created.
+     *
+     * @return the current statistics of the cache
+     */
+    public Stats stats() {
+        validate();
+        return new Stats(hits, misses, evictions, invalidations,
+                searches.size(), bytes);
+    }
+
+    /**
+     * Drops every result kept by the cache. The statistics are not reset.
+     */
+    public void clear() {
+        searches.clear();
+        acyclic = null;
+        bytes = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public long version() {
+        return graph.version();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public void add(Vertex vertex) {
+        graph.add(vertex);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public void add(int label) {
+        graph.add(label);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public void add(Vertex tail, Vertex head) {
+        graph.add(tail, head);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public void add(int tail, int head) {
+        graph.add(tail, head);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> neighborsOf(Vertex vertex) {
+        return graph.neighborsOf(vertex);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> predecessorsOf(Vertex vertex) {
+        return graph.predecessorsOf(vertex);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> vertices() {
+        return graph.vertices();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public void remove(Vertex tail, Vertex head) {
+        graph.remove(tail, head);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public void remove(Vertex vertex) {
+        graph.remove(vertex);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public int breadthFirstSearch(Vertex source,
+            TraversalWorkspace workspace) {
+        return graph.breadthFirstSearch(source, workspace);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> shortestPath(Vertex from, Vertex to) {
+        return graph.shortestPath(from, to);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public int degreeOf(Vertex vertex) {
+        return graph.degreeOf(vertex);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public Components weaklyConnectedComponents() {
+        return graph.weaklyConnectedComponents();
+    }
+
+    /**
+     * The statistics of the cache of a cached graph. This class is immutable.
+     */
+    public static final class Stats {
+
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long invalidations;
+        private final int entries;
+        private final long bytes;
+
+        Stats(long hits, long misses, long evictions, long invalidations,
+                int entries, long bytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+            this.entries = entries;
+            this.bytes = bytes;
+        }
+
+        /**
+         * Returns the number of queries answered from the cache.
+         *
+         * @return a long, the number of hits
+         */
+        public long hits() {
+            return hits;
+        }
+
+        /**
+         * Returns the number of queries answered by the graph.
+         *
+         * @return a long, the number of misses
+         */
+        public long misses() {
+            return misses;
+        }
+
+        /**
+         * Returns the number of searches dropped to make room for others.
+         *
+         * @return a long, the number of evictions
+         */
+        public long evictions() {
+            return evictions;
+        }
+
+        /**
+         * Returns the number of results dropped because the graph changed.
+         *
+         * @return a long, the number of invalidated results
+         */
+        public long invalidations() {
+            return invalidations;
+        }
+
+        /**
+         * Returns the number of searches in the cache.
+         *
+         * @return an int, the number of kept searches
+         */
+        public int entries() {
+            return entries;
+        }
+
+        /**
+         * Returns the estimated size of the searches in the cache, in bytes.
+         *
+         * @return a long, the size of the kept searches
+         */
+        public long bytes() {
+            return bytes;
+        }
+
+        /**
+         * Returns the ratio of the queries answered from the cache, or 0 if
+         * there was no query.
+         *
+         * @return a double between 0 and 1, the hit rate
+         */
+        public double hitRate() {
+            long queries = hits + misses;
+            return queries == 0 ? 0 : (double) hits / queries;
+        }
+
+        /**
+         * Returns a string representation of these statistics.
+         *
+         * @return a string that describes the statistics
+         */
+        @Override public String toString() {
+            return "Stats[hits=" + hits + ", misses=" + misses
+                + ", evictions=" + evictions + ", invalidations="
+                + invalidations + ", entries=" + entries + ", bytes=" + bytes
+                + "]";
+        }
+    }
+}
@@ -0,0 +1,574 @@
+package dev.jraf;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only graph in compressed sparse row representation. The vertices are
+ * given dense ids from 0 to size() - 1, and the heads of the arcs that start at
+ * the vertex of id u are the ids stored in targets() between offsets()[u]
+ * (inclusive) and offsets()[u + 1] (exclusive). The algorithms of this package
+ * work on this representation, and translate their results back to labels.
+ *
+ * @see Graph
+ * @see LabelIndex
+ */
+final class CompactGraph implements Graph {
+
+    private static final String NULL_VERTEX_ERR = "vertex must be non-null";
+    private static final String READ_ONLY_ERR = "graph is read-only";
+    private final int[] labels;
+    private final LabelIndex index;
+    private final int[] offsets;
+    private final int[] targets;
+    // transpose used for the predecessors, made on first use
+    private CompactGraph transposed;
+
+    private CompactGraph(int[] labels, LabelIndex index, int[] offsets,
+            int[] targets) {
+        this.labels = labels;
+        this.index = index;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * Creates a compact graph from the given arrays. The labels array
+     * associates each id to its label, and the offsets and targets arrays are
+     * in compressed sparse row form. The arrays are not copied.
+     *
+     * @param labels  a non-null array of distinct labels
+     * @param offsets a non-null array of length labels.length + 1
+     * @param targets a non-null array of ids
+     * @return        the compact graph made of the given arrays
+     */
+    static CompactGraph of(int[] labels, int[] offsets, int[] targets) {
+        LabelIndex index = new LabelIndex(labels.length);
+        for (int label: labels)
+            index.add(label);
+        return new CompactGraph(labels, index, offsets, targets);
+    }
+
+    /**
+     * Returns a compact copy of the given graph. If the graph is already a
+     * compact graph, it is returned as is.
+     *
+     * @param graph a non-null graph
+     * @return      a compact graph with the vertices and arcs of the given
+     *              graph
+     */
+    static CompactGraph of(Graph graph) {
+        if (graph == null)
+            throw new NullPointerException("graph must be non-null");
+        if (graph instanceof CompactGraph)
+            return (CompactGraph) graph;
+        List<Vertex> vertices = graph.vertices();
+        int n = vertices.size();
+        int[] labels = new int[n];
+        LabelIndex index = new LabelIndex(n);
+        for (int i = 0; i < n; i++) {
+            labels[i] = vertices.get(i).label();
+            index.add(labels[i]);
+        }
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[Math.max(16, n)];
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            List<Vertex> neighbors = graph.neighborsOf(vertices.get(i));
+            if (m + neighbors.size() > targets.length) {
+                targets = Arrays.copyOf(targets,
+                        Math.max(targets.length * 2, m + neighbors.size()));
+            }
+            for (Vertex neighbor: neighbors)
+                targets[m++] = index.idOf(neighbor.label());
+            offsets[i + 1] = m;
+        }
+        return new CompactGraph(labels, index, offsets,
+                Arrays.copyOf(targets, m));
+    }
+
+    /**
+     * Returns the number of vertices of this graph.
+     *
+     * @return an int, the number of vertices
+     */
+    int size() {
+        return labels.length;
+    }
+
+    /**
+     * Returns the number of arcs of this graph.
+     *
+     * @return an int, the number of arcs
+     */
+    int arcCount() {
+        return targets.length;
+    }
+
+    /**
+     * Returns the id of the vertex of given label, or -1 if there is none.
+     *
+     * @param label an int, the label of a vertex
+     * @return      an int, the id of the vertex or -1
+     */
+    int idOf(int label) {
+        return index.idOf(label);
+    }
+
+    /**
+     * Returns the label of the vertex of given id.
+     *
+     * @param id an int, the id of a vertex
+     * @return   an int, the label of the vertex
+     */
+    int labelOf(int id) {
+        return labels[id];
+    }
+
+    /**
+     * Returns the offsets array of this graph. The array must not be modified.
+     *
+     * @return the offsets array, of length size() + 1
+     */
+    int[] offsets() {
+        return offsets;
+    }
+
+    /**
+     * Returns the targets array of this graph. The array must not be modified.
+     *
+     * @return the targets array, of length arcCount()
+     */
+    int[] targets() {
+        return targets;
+    }
+
+    /**
+     * Returns the graph with the same vertices and ids as this graph, whose
+     * arcs are the arcs of this graph reversed.
+     *
+     * @return a compact graph, the transpose of this graph
+     */
+    CompactGraph transpose() {
+        int n = labels.length;
+        int[] tOffsets = new int[n + 1];
+        for (int target: targets)
+            tOffsets[target + 1]++;
+        for (int i = 0; i < n; i++)
+            tOffsets[i + 1] += tOffsets[i];
+        int[] fill = Arrays.copyOf(tOffsets, n);
+        int[] tTargets = new int[targets.length];
+        for (int u = 0; u < n; u++) {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++)
+                tTargets[fill[targets[i]]++] = u;
+        }
+        return new CompactGraph(labels, index, tOffsets, tTargets);
+    }
+
+    /**
+     * Returns the transpose of this graph, made on the first call only.
+     * Threads racing on the first call may each make it, but all of them see
+     * a fully built graph as its fields are final.
+     *
+     * @return a compact graph, the transpose of this graph
+     */
+    CompactGraph transposed() {
+        CompactGraph t = transposed;
+        if (t == null) {
+            t = transpose();
+            transposed = t;
+        }
+        return t;
+    }
+
+    private int requireId(Vertex vertex, String absentMessage) {
+        if (vertex == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        int id = index.idOf(vertex.label());
+        if (id < 0)
+            throw new NoSuchElementException(absentMessage);
+        return id;
+    }
+
+    /**
+     * Throws an UnsupportedOperationException as this graph is read-only.
+     *
+     * @param vertex a vertex, possibly null
+     */
+    @Override public void add(Vertex vertex) {
+        throw new UnsupportedOperationException(READ_ONLY_ERR);
+    }
+
+    /**
+     * Throws an UnsupportedOperationException as this graph is read-only.
+     *
+     * @param label an int, the label of a vertex
+     */
+    @Override public void add(int label) {
+        throw new UnsupportedOperationException(READ_ONLY_ERR);
+    }
+
+    /**
+     * Throws an UnsupportedOperationException as this graph is read-only.
+     *
+     * @param tail a vertex, possibly null
+     * @param head a vertex, possibly null
+     */
+    @Override public void add(Vertex tail, Vertex head) {
+        throw new UnsupportedOperationException(READ_ONLY_ERR);
+    }
+
+    /**
+     * Throws an UnsupportedOperationException as this graph is read-only.
+     *
+     * @param tail an int, the label of a vertex
+     * @param head an int, the label of a vertex
+     */
+    @Override public void add(int tail, int head) {
+        throw new UnsupportedOperationException(READ_ONLY_ERR);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> neighborsOf(Vertex vertex) {
+        int id = requireId(vertex, "no such vertex");
+        List<Vertex> neighbors = new ArrayList<>(offsets[id + 1] - offsets[id]);
+        for (int i = offsets[id]; i < offsets[id + 1]; i++)
+            neighbors.add(Vertex.of(labels[targets[i]]));
+        return neighbors;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The predecessors are read from the transpose of this graph, which is
+     * made on the first call.
+     *
+     * @param vertex a non-null, present vertex
+     * @return       a list of vertices, the predecessors of the given vertex
+     *               in this graph
+     */
+    @Override public List<Vertex> predecessorsOf(Vertex vertex) {
+        requireId(vertex, "no such vertex");
+        return transposed().neighborsOf(vertex);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> vertices() {
+        List<Vertex> vertices = new ArrayList<>(labels.length);
+        for (int label: labels)
+            vertices.add(Vertex.of(label));
+        return vertices;
+    }
+
+    /**
+     * Throws an UnsupportedOperationException as this graph is read-only.
+     *
+     * @param vertex a vertex, possibly null
+     */
+    @Override public void remove(Vertex vertex) {
+        throw new UnsupportedOperationException(READ_ONLY_ERR);
+    }
+
+    /**
+     * Returns 0, as this graph is read-only.
+     *
+     * @return 0, the only version of this graph
+     */
+    @Override public long version() {
+        return 0;
+    }
+
+    /**
+     * Throws an UnsupportedOperationException as this graph is read-only.
+     *
+     * @param tail a vertex, possibly null
+     * @param head a vertex, possibly null
+     */
+    @Override public void remove(Vertex tail, Vertex head) {
+        throw new UnsupportedOperationException(READ_ONLY_ERR);
+    }
+
+    /*
+     * Checks that the source is a present vertex and that the workspace is
+     * non-null, and returns the id of the source.
+     */
+    private int requireSource(Vertex source, TraversalWorkspace workspace) {
+        if (source == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        if (workspace == null)
+            throw new NullPointerException("workspace must be non-null");
+        int src = index.idOf(source.label());
+        if (src < 0)
+            throw new IllegalArgumentException("vertex must be present");
+        return src;
+    }
+
+    /**
+     * Performs a breadth-first search from the vertex of given id in the given
+     * workspace. The workspace then holds the reached ids in the order they
+     * were reached, with their parent and depth, the number of scanned arcs
+     * and the peak size of the queue. The search allocates no memory once the
+     * workspace is as large as this graph.
+     *
+     * @param src       an int, the id of the source
+     * @param workspace a non-null workspace
+     */
+    void search(int src, TraversalWorkspace workspace) {
+        workspace.start(labels.length, labels);
+        int[] parent = workspace.parent;
+        int[] depth = workspace.depth;
+        int[] queue = workspace.queue;
+        int first = 0;
+        int last = 0;
+        long scanned = 0;
+        int peak = 0;
+        workspace.visit(src);
+        parent[src] = src;
+        depth[src] = 0;
+        queue[last++] = src;
+        while (first < last) {
+            if (last - first > peak)
+                peak = last - first;
+            int u = queue[first++];
+            scanned += offsets[u + 1] - offsets[u];
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = targets[i];
+                if (workspace.visit(v)) {
+                    parent[v] = u;
+                    depth[v] = depth[u] + 1;
+                    queue[last++] = v;
+                }
+            }
+        }
+        workspace.reached = last;
+        workspace.scanned = scanned;
+        workspace.peak = peak;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public Map<Integer, Integer> breadthFirstSearch(Vertex source) {
+        if (source == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        int src = index.idOf(source.label());
+        if (src < 0)
+            throw new IllegalArgumentException("vertex must be present");
+        try (TraversalWorkspace workspace = TraversalWorkspace.borrow()) {
+            search(src, workspace);
+            return workspace.parents();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public int breadthFirstSearch(Vertex source,
+            TraversalWorkspace workspace) {
+        search(requireSource(source, workspace), workspace);
+        return workspace.reached;
+    }
+
+    /**
+     * Returns the vertices of the given path of ids, or an empty list if the
+     * path is null.
+     *
+     * @param path an array of ids, or null
+     * @return     a list of vertices, possibly empty
+     */
+    List<Vertex> verticesOf(int[] path) {
+        if (path == null)
+            return new ArrayList<>();
+        List<Vertex> vertices = new ArrayList<>(path.length);
+        for (int id: path)
+            vertices.add(Vertex.of(labels[id]));
+        return vertices;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> shortestPath(Vertex from, Vertex to) {
+        if (from == null || to == null)
+            throw new NullPointerException("vertices must be non-null");
+        int src = index.idOf(from.label());
+        int dst = index.idOf(to.label());
+        if (src < 0 || dst < 0)
+            throw new IllegalArgumentException("vertices must be present");
+        try (TraversalWorkspace workspace = TraversalWorkspace.borrow()) {
+            return verticesOf(shortestPath(src, dst, transposed(),
+                        workspace));
+        }
+    }
+
+    /**
+     * Searches a shortest path from the vertex of id src to the vertex of id
+     * dst with a bidirectional breadth-first search in the given workspace,
+     * and returns the ids of the path, or null if there is none. The search
+     * from src follows the arcs of this graph and the search from dst the
+     * arcs of the given transpose. The forward search fills the queue from
+     * its start and the parents, the backward one fills the queue from its
+     * end and records in the depths the next vertex towards dst. Each round
+     * expands a whole level of the side whose frontier is smaller, so the
+     * first arc found between the two sides closes a shortest path. The
+     * workspace then holds the number of visited vertices, of scanned arcs
+     * and the peak size of both frontiers.
+     *
+     * @param src       an int, the id of the first vertex
+     * @param dst       an int, the id of the last vertex
+     * @param backward  the transpose of this graph
+     * @param workspace a non-null workspace
+     * @return          the ids of a shortest path, or null
+     */
+    int[] shortestPath(int src, int dst, CompactGraph backward,
+            TraversalWorkspace workspace) {
+        int n = labels.length;
+        workspace.start(n, labels);
+        if (src == dst) {
+            workspace.reached = 1;
+            return new int[] {src};
+        }
+        int[] parent = workspace.parent;
+        int[] next = workspace.depth;
+        int[] queue = workspace.queue;
+        int[] bOffsets = backward.offsets;
+        int[] bTargets = backward.targets;
+        workspace.visit(src);
+        parent[src] = src;
+        workspace.visitBackward(dst);
+        next[dst] = dst;
+        queue[0] = src;
+        queue[n - 1] = dst;
+        // forward frontier in [fFirst, fLast), backward one in (bLast, bFirst]
+        int fFirst = 0;
+        int fLast = 1;
+        int bFirst = n - 1;
+        int bLast = n - 2;
+        long scanned = 0;
+        int peak = 0;
+        int tail = -1;
+        int head = -1;
+        while (tail < 0 && fFirst < fLast && bLast < bFirst) {
+            peak = Math.max(peak, fLast - fFirst + bFirst - bLast);
+            if (fLast - fFirst <= bFirst - bLast) {
+                int end = fLast;
+                for (; tail < 0 && fFirst < end; fFirst++) {
+                    int u = queue[fFirst];
+                    for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                        scanned++;
+                        int v = targets[i];
+                        if (workspace.visitedBackward(v)) {
+                            tail = u;
+                            head = v;
+                            break;
+                        }
+                        if (workspace.visit(v)) {
+                            parent[v] = u;
+                            queue[fLast++] = v;
+                        }
+                    }
+                }
+            } else {
+                int end = bLast;
+                for (; tail < 0 && bFirst > end; bFirst--) {
+                    int u = queue[bFirst];
+                    for (int i = bOffsets[u]; i < bOffsets[u + 1]; i++) {
+                        scanned++;
+                        int v = bTargets[i];
+                        if (workspace.visited(v)) {
+                            tail = v;
+                            head = u;
+                            break;
+                        }
+                        if (workspace.visitBackward(v)) {
+                            next[v] = u;
+                            queue[bLast--] = v;
+                        }
+                    }
+                }
+            }
+        }
+        workspace.reached = fLast + n - 1 - bLast;
+        workspace.scanned = scanned;
+        workspace.peak = peak;
+        if (tail < 0)
+            return null;
+        int forward = 1;
+        for (int x = tail; x != src; x = parent[x])
+            forward++;
+        int length = forward + 1;
+        for (int x = head; x != dst; x = next[x])
+            length++;
+        int[] path = new int[length];
+        int k = forward;
+        for (int x = tail; k > 0; x = parent[x])
+            path[--k] = x;
+        k = forward;
+        for (int x = head; k < length; x = next[x])
+            path[k++] = x;
+        return path;
+    }
+
+    /**
+     * Runs Kahn's algorithm in the given workspace, and returns true if every
+     * vertex is removed, that is if this graph is acyclic. The workspace then
+     * holds the removed ids in order, the number of scanned arcs and the peak
+     * size of the queue; the depths are used as in-degrees.
+     *
+     * @param workspace a non-null workspace
+     * @return          true if this graph contains no cycle
+     */
+    boolean isAcyclic(TraversalWorkspace workspace) {
+        int n = labels.length;
+        workspace.start(n, labels);
+        int[] inDegree = workspace.depth;
+        int[] queue = workspace.queue;
+        Arrays.fill(inDegree, 0, n, 0);
+        for (int target: targets)
+            inDegree[target]++;
+        int last = 0;
+        for (int u = 0; u < n; u++) {
+            if (inDegree[u] == 0)
+                queue[last++] = u;
+        }
+        long scanned = 0;
+        int peak = 0;
+        for (int first = 0; first < last; first++) {
+            if (last - first > peak)
+                peak = last - first;
+            int u = queue[first];
+            scanned += offsets[u + 1] - offsets[u];
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                if (--inDegree[targets[i]] == 0)
+                    queue[last++] = targets[i];
+            }
+        }
+        workspace.reached = last;
+        workspace.scanned = scanned;
+        workspace.peak = peak;
+        return last == n;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public boolean isAcyclic() {
+        try (TraversalWorkspace workspace = TraversalWorkspace.borrow()) {
+            return isAcyclic(workspace);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public int degreeOf(Vertex vertex) {
+        int id = requireId(vertex, "vertex must be present");
+        return offsets[id + 1] - offsets[id];
+    }
+}
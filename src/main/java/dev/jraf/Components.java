@@ -0,0 +1,233 @@
+package dev.jraf;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * The partition of the vertices of a graph into connected components. Each
+ * component is identified by an integer between 0 and count() - 1. The
+ * components are numbered in the order of their first vertex in vertices(), so
+ * that the numbering does not depend on how they were computed.
+ *
+ * @see Graph#weaklyConnectedComponents()
+ */
+public final class Components {
+
+    /*
+     * Under this number of arcs, the union-find runs sequentially as the
+     * parallel version would spend more time forking than linking.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+    private final CompactGraph graph;
+    private final int[] assignment;
+    private final int[] sizes;
+
+    private Components(CompactGraph graph, int[] assignment, int[] sizes) {
+        this.graph = graph;
+        this.assignment = assignment;
+        this.sizes = sizes;
+    }
+
+    /**
+     * Computes the weakly connected components of the given graph, that is
+     * the components of the graph obtained by forgetting the direction of its
+     * arcs. The arcs are linked with a union-find, concurrently when the graph
+     * is large enough.
+     *
+     * @param graph a non-null compact graph
+     * @return      the weakly connected components of the graph
+     */
+    static Components weakOf(CompactGraph graph) {
+        int[] roots = graph.arcCount() >= PARALLEL_THRESHOLD
+            && Runtime.getRuntime().availableProcessors() > 1
+            ? parallelRoots(graph) : sequentialRoots(graph);
+        return fromRoots(graph, roots);
+    }
+
+    /*
+     * Links every arc in a union-find where a root is always linked below a
+     * root of smaller id, and compresses paths by halving. The root of every
+     * set is therefore its smallest id.
+     */
+    static int[] sequentialRoots(CompactGraph graph) {
+        int n = graph.size();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] parent = new int[n];
+        for (int u = 0; u < n; u++)
+            parent[u] = u;
+        for (int u = 0; u < n; u++) {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int ru = find(parent, u);
+                int rv = find(parent, targets[i]);
+                if (ru < rv)
+                    parent[rv] = ru;
+                else if (rv < ru)
+                    parent[ru] = rv;
+            }
+        }
+        for (int u = 0; u < n; u++)
+            parent[u] = parent[parent[u]];
+        return parent;
+    }
+
+    private static int find(int[] parent, int u) {
+        while (parent[u] != u) {
+            parent[u] = parent[parent[u]];
+            u = parent[u];
+        }
+        return u;
+    }
+
+    /*
+     * Lock-free version of sequentialRoots. A root is linked with a CAS that
+     * fails if another thread linked it first, in which case the union is
+     * retried from the new roots. As parents only ever decrease, the halving
+     * CAS cannot create cycles.
+     */
+    static int[] parallelRoots(CompactGraph graph) {
+        int n = graph.size();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        AtomicIntegerArray parent = new AtomicIntegerArray(n);
+        for (int u = 0; u < n; u++)
+            parent.set(u, u);
+        IntStream.range(0, n).parallel().forEach(u -> {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++)
+                union(parent, u, targets[i]);
+        });
+        int[] roots = new int[n];
+        for (int u = 0; u < n; u++) {
+            int p = parent.get(u);
+            roots[u] = p == u ? u : roots[p];
+        }
+        return roots;
+    }
+
+    private static void union(AtomicIntegerArray parent, int u, int v) {
+        while (true) {
+            int ru = find(parent, u);
+            int rv = find(parent, v);
+            if (ru == rv)
+                return;
+            if (ru < rv) {
+                int tmp = ru;
+                ru = rv;
+                rv = tmp;
+            }
+            if (parent.compareAndSet(ru, ru, rv))
+                return;
+        }
+    }
+
+    private static int find(AtomicIntegerArray parent, int u) {
+        int p = parent.get(u);
+        while (p != u) {
+            int gp = parent.get(p);
+            if (gp != p)
+                parent.compareAndSet(u, p, gp);
+            u = p;
+            p = parent.get(u);
+        }
+        return u;
+    }
+
+    /*
+     * Turns the root array, where each root is the smallest id of its set,
+     * into dense component numbers.
+     */
+    private static Components fromRoots(CompactGraph graph, int[] roots) {
+        int n = roots.length;
+        int[] assignment = new int[n];
+        int count = 0;
+        for (int u = 0; u < n; u++)
+            assignment[u] = roots[u] == u ? count++ : assignment[roots[u]];
+        int[] sizes = new int[count];
+        for (int component: assignment)
+            sizes[component]++;
+        return new Components(graph, assignment, sizes);
+    }
+
+    /**
+     * Returns the number of components.
+     *
+     * @return an int, the number of components
+     */
+    public int count() {
+        return sizes.length;
+    }
+
+    /**
+     * Returns the component of the given vertex. The vertex must be non-null
+     * and present in the graph.
+     *
+     * @param vertex a non-null, present vertex
+     * @return       an int, the component of the vertex
+     */
+    public int componentOf(Vertex vertex) {
+        if (vertex == null)
+            throw new NullPointerException("vertex must be non-null");
+        int id = graph.idOf(vertex.label());
+        if (id < 0)
+            throw new NoSuchElementException("no such vertex");
+        return assignment[id];
+    }
+
+    /**
+     * Returns the number of vertices of the given component.
+     *
+     * @param component an int, between 0 and count() - 1
+     * @return          an int, the size of the component
+     */
+    public int sizeOf(int component) {
+        if (component < 0 || component >= sizes.length)
+            throw new IllegalArgumentException("no such component");
+        return sizes[component];
+    }
+
+    /**
+     * Returns the sizes of the components, indexed by component.
+     *
+     * @return an array of length count(), the sizes of the components
+     */
+    public int[] sizes() {
+        return sizes.clone();
+    }
+
+    /**
+     * Returns the vertices of the graph, in the order used by assignment().
+     *
+     * @return a list of vertices, the vertices of the graph
+     */
+    public List<Vertex> vertices() {
+        List<Vertex> vertices = new ArrayList<>(assignment.length);
+        for (int id = 0; id < assignment.length; id++)
+            vertices.add(Vertex.of(graph.labelOf(id)));
+        return vertices;
+    }
+
+    /**
+     * Returns the component of each vertex of the graph, where the i-th entry
+     * is the component of the i-th vertex of vertices().
+     *
+     * @return an array of components, indexed like vertices()
+     */
+    public int[] assignment() {
+        return assignment.clone();
+    }
+
+    /**
+     * Returns true if the given vertices are in the same component. The
+     * vertices must be non-null and present in the graph.
+     *
+     * @param u a non-null, present vertex
+     * @param v a non-null, present vertex
+     * @return  true if the vertices are in the same component
+     */
+    public boolean connected(Vertex u, Vertex v) {
+        return componentOf(u) == componentOf(v);
+    }
+}
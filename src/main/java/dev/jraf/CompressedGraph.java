@@ -0,0 +1,706 @@
+package dev.jraf;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only graph that stores its arcs compressed, in the style of WebGraph.
+ * The vertices are numbered by dense ids, and the sorted list of the
+ * successors of every vertex is encoded in a byte array as follows:
+ * - reference compression: the list can copy part of the list of one of the
+ *   window vertices before it, described by alternating lengths of copied and
+ *   skipped elements;
+ * - interval compression: runs of at least minInterval consecutive ids among
+ *   the remaining successors are stored as their start and length;
+ * - gap compression: the other successors are stored as the gaps between
+ *   them, the first one relative to the vertex itself.
+ * Every number is written as a variable-length integer of 7 bits per byte, so
+ * small gaps take a single byte. The degree and the reference share the same
+ * number, and the interval count is only written when there can be an interval,
+ * so most records have a two-byte header. Chains of references are at most
+ * MAX_REF_COUNT long, which bounds the work of decoding a list.
+ *
+ * The record of every vertex starts with its length, and the offset of every
+ * SAMPLE-th record is kept, so a vertex is found by at most SAMPLE - 1 jumps
+ * from a sampled offset. Cursors decode all the lists in order, and keep the
+ * last window lists to resolve the references without decoding them again.
+ *
+ * Compression works best when related vertices have close ids, as the ids
+ * follow the order of graph.vertices(): compressing the graph of a Reordering
+ * gives shorter gaps. When the labels are exactly the ids, no label index is
+ * kept.
+ *
+ * @see Reordering
+ */
+public final class CompressedGraph implements Graph {
+
+    /** The default number of previous lists a list can copy from. */
+    public static final int DEFAULT_WINDOW = 7;
+    /** The default length from which runs of ids are stored as intervals. */
+    public static final int DEFAULT_MIN_INTERVAL = 4;
+    // the degree times window + 1, plus the reference, must fit in an int,
+    // which bounds the degree by maxDegree(window)
+    static final int MAX_WINDOW = 64;
+    // the longest chain of references to decode a list
+    static final int MAX_REF_COUNT = 3;
+    // one record offset in SAMPLE is kept
+    static final int SAMPLE = 16;
+    private static final String NULL_VERTEX_ERR = "vertex must be non-null";
+    private static final String READ_ONLY_ERR = "graph is read-only";
+    private final int[] labels;
+    private final LabelIndex index;
+    private final byte[] data;
+    private final int[] samples;
+    private final int window;
+    private final int minInterval;
+    private final long arcCount;
+
+    private CompressedGraph(int[] labels, LabelIndex index, byte[] data,
+            int[] samples, int window, int minInterval, long arcCount) {
+        this.labels = labels;
+        this.index = index;
+        this.data = data;
+        this.samples = samples;
+        this.window = window;
+        this.minInterval = minInterval;
+        this.arcCount = arcCount;
+    }
+
+    /**
+     * Returns a compressed copy of the given graph, with the default window
+     * and minimum interval length.
+     *
+     * @param graph a non-null graph
+     * @return      a compressed graph with the vertices and arcs of the graph
+     */
+    public static CompressedGraph of(Graph graph) {
+        return of(graph, DEFAULT_WINDOW, DEFAULT_MIN_INTERVAL);
+    }
+
+    /**
+     * Returns a compressed copy of the given graph. A window of 0 disables
+     * the reference compression, and a minimum interval length of 0 disables
+     * the interval compression.
+     *
+     * @param graph       a non-null graph
+     * @param window      an int in [0, 64], the number of previous lists a
+     *                    list can copy from
+     * @param minInterval 0, or an int greater than 1, the length from which
+     *                    runs of consecutive ids are stored as intervals
+     * @return            a compressed graph with the vertices and arcs of the
+     *                    graph
+     * @throws IllegalArgumentException if a vertex has more successors than
+     *                    the headers of the window can hold
+     */
+    public static CompressedGraph of(Graph graph, int window,
+            int minInterval) {
+        if (window < 0 || window > MAX_WINDOW)
+            throw new IllegalArgumentException("window must be in [0, 64]");
+        if (minInterval < 0 || minInterval == 1) {
+            throw new IllegalArgumentException("minimum interval must be 0 "
+                    + "or > 1");
+        }
+        CompactGraph compact = CompactGraph.of(graph);
+        int n = compact.size();
+        int[] offsets = compact.offsets();
+        int maxDegree = maxDegree(window);
+        for (int u = 0; u < n; u++) {
+            if (offsets[u + 1] - offsets[u] > maxDegree) {
+                throw new IllegalArgumentException("degree must be at most "
+                        + maxDegree + " for a window of " + window);
+            }
+        }
+        int[] targets = compact.targets().clone();
+        for (int u = 0; u < n; u++)
+            Arrays.sort(targets, offsets[u], offsets[u + 1]);
+        int[] labels = new int[n];
+        boolean identity = true;
+        for (int u = 0; u < n; u++) {
+            labels[u] = compact.labelOf(u);
+            identity &= labels[u] == u;
+        }
+        Writer out = new Writer(Math.max(16, targets.length));
+        Writer body = new Writer(64);
+        Writer best = new Writer(64);
+        int[] samples = new int[(n + SAMPLE - 1) / SAMPLE];
+        int[] depth = new int[n];
+        for (int u = 0; u < n; u++) {
+            if (u % SAMPLE == 0)
+                samples[u / SAMPLE] = out.size;
+            int from = offsets[u];
+            int len = offsets[u + 1] - from;
+            best.size = 0;
+            encode(best, u, targets, from, len, 0, targets, 0, 0, window,
+                    minInterval);
+            int bestRef = 0;
+            for (int ref = 1; len > 0 && ref <= window && ref <= u; ref++) {
+                int r = u - ref;
+                if (depth[r] >= MAX_REF_COUNT)
+                    continue;
+                body.size = 0;
+                encode(body, u, targets, from, len, ref, targets, offsets[r],
+                        offsets[r + 1] - offsets[r], window, minInterval);
+                if (body.size < best.size) {
+                    Writer swap = best;
+                    best = body;
+                    body = swap;
+                    bestRef = ref;
+                }
+            }
+            depth[u] = bestRef == 0 ? 0 : depth[u - bestRef] + 1;
+            out.varint(best.size);
+            out.bytes(best.buf, best.size);
+        }
+        return new CompressedGraph(labels,
+                identity ? null : labelIndex(labels),
+                Arrays.copyOf(out.buf, out.size), samples, window,
+                minInterval, targets.length);
+    }
+
+    /*
+     * Returns the largest degree whose header, degree * (window + 1) + ref
+     * for a ref in [0, window], fits in an int.
+     */
+    static int maxDegree(int window) {
+        return (Integer.MAX_VALUE - window) / (window + 1);
+    }
+
+    private static LabelIndex labelIndex(int[] labels) {
+        LabelIndex index = new LabelIndex(labels.length);
+        for (int label: labels)
+            index.add(label);
+        return index;
+    }
+
+    /*
+     * Writes the body of the record of vertex u, whose successors are
+     * list[from, from + len), referencing the list of vertex u - ref, which
+     * is refList[refFrom, refFrom + refLen), if ref > 0.
+     */
+    private static void encode(Writer out, int u, int[] list, int from,
+            int len, int ref, int[] refList, int refFrom, int refLen,
+            int window, int minInterval) {
+        // the degree and the reference share a single number
+        out.varint(len * (window + 1) + ref);
+        if (len == 0)
+            return;
+        int[] extras = new int[len];
+        int extraCount = 0;
+        int i = from;
+        int end = from + len;
+        if (ref > 0) {
+            int[] blocks = new int[refLen + 1];
+            int blockCount = 0;
+            boolean copying = true;
+            int run = 0;
+            for (int j = refFrom; j < refFrom + refLen; j++) {
+                while (i < end && list[i] < refList[j])
+                    extras[extraCount++] = list[i++];
+                boolean copied = i < end && list[i] == refList[j];
+                if (copied)
+                    i++;
+                if (copied == copying) {
+                    run++;
+                } else {
+                    blocks[blockCount++] = run;
+                    copying = !copying;
+                    run = 1;
+                }
+            }
+            if (copying)
+                blocks[blockCount++] = run;
+            out.varint(blockCount);
+            for (int b = 0; b < blockCount; b++)
+                out.varint(blocks[b]);
+        }
+        while (i < end)
+            extras[extraCount++] = list[i++];
+        int[] residuals = extras;
+        int residualCount = extraCount;
+        if (minInterval > 0 && extraCount >= minInterval) {
+            residuals = new int[extraCount];
+            residualCount = 0;
+            int[] lefts = new int[extraCount];
+            int[] lengths = new int[extraCount];
+            int intervals = 0;
+            for (int k = 0; k < extraCount; ) {
+                int run = 1;
+                while (k + run < extraCount
+                        && extras[k + run] == extras[k] + run)
+                    run++;
+                if (run >= minInterval) {
+                    lefts[intervals] = extras[k];
+                    lengths[intervals++] = run;
+                } else {
+                    for (int r = 0; r < run; r++)
+                        residuals[residualCount++] = extras[k + r];
+                }
+                k += run;
+            }
+            out.varint(intervals);
+            int previous = 0;
+            for (int k = 0; k < intervals; k++) {
+                if (k == 0)
+                    out.zigzag(lefts[k] - u);
+                else
+                    out.varint(lefts[k] - previous - 1);
+                out.varint(lengths[k] - minInterval);
+                previous = lefts[k] + lengths[k];
+            }
+        }
+        for (int k = 0; k < residualCount; k++) {
+            if (k == 0)
+                out.zigzag(residuals[k] - u);
+            else
+                out.varint(residuals[k] - residuals[k - 1] - 1);
+        }
+    }
+
+    /*
+     * Reads the body of the record of vertex u at the position of the reader
+     * and returns the sorted successors. The lists of the previous vertices
+     * are taken from the ring of the last window + 1 decoded lists if it is
+     * given, and decoded otherwise.
+     */
+    private int[] decode(Reader in, int u, int[][] ring) {
+        int header = in.varint();
+        int len = header / (window + 1);
+        int ref = header % (window + 1);
+        int[] list = new int[len];
+        if (len == 0)
+            return list;
+        int[] copied = list;
+        int copiedCount = 0;
+        if (ref > 0) {
+            int[] refList = ring != null ? ring[(u - ref) % ring.length]
+                : successors(u - ref);
+            copied = new int[len];
+            int blockCount = in.varint();
+            int j = 0;
+            for (int b = 0; b < blockCount; b++) {
+                int block = in.varint();
+                if ((b & 1) == 0) {
+                    System.arraycopy(refList, j, copied, copiedCount, block);
+                    copiedCount += block;
+                }
+                j += block;
+            }
+        }
+        int[] extras = new int[len - copiedCount];
+        int extraCount = 0;
+        int intervals = minInterval > 0 && extras.length >= minInterval
+            ? in.varint() : 0;
+        int previous = 0;
+        for (int k = 0; k < intervals; k++) {
+            int left = k == 0 ? u + in.zigzag() : previous + 1 + in.varint();
+            int length = in.varint() + minInterval;
+            for (int r = 0; r < length; r++)
+                extras[extraCount++] = left + r;
+            previous = left + length;
+        }
+        int residualFrom = extraCount;
+        for (int k = extraCount; k < extras.length; k++) {
+            extras[k] = k == residualFrom ? u + in.zigzag()
+                : extras[k - 1] + 1 + in.varint();
+        }
+        if (intervals > 0 && residualFrom < extras.length)
+            Arrays.sort(extras);
+        if (copiedCount == 0)
+            return extras;
+        int a = 0;
+        int b = 0;
+        for (int k = 0; k < len; k++) {
+            if (b == extras.length || a < copiedCount && copied[a] < extras[b])
+                list[k] = copied[a++];
+            else
+                list[k] = extras[b++];
+        }
+        return list;
+    }
+
+    /* Returns a reader positioned at the body of the record of vertex u. */
+    private Reader locate(int u) {
+        Reader in = new Reader(data, samples[u / SAMPLE]);
+        for (int k = u % SAMPLE; k > 0; k--) {
+            int length = in.varint();
+            in.pos += length;
+        }
+        in.varint();
+        return in;
+    }
+
+    /* Returns the sorted successor ids of vertex u. */
+    private int[] successors(int u) {
+        return decode(locate(u), u, null);
+    }
+
+    private int idOf(int label) {
+        if (index != null)
+            return index.idOf(label);
+        return label >= 0 && label < labels.length ? label : -1;
+    }
+
+    private int requireId(Vertex vertex, String absentMessage) {
+        if (vertex == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        int id = idOf(vertex.label());
+        if (id < 0)
+            throw new NoSuchElementException(absentMessage);
+        return id;
+    }
+
+    /**
+     * Returns the number of vertices of this graph.
+     *
+     * @return an int, the number of vertices
+     */
+    public int size() {
+        return labels.length;
+    }
+
+    /**
+     * Returns the number of arcs of this graph.
+     *
+     * @return a long, the number of arcs
+     */
+    public long arcCount() {
+        return arcCount;
+    }
+
+    /**
+     * Returns the number of bytes of the encoded arcs and of the sampled
+     * offsets, without the labels of the vertices.
+     *
+     * @return a long, the size of the encoded arcs in bytes
+     */
+    public long byteSize() {
+        return data.length + 4L * samples.length;
+    }
+
+    /**
+     * Returns a new cursor positioned before the first vertex of this graph.
+     *
+     * @return a new cursor over the vertices of this graph
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * A cursor that decodes the successor lists of the vertices of a
+     * compressed graph in order. It is faster than asking the neighbors of
+     * every vertex, as it reads the records one after the other and resolves
+     * the references from the lists it has just decoded.
+     */
+    public final class Cursor {
+
+        private final Reader in = new Reader(data, 0);
+        private final int[][] ring = new int[window + 1][];
+        private int id = -1;
+        private int[] successors;
+
+        private Cursor() {
+        }
+
+        /**
+         * Moves this cursor to the next vertex, and returns true if there is
+         * one.
+         *
+         * @return true if the cursor is on a vertex
+         */
+        public boolean next() {
+            if (id + 1 >= labels.length)
+                return false;
+            id++;
+            int length = in.varint();
+            int end = in.pos + length;
+            successors = decode(in, id, ring);
+            ring[id % ring.length] = successors;
+            in.pos = end;
+            return true;
+        }
+
+        private void requireVertex() {
+            if (id < 0 || id >= labels.length)
+                throw new IllegalStateException("cursor is not on a vertex");
+        }
+
+        /**
+         * Returns the vertex the cursor is on.
+         *
+         * @return the current vertex
+         */
+        public Vertex vertex() {
+            requireVertex();
+            return Vertex.of(labels[id]);
+        }
+
+        /**
+         * Returns the degree of the vertex the cursor is on.
+         *
+         * @return an int, the number of successors of the current vertex
+         */
+        public int degree() {
+            requireVertex();
+            return successors.length;
+        }
+
+        /**
+         * Returns the label of the i-th successor of the vertex the cursor is
+         * on. Successors are in the order of their ids.
+         *
+         * @param i an int in [0, degree()), the index of the successor
+         * @return  an int, the label of the successor
+         */
+        public int successor(int i) {
+            requireVertex();
+            return labels[successors[i]];
+        }
+    }
+
+    /**
+     * Throws an UnsupportedOperationException as this graph is read-only.
+     *
+     * @param vertex a vertex, possibly null
+     */
+    @Override public void add(Vertex vertex) {
+        throw new UnsupportedOperationException(READ_ONLY_ERR);
+    }
+
+    /**
+     * Throws an UnsupportedOperationException as this graph is read-only.
+     *
+     * @param label an int, the label of a vertex
+     */
+    @Override public void add(int label) {
+        throw new UnsupportedOperationException(READ_ONLY_ERR);
+    }
+
+    /**
+     * Throws an UnsupportedOperationException as this graph is read-only.
+     *
+     * @param tail a vertex, possibly null
+     * @param head a vertex, possibly null
+     */
+    @Override public void add(Vertex tail, Vertex head) {
+        throw new UnsupportedOperationException(READ_ONLY_ERR);
+    }
+
+    /**
+     * Throws an UnsupportedOperationException as this graph is read-only.
+     *
+     * @param tail an int, the label of a vertex
+     * @param head an int, the label of a vertex
+     */
+    @Override public void add(int tail, int head) {
+        throw new UnsupportedOperationException(READ_ONLY_ERR);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> neighborsOf(Vertex vertex) {
+        int[] successors = successors(requireId(vertex, "no such vertex"));
+        List<Vertex> neighbors = new ArrayList<>(successors.length);
+        for (int v: successors)
+            neighbors.add(Vertex.of(labels[v]));
+        return neighbors;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> vertices() {
+        List<Vertex> vertices = new ArrayList<>(labels.length);
+        for (int label: labels)
+            vertices.add(Vertex.of(label));
+        return vertices;
+    }
+
+    /**
+     * Throws an UnsupportedOperationException as this graph is read-only.
+     *
+     * @param vertex a vertex, possibly null
+     */
+    @Override public void remove(Vertex vertex) {
+        throw new UnsupportedOperationException(READ_ONLY_ERR);
+    }
+
+    /**
+     * Returns 0, as this graph is read-only.
+     *
+     * @return 0, the only version of this graph
+     */
+    @Override public long version() {
+        return 0;
+    }
+
+    /**
+     * Throws an UnsupportedOperationException as this graph is read-only.
+     *
+     * @param tail a vertex, possibly null
+     * @param head a vertex, possibly null
+     */
+    @Override public void remove(Vertex tail, Vertex head) {
+        throw new UnsupportedOperationException(READ_ONLY_ERR);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public Map<Integer, Integer> breadthFirstSearch(Vertex source) {
+        if (source == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        int src = idOf(source.label());
+        if (src < 0)
+            throw new IllegalArgumentException("vertex must be present");
+        try (TraversalWorkspace workspace = TraversalWorkspace.borrow()) {
+            search(src, workspace);
+            return workspace.parents();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The successors of the reached vertices are still decoded into new
+     * arrays, so this search only saves the memory of its result.
+     *
+     * @param source    a non-null present vertex
+     * @param workspace a non-null workspace
+     * @return          an int, the number of vertices reached from the source
+     */
+    @Override public int breadthFirstSearch(Vertex source,
+            TraversalWorkspace workspace) {
+        if (source == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        if (workspace == null)
+            throw new NullPointerException("workspace must be non-null");
+        int src = idOf(source.label());
+        if (src < 0)
+            throw new IllegalArgumentException("vertex must be present");
+        search(src, workspace);
+        return workspace.reached;
+    }
+
+    /* Runs a breadth-first search from the vertex of id src in workspace. */
+    private void search(int src, TraversalWorkspace workspace) {
+        workspace.start(labels.length, labels);
+        int[] parent = workspace.parent;
+        int[] depth = workspace.depth;
+        int[] queue = workspace.queue;
+        int last = 0;
+        workspace.visit(src);
+        parent[src] = src;
+        depth[src] = 0;
+        queue[last++] = src;
+        for (int first = 0; first < last; first++) {
+            int u = queue[first];
+            for (int v: successors(u)) {
+                if (workspace.visit(v)) {
+                    parent[v] = u;
+                    depth[v] = depth[u] + 1;
+                    queue[last++] = v;
+                }
+            }
+        }
+        workspace.reached = last;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public boolean isAcyclic() {
+        int n = labels.length;
+        int[] inDegree = new int[n];
+        Cursor cursor = cursor();
+        while (cursor.next()) {
+            for (int v: cursor.successors)
+                inDegree[v]++;
+        }
+        int[] queue = new int[n];
+        int last = 0;
+        for (int u = 0; u < n; u++) {
+            if (inDegree[u] == 0)
+                queue[last++] = u;
+        }
+        for (int first = 0; first < last; first++) {
+            for (int v: successors(queue[first])) {
+                if (--inDegree[v] == 0)
+                    queue[last++] = v;
+            }
+        }
+        return last == n;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public int degreeOf(Vertex vertex) {
+        int id = requireId(vertex, "vertex must be present");
+        return locate(id).varint() / (window + 1);
+    }
+
+    /* A growable byte buffer with variable-length integer writes. */
+    private static final class Writer {
+
+        private byte[] buf;
+        private int size;
+
+        Writer(int capacity) {
+            buf = new byte[capacity];
+        }
+
+        void varint(int value) {
+            if (size + 5 > buf.length)
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + 5));
+            while ((value & ~0x7F) != 0) {
+                buf[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[size++] = (byte) value;
+        }
+
+        void zigzag(int value) {
+            varint((value << 1) ^ (value >> 31));
+        }
+
+        void bytes(byte[] bytes, int length) {
+            if (size + length > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2,
+                            size + length));
+            }
+            System.arraycopy(bytes, 0, buf, size, length);
+            size += length;
+        }
+    }
+
+    /* A position in a byte array with variable-length integer reads. */
+    private static final class Reader {
+
+        private final byte[] data;
+        private int pos;
+
+        Reader(byte[] data, int pos) {
+            this.data = data;
+            this.pos = pos;
+        }
+
+        int varint() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = data[pos++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0)
+                    return value;
+            }
+        }
+
+        int zigzag() {
+            int value = varint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
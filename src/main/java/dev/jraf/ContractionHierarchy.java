@@ -0,0 +1,823 @@
+package dev.jraf;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * A contraction hierarchy of a weighted graph, an index that answers shortest
+ * route queries by exploring a small part of the graph only. The vertices are
+ * contracted one after another: a contracted vertex v is taken out of the
+ * graph, and a shortcut arc from u to x is added for every path u, v, x that
+ * no other path, called a witness, is as short as. The order of contraction
+ * is the rank of the vertices. Every shortest route is then as short as a
+ * route that climbs to a vertex of highest rank and descends from it, so that
+ * a query runs a search from the first vertex along the arcs towards higher
+ * ranks, and a search from the last vertex against the arcs from higher
+ * ranks, and keeps the vertex where they meet best. The shortcuts of the
+ * route are finally unpacked into the arcs of the graph.
+ *
+ * The vertices are ordered by edge difference, that is the number of
+ * shortcuts their contraction adds minus the number of arcs it takes out,
+ * plus the number of their neighbors already contracted so that the
+ * contraction spreads evenly over the graph. They are contracted in rounds:
+ * each round contracts the vertices whose priority is smaller than the one of
+ * all their neighbors, and runs their witness searches in parallel since
+ * these vertices are independent. A witness search gives up after
+ * WITNESS_LIMIT settled vertices and then adds the shortcut, which keeps the
+ * routes shortest at the cost of a few extra arcs.
+ *
+ * A hierarchy is immutable and is not updated when its graph changes. It can
+ * be queried by several threads at once, and can be saved with
+ * writeTo(OutputStream) and reloaded with readFrom(InputStream), so that the
+ * preprocessing runs only once.
+ *
+ * @see WeightedGraph#contractionHierarchy()
+ */
+public final class ContractionHierarchy {
+
+    /*
+     * Under this number of vertices, a round of contraction runs sequentially
+     * as the parallel version would spend more time forking than searching.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 10;
+    // the number of settled vertices after which a witness search gives up
+    static final int WITNESS_LIMIT = 500;
+    private static final int MAGIC = 0x4A524348;
+    private static final int VERSION = 1;
+    // the number of array elements written or read at once
+    private static final int CHUNK = 1 << 12;
+    private static final long INFINITY = Long.MAX_VALUE;
+    private final int[] labels;
+    private final LabelIndex index;
+    // the arcs towards higher ranks, by tail, with their middle vertex or -1
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final long[] upWeights;
+    private final int[] upVia;
+    // the arcs from higher ranks, by head, with their middle vertex or -1
+    private final int[] downOffsets;
+    private final int[] downSources;
+    private final long[] downWeights;
+    private final int[] downVia;
+
+    private ContractionHierarchy(int[] labels, int[] upOffsets,
+            int[] upTargets, long[] upWeights, int[] upVia, int[] downOffsets,
+            int[] downSources, long[] downWeights, int[] downVia) {
+        this.labels = labels;
+        this.index = new LabelIndex(labels.length);
+        for (int label: labels)
+            index.add(label);
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.upVia = upVia;
+        this.downOffsets = downOffsets;
+        this.downSources = downSources;
+        this.downWeights = downWeights;
+        this.downVia = downVia;
+    }
+
+    /**
+     * Contracts the vertices of the given graph and returns the resulting
+     * hierarchy. The weights must be non-negative.
+     *
+     * @param graph   a non-null compact graph
+     * @param weights the non-negative weights of the arcs of the graph, in
+     *                the order of its targets array
+     * @return        the contraction hierarchy of the graph
+     */
+    static ContractionHierarchy of(CompactGraph graph, int[] weights) {
+        return new Contraction(graph, weights).run();
+    }
+
+    /**
+     * Returns the number of vertices of this hierarchy.
+     *
+     * @return an int, the number of vertices
+     */
+    public int size() {
+        return labels.length;
+    }
+
+    /**
+     * Returns the number of shortcuts that the contraction added to the arcs
+     * of the graph.
+     *
+     * @return an int, the number of shortcuts
+     */
+    public int shortcutCount() {
+        int count = 0;
+        for (int via: upVia) {
+            if (via >= 0)
+                count++;
+        }
+        for (int via: downVia) {
+            if (via >= 0)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns a shortest route from the given vertex to the other given
+     * vertex, found with a bidirectional search of this hierarchy. The
+     * settled count of the route adds the vertices settled by both searches.
+     *
+     * @param from a non-null present vertex, the first vertex of the route
+     * @param to   a non-null present vertex, the last vertex of the route
+     * @return     a shortest route, that does not exist if the last vertex is
+     *             not reachable from the first one
+     */
+    public Route route(Vertex from, Vertex to) {
+        if (from == null || to == null)
+            throw new NullPointerException("vertices must be non-null");
+        int src = index.idOf(from.label());
+        int dst = index.idOf(to.label());
+        if (src < 0 || dst < 0)
+            throw new IllegalArgumentException("vertices must be present");
+        try (TraversalWorkspace workspace = TraversalWorkspace.borrow()) {
+            return search(src, dst, workspace);
+        }
+    }
+
+    /*
+     * Runs both searches from src and dst with a single heap, where the
+     * search from dst uses the ids shifted by n. The parent of an id is the
+     * arc it was reached by. The searches stop when no key is smaller than
+     * the best route found.
+     */
+    private Route search(int src, int dst, TraversalWorkspace workspace) {
+        int n = labels.length;
+        workspace.startWeighted(2 * n, null);
+        long[] dist = workspace.distance;
+        IndexedHeap heap = workspace.heap;
+        reach(workspace, src, 0, -1);
+        reach(workspace, n + dst, 0, -1);
+        long best = INFINITY;
+        int meet = -1;
+        int settled = 0;
+        while (!heap.isEmpty() && heap.peekKey() < best) {
+            int id = heap.poll();
+            settled++;
+            boolean forward = id < n;
+            int v = forward ? id : id - n;
+            int other = forward ? n + v : v;
+            if (workspace.visited(other) && dist[id] + dist[other] < best) {
+                best = dist[id] + dist[other];
+                meet = v;
+            }
+            if (forward) {
+                for (int i = upOffsets[v]; i < upOffsets[v + 1]; i++)
+                    reach(workspace, upTargets[i], dist[id] + upWeights[i], i);
+            } else {
+                for (int i = downOffsets[v]; i < downOffsets[v + 1]; i++) {
+                    reach(workspace, n + downSources[i],
+                            dist[id] + downWeights[i], i);
+                }
+            }
+        }
+        if (meet < 0)
+            return new Route(new ArrayList<>(), -1, settled);
+        return new Route(unpack(src, meet, workspace.parent), best, settled);
+    }
+
+    /*
+     * Gives id the tentative distance d and the parent arc if it is reached
+     * for the first time or d improves its distance.
+     */
+    private static void reach(TraversalWorkspace workspace, int id, long d,
+            int arc) {
+        if (workspace.visit(id) || d < workspace.distance[id]) {
+            workspace.distance[id] = d;
+            workspace.parent[id] = arc;
+            workspace.heap.offer(id, d);
+        }
+    }
+
+    /*
+     * Returns the vertices of the route from src to meet along the parent
+     * arcs of the search from src, then from meet along the parent arcs of
+     * the search from the last vertex, with every shortcut unpacked.
+     */
+    private List<Vertex> unpack(int src, int meet, int[] parent) {
+        int n = labels.length;
+        int length = 0;
+        for (int v = meet; parent[v] >= 0; v = owner(upOffsets, parent[v]))
+            length++;
+        int[] arcs = new int[length];
+        for (int v = meet; parent[v] >= 0; v = owner(upOffsets, parent[v]))
+            arcs[--length] = parent[v];
+        List<Vertex> path = new ArrayList<>();
+        path.add(Vertex.of(labels[src]));
+        int[] stack = new int[48];
+        for (int arc: arcs) {
+            stack = expand(owner(upOffsets, arc), upTargets[arc], upVia[arc],
+                    stack, path);
+        }
+        for (int v = meet; parent[n + v] >= 0; ) {
+            int arc = parent[n + v];
+            int head = owner(downOffsets, arc);
+            stack = expand(v, head, downVia[arc], stack, path);
+            v = head;
+        }
+        return path;
+    }
+
+    /*
+     * Appends to path the vertices after tail of the arc from tail to head,
+     * unpacked down to the arcs of the graph. A shortcut through via is made
+     * of the arc from tail to via, stored by via with the arcs from higher
+     * ranks, and of the arc from via to head, stored by via with the arcs
+     * towards higher ranks. Returns the stack, grown if needed.
+     */
+    private int[] expand(int tail, int head, int via, int[] stack,
+            List<Vertex> path) {
+        int top = 0;
+        stack[top++] = tail;
+        stack[top++] = head;
+        stack[top++] = via;
+        while (top > 0) {
+            int m = stack[--top];
+            int b = stack[--top];
+            int a = stack[--top];
+            if (m < 0) {
+                path.add(Vertex.of(labels[b]));
+                continue;
+            }
+            int down = downOffsets[m];
+            while (downSources[down] != a)
+                down++;
+            int up = upOffsets[m];
+            while (upTargets[up] != b)
+                up++;
+            if (top + 6 > stack.length)
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            stack[top++] = m;
+            stack[top++] = b;
+            stack[top++] = upVia[up];
+            stack[top++] = a;
+            stack[top++] = m;
+            stack[top++] = downVia[down];
+        }
+        return stack;
+    }
+
+    /* Returns the vertex whose arcs in the given offsets include arc. */
+    private static int owner(int[] offsets, int arc) {
+        int lo = 0;
+        int hi = offsets.length - 2;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (offsets[mid] <= arc)
+                lo = mid;
+            else
+                hi = mid - 1;
+        }
+        return lo;
+    }
+
+    /**
+     * Writes this hierarchy to the given stream, in a binary format that
+     * readFrom(InputStream) reads back. The stream is flushed but not closed.
+     *
+     * @param out a non-null output stream
+     * @throws IOException if the stream fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (out == null)
+            throw new NullPointerException("stream must be non-null");
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        writeInts(data, labels);
+        writeInts(data, upOffsets);
+        writeInts(data, upTargets);
+        writeLongs(data, upWeights);
+        writeInts(data, upVia);
+        writeInts(data, downOffsets);
+        writeInts(data, downSources);
+        writeLongs(data, downWeights);
+        writeInts(data, downVia);
+        data.flush();
+    }
+
+    /**
+     * Reads a hierarchy written by writeTo(OutputStream) from the given
+     * stream. The stream is read up to the end of the hierarchy, and is not
+     * closed.
+     *
+     * @param in a non-null input stream
+     * @return   the hierarchy read from the stream
+     * @throws IOException if the stream fails or does not hold a hierarchy
+     */
+    public static ContractionHierarchy readFrom(InputStream in)
+            throws IOException {
+        if (in == null)
+            throw new NullPointerException("stream must be non-null");
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC)
+            throw new IOException("not a contraction hierarchy");
+        int version = data.readInt();
+        if (version != VERSION)
+            throw new IOException("unsupported version " + version);
+        int[] labels = readInts(data);
+        int[] upOffsets = readInts(data);
+        int[] upTargets = readInts(data);
+        long[] upWeights = readLongs(data);
+        int[] upVia = readInts(data);
+        int[] downOffsets = readInts(data);
+        int[] downSources = readInts(data);
+        long[] downWeights = readLongs(data);
+        int[] downVia = readInts(data);
+        int n = labels.length;
+        if (!isRow(upOffsets, n, upTargets, upWeights, upVia)
+                || !isRow(downOffsets, n, downSources, downWeights, downVia))
+            throw new IOException("corrupt contraction hierarchy");
+        return new ContractionHierarchy(labels, upOffsets, upTargets,
+                upWeights, upVia, downOffsets, downSources, downWeights,
+                downVia);
+    }
+
+    /*
+     * Returns true if the arrays are a consistent compressed sparse row form
+     * of n vertices.
+     */
+    private static boolean isRow(int[] offsets, int n, int[] targets,
+            long[] weights, int[] via) {
+        if (offsets.length != n + 1 || offsets[0] != 0
+                || offsets[n] != targets.length
+                || weights.length != targets.length
+                || via.length != targets.length)
+            return false;
+        for (int v = 0; v < n; v++) {
+            if (offsets[v] > offsets[v + 1])
+                return false;
+        }
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i] < 0 || targets[i] >= n || via[i] >= n)
+                return false;
+        }
+        return true;
+    }
+
+    /* Writes the length of the array, then its elements. */
+    private static void writeInts(DataOutputStream out, int[] values)
+            throws IOException {
+        out.writeInt(values.length);
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK * Integer.BYTES);
+        for (int from = 0; from < values.length; from += CHUNK) {
+            int length = Math.min(CHUNK, values.length - from);
+            buffer.asIntBuffer().put(values, from, length);
+            out.write(buffer.array(), 0, length * Integer.BYTES);
+        }
+    }
+
+    /* Writes the length of the array, then its elements. */
+    private static void writeLongs(DataOutputStream out, long[] values)
+            throws IOException {
+        out.writeInt(values.length);
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK * Long.BYTES);
+        for (int from = 0; from < values.length; from += CHUNK) {
+            int length = Math.min(CHUNK, values.length - from);
+            buffer.asLongBuffer().put(values, from, length);
+            out.write(buffer.array(), 0, length * Long.BYTES);
+        }
+    }
+
+    /* Reads an array written by writeInts. */
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int[] values = new int[readLength(in)];
+        byte[] bytes = new byte[CHUNK * Integer.BYTES];
+        for (int from = 0; from < values.length; from += CHUNK) {
+            int length = Math.min(CHUNK, values.length - from);
+            in.readFully(bytes, 0, length * Integer.BYTES);
+            ByteBuffer.wrap(bytes).asIntBuffer().get(values, from, length);
+        }
+        return values;
+    }
+
+    /* Reads an array written by writeLongs. */
+    private static long[] readLongs(DataInputStream in) throws IOException {
+        long[] values = new long[readLength(in)];
+        byte[] bytes = new byte[CHUNK * Long.BYTES];
+        for (int from = 0; from < values.length; from += CHUNK) {
+            int length = Math.min(CHUNK, values.length - from);
+            in.readFully(bytes, 0, length * Long.BYTES);
+            ByteBuffer.wrap(bytes).asLongBuffer().get(values, from, length);
+        }
+        return values;
+    }
+
+    /* Reads the length of an array, which must be non-negative. */
+    private static int readLength(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0)
+            throw new IOException("corrupt contraction hierarchy");
+        return length;
+    }
+
+    /*
+     * The state of the contraction: the arcs between the vertices, in both
+     * directions, including the shortcuts, and the arcs that every contracted
+     * vertex kept towards and from the vertices contracted after it.
+     */
+    private static final class Contraction {
+
+        private static final byte REMAINING = 0;
+        private static final byte SELECTED = 1;
+        private static final byte CONTRACTED = 2;
+        // the parent that marks the targets of a witness search
+        private static final int TARGET = -2;
+        private final CompactGraph graph;
+        private final int n;
+        private final Arcs[] out;
+        private final Arcs[] in;
+        private final Arcs[] up;
+        private final Arcs[] down;
+        private final byte[] state;
+        private final int[] priority;
+        private final int[] deleted;
+        // the vertices marked in the current round are those of mark round
+        private final int[] mark;
+        private int round;
+
+        Contraction(CompactGraph graph, int[] weights) {
+            this.graph = graph;
+            n = graph.size();
+            int[] offsets = graph.offsets();
+            int[] targets = graph.targets();
+            out = new Arcs[n];
+            in = new Arcs[n];
+            up = new Arcs[n];
+            down = new Arcs[n];
+            for (int v = 0; v < n; v++) {
+                out[v] = new Arcs();
+                in[v] = new Arcs();
+            }
+            for (int u = 0; u < n; u++) {
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    int x = targets[i];
+                    if (x != u) {
+                        out[u].add(x, weights[i], -1);
+                        in[x].add(u, weights[i], -1);
+                    }
+                }
+            }
+            state = new byte[n];
+            priority = new int[n];
+            deleted = new int[n];
+            mark = new int[n];
+        }
+
+        /*
+         * Contracts every vertex, round after round, and returns the
+         * hierarchy.
+         */
+        ContractionHierarchy run() {
+            int[] remaining = IntStream.range(0, n).toArray();
+            updatePriorities(remaining);
+            while (remaining.length > 0) {
+                int[] candidates = remaining;
+                int[] selected = ids(candidates.length)
+                    .filter(i -> isLocalMinimum(candidates[i]))
+                    .map(i -> candidates[i]).toArray();
+                for (int v: selected)
+                    state[v] = SELECTED;
+                Arcs[] shortcuts = new Arcs[selected.length];
+                ids(selected.length).forEach(i -> {
+                    try (TraversalWorkspace workspace =
+                            TraversalWorkspace.borrow()) {
+                        shortcuts[i] = new Arcs();
+                        witness(selected[i], shortcuts[i], workspace);
+                    }
+                });
+                for (int v: selected)
+                    contract(v);
+                for (int i = 0; i < selected.length; i++) {
+                    Arcs found = shortcuts[i];
+                    for (int j = 0; j < found.size; j++) {
+                        link(found.tails[j], found.heads[j],
+                                found.weights[j], selected[i]);
+                    }
+                }
+                updatePriorities(touched(selected));
+                remaining = Arrays.stream(remaining)
+                    .filter(v -> state[v] == REMAINING).toArray();
+            }
+            return build();
+        }
+
+        /*
+         * Returns the ids from 0 to count - 1, as a parallel stream if count
+         * is large enough.
+         */
+        private static IntStream ids(int count) {
+            IntStream ids = IntStream.range(0, count);
+            return count >= PARALLEL_THRESHOLD ? ids.parallel() : ids;
+        }
+
+        /*
+         * Returns true if the priority of v is smaller than the one of all its
+         * remaining neighbors. The ties are broken by a scrambling of the ids,
+         * so that a path of equal priorities is contracted in a few rounds.
+         */
+        private boolean isLocalMinimum(int v) {
+            return isSmallest(v, out[v]) && isSmallest(v, in[v]);
+        }
+
+        /* Tells if v is smaller than the remaining vertices of the arcs. */
+        private boolean isSmallest(int v, Arcs arcs) {
+            for (int j = 0; j < arcs.size; j++) {
+                int w = arcs.heads[j];
+                if (state[w] != REMAINING)
+                    continue;
+                if (priority[w] < priority[v] || priority[w] == priority[v]
+                        && w * 0x9E3779B9 < v * 0x9E3779B9)
+                    return false;
+            }
+            return true;
+        }
+
+        /*
+         * Computes the priorities of the given vertices: their edge
+         * difference plus their number of contracted neighbors.
+         */
+        private void updatePriorities(int[] vertices) {
+            ids(vertices.length).forEach(i -> {
+                int v = vertices[i];
+                try (TraversalWorkspace workspace =
+                        TraversalWorkspace.borrow()) {
+                    int added = witness(v, null, workspace);
+                    priority[v] = added - remainingDegree(v) + deleted[v];
+                }
+            });
+        }
+
+        /* Returns the number of arcs between v and remaining vertices. */
+        private int remainingDegree(int v) {
+            int degree = 0;
+            for (int j = 0; j < out[v].size; j++) {
+                if (state[out[v].heads[j]] == REMAINING)
+                    degree++;
+            }
+            for (int j = 0; j < in[v].size; j++) {
+                if (state[in[v].heads[j]] == REMAINING)
+                    degree++;
+            }
+            return degree;
+        }
+
+        /*
+         * Runs the witness searches of the contraction of v and returns the
+         * number of shortcuts it needs, which are added to found if it is
+         * non-null. The witnesses only go through remaining vertices other
+         * than v.
+         */
+        private int witness(int v, Arcs found, TraversalWorkspace workspace) {
+            Arcs outs = out[v];
+            Arcs ins = in[v];
+            long longest = 0;
+            for (int j = 0; j < outs.size; j++) {
+                if (state[outs.heads[j]] == REMAINING)
+                    longest = Math.max(longest, outs.weights[j]);
+            }
+            int count = 0;
+            for (int k = 0; k < ins.size; k++) {
+                int u = ins.heads[k];
+                if (state[u] != REMAINING)
+                    continue;
+                workspace.startWeighted(n, null);
+                int targets = 0;
+                for (int j = 0; j < outs.size; j++) {
+                    int x = outs.heads[j];
+                    if (x != u && state[x] == REMAINING) {
+                        workspace.parent[x] = TARGET;
+                        targets++;
+                    }
+                }
+                search(u, v, ins.weights[k] + longest, targets, workspace);
+                for (int j = 0; j < outs.size; j++) {
+                    int x = outs.heads[j];
+                    if (x == u || state[x] != REMAINING)
+                        continue;
+                    workspace.parent[x] = -1;
+                    long through = ins.weights[k] + outs.weights[j];
+                    if (!workspace.visited(x)
+                            || workspace.distance[x] > through) {
+                        count++;
+                        if (found != null)
+                            found.add(u, x, through, -1);
+                    }
+                }
+            }
+            return count;
+        }
+
+        /*
+         * Runs Dijkstra's algorithm from u among the remaining vertices other
+         * than v, in the started workspace, until the given number of targets
+         * marked by their parent are settled, the distances exceed limit or
+         * WITNESS_LIMIT vertices are settled. The tentative distances are
+         * upper bounds of the lengths of witnesses.
+         */
+        private void search(int u, int v, long limit, int targets,
+                TraversalWorkspace workspace) {
+            long[] dist = workspace.distance;
+            IndexedHeap heap = workspace.heap;
+            workspace.visit(u);
+            dist[u] = 0;
+            heap.offer(u, 0);
+            int settled = 0;
+            while (!heap.isEmpty() && settled < WITNESS_LIMIT) {
+                int y = heap.poll();
+                if (dist[y] > limit)
+                    break;
+                settled++;
+                if (workspace.parent[y] == TARGET && --targets == 0)
+                    break;
+                Arcs arcs = out[y];
+                for (int j = 0; j < arcs.size; j++) {
+                    int z = arcs.heads[j];
+                    if (z == v || state[z] != REMAINING)
+                        continue;
+                    long d = dist[y] + arcs.weights[j];
+                    if (workspace.visit(z) || d < dist[z]) {
+                        dist[z] = d;
+                        heap.offer(z, d);
+                    }
+                }
+            }
+        }
+
+        /*
+         * Keeps the arcs of v towards and from the remaining vertices, which
+         * are contracted after it, and marks it contracted.
+         */
+        private void contract(int v) {
+            up[v] = kept(out[v]);
+            down[v] = kept(in[v]);
+            for (int j = 0; j < up[v].size; j++)
+                in[up[v].heads[j]].remove(v);
+            for (int j = 0; j < down[v].size; j++)
+                out[down[v].heads[j]].remove(v);
+            state[v] = CONTRACTED;
+            out[v] = null;
+            in[v] = null;
+        }
+
+        /*
+         * Returns the arcs whose other end is remaining, and counts the
+         * contracted vertex as a contracted neighbor of these ends.
+         */
+        private Arcs kept(Arcs arcs) {
+            Arcs kept = new Arcs();
+            for (int j = 0; j < arcs.size; j++) {
+                int w = arcs.heads[j];
+                if (state[w] == REMAINING) {
+                    kept.add(w, arcs.weights[j], arcs.via[j]);
+                    deleted[w]++;
+                }
+            }
+            return kept;
+        }
+
+        /*
+         * Adds the shortcut from u to x through via, or shortens the arc from
+         * u to x if it is longer.
+         */
+        private void link(int u, int x, long weight, int via) {
+            int j = out[u].indexOf(x);
+            if (j < 0) {
+                out[u].add(x, weight, via);
+                in[x].add(u, weight, via);
+            } else if (weight < out[u].weights[j]) {
+                out[u].set(j, weight, via);
+                int k = in[x].indexOf(u);
+                in[x].set(k, weight, via);
+            }
+        }
+
+        /*
+         * Returns the remaining vertices adjacent to the selected ones, whose
+         * priorities changed.
+         */
+        private int[] touched(int[] selected) {
+            int[] touched = new int[16];
+            int count = 0;
+            round++;
+            for (int v: selected) {
+                for (Arcs arcs: new Arcs[] {up[v], down[v]}) {
+                    for (int j = 0; j < arcs.size; j++) {
+                        int w = arcs.heads[j];
+                        if (mark[w] == round)
+                            continue;
+                        mark[w] = round;
+                        if (count == touched.length)
+                            touched = Arrays.copyOf(touched, count * 2);
+                        touched[count++] = w;
+                    }
+                }
+            }
+            return Arrays.copyOf(touched, count);
+        }
+
+        /* Lays the kept arcs out in compressed sparse row form. */
+        private ContractionHierarchy build() {
+            int[] upOffsets = offsets(up);
+            int[] downOffsets = offsets(down);
+            int[] upTargets = new int[upOffsets[n]];
+            long[] upWeights = new long[upOffsets[n]];
+            int[] upVia = new int[upOffsets[n]];
+            int[] downSources = new int[downOffsets[n]];
+            long[] downWeights = new long[downOffsets[n]];
+            int[] downVia = new int[downOffsets[n]];
+            for (int v = 0; v < n; v++) {
+                up[v].copyTo(upTargets, upWeights, upVia, upOffsets[v]);
+                down[v].copyTo(downSources, downWeights, downVia,
+                        downOffsets[v]);
+            }
+            int[] labels = new int[n];
+            for (int v = 0; v < n; v++)
+                labels[v] = graph.labelOf(v);
+            return new ContractionHierarchy(labels, upOffsets, upTargets,
+                    upWeights, upVia, downOffsets, downSources, downWeights,
+                    downVia);
+        }
+
+        /* Returns the offsets of the given lists of arcs laid out in a row. */
+        private int[] offsets(Arcs[] arcs) {
+            int[] offsets = new int[n + 1];
+            for (int v = 0; v < n; v++)
+                offsets[v + 1] = offsets[v] + arcs[v].size;
+            return offsets;
+        }
+    }
+
+    /*
+     * A growable list of arcs from or to a vertex: the other end of every
+     * arc, its weight and its middle vertex, or -1 if it is not a shortcut.
+     * The shortcuts found by a witness search also keep their tail.
+     */
+    private static final class Arcs {
+
+        int[] tails = new int[0];
+        int[] heads = new int[4];
+        long[] weights = new long[4];
+        int[] via = new int[4];
+        int size;
+
+        void add(int head, long weight, int middle) {
+            if (size == heads.length) {
+                heads = Arrays.copyOf(heads, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+                via = Arrays.copyOf(via, size * 2);
+            }
+            heads[size] = head;
+            weights[size] = weight;
+            via[size] = middle;
+            size++;
+        }
+
+        void add(int tail, int head, long weight, int middle) {
+            add(head, weight, middle);
+            if (tails.length < heads.length)
+                tails = Arrays.copyOf(tails, heads.length);
+            tails[size - 1] = tail;
+        }
+
+        int indexOf(int head) {
+            for (int j = 0; j < size; j++) {
+                if (heads[j] == head)
+                    return j;
+            }
+            return -1;
+        }
+
+        void remove(int head) {
+            int j = indexOf(head);
+            size--;
+            heads[j] = heads[size];
+            weights[j] = weights[size];
+            via[j] = via[size];
+        }
+
+        void set(int j, long weight, int middle) {
+            weights[j] = weight;
+            via[j] = middle;
+        }
+
+        void copyTo(int[] heads, long[] weights, int[] via, int from) {
+            System.arraycopy(this.heads, 0, heads, from, size);
+            System.arraycopy(this.weights, 0, weights, from, size);
+            System.arraycopy(this.via, 0, via, from, size);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package dev.jraf;
+
+import java.util.List;
+import java.util.Collections;
+
+/**
+ * A cut of a network, that is a partition of its vertices in a source side
+ * that contains the source and a sink side that contains the sink. The edges
+ * of the cut are the edges that go from the source side to the sink side, and
+ * the capacity of the cut is the sum of their capacities. When the cut is
+ * computed from a maximum flow, its capacity equals the value of the flow,
+ * which certifies that both are optimal, and its edges are the bottlenecks of
+ * the network.
+ *
+ * @see Network#minCut(EdgeToNaturalFunction)
+ */
+public final class Cut {
+
+    private final List<Vertex> sourceSide;
+    private final List<Edge> edges;
+    private final long capacity;
+
+    /**
+     * Class constructor that specifies the source side, the edges and the
+     * capacity of the cut.
+     *
+     * @param sourceSide a non-null list of vertices, the source side
+     * @param edges      a non-null list of edges, the edges of the cut
+     * @param capacity   a long, the sum of the capacities of the edges
+     */
+    Cut(List<Vertex> sourceSide, List<Edge> edges, long capacity) {
+        this.sourceSide = Collections.unmodifiableList(sourceSide);
+        this.edges = Collections.unmodifiableList(edges);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the vertices of the source side of this cut.
+     *
+     * @return an unmodifiable list of vertices, that contains the source
+     */
+    public List<Vertex> sourceSide() {
+        return sourceSide;
+    }
+
+    /**
+     * Returns the edges of this cut, from the source side to the sink side.
+     *
+     * @return an unmodifiable list of edges, the edges of this cut
+     */
+    public List<Edge> edges() {
+        return edges;
+    }
+
+    /**
+     * Returns the capacity of this cut, that is the sum of the capacities of
+     * its edges.
+     *
+     * @return a long, the capacity of this cut
+     */
+    public long capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,881 @@
+package dev.jraf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A mutable graph made of a read-only base in compressed sparse row form and
+ * of a small delta of the arcs added and removed since the base was built, in
+ * the style of a log-structured merge tree. The changes only touch the delta,
+ * and the reads merge the base and the delta on the fly: an arc is present if
+ * the delta added it, or if it is in the base and the delta did not remove
+ * it.
+ *
+ * When the delta holds threshold changes, it is frozen and a new, empty delta
+ * receives the next changes, while the frozen one is merged with the base into
+ * a new base in the background. The reads meanwhile merge the base, the frozen
+ * delta and the new delta, and the new base replaces the first two at once
+ * when it is ready, so that the readers always see every change made before
+ * their read. The ids of the vertices are given in insertion order, and the
+ * heads of the arcs of a vertex in the base are sorted.
+ *
+ * A removed vertex loses its arcs through the delta, and its id is left as a
+ * tombstone. Once the tombstones are half of the ids, the delta is merged and
+ * the remaining vertices are renumbered in a new base, without them.
+ *
+ * The graph is thread-safe: the reads run concurrently, and the changes wait
+ * for them. A traversal sees the graph as it was when it started. The merge of
+ * a compaction runs without holding the lock.
+ *
+ * @see CompactGraph
+ */
+public final class DeltaGraph implements Graph {
+
+    /** The default number of changes from which the delta is compacted. */
+    public static final int DEFAULT_THRESHOLD = 1 << 16;
+    private static final String NULL_VERTEX_ERR = "vertex must be non-null";
+    private static final String NULL_VERTICES_ERR = "vertices must be non-null";
+    private final int threshold;
+    private final Executor executor;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private LabelIndex index;
+    // the labels by id, whose prefix never changes once written
+    private int[] labels;
+    private boolean[] tombstones;
+    // the number of ids, tombstones included
+    private int size;
+    private int removed;
+    private CompactGraph base;
+    // the delta being merged into the base, or null
+    private Delta frozen;
+    private Delta active;
+    private CompletableFuture<Void> compaction;
+    private long compactions;
+    private long version;
+    // the last merged copy made by snapshot(), kept until the graph changes
+    private volatile Snapshot snapshot;
+
+    private DeltaGraph(CompactGraph base, int threshold, Executor executor) {
+        this.threshold = threshold;
+        this.executor = executor;
+        this.base = base;
+        size = base.size();
+        labels = new int[Math.max(16, size)];
+        tombstones = new boolean[labels.length];
+        index = new LabelIndex(size);
+        for (int id = 0; id < size; id++) {
+            labels[id] = base.labelOf(id);
+            index.add(labels[id]);
+        }
+        active = new Delta();
+        compaction = CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Creates a new empty delta graph, that compacts its delta every
+     * DEFAULT_THRESHOLD changes in the common fork-join pool.
+     *
+     * @return a new empty delta graph
+     */
+    public static DeltaGraph newDeltaGraph() {
+        return of(CompactGraph.of(new int[0], new int[1], new int[0]),
+                DEFAULT_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new delta graph whose base holds the vertices and arcs of the
+     * given graph, and that compacts its delta every DEFAULT_THRESHOLD changes
+     * in the common fork-join pool.
+     *
+     * @param graph a non-null graph
+     * @return      a new delta graph with the vertices and arcs of the graph
+     */
+    public static DeltaGraph of(Graph graph) {
+        return of(graph, DEFAULT_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new delta graph whose base holds the vertices and arcs of the
+     * given graph, and that compacts its delta every threshold changes with
+     * the given executor.
+     *
+     * @param graph     a non-null graph
+     * @param threshold a positive int, the number of changes that triggers a
+     *                  compaction
+     * @param executor  a non-null executor, that runs the compactions
+     * @return          a new delta graph with the vertices and arcs of the
+     *                  graph
+     */
+    public static DeltaGraph of(Graph graph, int threshold,
+            Executor executor) {
+        if (graph == null)
+            throw new NullPointerException("graph must be non-null");
+        if (executor == null)
+            throw new NullPointerException("executor must be non-null");
+        if (threshold <= 0)
+            throw new IllegalArgumentException("threshold must be positive");
+        CompactGraph compact = CompactGraph.of(graph);
+        int n = compact.size();
+        int[] offsets = compact.offsets();
+        int[] targets = compact.targets().clone();
+        for (int u = 0; u < n; u++)
+            Arrays.sort(targets, offsets[u], offsets[u + 1]);
+        int[] labels = new int[n];
+        for (int id = 0; id < n; id++)
+            labels[id] = compact.labelOf(id);
+        return new DeltaGraph(CompactGraph.of(labels, offsets, targets),
+                threshold, executor);
+    }
+
+    /**
+     * Returns the number of changes held by the deltas, that are not merged
+     * into the base yet.
+     *
+     * @return an int, the number of pending changes
+     */
+    public int deltaSize() {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            return active.size + (frozen != null ? frozen.size : 0);
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of compactions completed since this graph was
+     * created.
+     *
+     * @return a long, the number of compactions
+     */
+    public long compactionCount() {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            return compactions;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Merges every change made before the call into the base, and returns
+     * once the merge is done. A compaction running in the background is
+     * waited for first.
+     */
+    public void compact() {
+        while (true) {
+            CompletableFuture<Void> running;
+            Lock write = lock.writeLock();
+            write.lock();
+            try {
+                if (frozen == null) {
+                    if (active.size == 0 && size == base.size())
+                        return;
+                    startCompaction();
+                }
+                running = compaction;
+            } finally {
+                write.unlock();
+            }
+            running.join();
+        }
+    }
+
+    /*
+     * Freezes the active delta and merges it with the base in the background.
+     * The write lock must be held, and no compaction must be running.
+     */
+    private void startCompaction() {
+        CompactGraph lower = base;
+        Delta changes = active;
+        int count = size;
+        int[] names = labels;
+        frozen = changes;
+        active = new Delta();
+        compaction = CompletableFuture.runAsync(() -> {
+            GraphMutationEvent event = new GraphMutationEvent();
+            event.begin();
+            CompactGraph merged = merge(lower, changes, null, count, names);
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = "compaction";
+                event.graphSize = count;
+                event.arcs = merged.arcCount();
+                event.commit();
+            }
+            finishCompaction(merged);
+        }, executor);
+    }
+
+    /*
+     * Replaces the base and the frozen delta by the merged base, and starts
+     * the next compaction if the active delta is already full.
+     */
+    private void finishCompaction(CompactGraph merged) {
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            base = merged;
+            frozen = null;
+            compactions++;
+            if (removed * 2 > size)
+                reclaim();
+            else if (active.size >= threshold)
+                startCompaction();
+        } finally {
+            write.unlock();
+        }
+    }
+
+    /*
+     * Returns the base whose vertices are the count first ones, and whose
+     * arcs are those of the given base changed by the lower, then the upper
+     * delta, which can be null.
+     */
+    private static CompactGraph merge(CompactGraph base, Delta lower,
+            Delta upper, int count, int[] labels) {
+        int[] offsets = new int[count + 1];
+        int[] targets = new int[Math.max(16, base.arcCount())];
+        int m = 0;
+        for (int u = 0; u < count; u++) {
+            int bound = degreeBound(base, lower, upper, u);
+            if (m + bound > targets.length) {
+                targets = Arrays.copyOf(targets,
+                        Math.max(targets.length * 2, m + bound));
+            }
+            m = heads(base, lower, upper, u, targets, m);
+            offsets[u + 1] = m;
+        }
+        return CompactGraph.of(Arrays.copyOf(labels, count), offsets,
+                Arrays.copyOf(targets, m));
+    }
+
+    /*
+     * Merges the active delta into the base and renumbers the vertices
+     * without the tombstones, under the write lock, when no compaction is
+     * running.
+     */
+    private void reclaim() {
+        int[] newId = renumbering();
+        int live = size - removed;
+        CompactGraph merged = merge(base, active, null, size, labels);
+        base = renumbered(merged, newId, live);
+        active = new Delta();
+        labels = new int[Math.max(16, live)];
+        tombstones = new boolean[labels.length];
+        index = new LabelIndex(live);
+        for (int id = 0; id < live; id++) {
+            labels[id] = base.labelOf(id);
+            index.add(labels[id]);
+        }
+        size = live;
+        removed = 0;
+        compactions++;
+    }
+
+    /* Returns the new id of every id without the tombstones, or -1. */
+    private int[] renumbering() {
+        int[] newId = new int[size];
+        int live = 0;
+        for (int id = 0; id < size; id++)
+            newId[id] = tombstones[id] ? -1 : live++;
+        return newId;
+    }
+
+    /*
+     * Returns the given graph restricted to the ids whose new id is not -1,
+     * renumbered. The order of the heads is kept, as the renumbering is
+     * monotonic.
+     */
+    private static CompactGraph renumbered(CompactGraph graph, int[] newId,
+            int live) {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] labels = new int[live];
+        int[] newOffsets = new int[live + 1];
+        int[] newTargets = new int[graph.arcCount()];
+        int m = 0;
+        for (int u = 0; u < graph.size(); u++) {
+            int v = newId[u];
+            if (v < 0)
+                continue;
+            labels[v] = graph.labelOf(u);
+            for (int i = offsets[u]; i < offsets[u + 1]; i++)
+                newTargets[m++] = newId[targets[i]];
+            newOffsets[v + 1] = m;
+        }
+        return CompactGraph.of(labels, newOffsets,
+                Arrays.copyOf(newTargets, m));
+    }
+
+    /*
+     * Returns an upper bound of the number of arcs of u in the given base
+     * changed by the given deltas, which can be null.
+     */
+    private static int degreeBound(CompactGraph base, Delta lower,
+            Delta upper, int u) {
+        int bound = 0;
+        if (u < base.size())
+            bound += base.offsets()[u + 1] - base.offsets()[u];
+        if (lower != null)
+            bound += lower.sizeOf(u);
+        if (upper != null)
+            bound += upper.sizeOf(u);
+        return bound;
+    }
+
+    /*
+     * Writes the heads of the arcs of u in the given base changed by the
+     * given deltas, which can be null, into buffer from the given position,
+     * and returns the position after the last one. The sorted run of u in the
+     * base and the records of u in the deltas, sorted by head, are merged in
+     * one pass, so the heads are written in increasing order. The state of an
+     * arc is that of the highest level that holds it.
+     */
+    private static int heads(CompactGraph base, Delta lower, Delta upper,
+            int u, int[] buffer, int position) {
+        int[] targets = base.targets();
+        int i = 0;
+        int end = 0;
+        if (u < base.size()) {
+            i = base.offsets()[u];
+            end = base.offsets()[u + 1];
+        }
+        int j = 0;
+        int lowerEnd = lower == null ? 0 : lower.sizeOf(u);
+        int k = 0;
+        int upperEnd = upper == null ? 0 : upper.sizeOf(u);
+        while (i < end || j < lowerEnd || k < upperEnd) {
+            int x = i < end ? targets[i] : Integer.MAX_VALUE;
+            if (j < lowerEnd)
+                x = Math.min(x, Delta.headOf(lower.record(u, j)));
+            if (k < upperEnd)
+                x = Math.min(x, Delta.headOf(upper.record(u, k)));
+            boolean present = false;
+            if (i < end && targets[i] == x) {
+                present = true;
+                i++;
+            }
+            if (j < lowerEnd && Delta.headOf(lower.record(u, j)) == x)
+                present = lower.record(u, j++) >= 0;
+            if (k < upperEnd && Delta.headOf(upper.record(u, k)) == x)
+                present = upper.record(u, k++) >= 0;
+            if (present)
+                buffer[position++] = x;
+        }
+        return position;
+    }
+
+    /* Returns true if the arc from u to x is present, under a lock. */
+    private boolean isArc(int u, int x) {
+        int status = active.status(u, x);
+        if (status == 0 && frozen != null)
+            status = frozen.status(u, x);
+        if (status != 0)
+            return status > 0;
+        if (u >= base.size())
+            return false;
+        int[] offsets = base.offsets();
+        return Arrays.binarySearch(base.targets(), offsets[u],
+                offsets[u + 1], x) >= 0;
+    }
+
+    /*
+     * Makes the arc from u to x present or absent in the active delta, under
+     * the write lock, and starts a compaction if the delta is full.
+     */
+    private void set(int u, int x, boolean present) {
+        if (isArc(u, x) == present)
+            return;
+        active.toggle(u, x, present);
+        version++;
+        if (frozen == null && active.size >= threshold)
+            startCompaction();
+    }
+
+    /* Returns the id of the given label, added if absent, under the lock. */
+    private int idOrAdd(int label) {
+        int id = index.idOf(label);
+        if (id >= 0)
+            return id;
+        id = index.add(label);
+        if (id == labels.length) {
+            // a new array, so that a compaction reads the old one
+            labels = Arrays.copyOf(labels, id * 2);
+            tombstones = Arrays.copyOf(tombstones, id * 2);
+        }
+        labels[id] = label;
+        size++;
+        version++;
+        return id;
+    }
+
+    /* Returns the id of the given present vertex, under a lock. */
+    private int idOf(Vertex vertex, String absentMessage) {
+        if (vertex == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        int id = index.idOf(vertex.label());
+        if (id < 0)
+            throw new NoSuchElementException(absentMessage);
+        return id;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public void add(Vertex vertex) {
+        if (vertex == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        add(vertex.label());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public void add(int label) {
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            idOrAdd(label);
+        } finally {
+            write.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public void add(Vertex tail, Vertex head) {
+        if (tail == null || head == null)
+            throw new NullPointerException(NULL_VERTICES_ERR);
+        add(tail.label(), head.label());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public void add(int tail, int head) {
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            set(idOrAdd(tail), idOrAdd(head), true);
+        } finally {
+            write.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public void remove(Vertex tail, Vertex head) {
+        if (tail == null || head == null)
+            throw new NullPointerException(NULL_VERTICES_ERR);
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            int u = index.idOf(tail.label());
+            int x = index.idOf(head.label());
+            if (u < 0 || x < 0)
+                throw new IllegalArgumentException("vertices must be present");
+            set(u, x, false);
+        } finally {
+            write.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The arcs of the vertex are removed through the delta, and its id is
+     * reclaimed by a later renumbering.
+     *
+     * @param vertex a non-null present vertex
+     */
+    @Override public void remove(Vertex vertex) {
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            int u = idOf(vertex, "no such vertex");
+            int[] buffer = new int[degreeBound(base, frozen, active, u)];
+            int degree = heads(base, frozen, active, u, buffer, 0);
+            for (int i = 0; i < degree; i++)
+                set(u, buffer[i], false);
+            for (Vertex tail: tailsOf(u))
+                set(index.idOf(tail.label()), u, false);
+            index.remove(labels[u]);
+            tombstones[u] = true;
+            removed++;
+            version++;
+            if (frozen == null && removed * 2 > size)
+                reclaim();
+        } finally {
+            write.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> neighborsOf(Vertex vertex) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            int u = idOf(vertex, "no such vertex");
+            int[] buffer = new int[degreeBound(base, frozen, active, u)];
+            int degree = heads(base, frozen, active, u, buffer, 0);
+            List<Vertex> neighbors = new ArrayList<>(degree);
+            for (int i = 0; i < degree; i++)
+                neighbors.add(Vertex.of(labels[buffer[i]]));
+            return neighbors;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The predecessors in the base are read from its transpose, made once
+     * per base, and the deltas are scanned for the others.
+     *
+     * @param vertex a non-null, present vertex
+     * @return       a list of vertices, the predecessors of the given vertex
+     *               in this graph
+     */
+    @Override public List<Vertex> predecessorsOf(Vertex vertex) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            return tailsOf(idOf(vertex, "no such vertex"));
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /* Returns the tails of the arcs to x, under a lock. */
+    private List<Vertex> tailsOf(int x) {
+        List<Vertex> predecessors = new ArrayList<>();
+        if (x < base.size()) {
+            CompactGraph transposed = base.transposed();
+            int[] offsets = transposed.offsets();
+            int[] targets = transposed.targets();
+            for (int i = offsets[x]; i < offsets[x + 1]; i++) {
+                int u = targets[i];
+                if ((frozen == null || frozen.status(u, x) == 0)
+                        && active.status(u, x) == 0)
+                    predecessors.add(Vertex.of(labels[u]));
+            }
+        }
+        if (frozen != null)
+            frozen.addTails(x, active, labels, predecessors);
+        active.addTails(x, null, labels, predecessors);
+        return predecessors;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> vertices() {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            List<Vertex> vertices = new ArrayList<>(size - removed);
+            for (int id = 0; id < size; id++) {
+                if (!tombstones[id])
+                    vertices.add(Vertex.of(labels[id]));
+            }
+            return vertices;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public int degreeOf(Vertex vertex) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            int u = idOf(vertex, "vertex must be present");
+            int[] buffer = new int[degreeBound(base, frozen, active, u)];
+            return heads(base, frozen, active, u, buffer, 0);
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public long version() {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            return version;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public Map<Integer, Integer> breadthFirstSearch(Vertex source) {
+        if (source == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        try (TraversalWorkspace workspace = TraversalWorkspace.borrow()) {
+            breadthFirstSearch(source, workspace);
+            return workspace.parents();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The search merges the base and the deltas as it scans the arcs, and
+     * only allocates the buffer of the arcs of a vertex when it grows.
+     *
+     * @param source    a non-null present vertex
+     * @param workspace a non-null workspace
+     * @return          an int, the number of vertices reached from the source
+     */
+    @Override public int breadthFirstSearch(Vertex source,
+            TraversalWorkspace workspace) {
+        if (source == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        if (workspace == null)
+            throw new NullPointerException("workspace must be non-null");
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            int src = index.idOf(source.label());
+            if (src < 0)
+                throw new IllegalArgumentException("vertex must be present");
+            search(src, workspace);
+            return workspace.reached;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /* Runs a breadth-first search from src in workspace, under a lock. */
+    private void search(int src, TraversalWorkspace workspace) {
+        workspace.start(size, labels);
+        int[] parent = workspace.parent;
+        int[] depth = workspace.depth;
+        int[] queue = workspace.queue;
+        int[] buffer = new int[16];
+        int first = 0;
+        int last = 0;
+        long scanned = 0;
+        int peak = 0;
+        workspace.visit(src);
+        parent[src] = src;
+        depth[src] = 0;
+        queue[last++] = src;
+        while (first < last) {
+            if (last - first > peak)
+                peak = last - first;
+            int u = queue[first++];
+            int bound = degreeBound(base, frozen, active, u);
+            if (bound > buffer.length)
+                buffer = new int[Math.max(bound, buffer.length * 2)];
+            int degree = heads(base, frozen, active, u, buffer, 0);
+            scanned += degree;
+            for (int i = 0; i < degree; i++) {
+                int v = buffer[i];
+                if (workspace.visit(v)) {
+                    parent[v] = u;
+                    depth[v] = depth[u] + 1;
+                    queue[last++] = v;
+                }
+            }
+        }
+        workspace.reached = last;
+        workspace.scanned = scanned;
+        workspace.peak = peak;
+    }
+
+    /*
+     * Returns a compact copy of this graph as it is now: the base itself when
+     * the deltas are empty and there are no tombstones, or the merge of the
+     * base and the deltas, without the tombstones. The merge is kept with the
+     * version it copies, so that repeated queries on an unchanged graph reuse
+     * it, and the transpose it makes for their searches.
+     */
+    private CompactGraph snapshot() {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            if (frozen == null && active.size == 0 && size == base.size()
+                    && removed == 0)
+                return base;
+            Snapshot last = snapshot;
+            if (last != null && last.version == version)
+                return last.graph;
+            CompactGraph merged = frozen == null
+                ? merge(base, active, null, size, labels)
+                : merge(base, frozen, active, size, labels);
+            if (removed > 0)
+                merged = renumbered(merged, renumbering(), size - removed);
+            snapshot = new Snapshot(version, merged);
+            return merged;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The search runs on a compact copy of this graph, that is the base
+     * itself when there are no pending changes.
+     *
+     * @param from a non-null present vertex, the first vertex of the path
+     * @param to   a non-null present vertex, the last vertex of the path
+     * @return     a list of vertices, a shortest path from the first vertex
+     *             to the last one, or an empty list
+     */
+    @Override public List<Vertex> shortestPath(Vertex from, Vertex to) {
+        return snapshot().shortestPath(from, to);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The check runs on a compact copy of this graph, that is the base
+     * itself when there are no pending changes.
+     *
+     * @return a boolean, true if this graph contains no cycle
+     */
+    @Override public boolean isAcyclic() {
+        return snapshot().isAcyclic();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public Components weaklyConnectedComponents() {
+        return Components.weakOf(snapshot());
+    }
+
+    /* A merged copy of the graph, with the version it copies. */
+    private static final class Snapshot {
+
+        final long version;
+        final CompactGraph graph;
+
+        Snapshot(long version, CompactGraph graph) {
+            this.version = version;
+            this.graph = graph;
+        }
+    }
+
+    /*
+     * The changes of the arcs since a base, as records by tail: the head of
+     * an added arc, or the complement of the head of a removed arc. A record
+     * always differs from the state of the arc in the levels below it, so that
+     * a second change of the arc drops the record. The records of a tail are
+     * kept sorted by head, so that a record is found by binary search and the
+     * records merge with the sorted runs of the base.
+     */
+    private static final class Delta {
+
+        private int[][] records = new int[16][];
+        private int[] sizes = new int[16];
+        // the number of records
+        int size;
+
+        /* Returns the head of the arc of the given record. */
+        static int headOf(int record) {
+            return record < 0 ? ~record : record;
+        }
+
+        /* Returns 1 if u to x was added, -1 if removed, 0 if unchanged. */
+        int status(int u, int x) {
+            if (u >= sizes.length)
+                return 0;
+            int j = find(u, x);
+            if (j < 0)
+                return 0;
+            return records[u][j] < 0 ? -1 : 1;
+        }
+
+        /* Returns the number of records of u. */
+        int sizeOf(int u) {
+            return u < sizes.length ? sizes[u] : 0;
+        }
+
+        /* Returns the j-th record of u in increasing order of head. */
+        int record(int u, int j) {
+            return records[u][j];
+        }
+
+        /*
+         * Returns the index of the record of u to x, or -(i + 1) if there is
+         * none and it would be inserted at index i.
+         */
+        private int find(int u, int x) {
+            int[] arcs = records[u];
+            int low = 0;
+            int high = sizes[u] - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int head = headOf(arcs[mid]);
+                if (head < x)
+                    low = mid + 1;
+                else if (head > x)
+                    high = mid - 1;
+                else
+                    return mid;
+            }
+            return -(low + 1);
+        }
+
+        /*
+         * Drops the record of u to x if there is one, as the arc goes back to
+         * its state below, or records that it is now present or absent.
+         */
+        void toggle(int u, int x, boolean present) {
+            if (u >= sizes.length) {
+                int capacity = Math.max(u + 1, sizes.length * 2);
+                records = Arrays.copyOf(records, capacity);
+                sizes = Arrays.copyOf(sizes, capacity);
+            }
+            int j = find(u, x);
+            int[] arcs = records[u];
+            if (j >= 0) {
+                System.arraycopy(arcs, j + 1, arcs, j, --sizes[u] - j);
+                size--;
+                return;
+            }
+            j = -(j + 1);
+            if (arcs == null)
+                arcs = records[u] = new int[4];
+            else if (sizes[u] == arcs.length)
+                arcs = records[u] = Arrays.copyOf(arcs, arcs.length * 2);
+            System.arraycopy(arcs, j, arcs, j + 1, sizes[u]++ - j);
+            arcs[j] = present ? x : ~x;
+            size++;
+        }
+
+        /*
+         * Adds to tails the vertices whose arc to x was added by this delta
+         * and is not changed by the upper delta, which can be null.
+         */
+        void addTails(int x, Delta upper, int[] labels, List<Vertex> tails) {
+            for (int u = 0; u < sizes.length; u++) {
+                if (status(u, x) > 0
+                        && (upper == null || upper.status(u, x) == 0))
+                    tails.add(Vertex.of(labels[u]));
+            }
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package dev.jraf;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A graph that never contains a cycle. The addition of an arc that would close
+ * a cycle, loops included, is rejected with an IllegalArgumentException, and
+ * leaves the graph unchanged. A topological order of the vertices is
+ * maintained incrementally, so that the cost of an insertion only depends on
+ * the part of the graph that has to be reordered, and not on the size of the
+ * graph.
+ *
+ * A removed vertex leaves its id behind as a tombstone, so that removals do
+ * not renumber the other vertices. Once the tombstones are half of the ids,
+ * the remaining vertices are renumbered in topological order.
+ *
+ * @see Graph
+ * @see TopologicalOrder
+ */
+public class DirectedAcyclicGraph implements Graph {
+
+    private static final String NULL_VERTEX_ERR = "vertex must be non-null";
+    private static final String NULL_VERTICES_ERR = "vertices must be non-null";
+    private LabelIndex index;
+    private final TopologicalOrder order;
+    private int[] labels;
+    // the number of tombstones among the ids
+    private int removed;
+    // compact copy searched for shortest paths, null when outdated
+    private CompactGraph snapshot;
+    // the number of changes of the vertices and arcs
+    private long version;
+
+    private DirectedAcyclicGraph() {
+        index = new LabelIndex(16);
+        order = new TopologicalOrder();
+        labels = new int[16];
+    }
+
+    /**
+     * Creates a new empty directed acyclic graph and returns it.
+     *
+     * @return a new empty directed acyclic graph
+     */
+    public static DirectedAcyclicGraph newDirectedAcyclicGraph() {
+        return new DirectedAcyclicGraph();
+    }
+
+    private int idOrAdd(int label) {
+        int id = index.idOf(label);
+        if (id >= 0)
+            return id;
+        index.add(label);
+        snapshot = null;
+        version++;
+        id = order.addVertex();
+        if (id == labels.length)
+            labels = Arrays.copyOf(labels, id * 2);
+        labels[id] = label;
+        return id;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public void add(Vertex vertex) {
+        if (vertex == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        idOrAdd(vertex.label());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public void add(int label) {
+        idOrAdd(label);
+    }
+
+    /**
+     * Adds the arc from tail to head to this graph, unless it closes a cycle,
+     * in which case an IllegalArgumentException is thrown. Loops are cycles.
+     * The addition of an already present arc has no effect.
+     *
+     * @param tail a non-null vertex, the tail of the arc
+     * @param head a non-null vertex, the head of the arc
+     */
+    @Override public void add(Vertex tail, Vertex head) {
+        if (tail == null || head == null)
+            throw new NullPointerException(NULL_VERTICES_ERR);
+        add(tail.label(), head.label());
+    }
+
+    /**
+     * Adds the arc between the vertices of given labels to this graph, unless
+     * it closes a cycle, in which case an IllegalArgumentException is thrown.
+     * Loops are cycles. The addition of an already present arc has no effect.
+     *
+     * @param tail an int, the label of the tail of the arc
+     * @param head an int, the label of the head of the arc
+     */
+    @Override public void add(int tail, int head) {
+        if (tail == head)
+            throw new IllegalArgumentException("cannot form cycle");
+        int x = idOrAdd(tail);
+        int y = idOrAdd(head);
+        if (!order.addArc(x, y))
+            throw new IllegalArgumentException("cannot form cycle");
+        snapshot = null;
+        version++;
+    }
+
+    private int idOf(Vertex vertex) {
+        if (vertex == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        int id = index.idOf(vertex.label());
+        if (id < 0)
+            throw new NoSuchElementException("no such vertex");
+        return id;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> neighborsOf(Vertex vertex) {
+        int id = idOf(vertex);
+        int degree = order.outDegree(id);
+        List<Vertex> neighbors = new ArrayList<>(degree);
+        for (int i = 0; i < degree; i++)
+            neighbors.add(Vertex.of(labels[order.successor(id, i)]));
+        return neighbors;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> predecessorsOf(Vertex vertex) {
+        int id = idOf(vertex);
+        int degree = order.inDegree(id);
+        List<Vertex> predecessors = new ArrayList<>(degree);
+        for (int i = 0; i < degree; i++)
+            predecessors.add(Vertex.of(labels[order.predecessor(id, i)]));
+        return predecessors;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> vertices() {
+        List<Vertex> vertices = new ArrayList<>(order.size() - removed);
+        for (int id = 0; id < order.size(); id++) {
+            if (!order.isRemoved(id))
+                vertices.add(Vertex.of(labels[id]));
+        }
+        return vertices;
+    }
+
+    /**
+     * Returns the vertices of this graph in a topological order, that is such
+     * that the tail of every arc comes before its head.
+     *
+     * @return a list of vertices, sorted topologically
+     */
+    public List<Vertex> topologicalOrder() {
+        List<Vertex> vertices = new ArrayList<>(order.size() - removed);
+        for (int pos = 0; pos < order.size(); pos++) {
+            int id = order.vertexAt(pos);
+            if (!order.isRemoved(id))
+                vertices.add(Vertex.of(labels[id]));
+        }
+        return vertices;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public long version() {
+        return version;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public void remove(Vertex tail, Vertex head) {
+        if (tail == null || head == null)
+            throw new NullPointerException(NULL_VERTICES_ERR);
+        int x = index.idOf(tail.label());
+        int y = index.idOf(head.label());
+        if (x < 0 || y < 0)
+            throw new IllegalArgumentException("vertices must be present");
+        if (order.removeArc(x, y)) {
+            snapshot = null;
+            version++;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The id of the vertex is left as a tombstone, and the ids are compacted
+     * once the tombstones are half of them.
+     *
+     * @param vertex a non-null present vertex
+     */
+    @Override public void remove(Vertex vertex) {
+        int id = idOf(vertex);
+        order.removeVertex(id);
+        index.remove(labels[id]);
+        removed++;
+        snapshot = null;
+        version++;
+        if (removed * 2 > order.size())
+            compact();
+    }
+
+    /* Renumbers the remaining vertices and drops the tombstones. */
+    private void compact() {
+        int size = order.size();
+        int[] newId = order.compact();
+        int[] oldLabels = labels;
+        labels = new int[Math.max(16, order.size())];
+        index = new LabelIndex(labels.length);
+        for (int id = 0; id < size; id++) {
+            if (newId[id] >= 0)
+                labels[newId[id]] = oldLabels[id];
+        }
+        for (int id = 0; id < order.size(); id++)
+            index.add(labels[id]);
+        removed = 0;
+    }
+
+    /* Runs a breadth-first search from the vertex of id src in workspace. */
+    private void search(int src, TraversalWorkspace workspace) {
+        workspace.start(order.size(), labels);
+        int[] parent = workspace.parent;
+        int[] depth = workspace.depth;
+        int[] queue = workspace.queue;
+        int last = 0;
+        workspace.visit(src);
+        parent[src] = src;
+        depth[src] = 0;
+        queue[last++] = src;
+        for (int first = 0; first < last; first++) {
+            int u = queue[first];
+            for (int i = 0; i < order.outDegree(u); i++) {
+                int v = order.successor(u, i);
+                if (workspace.visit(v)) {
+                    parent[v] = u;
+                    depth[v] = depth[u] + 1;
+                    queue[last++] = v;
+                }
+            }
+        }
+        workspace.reached = last;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public Map<Integer, Integer> breadthFirstSearch(Vertex source) {
+        if (source == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        int src = index.idOf(source.label());
+        if (src < 0)
+            throw new IllegalArgumentException("vertex must be present");
+        try (TraversalWorkspace workspace = TraversalWorkspace.borrow()) {
+            search(src, workspace);
+            return workspace.parents();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public int breadthFirstSearch(Vertex source,
+            TraversalWorkspace workspace) {
+        if (source == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        if (workspace == null)
+            throw new NullPointerException("workspace must be non-null");
+        int src = index.idOf(source.label());
+        if (src < 0)
+            throw new IllegalArgumentException("vertex must be present");
+        search(src, workspace);
+        return workspace.reached;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The search runs on a compact copy of this graph, which is only made
+     * again when the graph changed since the last search.
+     *
+     * @param from a non-null present vertex, the first vertex of the path
+     * @param to   a non-null present vertex, the last vertex of the path
+     * @return     a list of vertices, a shortest path from the first vertex
+     *             to the last one, or an empty list
+     */
+    @Override public List<Vertex> shortestPath(Vertex from, Vertex to) {
+        if (snapshot == null)
+            snapshot = CompactGraph.of(this);
+        return snapshot.shortestPath(from, to);
+    }
+
+    /**
+     * Returns true, as this graph rejects the arcs that close cycles.
+     *
+     * @return true
+     */
+    @Override public boolean isAcyclic() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public int degreeOf(Vertex vertex) {
+        if (vertex == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        int id = index.idOf(vertex.label());
+        if (id < 0)
+            throw new NoSuchElementException("vertex must be present");
+        return order.outDegree(id);
+    }
+}
@@ -19,6 +19,16 @@ public class EdgeFunction {
         assoc = new HashMap<>();
     }
 
+    /**
+     * Class constructor that initializes the empty function, sized for the
+     * given expected number of edges.
+     *
+     * @param expected an int, the expected number of edges
+     */
+    EdgeFunction(int expected) {
+        assoc = new HashMap<>(expected * 4 / 3 + 1);
+    }
+
     /**
      * Returns the value associated to the edge denoted by the given vertices.
      * The vertices must be non-null and present.
@@ -51,6 +61,20 @@ public class EdgeFunction {
         assoc.put(Edge.of(tail.label(), head.label()), value);
     }
 
+    /**
+     * Returns true if a value is associated to the edge denoted by the given
+     * vertices. The vertices must be non-null.
+     *
+     * @param tail a non-null vertex, the tail of the edge
+     * @param head a non-null vertex, the head of the edge
+     * @return     true if the edge is associated to a value
+     */
+    public boolean contains(Vertex tail, Vertex head) {
+        if (tail == null || head == null)
+            throw new NullPointerException("vertices must be non-null");
+        return assoc.containsKey(Edge.of(tail.label(), head.label()));
+    }
+
     /**
      * Removes the association between the edge represented by the given
      * vertices and the integer value. The vertices must be non-null and the
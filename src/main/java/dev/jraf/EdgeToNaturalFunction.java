@@ -20,6 +20,16 @@ public class EdgeToNaturalFunction {
         func = new EdgeFunction();
     }
 
+    /**
+     * Class constructor that creates an empty capacity function, sized for the
+     * given expected number of edges.
+     *
+     * @param expected an int, the expected number of edges
+     */
+    EdgeToNaturalFunction(int expected) {
+        func = new EdgeFunction(expected);
+    }
+
     /**
      * Returns the value associated to the edge denoted by the given vertices.
      * The vertices must be non-null and present.
@@ -32,6 +42,18 @@ public class EdgeToNaturalFunction {
         return func.get(tail, head);
     }
 
+    /**
+     * Returns true if a value is associated to the edge denoted by the given
+     * vertices. The vertices must be non-null.
+     *
+     * @param tail a non-null vertex, the tail of the edge
+     * @param head a non-null vertex, the head of the edge
+     * @return     true if the edge is associated to a value
+     */
+    public boolean contains(Vertex tail, Vertex head) {
+        return func.contains(tail, head);
+    }
+
     /**
      * Associates the given value to the edge represented by the given tail
      * and head vertices. The vertices must be non null and the value must be
@@ -47,4 +69,16 @@ public class EdgeToNaturalFunction {
             throw new IllegalArgumentException("value must be >= 0");
         func.add(tail, head, value);
     }
+
+    /**
+     * Removes the value associated to the edge represented by the given
+     * vertices. The vertices must be non-null and the corresponding edge must
+     * be present.
+     *
+     * @param tail a non-null vertex, the tail of the edge
+     * @param head a non-null vertex, the head of the edge
+     */
+    public void remove(Vertex tail, Vertex head) {
+        func.remove(tail, head);
+    }
 }
@@ -1,5 +1,6 @@
 package dev.jraf;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -63,6 +64,30 @@ public interface Graph {
      */
     List<Vertex> neighborsOf(Vertex vertex);
 
+    /**
+     * Returns the list of the predecessors of the given vertex. The vertex
+     * must be non-null and present in the graph. A predecessor is a vertex
+     * that is the tail of an edge that has the given vertex as head. The
+     * default implementation scans the neighbors of every vertex.
+     *
+     * @param vertex a non-null, present vertex
+     * @return       a list of vertices, the predecessors of the given vertex
+     *               in this graph
+     */
+    default List<Vertex> predecessorsOf(Vertex vertex) {
+        if (vertex == null)
+            throw new NullPointerException("vertex must be non-null");
+        List<Vertex> vertices = vertices();
+        if (!vertices.contains(vertex))
+            throw new NoSuchElementException("no such vertex");
+        List<Vertex> predecessors = new ArrayList<>();
+        for (Vertex u: vertices) {
+            if (neighborsOf(u).contains(vertex))
+                predecessors.add(u);
+        }
+        return predecessors;
+    }
+
     /**
      * Returns the vertices of this graph.
      *
@@ -70,6 +95,18 @@ public interface Graph {
      */
     List<Vertex> vertices();
 
+    /**
+     * Returns the version of this graph, a counter increased by every change
+     * of its vertices or arcs, so that a result computed from the graph stays
+     * valid as long as the version is the same. The default implementation
+     * returns -1, which tells that the changes of the graph are not counted.
+     *
+     * @return a long, the version of this graph, or -1 if it is not counted
+     */
+    default long version() {
+        return -1;
+    }
+
     /**
      * Removes the edge that links the given tail to the given head. The
      * vertices must be non-null and present. If the edge does not exist, does
@@ -80,6 +117,14 @@ public interface Graph {
      */
     void remove(Vertex tail, Vertex head);
 
+    /**
+     * Removes the given vertex from this graph, with the arcs that start or
+     * end at it. The vertex must be non-null and present.
+     *
+     * @param vertex a non-null present vertex, the vertex to remove
+     */
+    void remove(Vertex vertex);
+
     /**
      * Performs a breadth-first search starting from the given vertex in this
      * graph and returns the resulting vertex label to parent label association.
@@ -94,6 +139,44 @@ public interface Graph {
      */
     Map<Integer, Integer> breadthFirstSearch(Vertex source);
 
+    /**
+     * Performs a breadth-first search starting from the given vertex in this
+     * graph, in the given workspace, and returns the number of reached
+     * vertices. The workspace then holds the reached vertices in the order
+     * they were reached, with their parent and their depth. Unlike
+     * breadthFirstSearch(Vertex), this search allocates no memory for its
+     * result. The default implementation searches a compact copy of this
+     * graph; the array-based implementations of this package search in place
+     * and allocate nothing once the workspace has grown to their size.
+     *
+     * @param source    a non-null present vertex
+     * @param workspace a non-null workspace, see TraversalWorkspace.borrow()
+     * @return          an int, the number of vertices reached from the source
+     */
+    default int breadthFirstSearch(Vertex source,
+            TraversalWorkspace workspace) {
+        return CompactGraph.of(this).breadthFirstSearch(source, workspace);
+    }
+
+    /**
+     * Returns a path with the fewest arcs from the given vertex to the other
+     * given vertex, both included, or an empty list if there is no path. The
+     * path is found by a bidirectional breadth-first search, that alternately
+     * expands a level of the search from the first vertex along the arcs and
+     * a level of the search from the last vertex against the arcs, always the
+     * one whose frontier is smaller, and stops as soon as they meet. Unlike
+     * breadthFirstSearch(Vertex), it only explores the neighborhoods of both
+     * ends up to about half the distance between them.
+     *
+     * @param from a non-null present vertex, the first vertex of the path
+     * @param to   a non-null present vertex, the last vertex of the path
+     * @return     a list of vertices, a shortest path from the first vertex
+     *             to the last one, or an empty list
+     */
+    default List<Vertex> shortestPath(Vertex from, Vertex to) {
+        return CompactGraph.of(this).shortestPath(from, to);
+    }
+
     /**
      * Returns true if there is no cycle in the graph. A cycle is a sequence of
      * edges of the graph, such that:
@@ -134,4 +217,15 @@ public interface Graph {
     default int degreeOf(int label) {
         return degreeOf(Vertex.of(label));
     }
+
+    /**
+     * Returns the weakly connected components of this graph. Two vertices are
+     * in the same weakly connected component if there is a path between them
+     * when the direction of the arcs is ignored.
+     *
+     * @return the weakly connected components of this graph
+     */
+    default Components weaklyConnectedComponents() {
+        return Components.weakOf(CompactGraph.of(this));
+    }
 }
@@ -0,0 +1,467 @@
+package dev.jraf;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * A generator of synthetic graphs, for load tests that need large graphs that
+ * can be reproduced from a seed. The vertices of a generated graph are labeled
+ * from 0 to vertexCount() - 1, and its arcs are distinct: the parallel arcs a
+ * model may produce are merged.
+ *
+ * The arcs are sampled in parallel, in blocks of a fixed number of arcs. Each
+ * block draws from its own random generator, split from a generator seeded
+ * with the given seed in the order of the blocks, so the same seed yields the
+ * same graph whatever the number of threads. The weights and capacities are
+ * drawn the same way, once the arcs are sorted. The graph is then built in
+ * bulk from the sorted arcs, without going through the checks of the
+ * insertion of a single arc.
+ *
+ * @see Graph
+ * @see WeightedGraph
+ * @see Network
+ */
+public final class GraphGenerator {
+
+    // number of arcs sampled from the same random generator
+    static final int BLOCK = 1 << 14;
+    private static final int MAX_ARCS = Integer.MAX_VALUE - 8;
+    private static final long WEIGHT_SALT = 0x9E3779B97F4A7C15L;
+    // the value of a sampled slot that holds no arc
+    private static final long NONE = -1;
+    private final long seed;
+    private final CompactGraph graph;
+
+    /*
+     * Samples the arc of given index, packed as the tail in the high half and
+     * the head in the low half of a long.
+     */
+    @FunctionalInterface
+    private interface ArcSampler {
+        long sample(long index, SplittableRandom random);
+    }
+
+    private GraphGenerator(long seed, CompactGraph graph) {
+        this.seed = seed;
+        this.graph = graph;
+    }
+
+    /**
+     * Generates a recursive matrix (R-MAT) graph with the Graph500 parameters
+     * a = 0.57, b = 0.19 and c = 0.19. See rmat(int, int, double, double,
+     * double, long).
+     *
+     * @param scale      an int in [1, 30], the base 2 logarithm of the number
+     *                   of vertices
+     * @param edgeFactor an int greater than 0, the number of sampled arcs per
+     *                   vertex
+     * @param seed       a long, the seed of the random generators
+     * @return           the generator of the sampled graph
+     */
+    public static GraphGenerator rmat(int scale, int edgeFactor, long seed) {
+        return rmat(scale, edgeFactor, 0.57, 0.19, 0.19, seed);
+    }
+
+    /**
+     * Generates a recursive matrix (R-MAT) graph, the Kronecker graph of the
+     * Graph500 benchmark. The graph has 2^scale vertices, and edgeFactor *
+     * 2^scale arcs are sampled. Each arc is placed by choosing scale times one
+     * of the four quadrants of the adjacency matrix, with probabilities a, b,
+     * c and 1 - a - b - c. This yields a skewed degree distribution, with
+     * loops and parallel arcs, which are merged.
+     *
+     * @param scale      an int in [1, 30], the base 2 logarithm of the number
+     *                   of vertices
+     * @param edgeFactor an int greater than 0, the number of sampled arcs per
+     *                   vertex
+     * @param a          a double, the probability of the top left quadrant
+     * @param b          a double, the probability of the top right quadrant
+     * @param c          a double, the probability of the bottom left quadrant
+     * @param seed       a long, the seed of the random generators
+     * @return           the generator of the sampled graph
+     */
+    public static GraphGenerator rmat(int scale, int edgeFactor, double a,
+            double b, double c, long seed) {
+        if (scale < 1 || scale > 30)
+            throw new IllegalArgumentException("scale must be in [1, 30]");
+        if (edgeFactor <= 0)
+            throw new IllegalArgumentException("edge factor must be > 0");
+        if (a < 0 || b < 0 || c < 0 || a + b + c > 1) {
+            throw new IllegalArgumentException("quadrant probabilities must "
+                    + "be >= 0 and sum to at most 1");
+        }
+        GraphMutationEvent event = new GraphMutationEvent();
+        event.begin();
+        int n = 1 << scale;
+        long[] arcs = sample(arcCount((long) edgeFactor * n),
+                new SplittableRandom(seed), (index, random) -> {
+            int tail = 0;
+            int head = 0;
+            for (int bit = scale - 1; bit >= 0; bit--) {
+                double p = random.nextDouble();
+                if (p >= a + b + c) {
+                    tail |= 1 << bit;
+                    head |= 1 << bit;
+                } else if (p >= a + b) {
+                    tail |= 1 << bit;
+                } else if (p >= a) {
+                    head |= 1 << bit;
+                }
+            }
+            return pack(tail, head);
+        });
+        return generated(event, "R-MAT", seed, build(n, distinct(arcs)));
+    }
+
+    /**
+     * Generates an Erdős–Rényi graph G(n, m), that is a graph drawn uniformly
+     * among the graphs with n vertices and m distinct arcs without loops.
+     * Arcs are sampled until m distinct ones are found, so the generation
+     * slows down when m gets close to n * (n - 1).
+     *
+     * @param n    an int greater than 1, the number of vertices
+     * @param m    a long in [0, n * (n - 1)], the number of arcs
+     * @param seed a long, the seed of the random generators
+     * @return     the generator of the sampled graph
+     */
+    public static GraphGenerator erdosRenyi(int n, long m, long seed) {
+        if (n < 2)
+            throw new IllegalArgumentException("n must be > 1");
+        if (m < 0 || m > (long) n * (n - 1))
+            throw new IllegalArgumentException("m must be in [0, n(n - 1)]");
+        arcCount(m);
+        GraphMutationEvent event = new GraphMutationEvent();
+        event.begin();
+        SplittableRandom root = new SplittableRandom(seed);
+        long[] arcs = new long[0];
+        while (arcs.length < m) {
+            long[] more = sample(m - arcs.length, root, (index, random) -> {
+                int tail = random.nextInt(n);
+                int head = random.nextInt(n - 1);
+                return pack(tail, head >= tail ? head + 1 : head);
+            });
+            long[] all = Arrays.copyOf(arcs, arcs.length + more.length);
+            System.arraycopy(more, 0, all, arcs.length, more.length);
+            arcs = distinct(all);
+        }
+        return generated(event, "G(n, m)", seed, build(n, arcs));
+    }
+
+    /**
+     * Generates a Barabási–Albert graph by preferential attachment. Vertex 0
+     * is alone at first, and every following vertex is attached to degree
+     * vertices that came before it, drawn with a probability proportional to
+     * their degree. Every edge is added in both directions. Draws that
+     * designate a vertex twice or the vertex itself are merged or dropped, so
+     * the first vertices get fewer edges.
+     *
+     * The head of the i-th edge is an endpoint of one of the edges before it,
+     * drawn from a random value that only depends on the seed and on i. When
+     * that endpoint is itself a drawn head, it is resolved the same way, so
+     * the edges can be sampled in parallel.
+     *
+     * @param n      an int greater than 0, the number of vertices
+     * @param degree an int greater than 0, the number of edges per vertex
+     * @param seed   a long, the seed of the random values
+     * @return       the generator of the sampled graph
+     */
+    public static GraphGenerator barabasiAlbert(int n, int degree, long seed) {
+        if (n <= 0)
+            throw new IllegalArgumentException("n must be > 0");
+        if (degree <= 0)
+            throw new IllegalArgumentException("degree must be > 0");
+        GraphMutationEvent event = new GraphMutationEvent();
+        event.begin();
+        long edges = (long) (n - 1) * degree;
+        long[] arcs = sample(arcCount(2 * edges), new SplittableRandom(seed),
+                (index, random) -> {
+            long edge = index >>> 1;
+            int tail = (int) (edge / degree + 1);
+            int head = attachedHead(edge, degree, seed);
+            if (tail == head)
+                return NONE;
+            return (index & 1) == 0 ? pack(tail, head) : pack(head, tail);
+        });
+        return generated(event, "Barabasi-Albert", seed,
+                build(n, distinct(arcs)));
+    }
+
+    /*
+     * Returns the head of the given edge of a Barabási–Albert graph. The
+     * endpoints of the edges before it are, in order, the tail and the head
+     * of edge 0, of edge 1, and so on. The tail of edge j is j / degree + 1.
+     */
+    private static int attachedHead(long edge, int degree, long seed) {
+        while (edge > 0) {
+            long r = Math.floorMod(mix(seed + edge * WEIGHT_SALT), 2 * edge);
+            if ((r & 1) == 0)
+                return (int) ((r >>> 1) / degree + 1);
+            edge = r >>> 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Generates a grid of rows by columns vertices, where the vertex at row r
+     * and column c has label r * columns + c and is connected in both
+     * directions to the vertices next to it. With random weights, it is a
+     * simple model of a road network.
+     *
+     * @param rows    an int greater than 0, the number of rows
+     * @param columns an int greater than 0, the number of columns
+     * @param seed    a long, the seed of the weights and capacities
+     * @return        the generator of the grid
+     */
+    public static GraphGenerator grid(int rows, int columns, long seed) {
+        if (rows <= 0 || columns <= 0)
+            throw new IllegalArgumentException("dimensions must be > 0");
+        long n = (long) rows * columns;
+        if (n > MAX_ARCS)
+            throw new IllegalArgumentException("too many vertices");
+        GraphMutationEvent event = new GraphMutationEvent();
+        event.begin();
+        // four slots per vertex: right, left, down and up
+        long[] arcs = sample(arcCount(4 * n), new SplittableRandom(seed),
+                (index, random) -> {
+            int v = (int) (index >>> 2);
+            int r = v / columns;
+            int c = v % columns;
+            switch ((int) (index & 3)) {
+                case 0: return c + 1 < columns ? pack(v, v + 1) : NONE;
+                case 1: return c > 0 ? pack(v, v - 1) : NONE;
+                case 2: return r + 1 < rows ? pack(v, v + columns) : NONE;
+                default: return r > 0 ? pack(v, v - columns) : NONE;
+            }
+        });
+        return generated(event, "grid", seed,
+                build((int) n, distinct(arcs)));
+    }
+
+    /**
+     * Generates a layered directed acyclic graph. The vertices are split in
+     * layers of width vertices, the vertex at position x of layer l having
+     * label l * width + x, and every vertex outside the last layer has degree
+     * arcs drawn uniformly towards the next layer. Parallel arcs are merged.
+     *
+     * @param layers an int greater than 0, the number of layers
+     * @param width  an int greater than 0, the number of vertices per layer
+     * @param degree an int greater than or equal to 0, the number of arcs
+     *               drawn per vertex
+     * @param seed   a long, the seed of the random generators
+     * @return       the generator of the sampled graph
+     */
+    public static GraphGenerator layeredDag(int layers, int width, int degree,
+            long seed) {
+        if (layers <= 0 || width <= 0)
+            throw new IllegalArgumentException("dimensions must be > 0");
+        if (degree < 0)
+            throw new IllegalArgumentException("degree must be >= 0");
+        long n = (long) layers * width;
+        if (n > MAX_ARCS)
+            throw new IllegalArgumentException("too many vertices");
+        GraphMutationEvent event = new GraphMutationEvent();
+        event.begin();
+        long count = arcCount((long) (layers - 1) * width * degree);
+        long[] arcs = sample(count, new SplittableRandom(seed),
+                (index, random) -> {
+            int tail = (int) (index / degree);
+            int next = (tail / width + 1) * width;
+            return pack(tail, next + random.nextInt(width));
+        });
+        return generated(event, "layered DAG", seed,
+                build((int) n, distinct(arcs)));
+    }
+
+    /*
+     * Ends the given generation event, commits it if it is recorded, and
+     * returns the generator of the given graph.
+     */
+    private static GraphGenerator generated(GraphMutationEvent event,
+            String model, long seed, CompactGraph graph) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = "generate " + model;
+            event.graphSize = graph.size();
+            event.arcs = graph.arcCount();
+            event.commit();
+        }
+        return new GraphGenerator(seed, graph);
+    }
+
+    private static long arcCount(long count) {
+        if (count > MAX_ARCS)
+            throw new IllegalArgumentException("too many arcs");
+        return count;
+    }
+
+    private static long pack(int tail, int head) {
+        return (long) tail << 32 | head;
+    }
+
+    /*
+     * The finalizer of SplitMix64, the generator behind SplittableRandom,
+     * which turns a counter into a well mixed random value.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /*
+     * Samples count arcs in parallel. The generator of every block is split
+     * from root, in the order of the blocks, before the sampling starts.
+     */
+    private static long[] sample(long count, SplittableRandom root,
+            ArcSampler sampler) {
+        long[] arcs = new long[(int) count];
+        int blocks = (int) ((count + BLOCK - 1) / BLOCK);
+        SplittableRandom[] randoms = new SplittableRandom[blocks];
+        for (int b = 0; b < blocks; b++)
+            randoms[b] = root.split();
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            int end = (int) Math.min(count, (long) (b + 1) * BLOCK);
+            for (int i = b * BLOCK; i < end; i++)
+                arcs[i] = sampler.sample(i, randoms[b]);
+        });
+        return arcs;
+    }
+
+    /*
+     * Sorts the given packed arcs, and removes the duplicates and the empty
+     * slots.
+     */
+    private static long[] distinct(long[] arcs) {
+        Arrays.parallelSort(arcs);
+        int m = 0;
+        for (int i = 0; i < arcs.length; i++) {
+            if (arcs[i] != NONE && (m == 0 || arcs[i] != arcs[m - 1]))
+                arcs[m++] = arcs[i];
+        }
+        return Arrays.copyOf(arcs, m);
+    }
+
+    /*
+     * Builds the compact graph on the vertices 0 to n - 1 from the given
+     * sorted and distinct packed arcs.
+     */
+    private static CompactGraph build(int n, long[] arcs) {
+        int[] labels = new int[n];
+        Arrays.setAll(labels, v -> v);
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[arcs.length];
+        for (int i = 0; i < arcs.length; i++) {
+            offsets[(int) (arcs[i] >>> 32) + 1]++;
+            targets[i] = (int) arcs[i];
+        }
+        for (int v = 0; v < n; v++)
+            offsets[v + 1] += offsets[v];
+        return CompactGraph.of(labels, offsets, targets);
+    }
+
+    /*
+     * Draws one value in [min, max] per arc of the given graph, from
+     * generators split in the order of the blocks of arcs.
+     */
+    private int[] draw(CompactGraph graph, int min, int max, long salt) {
+        int m = graph.arcCount();
+        int[] values = new int[m];
+        long[] drawn = sample(m, new SplittableRandom(seed ^ salt),
+                (index, random) -> random.nextLong(min, (long) max + 1));
+        for (int i = 0; i < m; i++)
+            values[i] = (int) drawn[i];
+        return values;
+    }
+
+    /**
+     * Returns the number of vertices of the generated graph.
+     *
+     * @return an int, the number of vertices
+     */
+    public int vertexCount() {
+        return graph.size();
+    }
+
+    /**
+     * Returns the number of distinct arcs of the generated graph.
+     *
+     * @return an int, the number of arcs
+     */
+    public int arcCount() {
+        return graph.arcCount();
+    }
+
+    /**
+     * Returns the generated graph. The returned graph is read-only and stores
+     * its arcs in arrays, so that very large graphs fit in memory: its
+     * mutators throw an UnsupportedOperationException.
+     *
+     * @return the generated graph, read-only
+     */
+    public Graph graph() {
+        return graph;
+    }
+
+    /**
+     * Returns a new weighted graph with the generated vertices and arcs, where
+     * the weight of every arc is drawn uniformly in [minWeight, maxWeight].
+     *
+     * @param minWeight an int, the smallest weight
+     * @param maxWeight an int greater than or equal to minWeight, the largest
+     *                  weight
+     * @return          a new weighted graph
+     */
+    public WeightedGraph weightedGraph(int minWeight, int maxWeight) {
+        if (minWeight > maxWeight) {
+            throw new IllegalArgumentException("weight range must be "
+                    + "non-empty");
+        }
+        return WeightedGraph.of(graph, draw(graph, minWeight, maxWeight,
+                WEIGHT_SALT));
+    }
+
+    /**
+     * Returns a new network with the generated vertices and the given source
+     * and sink, where the capacity of every arc is drawn uniformly in [1,
+     * maxCapacity]. The arcs a network cannot hold, which are the loops, the
+     * arcs towards the source and the arcs from the sink, are left out.
+     *
+     * @param source      a non-null vertex of the generated graph
+     * @param sink        a non-null vertex of the generated graph, different
+     *                    than the source
+     * @param maxCapacity an int greater than 0, the largest capacity
+     * @return            a new network
+     */
+    public Network network(Vertex source, Vertex sink, int maxCapacity) {
+        if (source == null || sink == null)
+            throw new NullPointerException("vertices must be non-null");
+        if (source.equals(sink)) {
+            throw new IllegalArgumentException("source and sink must be not "
+                    + "equal");
+        }
+        int src = graph.idOf(source.label());
+        int snk = graph.idOf(sink.label());
+        if (src < 0 || snk < 0)
+            throw new NoSuchElementException("no such vertex");
+        if (maxCapacity <= 0)
+            throw new IllegalArgumentException("capacity must be > 0");
+        int n = graph.size();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        long[] arcs = new long[targets.length];
+        int m = 0;
+        for (int u = 0; u < n; u++) {
+            if (u == snk)
+                continue;
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                if (targets[i] != u && targets[i] != src)
+                    arcs[m++] = pack(u, targets[i]);
+            }
+        }
+        CompactGraph kept = build(n, Arrays.copyOf(arcs, m));
+        return Network.of(source, sink, kept, draw(kept, 1, maxCapacity,
+                ~WEIGHT_SALT));
+    }
+}
@@ -0,0 +1,30 @@
+package dev.jraf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The Flight Recorder event of a bulk construction of a graph. Its duration
+ * is the duration of the construction. The event is only committed when a
+ * recording enables it.
+ */
+@Name("dev.jraf.GraphMutation")
+@Label("Graph Bulk Mutation")
+@Category("jraf")
+@Description("The construction of a graph from many arcs at once")
+final class GraphMutationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Graph Size")
+    @Description("The number of vertices of the graph")
+    int graphSize;
+
+    @Label("Arcs")
+    @Description("The number of arcs of the graph")
+    long arcs;
+}
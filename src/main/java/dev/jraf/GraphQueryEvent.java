@@ -0,0 +1,43 @@
+package dev.jraf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The Flight Recorder event of a run of a traversal algorithm. Its duration is
+ * the duration of the run. The event is only committed when a recording
+ * enables it, and its fields are only filled in then.
+ *
+ * @see TraversalRecorder
+ */
+@Name("dev.jraf.GraphQuery")
+@Label("Graph Query")
+@Category("jraf")
+@Description("A run of a traversal algorithm of a graph")
+@StackTrace(true)
+final class GraphQueryEvent extends Event {
+
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Graph Size")
+    @Description("The number of vertices of the graph")
+    int graphSize;
+
+    @Label("Has Source")
+    boolean hasSource;
+
+    @Label("Source")
+    @Description("The label of the source vertex, if the query has one")
+    int source;
+
+    @Label("Vertices Visited")
+    long visited;
+
+    @Label("Edges Scanned")
+    long scanned;
+}
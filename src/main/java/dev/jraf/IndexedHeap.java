@@ -0,0 +1,159 @@
+package dev.jraf;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of dense ids ordered by long keys, that knows the position
+ * of every id it contains. This allows to decrease the key of an id in
+ * logarithmic time, which is what Dijkstra-like searches need, without boxing
+ * and without leaving stale entries in the heap.
+ */
+final class IndexedHeap {
+
+    private final int[] heap;
+    private final int[] positions;
+    private final long[] keys;
+    private int size;
+
+    /**
+     * Class constructor that creates an empty heap for the ids from 0 to
+     * capacity - 1.
+     *
+     * @param capacity an int, the number of possible ids
+     */
+    IndexedHeap(int capacity) {
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new long[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Returns true if this heap contains no id.
+     *
+     * @return true if this heap is empty
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns true if the given id is in this heap.
+     *
+     * @param id an int, an id
+     * @return   true if the id is in this heap
+     */
+    boolean contains(int id) {
+        return positions[id] >= 0;
+    }
+
+    /**
+     * Returns the key of the given id, which must be in this heap.
+     *
+     * @param id an int, an id of this heap
+     * @return   a long, the key of the id
+     */
+    long keyOf(int id) {
+        return keys[id];
+    }
+
+    /**
+     * Returns the key of the id with the smallest key. The heap must not be
+     * empty.
+     *
+     * @return a long, the smallest key
+     */
+    long peekKey() {
+        if (size == 0)
+            throw new NoSuchElementException("heap is empty");
+        return keys[heap[0]];
+    }
+
+    /**
+     * Inserts the given id with the given key, or decreases its key if it is
+     * already in this heap and the given key is smaller than its current key.
+     *
+     * @param id  an int, an id
+     * @param key a long, the key of the id
+     * @return    true if the id was inserted or its key decreased
+     */
+    boolean offer(int id, long key) {
+        int pos = positions[id];
+        if (pos < 0) {
+            pos = size++;
+            heap[pos] = id;
+            positions[id] = pos;
+        } else if (key >= keys[id]) {
+            return false;
+        }
+        keys[id] = key;
+        siftUp(pos);
+        return true;
+    }
+
+    /**
+     * Removes the id with the smallest key from this heap and returns it. The
+     * heap must not be empty.
+     *
+     * @return an int, the id with the smallest key
+     */
+    int poll() {
+        if (size == 0)
+            throw new NoSuchElementException("heap is empty");
+        int top = heap[0];
+        positions[top] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Removes every id from this heap, in time proportional to the number of
+     * ids it contains.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++)
+            positions[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void siftUp(int pos) {
+        int id = heap[pos];
+        long key = keys[id];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            int other = heap[parent];
+            if (keys[other] <= key)
+                break;
+            heap[pos] = other;
+            positions[other] = pos;
+            pos = parent;
+        }
+        heap[pos] = id;
+        positions[id] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int id = heap[pos];
+        long key = keys[id];
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]])
+                child++;
+            int other = heap[child];
+            if (keys[other] >= key)
+                break;
+            heap[pos] = other;
+            positions[other] = pos;
+            pos = child;
+        }
+        heap[pos] = id;
+        positions[id] = pos;
+    }
+}
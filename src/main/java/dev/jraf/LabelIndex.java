@@ -0,0 +1,193 @@
+package dev.jraf;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash table that associates vertex labels to dense ids.
+ * The ids are the integers from 0 to size() - 1, given in insertion order. This
+ * class avoids boxing the labels, as it is used on every arc when a graph is
+ * turned into one of its compact representations.
+ *
+ * A label can be removed, in which case its id is not given again: the next
+ * ids keep following the ids given so far, and the graphs that remove
+ * vertices build a new index when they reclaim the ids.
+ *
+ * @see CompactGraph
+ */
+final class LabelIndex {
+
+    private static final int ABSENT = -1;
+    private int[] keys;
+    private int[] values;
+    private int size;
+    // the id given to the next label
+    private int next;
+    private int mask;
+
+    /**
+     * Class constructor that creates an empty index sized for the given
+     * expected number of labels.
+     *
+     * @param expected an int, the expected number of labels
+     */
+    LabelIndex(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) * 2;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, ABSENT);
+        mask = capacity - 1;
+    }
+
+    /*
+     * Spreads the bits of the label so that consecutive labels do not end up
+     * in consecutive slots.
+     */
+    private static int slot(int label, int mask) {
+        int h = label * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Returns the id associated to the given label, or -1 if the label is not
+     * indexed.
+     *
+     * @param label an int, the label to look up
+     * @return      an int, the id of the label or -1
+     */
+    int idOf(int label) {
+        int i = slot(label, mask);
+        while (values[i] != ABSENT) {
+            if (keys[i] == label)
+                return values[i];
+            i = (i + 1) & mask;
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Associates the given label to the next id if it is not indexed yet, and
+     * returns its id.
+     *
+     * @param label an int, the label to index
+     * @return      an int, the id of the label
+     */
+    int add(int label) {
+        int i = slot(label, mask);
+        while (values[i] != ABSENT) {
+            if (keys[i] == label)
+                return values[i];
+            i = (i + 1) & mask;
+        }
+        keys[i] = label;
+        values[i] = next;
+        if (++size * 2 > keys.length)
+            grow();
+        return next++;
+    }
+
+    /**
+     * Associates the given label, which must not be indexed, to the given id,
+     * which must not be the id of an indexed label. The graphs that recycle
+     * the ids of their removed vertices give them again this way.
+     *
+     * @param label an int, the label to index
+     * @param id    a non-negative int, the id of the label
+     */
+    void put(int label, int id) {
+        int i = slot(label, mask);
+        while (values[i] != ABSENT)
+            i = (i + 1) & mask;
+        keys[i] = label;
+        values[i] = id;
+        next = Math.max(next, id + 1);
+        if (++size * 2 > keys.length)
+            grow();
+    }
+
+    /**
+     * Removes the given label from the index, and returns its id, or -1 if
+     * the label is not indexed. The slots after it are shifted back, so that
+     * the lookups of the other labels stay as short as before.
+     *
+     * @param label an int, the label to remove
+     * @return      an int, the id of the removed label or -1
+     */
+    int remove(int label) {
+        int i = slot(label, mask);
+        while (values[i] != ABSENT) {
+            if (keys[i] == label) {
+                int id = values[i];
+                shiftBack(i);
+                size--;
+                return id;
+            }
+            i = (i + 1) & mask;
+        }
+        return ABSENT;
+    }
+
+    /*
+     * Fills the emptied slot gap with the next label of its run that may
+     * live there, and so on until the end of the run.
+     */
+    private void shiftBack(int gap) {
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            if (values[i] == ABSENT)
+                break;
+            int home = slot(keys[i], mask);
+            boolean stays = gap <= i ? gap < home && home <= i
+                : gap < home || home <= i;
+            if (stays)
+                continue;
+            keys[gap] = keys[i];
+            values[gap] = values[i];
+            gap = i;
+        }
+        values[gap] = ABSENT;
+    }
+
+    /**
+     * Returns the number of indexed labels.
+     *
+     * @return an int, the number of indexed labels
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the indexed labels, where the i-th entry is the label of id i.
+     * The entries of the removed ids are 0.
+     *
+     * @return an array of the length of the ids given, the labels indexed by
+     *         id
+     */
+    int[] labels() {
+        int[] labels = new int[next];
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != ABSENT)
+                labels[values[i]] = keys[i];
+        }
+        return labels;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(values, ABSENT);
+        mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] == ABSENT)
+                continue;
+            int i = slot(oldKeys[j], mask);
+            while (values[i] != ABSENT)
+                i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+}
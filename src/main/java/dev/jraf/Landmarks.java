@@ -0,0 +1,261 @@
+package dev.jraf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntToLongFunction;
+
+/**
+ * The landmarks of a weighted graph, for the ALT heuristic of A* searches
+ * (A*, landmarks and the triangle inequality). A landmark L stores its
+ * distance from and to every vertex, and for every vertices v and t, the
+ * triangle inequality gives two lower bounds on the distance from v to t:
+ * d(L, t) - d(L, v) and d(v, L) - d(t, L). The heuristic towards a target is
+ * the largest of these bounds over the landmarks, which never overestimates,
+ * so that A* still finds shortest routes.
+ *
+ * The landmarks are chosen by farthest selection: the first one is the
+ * vertex farthest from the first vertex of the graph, and each next one is
+ * the vertex whose distances to and from the chosen landmarks have the
+ * largest minimum sum, so that the landmarks lie around the graph. Each
+ * landmark takes two longs per vertex.
+ *
+ * The distances are those of the graph when the landmarks were computed.
+ * After the weights or the arcs change, the bounds may overestimate, and the
+ * landmarks should be computed again.
+ *
+ * @see WeightedGraph#landmarks(int)
+ */
+public final class Landmarks {
+
+    private static final long INFINITY = Long.MAX_VALUE;
+    private final CompactGraph graph;
+    private final int[] landmarks;
+    // distance from landmark k to vertex v at k * size + v, and back
+    private final long[] from;
+    private final long[] to;
+
+    private Landmarks(CompactGraph graph, int[] landmarks, long[] from,
+            long[] to) {
+        this.graph = graph;
+        this.landmarks = landmarks;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Chooses at most count landmarks in the given graph and computes their
+     * distances from and to every vertex. The weights must be non-negative.
+     *
+     * @param graph   a non-null compact graph
+     * @param weights the non-negative weights of the arcs of the graph, in
+     *                the order of its targets array
+     * @param count   a positive int, the number of landmarks
+     * @return        the landmarks of the graph
+     */
+    static Landmarks of(CompactGraph graph, int[] weights, int count) {
+        if (count <= 0)
+            throw new IllegalArgumentException("count must be positive");
+        int n = graph.size();
+        count = Math.min(count, n);
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        // the transpose, with the weights of the reversed arcs
+        int[] tOffsets = new int[n + 1];
+        for (int target: targets)
+            tOffsets[target + 1]++;
+        for (int u = 0; u < n; u++)
+            tOffsets[u + 1] += tOffsets[u];
+        int[] fill = Arrays.copyOf(tOffsets, n);
+        int[] tTargets = new int[targets.length];
+        int[] tWeights = new int[targets.length];
+        for (int u = 0; u < n; u++) {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int j = fill[targets[i]]++;
+                tTargets[j] = u;
+                tWeights[j] = weights[i];
+            }
+        }
+        long[] from = new long[count * n];
+        long[] to = new long[count * n];
+        int[] chosen = new int[count];
+        long[] spread = new long[n];
+        Arrays.fill(spread, INFINITY);
+        IndexedHeap heap = new IndexedHeap(n);
+        int k = 0;
+        if (count > 0) {
+            long[] start = new long[n];
+            dijkstra(offsets, targets, weights, 0, start, 0, heap);
+            chosen[k++] = farthest(start);
+        }
+        for (int l = 0; l < k; l++) {
+            int base = l * n;
+            dijkstra(offsets, targets, weights, chosen[l], from, base, heap);
+            dijkstra(tOffsets, tTargets, tWeights, chosen[l], to, base, heap);
+            for (int v = 0; v < n; v++) {
+                long sum = from[base + v] == INFINITY
+                    || to[base + v] == INFINITY ? INFINITY
+                    : from[base + v] + to[base + v];
+                spread[v] = Math.min(spread[v], sum);
+            }
+            if (k < count) {
+                int next = farthest(spread);
+                if (spread[next] > 0 && spread[next] != INFINITY)
+                    chosen[k++] = next;
+            }
+        }
+        if (k < count) {
+            from = Arrays.copyOf(from, k * n);
+            to = Arrays.copyOf(to, k * n);
+        }
+        return new Landmarks(graph, Arrays.copyOf(chosen, k), from, to);
+    }
+
+    /*
+     * Returns the id of largest finite distance, or 0 if there is none. The
+     * smallest id wins the ties.
+     */
+    private static int farthest(long[] dist) {
+        int best = 0;
+        long max = -1;
+        for (int v = 0; v < dist.length; v++) {
+            if (dist[v] != INFINITY && dist[v] > max) {
+                max = dist[v];
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    /*
+     * Computes the distances from src to every vertex into dist, from index
+     * base on, with Dijkstra's algorithm. The heap must be empty and is left
+     * empty.
+     */
+    private static void dijkstra(int[] offsets, int[] targets, int[] weights,
+            int src, long[] dist, int base, IndexedHeap heap) {
+        int n = offsets.length - 1;
+        Arrays.fill(dist, base, base + n, INFINITY);
+        dist[base + src] = 0;
+        heap.offer(src, 0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            long du = dist[base + u];
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = targets[i];
+                long d = du + weights[i];
+                if (d < dist[base + v]) {
+                    dist[base + v] = d;
+                    heap.offer(v, d);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of landmarks. It is smaller than the requested count
+     * when the graph has fewer vertices, or when every vertex is at distance 0
+     * from the landmarks already chosen.
+     *
+     * @return an int, the number of landmarks
+     */
+    public int count() {
+        return landmarks.length;
+    }
+
+    /**
+     * Returns the landmarks, in the order they were chosen.
+     *
+     * @return a list of vertices, the landmarks
+     */
+    public List<Vertex> vertices() {
+        List<Vertex> vertices = new ArrayList<>(landmarks.length);
+        for (int id: landmarks)
+            vertices.add(Vertex.of(graph.labelOf(id)));
+        return vertices;
+    }
+
+    /**
+     * Returns the ALT heuristic towards the given target: the function that
+     * maps the label of a vertex to a lower bound on its distance to the
+     * target. The function throws a NoSuchElementException for a label that
+     * is not a vertex of the graph.
+     *
+     * @param target a non-null present vertex, the target of the searches
+     * @return       the ALT heuristic towards the target
+     */
+    public IntToLongFunction heuristic(Vertex target) {
+        if (target == null)
+            throw new NullPointerException("vertex must be non-null");
+        int t = graph.idOf(target.label());
+        if (t < 0)
+            throw new NoSuchElementException("no such vertex");
+        return new Bound(this, t);
+    }
+
+    /*
+     * Returns the largest lower bound on the distance from v to t given by
+     * the landmarks, or 0 if none of them gives one.
+     */
+    private long lowerBound(int v, int t) {
+        int n = graph.size();
+        long bound = 0;
+        for (int base = 0; base < from.length; base += n) {
+            long lt = from[base + t];
+            long lv = from[base + v];
+            if (lt != INFINITY && lv != INFINITY)
+                bound = Math.max(bound, lt - lv);
+            long vl = to[base + v];
+            long tl = to[base + t];
+            if (vl != INFINITY && tl != INFINITY)
+                bound = Math.max(bound, vl - tl);
+        }
+        return bound;
+    }
+
+    /**
+     * The ALT heuristic towards a target. A* searches on the graph of the
+     * landmarks evaluate it by id, without looking the labels up.
+     */
+    static final class Bound implements IntToLongFunction {
+
+        private final Landmarks landmarks;
+        private final int target;
+
+        private Bound(Landmarks landmarks, int target) {
+            this.landmarks = landmarks;
+            this.target = target;
+        }
+
+        /**
+         * Returns the graph on which the landmarks were computed.
+         *
+         * @return the compact graph of the landmarks
+         */
+        CompactGraph graph() {
+            return landmarks.graph;
+        }
+
+        /**
+         * Returns the lower bound on the distance from the vertex of given id
+         * to the target.
+         *
+         * @param id an int, the id of a vertex
+         * @return   a long, a lower bound on its distance to the target
+         */
+        long ofId(int id) {
+            return landmarks.lowerBound(id, target);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override public long applyAsLong(int label) {
+            int id = landmarks.graph.idOf(label);
+            if (id < 0)
+                throw new NoSuchElementException("no such vertex");
+            return ofId(id);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package dev.jraf;
+
+import java.util.Arrays;
+
+/**
+ * The maximum flow of a network computed with Dinic's algorithm, for the
+ * minimum cut, which does not need the costs. Each phase numbers the vertices
+ * by their distance from the source in the residual network, and then
+ * saturates the shortest augmenting paths by depth-first searches that only
+ * go one level further, resuming every vertex at the first arc not yet
+ * exhausted. There are at most size() - 1 phases, so the flow is found in
+ * O(n² m) time whatever the capacities, where successive augmenting paths
+ * without the shortest path order can take a number of steps proportional to
+ * the value of the flow.
+ *
+ * @see Network#minCut()
+ */
+final class MaxFlow {
+
+    private static final int NONE = -1;
+
+    private MaxFlow() {
+    }
+
+    /**
+     * Computes a maximum flow from source to sink in the given graph. The
+     * capacity of the i-th arc of the graph, in the order of its targets
+     * array, is capacity[i].
+     *
+     * @param graph    a non-null compact graph
+     * @param source   an int, the id of the source
+     * @param sink     an int, the id of the sink
+     * @param capacity an array of non-negative capacities, indexed by arc
+     * @return         the flow of every arc, by index
+     */
+    static int[] solve(CompactGraph graph, int source, int sink,
+            int[] capacity) {
+        int n = graph.size();
+        int m = graph.arcCount();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] tails = new int[m];
+        for (int u = 0; u < n; u++)
+            Arrays.fill(tails, offsets[u], offsets[u + 1], u);
+        // residual arc 2i follows arc i, residual arc 2i + 1 goes against it
+        int[] residual = new int[2 * m];
+        int[] start = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            residual[2 * i] = capacity[i];
+            start[tails[i] + 1]++;
+            start[targets[i] + 1]++;
+        }
+        for (int u = 0; u < n; u++)
+            start[u + 1] += start[u];
+        int[] fill = Arrays.copyOf(start, n);
+        int[] arcs = new int[2 * m];
+        for (int i = 0; i < m; i++) {
+            arcs[fill[tails[i]]++] = 2 * i;
+            arcs[fill[targets[i]]++] = 2 * i + 1;
+        }
+        int[] level = new int[n];
+        int[] queue = new int[n];
+        int[] next = new int[n];
+        int[] path = new int[n];
+        while (levels(source, sink, start, arcs, residual, tails, targets,
+                    level, queue)) {
+            System.arraycopy(start, 0, next, 0, n);
+            int length = 0;
+            int u = source;
+            while (true) {
+                if (u == sink) {
+                    int bottleneck = Integer.MAX_VALUE;
+                    for (int k = 0; k < length; k++)
+                        bottleneck = Math.min(bottleneck, residual[path[k]]);
+                    for (int k = 0; k < length; k++) {
+                        residual[path[k]] -= bottleneck;
+                        residual[path[k] ^ 1] += bottleneck;
+                    }
+                    // resume from the tail of the first saturated arc
+                    length = 0;
+                    while (residual[path[length]] > 0)
+                        length++;
+                    u = length == 0 ? source
+                        : headOf(path[length - 1], tails, targets);
+                    continue;
+                }
+                int a = NONE;
+                for (; next[u] < start[u + 1]; next[u]++) {
+                    int b = arcs[next[u]];
+                    if (residual[b] > 0
+                            && level[headOf(b, tails, targets)]
+                            == level[u] + 1) {
+                        a = b;
+                        break;
+                    }
+                }
+                if (a != NONE) {
+                    path[length++] = a;
+                    u = headOf(a, tails, targets);
+                } else {
+                    // no path to the sink goes through u in this phase
+                    level[u] = NONE;
+                    if (length == 0)
+                        break;
+                    u = tailOf(path[--length], tails, targets);
+                    next[u]++;
+                }
+            }
+        }
+        int[] arcFlow = new int[m];
+        for (int i = 0; i < m; i++)
+            arcFlow[i] = residual[2 * i + 1];
+        return arcFlow;
+    }
+
+    /*
+     * Numbers the vertices by their distance from the source in the residual
+     * network, NONE for the unreachable ones, and returns true if the sink is
+     * reached.
+     */
+    private static boolean levels(int source, int sink, int[] start,
+            int[] arcs, int[] residual, int[] tails, int[] targets,
+            int[] level, int[] queue) {
+        Arrays.fill(level, NONE);
+        level[source] = 0;
+        queue[0] = source;
+        int size = 1;
+        for (int first = 0; first < size; first++) {
+            int u = queue[first];
+            for (int j = start[u]; j < start[u + 1]; j++) {
+                int a = arcs[j];
+                int v = headOf(a, tails, targets);
+                if (residual[a] > 0 && level[v] == NONE) {
+                    level[v] = level[u] + 1;
+                    queue[size++] = v;
+                }
+            }
+        }
+        return level[sink] != NONE;
+    }
+
+    private static int headOf(int arc, int[] tails, int[] targets) {
+        return (arc & 1) == 0 ? targets[arc >>> 1] : tails[arc >>> 1];
+    }
+
+    private static int tailOf(int arc, int[] tails, int[] targets) {
+        return (arc & 1) == 0 ? tails[arc >>> 1] : targets[arc >>> 1];
+    }
+}
@@ -0,0 +1,226 @@
+package dev.jraf;
+
+import java.util.Arrays;
+
+/**
+ * The result of a minimum cost maximum flow computation on a network: the
+ * value of the flow, its total cost, and the flow of every edge. Among the
+ * flows of maximum value, the flow has the smallest cost, where the cost of a
+ * flow is the sum over the edges of their flow times their cost.
+ *
+ * The flow is computed with successive shortest augmenting paths. Reduced
+ * costs are kept non-negative with Johnson potentials, so that every shortest
+ * path is found by Dijkstra's algorithm on primitive arrays with an indexed
+ * heap. When some costs are negative, the initial potentials are computed
+ * with the Bellman-Ford algorithm.
+ *
+ * @see Network#minCostMaxFlow()
+ * @see EdgeToNaturalFunction
+ */
+public final class MinCostFlow {
+
+    private static final long INFINITY = Long.MAX_VALUE / 4;
+    private final CompactGraph graph;
+    private final long value;
+    private final long cost;
+    // the flow of every arc, by index, and the same as a function of the
+    // edges, made on the first call to flow()
+    private final int[] arcFlow;
+    private EdgeToNaturalFunction flow;
+
+    private MinCostFlow(CompactGraph graph, long value, long cost,
+            int[] arcFlow) {
+        this.graph = graph;
+        this.value = value;
+        this.cost = cost;
+        this.arcFlow = arcFlow;
+    }
+
+    /**
+     * Computes a minimum cost maximum flow from source to sink in the given
+     * graph. The capacity and the cost of the i-th arc of the graph, in the
+     * order of its targets array, are capacity[i] and cost[i].
+     *
+     * @param graph    a non-null compact graph
+     * @param source   an int, the id of the source
+     * @param sink     an int, the id of the sink
+     * @param capacity an array of non-negative capacities, indexed by arc
+     * @param cost     an array of costs, indexed by arc
+     * @return         the minimum cost maximum flow
+     */
+    static MinCostFlow solve(CompactGraph graph, int source, int sink,
+            int[] capacity, long[] cost) {
+        int n = graph.size();
+        int m = graph.arcCount();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] tails = new int[m];
+        for (int u = 0; u < n; u++)
+            Arrays.fill(tails, offsets[u], offsets[u + 1], u);
+        // residual arc 2i follows arc i, residual arc 2i + 1 goes against it
+        long[] residual = new long[2 * m];
+        int[] start = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            residual[2 * i] = capacity[i];
+            start[tails[i] + 1]++;
+            start[targets[i] + 1]++;
+        }
+        for (int u = 0; u < n; u++)
+            start[u + 1] += start[u];
+        int[] fill = Arrays.copyOf(start, n);
+        int[] arcs = new int[2 * m];
+        for (int i = 0; i < m; i++) {
+            arcs[fill[tails[i]]++] = 2 * i;
+            arcs[fill[targets[i]]++] = 2 * i + 1;
+        }
+        long[] potential = initialPotentials(n, m, source, offsets, targets,
+                capacity, cost);
+        long[] dist = new long[n];
+        int[] via = new int[n];
+        IndexedHeap heap = new IndexedHeap(n);
+        long value = 0;
+        long total = 0;
+        while (true) {
+            Arrays.fill(dist, INFINITY);
+            dist[source] = 0;
+            heap.offer(source, 0);
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                for (int j = start[u]; j < start[u + 1]; j++) {
+                    int a = arcs[j];
+                    if (residual[a] == 0)
+                        continue;
+                    int i = a >>> 1;
+                    int v = (a & 1) == 0 ? targets[i] : tails[i];
+                    long c = (a & 1) == 0 ? cost[i] : -cost[i];
+                    long d = dist[u] + c + potential[u] - potential[v];
+                    if (d < dist[v]) {
+                        dist[v] = d;
+                        via[v] = a;
+                        heap.offer(v, d);
+                    }
+                }
+            }
+            if (dist[sink] == INFINITY)
+                break;
+            for (int u = 0; u < n; u++) {
+                if (dist[u] < INFINITY)
+                    potential[u] += dist[u];
+            }
+            long bottleneck = INFINITY;
+            for (int v = sink; v != source; v = tailOf(via[v], tails, targets))
+                bottleneck = Math.min(bottleneck, residual[via[v]]);
+            for (int v = sink; v != source;
+                    v = tailOf(via[v], tails, targets)) {
+                int a = via[v];
+                residual[a] -= bottleneck;
+                residual[a ^ 1] += bottleneck;
+                total += bottleneck * ((a & 1) == 0 ? cost[a >>> 1]
+                        : -cost[a >>> 1]);
+            }
+            value += bottleneck;
+        }
+        int[] arcFlow = new int[m];
+        for (int i = 0; i < m; i++)
+            arcFlow[i] = (int) residual[2 * i + 1];
+        return new MinCostFlow(graph, value, total, arcFlow);
+    }
+
+    private static int tailOf(int arc, int[] tails, int[] targets) {
+        return (arc & 1) == 0 ? tails[arc >>> 1] : targets[arc >>> 1];
+    }
+
+    /*
+     * Returns zero potentials if no cost is negative, and otherwise the
+     * distances from the source computed by Bellman-Ford with a queue, on the
+     * arcs of positive capacity. The vertices unreachable from the source keep
+     * a zero potential, as no augmenting path can ever reach them.
+     */
+    private static long[] initialPotentials(int n, int m, int source,
+            int[] offsets, int[] targets, int[] capacity, long[] cost) {
+        long[] potential = new long[n];
+        boolean negative = false;
+        for (int i = 0; i < m && !negative; i++)
+            negative = cost[i] < 0 && capacity[i] > 0;
+        if (!negative)
+            return potential;
+        long[] dist = new long[n];
+        Arrays.fill(dist, INFINITY);
+        dist[source] = 0;
+        int[] queue = new int[n];
+        boolean[] queued = new boolean[n];
+        int[] passes = new int[n];
+        int head = 0;
+        int count = 1;
+        queue[0] = source;
+        queued[source] = true;
+        while (count > 0) {
+            int u = queue[head];
+            head = (head + 1) % n;
+            count--;
+            queued[u] = false;
+            if (++passes[u] > n) {
+                throw new IllegalArgumentException("network must not contain "
+                        + "negative cost cycles");
+            }
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                if (capacity[i] == 0)
+                    continue;
+                int v = targets[i];
+                if (dist[u] + cost[i] < dist[v]) {
+                    dist[v] = dist[u] + cost[i];
+                    if (!queued[v]) {
+                        queued[v] = true;
+                        queue[(head + count++) % n] = v;
+                    }
+                }
+            }
+        }
+        for (int u = 0; u < n; u++)
+            potential[u] = dist[u] == INFINITY ? 0 : dist[u];
+        return potential;
+    }
+
+    /**
+     * Returns the value of the flow, that is the amount of flow that leaves
+     * the source.
+     *
+     * @return a long, the value of the flow
+     */
+    public long value() {
+        return value;
+    }
+
+    /**
+     * Returns the cost of the flow, that is the sum over the edges of their
+     * flow times their cost.
+     *
+     * @return a long, the cost of the flow
+     */
+    public long cost() {
+        return cost;
+    }
+
+    /**
+     * Returns the flow of every edge of the network. The edges that carry no
+     * flow are associated to 0.
+     *
+     * @return a function that associates every edge to its flow
+     */
+    public EdgeToNaturalFunction flow() {
+        if (flow == null) {
+            int[] offsets = graph.offsets();
+            int[] targets = graph.targets();
+            EdgeToNaturalFunction f = new EdgeToNaturalFunction();
+            for (int u = 0; u < graph.size(); u++) {
+                Vertex tail = Vertex.of(graph.labelOf(u));
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    f.add(tail, Vertex.of(graph.labelOf(targets[i])),
+                            arcFlow[i]);
+                }
+            }
+            flow = f;
+        }
+        return flow;
+    }
+}
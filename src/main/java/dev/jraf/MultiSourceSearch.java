@@ -0,0 +1,247 @@
+package dev.jraf;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The result of breadth-first searches from many sources of the same graph,
+ * run together as a multi-source bit-parallel BFS. Each source is given a bit
+ * lane, and every vertex holds a bitset of the sources that have reached it
+ * and a bitset of the sources whose frontier contains it. A level of the
+ * searches scans each arc once for all the sources whose frontier contains
+ * its tail, by or-ing the frontier bitset of the tail into the next frontier
+ * of the head, instead of once per source.
+ *
+ * The sources are searched in batches of BATCH_SIZE sources, so that the
+ * bitsets of a vertex fit in a few cache lines. The reachability of every
+ * source is kept, in one bit per source and vertex, and the distances are
+ * only kept when asked for, in one int per source and vertex.
+ *
+ * The sources are numbered by their position in the list given to the
+ * search, which may contain duplicates.
+ *
+ * The loops over the bitsets are those of BitKernels, which use the vector
+ * API when the JVM runs with --add-modules jdk.incubator.vector.
+ *
+ * @see Graph#breadthFirstSearch(Vertex)
+ */
+public final class MultiSourceSearch {
+
+    /**
+     * The number of sources searched together, 64 per long lane.
+     */
+    public static final int BATCH_SIZE = 512;
+    private static final BitKernels KERNELS = BitKernels.INSTANCE;
+    private final CompactGraph graph;
+    private final int sourceCount;
+    // reached bitsets of each batch, lanes(batch size) longs per vertex
+    private final long[][] reached;
+    // distance of vertex v from source i at i * size + v, or null
+    private final int[] distances;
+
+    private MultiSourceSearch(CompactGraph graph, int sourceCount,
+            boolean keepDistances) {
+        this.graph = graph;
+        this.sourceCount = sourceCount;
+        reached = new long[(sourceCount + BATCH_SIZE - 1) / BATCH_SIZE][];
+        if (keepDistances) {
+            if ((long) sourceCount * graph.size() > Integer.MAX_VALUE - 8)
+                throw new IllegalArgumentException("too many distances to "
+                        + "keep");
+            distances = new int[sourceCount * graph.size()];
+            Arrays.fill(distances, -1);
+        } else {
+            distances = null;
+        }
+    }
+
+    /**
+     * Searches the given graph from each of the given sources, and keeps
+     * which vertices each source reaches.
+     *
+     * @param graph   a non-null graph
+     * @param sources a non-null list of non-null present vertices
+     * @return        the reachability of every source
+     */
+    public static MultiSourceSearch reachability(Graph graph,
+            List<Vertex> sources) {
+        return search(graph, sources, false);
+    }
+
+    /**
+     * Searches the given graph from each of the given sources, and keeps the
+     * distance, in arcs, from each source to each vertex. The distances take
+     * one int per source and vertex.
+     *
+     * @param graph   a non-null graph
+     * @param sources a non-null list of non-null present vertices
+     * @return        the reachability and the distances of every source
+     */
+    public static MultiSourceSearch distances(Graph graph,
+            List<Vertex> sources) {
+        return search(graph, sources, true);
+    }
+
+    private static MultiSourceSearch search(Graph graph, List<Vertex> sources,
+            boolean keepDistances) {
+        if (sources == null)
+            throw new NullPointerException("sources must be non-null");
+        CompactGraph compact = CompactGraph.of(graph);
+        int[] ids = new int[sources.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Vertex source = sources.get(i);
+            if (source == null)
+                throw new NullPointerException("sources must be non-null");
+            ids[i] = compact.idOf(source.label());
+            if (ids[i] < 0)
+                throw new IllegalArgumentException("sources must be present");
+        }
+        MultiSourceSearch search = new MultiSourceSearch(compact, ids.length,
+                keepDistances);
+        for (int b = 0; b < search.reached.length; b++)
+            search.reached[b] = search.batch(ids, b * BATCH_SIZE);
+        return search;
+    }
+
+    /*
+     * Searches from the sources of ids from first on, at most BATCH_SIZE of
+     * them, level by level, and returns their reached bitsets. Each level
+     * first pushes the frontier of every tail to the next frontier of its
+     * heads, then removes from the next frontiers the sources that had
+     * already reached them, and records the new ones.
+     */
+    private long[] batch(int[] ids, int first) {
+        int n = graph.size();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int count = Math.min(BATCH_SIZE, ids.length - first);
+        int w = lanes(count);
+        long[] seen = new long[n * w];
+        long[] frontier = new long[n * w];
+        long[] next = new long[n * w];
+        for (int i = 0; i < count; i++) {
+            int s = ids[first + i];
+            long bit = 1L << i;
+            seen[s * w + i / Long.SIZE] |= bit;
+            frontier[s * w + i / Long.SIZE] |= bit;
+            if (distances != null)
+                distances[(first + i) * n + s] = 0;
+        }
+        boolean active = count > 0;
+        for (int level = 1; active; level++) {
+            for (int u = 0; u < n; u++) {
+                int fu = u * w;
+                if (KERNELS.isZero(frontier, fu, w))
+                    continue;
+                for (int i = offsets[u]; i < offsets[u + 1]; i++)
+                    KERNELS.or(next, targets[i] * w, frontier, fu, w);
+            }
+            active = KERNELS.sweep(frontier, next, seen, n * w);
+            if (active && distances != null) {
+                for (int k = 0; k < n * w; k++) {
+                    if (next[k] != 0) {
+                        record(next[k], first + k % w * Long.SIZE, k / w,
+                                level);
+                    }
+                }
+            }
+            long[] swap = frontier;
+            frontier = next;
+            next = swap;
+        }
+        return seen;
+    }
+
+    /* Sets to level the distance to v of the sources of the bits of lane. */
+    private void record(long lane, int base, int v, int level) {
+        int n = graph.size();
+        while (lane != 0) {
+            int i = base + Long.numberOfTrailingZeros(lane);
+            distances[i * n + v] = level;
+            lane &= lane - 1;
+        }
+    }
+
+    private void requireSource(int source) {
+        if (source < 0 || source >= sourceCount)
+            throw new IndexOutOfBoundsException("no such source");
+    }
+
+    private int requireTarget(Vertex target) {
+        if (target == null)
+            throw new NullPointerException("vertex must be non-null");
+        int id = graph.idOf(target.label());
+        if (id < 0)
+            throw new NoSuchElementException("no such vertex");
+        return id;
+    }
+
+    /* Returns true if the source of given number reached vertex id v. */
+    private boolean reached(int source, int v) {
+        int first = source - source % BATCH_SIZE;
+        int w = lanes(Math.min(BATCH_SIZE, sourceCount - first));
+        int i = source - first;
+        return (reached[first / BATCH_SIZE][v * w + i / Long.SIZE]
+                & 1L << i) != 0;
+    }
+
+    private static int lanes(int count) {
+        return (count + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * Returns the number of sources of this search.
+     *
+     * @return an int, the number of sources
+     */
+    public int sourceCount() {
+        return sourceCount;
+    }
+
+    /**
+     * Returns true if the given target is reached from the source of given
+     * number, that is if there is a path from the source to the target.
+     *
+     * @param source an int in [0, sourceCount()), the number of a source
+     * @param target a non-null present vertex
+     * @return       true if the source reaches the target
+     */
+    public boolean reaches(int source, Vertex target) {
+        requireSource(source);
+        return reached(source, requireTarget(target));
+    }
+
+    /**
+     * Returns the number of vertices reached from the source of given number,
+     * including the source.
+     *
+     * @param source an int in [0, sourceCount()), the number of a source
+     * @return       an int, the number of vertices reached from the source
+     */
+    public int reachedCount(int source) {
+        requireSource(source);
+        int count = 0;
+        for (int v = 0; v < graph.size(); v++) {
+            if (reached(source, v))
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the distance, in arcs, from the source of given number to the
+     * given target, or -1 if the source does not reach the target. The search
+     * must have been made by distances(Graph, List).
+     *
+     * @param source an int in [0, sourceCount()), the number of a source
+     * @param target a non-null present vertex
+     * @return       an int, the distance from the source to the target, or -1
+     */
+    public int distance(int source, Vertex target) {
+        if (distances == null)
+            throw new IllegalStateException("distances were not kept");
+        requireSource(source);
+        return distances[source * graph.size() + requireTarget(target)];
+    }
+}
@@ -5,6 +5,8 @@ import java.util.ArrayList;
 import java.util.Stack;
 import java.util.NoSuchElementException;
 import java.util.Map;
+import java.util.BitSet;
+import java.util.Arrays;
 
 /**
  * The implementation of a network. A network is a graph that has two special
@@ -25,13 +27,33 @@ public class Network implements Graph {
     private final Vertex sink;
     private final Graph graph;
     private final EdgeToNaturalFunction cap;
+    private final EdgeFunction costs;
     private static final int DEFAULT_CAPACITY = 1;
+    private static final int DEFAULT_COST = 0;
+    // compact copies of the arcs, dropped when an arc or a vertex is added,
+    // with the capacities of the arcs of the snapshot by index, patched when a
+    // capacity is updated, and the index in the snapshot of every arc of the
+    // transposed copy
+    private CompactGraph snapshot;
+    private int[] capacities;
+    private CompactGraph transposed;
+    private int[] inArcs;
+    private TraversalListener listener = TraversalListener.none();
+    // the number of capacity and cost updates, added to the version of the
+    // graph
+    private long updates;
 
     private Network(Vertex src, Vertex snk, Graph graph) {
+        this(src, snk, graph, new EdgeToNaturalFunction());
+    }
+
+    private Network(Vertex src, Vertex snk, Graph graph,
+            EdgeToNaturalFunction cap) {
         source = src;
         sink = snk;
         this.graph = graph;
-        cap = new EdgeToNaturalFunction();
+        this.cap = cap;
+        costs = new EdgeFunction();
     }
 
     /**
@@ -57,18 +79,69 @@ public class Network implements Graph {
         return new Network(src, snk, graph);
     }
 
+    /**
+     * Creates a new network in adjacency list representation with the given
+     * source and sink, and the vertices and arcs of the given compact graph,
+     * where the capacity of the i-th arc, in the order of the targets array,
+     * is capacity[i]. The graph must contain the source and the sink, and its
+     * arcs must be distinct and satisfy the constraints of the network. The
+     * compact graph is kept as the compact copy of the arcs.
+     *
+     * @param src      a vertex of the graph, the source of the network
+     * @param snk      a vertex of the graph, the sink of the network
+     * @param graph    a non-null compact graph without parallel arcs
+     * @param capacity an array of non-negative capacities, indexed by arc
+     * @return         a new network with the given arcs and capacities
+     */
+    static Network of(Vertex src, Vertex snk, CompactGraph graph,
+            int[] capacity) {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        EdgeToNaturalFunction cap = new EdgeToNaturalFunction(targets.length);
+        for (int u = 0; u < graph.size(); u++) {
+            Vertex tail = Vertex.of(graph.labelOf(u));
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                cap.add(tail, Vertex.of(graph.labelOf(targets[i])),
+                        capacity[i]);
+            }
+        }
+        Network network = new Network(src, snk, AdjacencyGraph.of(graph), cap);
+        network.snapshot = graph;
+        network.capacities = capacity.clone();
+        return network;
+    }
+
+    /**
+     * Sets the listener notified of the runs of the breadth-first search, of
+     * the residual network computation and of the minimum cut extraction of
+     * this network. The residual computation has a single phase, "search",
+     * and the cut extraction has two, "snapshot" and "search".
+     *
+     * @param listener a non-null listener, TraversalListener.none() to stop
+     *                 listening
+     */
+    public void setTraversalListener(TraversalListener listener) {
+        if (listener == null)
+            throw new NullPointerException("listener must be non-null");
+        this.listener = listener;
+        if (graph instanceof AdjacencyGraph)
+            ((AdjacencyGraph) graph).setTraversalListener(listener);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override public void add(Vertex vertex) {
         graph.add(vertex);
+        if (snapshot != null && snapshot.idOf(vertex.label()) < 0)
+            dropSnapshots();
     }
 
     /**
      * {@inheritDoc}
      */
     @Override public void add(int label) {
-        graph.add(Vertex.of(label));
+        add(Vertex.of(label));
     }
 
     /**
@@ -124,8 +197,33 @@ public class Network implements Graph {
             throw new IllegalArgumentException("tail is sink");
         if (tail.equals(head))
             throw new IllegalArgumentException("edge cannot loop");
+        if (!cap.contains(tail, head))
+            dropSnapshots();
+        else if (snapshot != null)
+            capacities[arcOf(tail, head)] = capacity;
         graph.add(tail, head);
         cap.add(tail, head, capacity);
+        updates++;
+    }
+
+    /**
+     * Adds the edge represented by the tail and head vertices to this graph,
+     * with the given capacity and the given cost per unit of flow. The
+     * constraints on the vertices are the same as for the addition without
+     * cost. If the edge is already present, its capacity and cost are updated.
+     *
+     * @param tail     a non-null vertex, different than the sink, the tail of
+     *                 the edge
+     * @param head     a non-null vertex, different than the source, the head of
+     *                 the edge
+     * @param capacity an integer superior or equal to 0, the capacity of the
+     *                 edge
+     * @param cost     an int, the cost of a unit of flow on the edge
+     */
+    public void add(Vertex tail, Vertex head, int capacity, int cost) {
+        add(tail, head, capacity);
+        costs.add(tail, head, cost);
+        updates++;
     }
 
     /**
@@ -168,6 +266,24 @@ public class Network implements Graph {
         return cap.get(tail, head);
     }
 
+    /**
+     * Returns the cost per unit of flow of the edge denoted by the given
+     * vertices. The vertices must be non-null and denote an edge of the graph.
+     * The edges added without cost have a cost of 0.
+     *
+     * @param tail a non-null vertex, the tail of the edge
+     * @param head a non-null vertex, the head of the edge
+     * @return     an int, the cost of the edge denoted by the given vertices
+     */
+    public int cost(Vertex tail, Vertex head) {
+        if (tail == null || head == null)
+            throw new NullPointerException("vertices must be non-null");
+        if (costs.contains(tail, head))
+            return costs.get(tail, head);
+        cap.get(tail, head); // throws if there is no such edge
+        return DEFAULT_COST;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -175,6 +291,222 @@ public class Network implements Graph {
         return graph.neighborsOf(vertex);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> predecessorsOf(Vertex vertex) {
+        return graph.predecessorsOf(vertex);
+    }
+
+    /**
+     * Computes a flow of maximum value from the source to the sink of this
+     * network that respects the capacities, and has the minimum cost among the
+     * flows of maximum value. The network must not contain a cycle of negative
+     * cost.
+     *
+     * @return the value, cost and per edge flows of the computed flow
+     * @see    MinCostFlow
+     */
+    public MinCostFlow minCostMaxFlow() {
+        CompactGraph compact = snapshot();
+        int[] targets = compact.targets();
+        int[] offsets = compact.offsets();
+        long[] cost = new long[targets.length];
+        for (int u = 0; u < compact.size(); u++) {
+            Vertex tail = Vertex.of(compact.labelOf(u));
+            for (int i = offsets[u]; i < offsets[u + 1]; i++)
+                cost[i] = cost(tail, Vertex.of(compact.labelOf(targets[i])));
+        }
+        return MinCostFlow.solve(compact, compact.idOf(source.label()),
+                compact.idOf(sink.label()), capacities, cost);
+    }
+
+    /**
+     * Computes a minimum cut of this network from the given flow, which must
+     * be a maximum flow. The source side of the cut is the set of vertices
+     * reachable from the source in the residual network: through the edges
+     * whose flow is below their capacity, and backwards through the edges
+     * whose flow is positive. The edges of the cut are the edges from the
+     * source side to the sink side, which a maximum flow saturates. The
+     * residual network is not built: a single search marks the reached
+     * vertices in a bitset, on a compact copy of the arcs and an array of
+     * their capacities that are kept until an arc or a vertex is added, so
+     * updating capacities does not rebuild them. The edges absent from the
+     * flow function carry no flow.
+     *
+     * @param flow a non-null maximum flow of this network
+     * @return     the minimum cut certified by the flow
+     */
+    public Cut minCut(EdgeToNaturalFunction flow) {
+        if (flow == null)
+            throw new NullPointerException("edge function must be non-null");
+        CompactGraph compact = snapshot();
+        int[] offsets = compact.offsets();
+        int[] targets = compact.targets();
+        int[] arcFlow = new int[targets.length];
+        for (int u = 0; u < compact.size(); u++) {
+            Vertex tail = Vertex.of(compact.labelOf(u));
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                Vertex head = Vertex.of(compact.labelOf(targets[i]));
+                if (flow.contains(tail, head))
+                    arcFlow[i] = flow.get(tail, head);
+            }
+        }
+        return minCut(arcFlow);
+    }
+
+    /**
+     * Computes a maximum flow of this network with Dinic's algorithm, and
+     * returns the minimum cut that it certifies. The costs of the edges are
+     * ignored, so that the cut exists even if the network contains a cycle of
+     * negative cost.
+     *
+     * @return a minimum cut of this network
+     * @see    #minCut(EdgeToNaturalFunction)
+     * @see    MaxFlow
+     */
+    public Cut minCut() {
+        CompactGraph compact = snapshot();
+        return minCut(MaxFlow.solve(compact, compact.idOf(source.label()),
+                    compact.idOf(sink.label()), capacities));
+    }
+
+    /*
+     * Computes the minimum cut certified by the given maximum flow, given by
+     * arc of the snapshot.
+     */
+    private Cut minCut(int[] arcFlow) {
+        TraversalRecorder recorder = TraversalRecorder.start(listener,
+                TraversalSummary.Algorithm.MIN_CUT);
+        recorder.source(source.label());
+        long start = recorder.clock();
+        CompactGraph forward = snapshot();
+        CompactGraph backward = transposed();
+        recorder.graphSize(forward.size());
+        recorder.phase("snapshot", start);
+        start = recorder.clock();
+        int[] offsets = forward.offsets();
+        int[] targets = forward.targets();
+        int[] inOffsets = backward.offsets();
+        int[] inTargets = backward.targets();
+        int src = forward.idOf(source.label());
+        BitSet reached = new BitSet(forward.size());
+        int[] stack = new int[forward.size()];
+        int top = 0;
+        long visited = 0;
+        long scanned = 0;
+        int peak = 0;
+        reached.set(src);
+        stack[top++] = src;
+        while (top > 0) {
+            peak = Math.max(peak, top);
+            int u = stack[--top];
+            visited++;
+            scanned += offsets[u + 1] - offsets[u]
+                + inOffsets[u + 1] - inOffsets[u];
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = targets[i];
+                if (reached.get(v))
+                    continue;
+                int resCap = capacities[i] - arcFlow[i];
+                if (resCap < 0) {
+                    throw new IllegalArgumentException("flow does not respect"
+                            + " capacity constraint");
+                }
+                if (resCap > 0) {
+                    reached.set(v);
+                    stack[top++] = v;
+                }
+            }
+            for (int i = inOffsets[u]; i < inOffsets[u + 1]; i++) {
+                int v = inTargets[i];
+                if (!reached.get(v) && arcFlow[inArcs[i]] > 0) {
+                    reached.set(v);
+                    stack[top++] = v;
+                }
+            }
+        }
+        recorder.phase("search", start);
+        if (reached.get(forward.idOf(sink.label())))
+            throw new IllegalArgumentException("flow is not maximum");
+        List<Vertex> side = new ArrayList<>(reached.cardinality());
+        List<Edge> edges = new ArrayList<>();
+        long capacity = 0;
+        for (int u = reached.nextSetBit(0); u >= 0;
+                u = reached.nextSetBit(u + 1)) {
+            side.add(Vertex.of(forward.labelOf(u)));
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                if (reached.get(targets[i]))
+                    continue;
+                edges.add(Edge.of(forward.labelOf(u),
+                            forward.labelOf(targets[i])));
+                capacity += capacities[i];
+            }
+        }
+        recorder.complete(visited, scanned, peak);
+        return new Cut(side, edges, capacity);
+    }
+
+    /* Returns the index in the snapshot of the arc from tail to head. */
+    private int arcOf(Vertex tail, Vertex head) {
+        int u = snapshot.idOf(tail.label());
+        int v = snapshot.idOf(head.label());
+        int[] offsets = snapshot.offsets();
+        int[] targets = snapshot.targets();
+        int i = offsets[u];
+        while (targets[i] != v)
+            i++;
+        return i;
+    }
+
+    private CompactGraph snapshot() {
+        if (snapshot == null) {
+            CompactGraph copy = CompactGraph.of(graph);
+            int[] offsets = copy.offsets();
+            int[] targets = copy.targets();
+            capacities = new int[targets.length];
+            for (int u = 0; u < copy.size(); u++) {
+                Vertex tail = Vertex.of(copy.labelOf(u));
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    capacities[i] = cap.get(tail,
+                            Vertex.of(copy.labelOf(targets[i])));
+                }
+            }
+            snapshot = copy;
+        }
+        return snapshot;
+    }
+
+    /*
+     * Returns the transposed copy of the arcs, and fills the index in the
+     * snapshot of each of its arcs. The transposed arcs of a head are in
+     * increasing order of tail, as are the arcs of the snapshot in index
+     * order, so one pass over the snapshot fills them in order.
+     */
+    private CompactGraph transposed() {
+        if (transposed == null) {
+            CompactGraph forward = snapshot();
+            CompactGraph backward = forward.transpose();
+            int[] offsets = forward.offsets();
+            int[] targets = forward.targets();
+            int[] fill = Arrays.copyOf(backward.offsets(), forward.size());
+            inArcs = new int[targets.length];
+            for (int u = 0; u < forward.size(); u++) {
+                for (int i = offsets[u]; i < offsets[u + 1]; i++)
+                    inArcs[fill[targets[i]]++] = i;
+            }
+            transposed = backward;
+        }
+        return transposed;
+    }
+
+    private void dropSnapshots() {
+        snapshot = null;
+        capacities = null;
+        transposed = null;
+        inArcs = null;
+    }
+
     /**
      * Computes the residual network of this network based on the given flow
      * function. The flow function must respect for every edge of the network
@@ -191,14 +523,24 @@ public class Network implements Graph {
     public Network residual(EdgeToNaturalFunction flow) {
         if (flow == null)
             throw new NullPointerException("edge function must be non-null");
+        TraversalRecorder recorder = TraversalRecorder.start(listener,
+                TraversalSummary.Algorithm.RESIDUAL);
+        if (recorder.recording())
+            recorder.graphSize(graph.vertices().size());
+        recorder.source(source.label());
+        long start = recorder.clock();
         Network res = Network.newAdjacency(source, sink);
         Stack<Vertex> stack = new Stack<>();
         List<Vertex> visited = new ArrayList<>();
+        long scanned = 0;
+        int peak = 0;
         stack.push(source);
         visited.add(source);
         while (!stack.isEmpty()) {
+            peak = Math.max(peak, stack.size());
             Vertex cur = stack.pop();
             List<Vertex> neighbors = neighborsOf(cur);
+            scanned += neighbors.size();
             for (Vertex neighbor: neighbors) {
                 int resCap = capacity(cur, neighbor) - flow.get(cur, neighbor);
                 if (resCap < 0) {
@@ -214,14 +556,68 @@ public class Network implements Graph {
                 }
             }
         }
+        recorder.phase("search", start);
+        recorder.complete(visited.size(), scanned, peak);
         return res;
     }
 
     /**
      * {@inheritDoc}
+     * The version also counts the updates of the capacities and the costs.
+     *
+     * @return a long, the version of this network
+     */
+    @Override public long version() {
+        return graph.version() + updates;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The capacity and the cost of the edge are removed with it.
+     *
+     * @param tail a non-null present vertex, the tail of the edge to remove
+     * @param head a non-null present vertex, the head of the edge to remove
      */
     @Override public void remove(Vertex tail, Vertex head) {
-        throw new UnsupportedOperationException("todo");
+        graph.remove(tail, head);
+        if (cap.contains(tail, head)) {
+            cap.remove(tail, head);
+            if (costs.contains(tail, head))
+                costs.remove(tail, head);
+            dropSnapshots();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The source and the sink cannot be removed. The capacities and the costs
+     * of the removed edges are removed with them.
+     *
+     * @param vertex a non-null present vertex, other than the source and the
+     *               sink
+     */
+    @Override public void remove(Vertex vertex) {
+        if (vertex == null)
+            throw new NullPointerException("vertex must be non-null");
+        if (vertex.equals(source) || vertex.equals(sink))
+            throw new IllegalArgumentException("cannot remove source or sink");
+        List<Vertex> neighbors = graph.neighborsOf(vertex);
+        List<Vertex> predecessors = graph.predecessorsOf(vertex);
+        graph.remove(vertex);
+        for (Vertex head: neighbors)
+            forget(vertex, head);
+        for (Vertex tail: predecessors) {
+            if (!tail.equals(vertex))
+                forget(tail, vertex);
+        }
+        dropSnapshots();
+    }
+
+    /* Removes the capacity and the cost of the edge from tail to head. */
+    private void forget(Vertex tail, Vertex head) {
+        cap.remove(tail, head);
+        if (costs.contains(tail, head))
+            costs.remove(tail, head);
     }
 
     /**
@@ -231,6 +627,21 @@ public class Network implements Graph {
         return graph.breadthFirstSearch(source);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override public int breadthFirstSearch(Vertex source,
+            TraversalWorkspace workspace) {
+        return graph.breadthFirstSearch(source, workspace);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> shortestPath(Vertex from, Vertex to) {
+        return graph.shortestPath(from, to);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,30 @@
+package dev.jraf;
+
+/**
+ * The disabled traversal listener. Being the only instance of its class, and
+ * of a class that does nothing, calls to it are inlined and removed by the
+ * compiler.
+ *
+ * @see TraversalListener#none()
+ */
+enum NoTraversalListener implements TraversalListener {
+
+    INSTANCE;
+
+    /**
+     * Returns false, as this listener ignores every run.
+     *
+     * @return false
+     */
+    @Override public boolean enabled() {
+        return false;
+    }
+
+    /**
+     * Does nothing.
+     *
+     * @param summary the summary of a run
+     */
+    @Override public void onCompleted(TraversalSummary summary) {
+    }
+}
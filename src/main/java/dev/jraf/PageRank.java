@@ -0,0 +1,212 @@
+package dev.jraf;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+
+/**
+ * Computes the PageRank of the vertices of a graph. The rank of a vertex is
+ * the probability that a random walker is on it after many steps, where at
+ * each step the walker follows a random arc with probability damping, and
+ * otherwise teleports. In the classic PageRank the walker teleports to any
+ * vertex, and in the personalized PageRank it teleports to one of the given
+ * seed vertices. A walker on a vertex without arcs, a dangling vertex, always
+ * teleports, so that the ranks always sum to 1.
+ *
+ * The ranks are computed by power iteration with the vertex engine: each
+ * superstep pulls the ranks of the predecessors of every vertex, divided by
+ * their degree, which is read from the compact graph.
+ *
+ * @see VertexEngine
+ * @see Graph
+ */
+public final class PageRank {
+
+    /**
+     * The default probability of following an arc.
+     */
+    public static final double DEFAULT_DAMPING = 0.85;
+
+    /**
+     * The default tolerance, on the sum of the changes of the ranks during a
+     * superstep, under which the ranks are considered stable.
+     */
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+
+    /**
+     * The default maximum number of supersteps.
+     */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    private PageRank() {
+    }
+
+    /**
+     * Returns the PageRank of every vertex of the given graph, computed with
+     * the default damping, tolerance and maximum number of iterations.
+     *
+     * @param graph a non-null graph
+     * @return      a map that associates the label of every vertex to its rank
+     */
+    public static Map<Integer, Double> compute(Graph graph) {
+        return compute(graph, DEFAULT_DAMPING, DEFAULT_TOLERANCE,
+                DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Returns the PageRank of every vertex of the given graph.
+     *
+     * @param graph         a non-null graph
+     * @param damping       a double between 0 and 1, the probability of
+     *                      following an arc
+     * @param tolerance     a positive double, the change under which the ranks
+     *                      are considered stable
+     * @param maxIterations a positive int, the maximum number of supersteps
+     * @return              a map that associates the label of every vertex to
+     *                      its rank
+     */
+    public static Map<Integer, Double> compute(Graph graph, double damping,
+            double tolerance, int maxIterations) {
+        CompactGraph compact = compact(graph);
+        double[] teleport = new double[compact.size()];
+        Arrays.fill(teleport, 1.0 / Math.max(1, compact.size()));
+        return run(compact, teleport, damping, tolerance, maxIterations);
+    }
+
+    /**
+     * Returns the personalized PageRank of every vertex of the given graph
+     * with respect to the given seeds, computed with the default damping,
+     * tolerance and maximum number of iterations.
+     *
+     * @param graph a non-null graph
+     * @param seeds a non-empty collection of vertices present in the graph
+     * @return      a map that associates the label of every vertex to its rank
+     */
+    public static Map<Integer, Double> personalized(Graph graph,
+            Collection<Vertex> seeds) {
+        return personalized(graph, seeds, DEFAULT_DAMPING, DEFAULT_TOLERANCE,
+                DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Returns the personalized PageRank of every vertex of the given graph
+     * with respect to the given seeds: the walker teleports to one of the
+     * seeds, chosen uniformly.
+     *
+     * @param graph         a non-null graph
+     * @param seeds         a non-empty collection of vertices present in the
+     *                      graph
+     * @param damping       a double between 0 and 1, the probability of
+     *                      following an arc
+     * @param tolerance     a positive double, the change under which the ranks
+     *                      are considered stable
+     * @param maxIterations a positive int, the maximum number of supersteps
+     * @return              a map that associates the label of every vertex to
+     *                      its rank
+     */
+    public static Map<Integer, Double> personalized(Graph graph,
+            Collection<Vertex> seeds, double damping, double tolerance,
+            int maxIterations) {
+        if (seeds == null)
+            throw new NullPointerException("seeds must be non-null");
+        if (seeds.isEmpty())
+            throw new IllegalArgumentException("seeds must be non-empty");
+        CompactGraph compact = compact(graph);
+        double[] teleport = new double[compact.size()];
+        for (Vertex seed: seeds) {
+            if (seed == null)
+                throw new NullPointerException("seeds must be non-null");
+            int id = compact.idOf(seed.label());
+            if (id < 0)
+                throw new NoSuchElementException("no such vertex");
+            teleport[id] = 1;
+        }
+        int distinct = 0;
+        for (double weight: teleport)
+            distinct += (int) weight;
+        for (int v = 0; v < teleport.length; v++)
+            teleport[v] /= distinct;
+        return run(compact, teleport, damping, tolerance, maxIterations);
+    }
+
+    private static CompactGraph compact(Graph graph) {
+        if (graph == null)
+            throw new NullPointerException("graph must be non-null");
+        return CompactGraph.of(graph);
+    }
+
+    private static Map<Integer, Double> run(CompactGraph graph,
+            double[] teleport, double damping, double tolerance,
+            int maxIterations) {
+        if (damping < 0 || damping > 1)
+            throw new IllegalArgumentException("damping must be in [0, 1]");
+        if (tolerance <= 0)
+            throw new IllegalArgumentException("tolerance must be > 0");
+        if (maxIterations <= 0)
+            throw new IllegalArgumentException("iterations must be > 0");
+        VertexEngine engine = new VertexEngine(graph);
+        double[] ranks = engine.run(new Program(engine, teleport, damping),
+                maxIterations, tolerance);
+        Map<Integer, Double> result = new HashMap<>();
+        for (int v = 0; v < ranks.length; v++)
+            result.put(graph.labelOf(v), ranks[v]);
+        return result;
+    }
+
+    /*
+     * The PageRank vertex program. Before each superstep, the share that each
+     * vertex sends along each of its arcs and the rank held by the dangling
+     * vertices are computed once, so that a vertex only sums the shares of
+     * its predecessors.
+     */
+    private static final class Program implements VertexProgram {
+
+        private final double[] teleport;
+        private final double damping;
+        private final int[] outDegree;
+        private final int[] inOffsets;
+        private final int[] inTargets;
+        private final double[] share;
+        private double dangling;
+
+        Program(VertexEngine engine, double[] teleport, double damping) {
+            this.teleport = teleport;
+            this.damping = damping;
+            int n = engine.graph().size();
+            int[] offsets = engine.graph().offsets();
+            outDegree = new int[n];
+            for (int v = 0; v < n; v++)
+                outDegree[v] = offsets[v + 1] - offsets[v];
+            inOffsets = engine.transposed().offsets();
+            inTargets = engine.transposed().targets();
+            share = new double[n];
+        }
+
+        @Override public double initialValue(int vertex) {
+            return teleport[vertex];
+        }
+
+        @Override public void beforeSuperstep(double[] previous) {
+            double sum = 0;
+            for (int v = 0; v < previous.length; v++) {
+                if (outDegree[v] == 0) {
+                    sum += previous[v];
+                    share[v] = 0;
+                } else {
+                    share[v] = previous[v] / outDegree[v];
+                }
+            }
+            dangling = sum;
+        }
+
+        @Override public double compute(int vertex, double[] previous) {
+            double sum = 0;
+            for (int i = inOffsets[vertex]; i < inOffsets[vertex + 1]; i++)
+                sum += share[inTargets[i]];
+            return (1 - damping) * teleport[vertex]
+                + damping * (sum + dangling * teleport[vertex]);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package dev.jraf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.IntToLongFunction;
+
+/**
+ * An executor of batches of independent queries on a read-only copy of a
+ * graph, such as bursts of searches from many sources. The queries of a
+ * batch are cut into chunks of CHUNK_SIZE queries, and every chunk is a task
+ * of the executor, by default the common fork-join pool, whose idle workers
+ * take the chunks left by the busy ones. The result of every query is given
+ * by its own future, completed as soon as the query is answered.
+ *
+ * A chunk runs its queries in a single workspace, taken from the workspaces
+ * of this query executor and given back after the chunk, so that there are
+ * never more workspaces than chunks running at once, whatever the threads
+ * of the executor. An executor whose threads block, such as one virtual
+ * thread per task, can thus be used without a workspace per thread.
+ *
+ * The copy of the graph is never changed, and the queries share it without
+ * any lock. The vertices of a batch are checked when it is submitted, and a
+ * query that fails, with an exception or an error, completes its future
+ * exceptionally. If the executor rejects a chunk, the futures of that chunk
+ * and of the chunks after it are completed exceptionally with the rejection.
+ *
+ * @see Graph#breadthFirstSearch(Vertex, TraversalWorkspace)
+ * @see WeightedGraph#queryExecutor(Executor)
+ */
+public final class QueryExecutor {
+
+    /** The number of queries run by a task of the executor. */
+    public static final int CHUNK_SIZE = 16;
+    private static final IntToLongFunction NO_ESTIMATE = label -> 0;
+    private final CompactGraph graph;
+    private final CompactGraph backward;
+    // the weights of the arcs of graph by index, or null
+    private final int[] weights;
+    private final Executor executor;
+    private final ConcurrentLinkedQueue<TraversalWorkspace> workspaces =
+        new ConcurrentLinkedQueue<>();
+
+    /**
+     * Class constructor that specifies the graph, the weights of its arcs
+     * and the executor of the queries.
+     *
+     * @param graph    a non-null compact graph, that is no longer changed
+     * @param weights  the non-negative weights of the arcs by index, or null
+     * @param executor a non-null executor
+     */
+    QueryExecutor(CompactGraph graph, int[] weights, Executor executor) {
+        this.graph = graph;
+        this.weights = weights;
+        this.executor = executor;
+        backward = graph.transposed();
+    }
+
+    /**
+     * Creates a query executor on a copy of the given graph as it is now,
+     * that runs the queries in the common fork-join pool.
+     *
+     * @param graph a non-null graph
+     * @return      a query executor on a copy of the graph
+     */
+    public static QueryExecutor of(Graph graph) {
+        return of(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a query executor on a copy of the given graph as it is now,
+     * that runs the queries with the given executor. The copy has no
+     * weights; see WeightedGraph.queryExecutor(Executor) for routes.
+     *
+     * @param graph    a non-null graph
+     * @param executor a non-null executor, that runs the queries
+     * @return         a query executor on a copy of the graph
+     */
+    public static QueryExecutor of(Graph graph, Executor executor) {
+        if (graph == null)
+            throw new NullPointerException("graph must be non-null");
+        if (executor == null)
+            throw new NullPointerException("executor must be non-null");
+        return new QueryExecutor(CompactGraph.of(graph), null, executor);
+    }
+
+    /*
+     * A query between the vertices of ids src and dst, run in a workspace.
+     */
+    private interface Query<R> {
+        R run(int src, int dst, TraversalWorkspace workspace);
+    }
+
+    /**
+     * Runs a breadth-first search from each of the given sources, and
+     * returns the futures of their parents associations, in the order of the
+     * sources.
+     *
+     * @param sources a non-null list of non-null present vertices
+     * @return        a list of futures of maps, the parents associations of
+     *                the searches
+     * @see           Graph#breadthFirstSearch(Vertex)
+     */
+    public List<CompletableFuture<Map<Integer, Integer>>> breadthFirstSearches(
+            List<Vertex> sources) {
+        if (sources == null)
+            throw new NullPointerException("sources must be non-null");
+        int[] ids = new int[sources.size()];
+        for (int i = 0; i < ids.length; i++)
+            ids[i] = idOf(sources.get(i));
+        return submit(ids, ids, (src, dst, workspace) -> {
+            graph.search(src, workspace);
+            return workspace.parents();
+        });
+    }
+
+    /**
+     * Tells for each of the given pairs whether its head is reachable from
+     * its tail, and returns the futures of the answers, in the order of the
+     * pairs. Each query is a bidirectional search that stops as soon as both
+     * sides meet.
+     *
+     * @param pairs a non-null list of non-null edges between present
+     *              vertices, from the source to the target of each query
+     * @return      a list of futures of booleans, true if the target is
+     *              reachable from the source
+     */
+    public List<CompletableFuture<Boolean>> reachability(List<Edge> pairs) {
+        return submitPairs(pairs, (src, dst, workspace) ->
+                graph.shortestPath(src, dst, backward, workspace) != null);
+    }
+
+    /**
+     * Finds a path with the fewest arcs for each of the given pairs, and
+     * returns the futures of the paths, in the order of the pairs.
+     *
+     * @param pairs a non-null list of non-null edges between present
+     *              vertices, from the first to the last vertex of each path
+     * @return      a list of futures of lists of vertices, the shortest
+     *              paths, empty if there is none
+     * @see         Graph#shortestPath(Vertex, Vertex)
+     */
+    public List<CompletableFuture<List<Vertex>>> shortestPaths(
+            List<Edge> pairs) {
+        return submitPairs(pairs, (src, dst, workspace) -> graph.verticesOf(
+                    graph.shortestPath(src, dst, backward, workspace)));
+    }
+
+    /**
+     * Finds a shortest route for each of the given pairs with Dijkstra's
+     * algorithm, and returns the futures of the routes, in the order of the
+     * pairs. The executor must come from a weighted graph.
+     *
+     * @param pairs a non-null list of non-null edges between present
+     *              vertices, from the first to the last vertex of each route
+     * @return      a list of futures of routes
+     * @see         WeightedGraph#shortestRoute(Vertex, Vertex)
+     */
+    public List<CompletableFuture<Route>> shortestRoutes(List<Edge> pairs) {
+        if (weights == null)
+            throw new IllegalStateException("graph must be weighted");
+        return submitPairs(pairs, (src, dst, workspace) ->
+                WeightedGraph.search(graph, weights, src, dst, NO_ESTIMATE,
+                    null, workspace));
+    }
+
+    /* Returns the id of the given present vertex. */
+    private int idOf(Vertex vertex) {
+        if (vertex == null)
+            throw new NullPointerException("vertices must be non-null");
+        int id = graph.idOf(vertex.label());
+        if (id < 0)
+            throw new IllegalArgumentException("vertices must be present");
+        return id;
+    }
+
+    /* Checks the given pairs and submits the query for each of them. */
+    private <R> List<CompletableFuture<R>> submitPairs(List<Edge> pairs,
+            Query<R> query) {
+        if (pairs == null)
+            throw new NullPointerException("pairs must be non-null");
+        int[] sources = new int[pairs.size()];
+        int[] targets = new int[pairs.size()];
+        for (int i = 0; i < sources.length; i++) {
+            Edge pair = pairs.get(i);
+            if (pair == null)
+                throw new NullPointerException("pairs must be non-null");
+            sources[i] = idOf(pair.tail());
+            targets[i] = idOf(pair.head());
+        }
+        return submit(sources, targets, query);
+    }
+
+    /*
+     * Submits the query between sources[i] and targets[i] for every i, by
+     * chunks, and returns the futures of the results. When a chunk is
+     * rejected, the futures not yet submitted are completed with the
+     * rejection.
+     */
+    private <R> List<CompletableFuture<R>> submit(int[] sources,
+            int[] targets, Query<R> query) {
+        List<CompletableFuture<R>> futures = new ArrayList<>(sources.length);
+        for (int i = 0; i < sources.length; i++)
+            futures.add(new CompletableFuture<>());
+        for (int from = 0; from < sources.length; from += CHUNK_SIZE) {
+            int start = from;
+            int end = Math.min(sources.length, from + CHUNK_SIZE);
+            try {
+                executor.execute(() -> run(sources, targets, query, futures,
+                            start, end));
+            } catch (RejectedExecutionException e) {
+                for (int i = start; i < sources.length; i++)
+                    futures.get(i).completeExceptionally(e);
+                break;
+            }
+        }
+        return futures;
+    }
+
+    /* Runs the queries from start to end in a workspace of the pool. */
+    private <R> void run(int[] sources, int[] targets, Query<R> query,
+            List<CompletableFuture<R>> futures, int start, int end) {
+        TraversalWorkspace workspace = workspaces.poll();
+        if (workspace == null)
+            workspace = new TraversalWorkspace();
+        try {
+            for (int i = start; i < end; i++) {
+                try {
+                    futures.get(i).complete(query.run(sources[i], targets[i],
+                                workspace));
+                } catch (Throwable e) {
+                    futures.get(i).completeExceptionally(e);
+                }
+            }
+        } finally {
+            workspace.close();
+            workspaces.offer(workspace);
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package dev.jraf;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A renumbering of the vertices of a graph that improves the locality of its
+ * traversals. The vertices of a graph are stored in the order of their
+ * labels, which often come from external identifiers, so the neighbors of a
+ * vertex end up scattered in memory. A reordering computes a permutation of
+ * the vertices that places related vertices close to each other, and builds
+ * a compact copy of the graph in that order.
+ *
+ * The position of a vertex is its index in the new order. The reordered graph
+ * keeps the original labels, so that the algorithms run on it report their
+ * results in the original labels, while the renumbered graph is labeled with
+ * the positions. Both are read-only, and the reordering maps positions to
+ * labels and back.
+ *
+ * @see CompactGraph
+ */
+public final class Reordering {
+
+    /**
+     * The strategies that compute the new order of the vertices.
+     */
+    public enum Strategy {
+        /**
+         * Sorts the vertices by descending out-degree, so that the hubs are
+         * packed together. Ties keep the order of the graph.
+         */
+        DEGREE,
+        /**
+         * Reverse Cuthill-McKee: a breadth-first order, ignoring the direction
+         * of the arcs, that starts every component at a vertex of smallest
+         * degree and visits neighbors by increasing degree, then reversed. It
+         * reduces the bandwidth of the adjacency matrix.
+         */
+        REVERSE_CUTHILL_MCKEE,
+        /**
+         * The breadth-first order, ignoring the direction of the arcs, that
+         * starts every component at its first vertex in the graph.
+         */
+        BREADTH_FIRST,
+        /**
+         * A light version of Gorder: a greedy order that picks as next vertex
+         * the one sharing the most neighbors and in-neighbors with the last
+         * WINDOW placed vertices. Siblings are not counted through vertices of
+         * out-degree above HUB_DEGREE, which bounds the cost of an update.
+         */
+        GORDER
+    }
+
+    // the number of last placed vertices scored against in GORDER
+    static final int WINDOW = 5;
+    // the out-degree above which a vertex does not make its heads siblings
+    static final int HUB_DEGREE = 256;
+    private final CompactGraph reordered;
+    private final CompactGraph renumbered;
+
+    private Reordering(CompactGraph reordered, CompactGraph renumbered) {
+        this.reordered = reordered;
+        this.renumbered = renumbered;
+    }
+
+    /**
+     * Computes the order of the vertices of the given graph with the given
+     * strategy, and returns the reordering.
+     *
+     * @param graph    a non-null graph
+     * @param strategy a non-null strategy
+     * @return         the reordering of the graph
+     */
+    public static Reordering of(Graph graph, Strategy strategy) {
+        if (strategy == null)
+            throw new NullPointerException("strategy must be non-null");
+        CompactGraph compact = CompactGraph.of(graph);
+        int[] order;
+        switch (strategy) {
+            case DEGREE:
+                order = degreeOrder(compact);
+                break;
+            case REVERSE_CUTHILL_MCKEE:
+                order = breadthFirstOrder(compact, true);
+                for (int i = 0, j = order.length - 1; i < j; i++, j--) {
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                }
+                break;
+            case BREADTH_FIRST:
+                order = breadthFirstOrder(compact, false);
+                break;
+            default:
+                order = gorder(compact);
+        }
+        return permute(compact, order);
+    }
+
+    /*
+     * Builds the reordered and renumbered graphs, where the vertex at position
+     * p is the vertex of id order[p] in the given graph. The neighbors of
+     * every vertex are sorted by position.
+     */
+    private static Reordering permute(CompactGraph graph, int[] order) {
+        int n = graph.size();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] position = new int[n];
+        for (int p = 0; p < n; p++)
+            position[order[p]] = p;
+        int[] labels = new int[n];
+        int[] newOffsets = new int[n + 1];
+        int[] newTargets = new int[targets.length];
+        for (int p = 0; p < n; p++) {
+            int u = order[p];
+            labels[p] = graph.labelOf(u);
+            int m = newOffsets[p];
+            for (int i = offsets[u]; i < offsets[u + 1]; i++)
+                newTargets[m++] = position[targets[i]];
+            Arrays.sort(newTargets, newOffsets[p], m);
+            newOffsets[p + 1] = m;
+        }
+        int[] positions = new int[n];
+        Arrays.setAll(positions, p -> p);
+        return new Reordering(CompactGraph.of(labels, newOffsets, newTargets),
+                CompactGraph.of(positions, newOffsets, newTargets));
+    }
+
+    /* Sorts the ids by descending out-degree with a counting sort. */
+    private static int[] degreeOrder(CompactGraph graph) {
+        int n = graph.size();
+        int[] offsets = graph.offsets();
+        int max = 0;
+        for (int u = 0; u < n; u++)
+            max = Math.max(max, offsets[u + 1] - offsets[u]);
+        int[] start = new int[max + 2];
+        for (int u = 0; u < n; u++)
+            start[max - (offsets[u + 1] - offsets[u]) + 1]++;
+        for (int d = 0; d <= max; d++)
+            start[d + 1] += start[d];
+        int[] order = new int[n];
+        for (int u = 0; u < n; u++)
+            order[start[max - (offsets[u + 1] - offsets[u])]++] = u;
+        return order;
+    }
+
+    /*
+     * Returns the breadth-first order of the ids on the arcs and the reversed
+     * arcs. In Cuthill-McKee mode, every component starts at an unvisited
+     * vertex of smallest degree, and the neighbors of a vertex are visited by
+     * increasing degree.
+     */
+    private static int[] breadthFirstOrder(CompactGraph graph,
+            boolean cuthillMcKee) {
+        int n = graph.size();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        CompactGraph transpose = graph.transpose();
+        int[] inOffsets = transpose.offsets();
+        int[] inTargets = transpose.targets();
+        int[] degree = new int[n];
+        for (int u = 0; u < n; u++) {
+            degree[u] = offsets[u + 1] - offsets[u] + inOffsets[u + 1]
+                - inOffsets[u];
+        }
+        int[] starts = cuthillMcKee ? sortByDegree(degree, identity(n))
+            : identity(n);
+        boolean[] seen = new boolean[n];
+        int[] order = new int[n];
+        int last = 0;
+        for (int start: starts) {
+            if (seen[start])
+                continue;
+            seen[start] = true;
+            order[last++] = start;
+            for (int first = last - 1; first < last; first++) {
+                int u = order[first];
+                int from = last;
+                last = visit(u, offsets, targets, seen, order, last);
+                last = visit(u, inOffsets, inTargets, seen, order, last);
+                if (cuthillMcKee) {
+                    int[] level = sortByDegree(degree,
+                            Arrays.copyOfRange(order, from, last));
+                    System.arraycopy(level, 0, order, from, level.length);
+                }
+            }
+        }
+        return order;
+    }
+
+    private static int visit(int u, int[] offsets, int[] targets,
+            boolean[] seen, int[] order, int last) {
+        for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+            int v = targets[i];
+            if (!seen[v]) {
+                seen[v] = true;
+                order[last++] = v;
+            }
+        }
+        return last;
+    }
+
+    private static int[] identity(int n) {
+        int[] ids = new int[n];
+        Arrays.setAll(ids, u -> u);
+        return ids;
+    }
+
+    /* Sorts the given ids by increasing degree, ties in the given order. */
+    private static int[] sortByDegree(int[] degree, int[] ids) {
+        long[] keys = new long[ids.length];
+        for (int i = 0; i < ids.length; i++)
+            keys[i] = (long) degree[ids[i]] << 32 | i;
+        Arrays.sort(keys);
+        int[] sorted = new int[ids.length];
+        for (int i = 0; i < ids.length; i++)
+            sorted[i] = ids[(int) keys[i]];
+        return sorted;
+    }
+
+    /*
+     * Greedy Gorder: starting from a vertex of largest in-degree, repeatedly
+     * places the unplaced vertex of highest score. The score of a vertex is
+     * the number of arcs between it and the last WINDOW placed vertices, plus
+     * the number of in-neighbors it shares with them. Scores are kept in a
+     * bucket queue, as they only move by one.
+     */
+    private static int[] gorder(CompactGraph graph) {
+        int n = graph.size();
+        int[] order = new int[n];
+        if (n == 0)
+            return order;
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        CompactGraph transpose = graph.transpose();
+        int[] inOffsets = transpose.offsets();
+        int[] inTargets = transpose.targets();
+        ScoreQueue queue = new ScoreQueue(n);
+        int first = 0;
+        for (int u = 1; u < n; u++) {
+            if (inOffsets[u + 1] - inOffsets[u]
+                    > inOffsets[first + 1] - inOffsets[first])
+                first = u;
+        }
+        queue.remove(first);
+        order[0] = first;
+        for (int p = 1; p < n; p++) {
+            score(order[p - 1], 1, queue, offsets, targets, inOffsets,
+                    inTargets);
+            if (p > WINDOW) {
+                score(order[p - 1 - WINDOW], -1, queue, offsets, targets,
+                        inOffsets, inTargets);
+            }
+            order[p] = queue.pollMax();
+        }
+        return order;
+    }
+
+    /*
+     * Adds delta to the scores of the neighbors, in-neighbors and siblings of
+     * the given vertex.
+     */
+    private static void score(int v, int delta, ScoreQueue queue,
+            int[] offsets, int[] targets, int[] inOffsets, int[] inTargets) {
+        for (int i = offsets[v]; i < offsets[v + 1]; i++)
+            queue.add(targets[i], delta);
+        for (int i = inOffsets[v]; i < inOffsets[v + 1]; i++) {
+            int w = inTargets[i];
+            queue.add(w, delta);
+            if (offsets[w + 1] - offsets[w] > HUB_DEGREE)
+                continue;
+            for (int j = offsets[w]; j < offsets[w + 1]; j++) {
+                if (targets[j] != v)
+                    queue.add(targets[j], delta);
+            }
+        }
+    }
+
+    /*
+     * A queue of ids by integral score, made of one doubly linked list per
+     * score. Changing a score by one and removing an id take constant time,
+     * and polling the maximum takes amortized constant time.
+     */
+    private static final class ScoreQueue {
+
+        private final int[] score;
+        private final int[] next;
+        private final int[] prev;
+        private final boolean[] removed;
+        private int[] heads;
+        private int top;
+
+        ScoreQueue(int n) {
+            score = new int[n];
+            next = new int[n];
+            prev = new int[n];
+            removed = new boolean[n];
+            heads = new int[16];
+            Arrays.fill(heads, -1);
+            for (int u = n - 1; u >= 0; u--)
+                link(u);
+        }
+
+        void add(int u, int delta) {
+            if (removed[u])
+                return;
+            unlink(u);
+            score[u] += delta;
+            link(u);
+        }
+
+        void remove(int u) {
+            unlink(u);
+            removed[u] = true;
+        }
+
+        int pollMax() {
+            while (heads[top] < 0)
+                top--;
+            int u = heads[top];
+            remove(u);
+            return u;
+        }
+
+        private void link(int u) {
+            int s = score[u];
+            if (s >= heads.length) {
+                int old = heads.length;
+                heads = Arrays.copyOf(heads, Math.max(old * 2, s + 1));
+                Arrays.fill(heads, old, heads.length, -1);
+            }
+            prev[u] = -1;
+            next[u] = heads[s];
+            if (heads[s] >= 0)
+                prev[heads[s]] = u;
+            heads[s] = u;
+            top = Math.max(top, s);
+        }
+
+        private void unlink(int u) {
+            if (prev[u] >= 0)
+                next[prev[u]] = next[u];
+            else
+                heads[score[u]] = next[u];
+            if (next[u] >= 0)
+                prev[next[u]] = prev[u];
+        }
+    }
+
+    /**
+     * Returns the reordered graph: its vertices are stored in the new order,
+     * and keep their original labels. The algorithms that take a graph run
+     * on it directly, without copying it, and report their results in the
+     * original labels.
+     *
+     * @return the reordered graph, read-only
+     */
+    public Graph graph() {
+        return reordered;
+    }
+
+    /**
+     * Returns the renumbered graph, whose vertices are labeled by their
+     * positions from 0 to size() - 1.
+     *
+     * @return the renumbered graph, read-only
+     */
+    public Graph renumbered() {
+        return renumbered;
+    }
+
+    /**
+     * Returns the number of vertices of the reordered graph.
+     *
+     * @return an int, the number of vertices
+     */
+    public int size() {
+        return reordered.size();
+    }
+
+    /**
+     * Returns the position of the given vertex in the new order, which is its
+     * label in the renumbered graph.
+     *
+     * @param vertex a non-null vertex of the graph
+     * @return       an int, the position of the vertex
+     */
+    public int positionOf(Vertex vertex) {
+        if (vertex == null)
+            throw new NullPointerException("vertex must be non-null");
+        int position = reordered.idOf(vertex.label());
+        if (position < 0)
+            throw new NoSuchElementException("no such vertex");
+        return position;
+    }
+
+    /**
+     * Returns the vertex, with its original label, at the given position in
+     * the new order.
+     *
+     * @param position an int in [0, size()), a position
+     * @return         the vertex at the given position
+     */
+    public Vertex vertexAt(int position) {
+        if (position < 0 || position >= reordered.size())
+            throw new IndexOutOfBoundsException("no such position");
+        return Vertex.of(reordered.labelOf(position));
+    }
+}
@@ -0,0 +1,80 @@
+package dev.jraf;
+
+import java.util.List;
+import java.util.Collections;
+
+/**
+ * A shortest route between two vertices of a weighted graph, that is a path
+ * of minimal total weight, as found by a Dijkstra or A* search. A route also
+ * tells how many vertices the search settled to find it, which measures how
+ * well the heuristic of an A* search guided it. A route that does not exist
+ * has no vertex and a length of -1.
+ *
+ * @see WeightedGraph#shortestRoute(Vertex, Vertex)
+ */
+public final class Route {
+
+    private final List<Vertex> vertices;
+    private final long length;
+    private final int settled;
+
+    /**
+     * Class constructor that specifies the vertices, the length and the
+     * number of settled vertices of the route.
+     *
+     * @param vertices a non-null list of vertices, empty if there is no route
+     * @param length   a long, the total weight of the route, or -1
+     * @param settled  an int, the number of vertices settled by the search
+     */
+    Route(List<Vertex> vertices, long length, int settled) {
+        this.vertices = Collections.unmodifiableList(vertices);
+        this.length = length;
+        this.settled = settled;
+    }
+
+    /**
+     * Returns true if the route exists, that is if the last vertex is
+     * reachable from the first one.
+     *
+     * @return true if the route exists
+     */
+    public boolean exists() {
+        return length >= 0;
+    }
+
+    /**
+     * Returns the vertices of this route, from the first to the last one.
+     *
+     * @return an unmodifiable list of vertices, empty if there is no route
+     */
+    public List<Vertex> vertices() {
+        return vertices;
+    }
+
+    /**
+     * Returns the length of this route, that is the sum of the weights of its
+     * arcs.
+     *
+     * @return a long, the length of this route, or -1 if there is no route
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Returns the number of vertices that the search settled, that is removed
+     * from its queue, before it found this route.
+     *
+     * @return an int, the number of settled vertices
+     */
+    public int settledCount() {
+        return settled;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public String toString() {
+        return "Route" + vertices + " of length " + length;
+    }
+}
@@ -0,0 +1,47 @@
+package dev.jraf;
+
+import java.util.Arrays;
+
+/**
+ * The bitset kernels written as plain loops over longs, used when the vector
+ * API is not available.
+ *
+ * @see BitKernels
+ */
+final class ScalarBitKernels extends BitKernels {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override void or(long[] dst, int to, long[] src, int from, int w) {
+        for (int j = 0; j < w; j++)
+            dst[to + j] |= src[from + j];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override boolean isZero(long[] bits, int from, int w) {
+        for (int j = from; j < from + w; j++) {
+            if (bits[j] != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override boolean sweep(long[] frontier, long[] next, long[] seen,
+            int length) {
+        Arrays.fill(frontier, 0, length, 0);
+        long any = 0;
+        for (int k = 0; k < length; k++) {
+            long fresh = next[k] & ~seen[k];
+            next[k] = fresh;
+            seen[k] |= fresh;
+            any |= fresh;
+        }
+        return any != 0;
+    }
+}
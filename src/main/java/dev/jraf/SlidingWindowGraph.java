@@ -0,0 +1,614 @@
+package dev.jraf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A graph of the arcs added during the last window of time, such as the
+ * interactions of the last minutes of a stream of events. Every arc is added
+ * at a time, and expires on its own once the window has passed over it: the
+ * traversals only see the live arcs, and there is no need to remove the old
+ * ones or to build the graph again.
+ *
+ * The window is cut into buckets of equal width, kept in a ring. An arc is
+ * recorded in the bucket of its time, and a bucket expires as a whole when
+ * the time reaches the end of the window that starts with it, so that an arc
+ * lives between window - width and window units of time. An expired bucket is
+ * cleared in time proportional to the arcs and vertices it recorded, and its
+ * arrays are used again by the next bucket that falls in its slot of the
+ * ring. An arc added again in a later bucket lives as long as the later
+ * addition.
+ *
+ * The time is given by the additions, and only moves forward: it is the
+ * latest time given, or the time given to advanceTo(long). An arc whose time
+ * is already out of the window is dropped. A vertex lives as long as the last
+ * bucket it was added or used in, after which its id is given to the next new
+ * vertex.
+ *
+ * @see Graph
+ */
+public final class SlidingWindowGraph implements Graph {
+
+    private static final String NULL_VERTEX_ERR = "vertex must be non-null";
+    private static final String NULL_VERTICES_ERR = "vertices must be non-null";
+    // the last bucket of a free id
+    private static final long FREE = Long.MIN_VALUE;
+    private final long window;
+    private final long width;
+    private final Segment[] ring;
+    private final LabelIndex index = new LabelIndex(16);
+    private int[] labels = new int[16];
+    // the last bucket each id was added or used in, or FREE
+    private long[] lastSeen = new long[16];
+    private int[] free = new int[16];
+    private int freeCount;
+    // the number of ids given, free ones included
+    private int size;
+    private long now;
+    private long current;
+    private long version;
+    // scratch space of neighborsOf, reset in O(1) by bumping the stamp
+    private int[] seen = new int[16];
+    private int stamp;
+
+    private SlidingWindowGraph(long window, int buckets) {
+        this.window = window;
+        width = window / buckets;
+        ring = new Segment[buckets];
+        for (int i = 0; i < buckets; i++)
+            ring[i] = new Segment();
+        Arrays.fill(lastSeen, FREE);
+    }
+
+    /**
+     * Creates a new empty sliding window graph, whose arcs live for the given
+     * window of time, cut into the given number of buckets. The time starts
+     * at 0.
+     *
+     * @param window  a positive long, the length of the window, a multiple
+     *                of the number of buckets
+     * @param buckets a positive int, the number of buckets of the window
+     * @return        a new empty sliding window graph
+     */
+    public static SlidingWindowGraph of(long window, int buckets) {
+        if (buckets <= 0)
+            throw new IllegalArgumentException("buckets must be positive");
+        if (window <= 0 || window % buckets != 0)
+            throw new IllegalArgumentException("window must be a positive "
+                    + "multiple of buckets");
+        return new SlidingWindowGraph(window, buckets);
+    }
+
+    /**
+     * Returns the length of the window of this graph.
+     *
+     * @return a long, the length of the window
+     */
+    public long window() {
+        return window;
+    }
+
+    /**
+     * Returns the current time of this graph, the latest time given.
+     *
+     * @return a long, the current time
+     */
+    public long now() {
+        return now;
+    }
+
+    /**
+     * Moves the time of this graph forward to the given time, and expires
+     * the buckets that leave the window. A time before the current time has
+     * no effect.
+     *
+     * @param time a non-negative long, the new time
+     */
+    public void advanceTo(long time) {
+        if (time < 0)
+            throw new IllegalArgumentException("time must be non-negative");
+        if (time <= now)
+            return;
+        now = time;
+        long bucket = time / width;
+        if (bucket == current)
+            return;
+        // the buckets older than the oldest one still live are all cleared
+        long last = Math.min(bucket - ring.length, current);
+        for (long b = current - ring.length + 1; b <= last; b++)
+            expire(ring[slot(b)], b);
+        current = bucket;
+    }
+
+    /* Returns the slot of the ring of the given bucket. */
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) ring.length);
+    }
+
+    /* Returns true if the given bucket is in the window. */
+    private boolean isLive(long bucket) {
+        return bucket != FREE && bucket > current - ring.length;
+    }
+
+    /*
+     * Clears the given segment if it holds the given bucket, and frees the
+     * vertices that were last used in it.
+     */
+    private void expire(Segment segment, long bucket) {
+        if (segment.bucket != bucket)
+            return;
+        GraphMutationEvent event = new GraphMutationEvent();
+        event.begin();
+        int arcs = segment.arcs;
+        for (int i = 0; i < segment.touchedCount; i++) {
+            int id = segment.touched[i];
+            if (lastSeen[id] == bucket) {
+                index.remove(labels[id]);
+                release(id);
+            }
+        }
+        segment.clear();
+        version++;
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = "expiry";
+            event.graphSize = index.size();
+            event.arcs = arcs;
+            event.commit();
+        }
+    }
+
+    /* Marks the given id as free, so that a new vertex can have it. */
+    private void release(int id) {
+        lastSeen[id] = FREE;
+        if (freeCount == free.length)
+            free = Arrays.copyOf(free, freeCount * 2);
+        free[freeCount++] = id;
+    }
+
+    /*
+     * Returns the segment of the given live bucket, and makes it hold the
+     * bucket if it held an expired one.
+     */
+    private Segment segment(long bucket) {
+        Segment segment = ring[slot(bucket)];
+        if (segment.bucket != bucket) {
+            segment.clear();
+            segment.bucket = bucket;
+        }
+        return segment;
+    }
+
+    /*
+     * Returns the id of the given label, added if absent, and records that
+     * it was used in the given live bucket.
+     */
+    private int idOrAdd(int label, long bucket) {
+        int id = index.idOf(label);
+        if (id < 0) {
+            id = freeCount > 0 ? free[--freeCount] : size++;
+            if (id == labels.length) {
+                int capacity = id * 2;
+                labels = Arrays.copyOf(labels, capacity);
+                lastSeen = Arrays.copyOf(lastSeen, capacity);
+                Arrays.fill(lastSeen, id, capacity, FREE);
+            }
+            index.put(label, id);
+            labels[id] = label;
+            version++;
+        }
+        lastSeen[id] = Math.max(lastSeen[id], bucket);
+        segment(bucket).touch(id);
+        return id;
+    }
+
+    /* Returns the id of the given present vertex. */
+    private int idOf(Vertex vertex, String absentMessage) {
+        if (vertex == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        int id = index.idOf(vertex.label());
+        if (id < 0)
+            throw new NoSuchElementException(absentMessage);
+        return id;
+    }
+
+    /**
+     * Adds the given vertex to this graph at the given time, after moving the
+     * time forward to it. The vertex lives at least as long as the bucket of
+     * the time. A time already out of the window has no effect.
+     *
+     * @param vertex a non-null vertex
+     * @param time   a non-negative long, the time of the addition
+     */
+    public void add(Vertex vertex, long time) {
+        if (vertex == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        advanceTo(time);
+        long bucket = time / width;
+        if (isLive(bucket))
+            idOrAdd(vertex.label(), bucket);
+    }
+
+    /**
+     * Adds the arc between the vertices of given labels to this graph at the
+     * given time, after moving the time forward to it. The arc lives as long
+     * as the bucket of the time, unless it is added again later. A time
+     * already out of the window has no effect.
+     *
+     * @param tail an int, the label of the tail of the arc
+     * @param head an int, the label of the head of the arc
+     * @param time a non-negative long, the time of the addition
+     */
+    public void add(int tail, int head, long time) {
+        advanceTo(time);
+        long bucket = time / width;
+        if (!isLive(bucket))
+            return;
+        int u = idOrAdd(tail, bucket);
+        int x = idOrAdd(head, bucket);
+        if (segment(bucket).add(u, x))
+            version++;
+    }
+
+    /**
+     * Adds the arc between the given vertices to this graph at the given
+     * time, after moving the time forward to it.
+     *
+     * @param tail a non-null vertex, the tail of the arc
+     * @param head a non-null vertex, the head of the arc
+     * @param time a non-negative long, the time of the addition
+     * @see        #add(int, int, long)
+     */
+    public void add(Vertex tail, Vertex head, long time) {
+        if (tail == null || head == null)
+            throw new NullPointerException(NULL_VERTICES_ERR);
+        add(tail.label(), head.label(), time);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The vertex is added at the current time.
+     *
+     * @param vertex a non-null vertex
+     */
+    @Override public void add(Vertex vertex) {
+        add(vertex, now);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The vertex is added at the current time.
+     *
+     * @param label an int, the label of the vertex
+     */
+    @Override public void add(int label) {
+        add(Vertex.of(label), now);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The arc is added at the current time.
+     *
+     * @param tail a non-null vertex, the tail of the arc
+     * @param head a non-null vertex, the head of the arc
+     */
+    @Override public void add(Vertex tail, Vertex head) {
+        add(tail, head, now);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The arc is added at the current time.
+     *
+     * @param tail an int, the label of the tail of the arc
+     * @param head an int, the label of the head of the arc
+     */
+    @Override public void add(int tail, int head) {
+        add(tail, head, now);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The arc is removed from every bucket of the window.
+     *
+     * @param tail a non-null present vertex, the tail of the arc to remove
+     * @param head a non-null present vertex, the head of the arc to remove
+     */
+    @Override public void remove(Vertex tail, Vertex head) {
+        if (tail == null || head == null)
+            throw new NullPointerException(NULL_VERTICES_ERR);
+        int u = index.idOf(tail.label());
+        int x = index.idOf(head.label());
+        if (u < 0 || x < 0)
+            throw new IllegalArgumentException("vertices must be present");
+        boolean removed = false;
+        for (Segment segment: ring) {
+            if (isLive(segment.bucket))
+                removed |= segment.remove(u, x);
+        }
+        if (removed)
+            version++;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Its arcs are removed from every bucket of the window, and its id is
+     * given to the next new vertex.
+     *
+     * @param vertex a non-null present vertex
+     */
+    @Override public void remove(Vertex vertex) {
+        int u = idOf(vertex, "no such vertex");
+        for (Segment segment: ring) {
+            if (isLive(segment.bucket))
+                segment.isolate(u);
+        }
+        index.remove(labels[u]);
+        release(u);
+        version++;
+    }
+
+    /*
+     * Collects the distinct vertices of the given lists of u in the live
+     * segments, the heads of its arcs if out is true, else their tails.
+     */
+    private List<Vertex> collect(int u, boolean out) {
+        if (seen.length < size)
+            seen = Arrays.copyOf(seen, Math.max(size, seen.length * 2));
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            stamp = 1;
+        }
+        List<Vertex> vertices = new ArrayList<>();
+        for (Segment segment: ring) {
+            if (!isLive(segment.bucket) || u >= segment.used.length)
+                continue;
+            int[] list = out ? segment.out[u] : segment.in[u];
+            int length = out ? segment.outSize[u] : segment.inSize[u];
+            for (int i = 0; i < length; i++) {
+                int v = list[i];
+                if (seen[v] != stamp) {
+                    seen[v] = stamp;
+                    vertices.add(Vertex.of(labels[v]));
+                }
+            }
+        }
+        return vertices;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> neighborsOf(Vertex vertex) {
+        return collect(idOf(vertex, "no such vertex"), true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> predecessorsOf(Vertex vertex) {
+        return collect(idOf(vertex, "no such vertex"), false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> vertices() {
+        List<Vertex> vertices = new ArrayList<>(index.size());
+        for (int id = 0; id < size; id++) {
+            if (lastSeen[id] != FREE)
+                vertices.add(Vertex.of(labels[id]));
+        }
+        return vertices;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public int degreeOf(Vertex vertex) {
+        return collect(idOf(vertex, "vertex must be present"), true).size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public long version() {
+        return version;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public Map<Integer, Integer> breadthFirstSearch(Vertex source) {
+        try (TraversalWorkspace workspace = TraversalWorkspace.borrow()) {
+            breadthFirstSearch(source, workspace);
+            return workspace.parents();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The search scans the arcs of the live buckets in place.
+     *
+     * @param source    a non-null present vertex
+     * @param workspace a non-null workspace
+     * @return          an int, the number of vertices reached from the source
+     */
+    @Override public int breadthFirstSearch(Vertex source,
+            TraversalWorkspace workspace) {
+        if (source == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        if (workspace == null)
+            throw new NullPointerException("workspace must be non-null");
+        int src = index.idOf(source.label());
+        if (src < 0)
+            throw new IllegalArgumentException("vertex must be present");
+        search(src, workspace);
+        return workspace.reached;
+    }
+
+    /* Runs a breadth-first search from src in workspace. */
+    private void search(int src, TraversalWorkspace workspace) {
+        workspace.start(size, labels);
+        int[] parent = workspace.parent;
+        int[] depth = workspace.depth;
+        int[] queue = workspace.queue;
+        int first = 0;
+        int last = 0;
+        long scanned = 0;
+        int peak = 0;
+        workspace.visit(src);
+        parent[src] = src;
+        depth[src] = 0;
+        queue[last++] = src;
+        while (first < last) {
+            if (last - first > peak)
+                peak = last - first;
+            int u = queue[first++];
+            for (Segment segment: ring) {
+                if (!isLive(segment.bucket) || u >= segment.used.length)
+                    continue;
+                int[] heads = segment.out[u];
+                int degree = segment.outSize[u];
+                scanned += degree;
+                for (int i = 0; i < degree; i++) {
+                    int v = heads[i];
+                    if (workspace.visit(v)) {
+                        parent[v] = u;
+                        depth[v] = depth[u] + 1;
+                        queue[last++] = v;
+                    }
+                }
+            }
+        }
+        workspace.reached = last;
+        workspace.scanned = scanned;
+        workspace.peak = peak;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The check runs on a compact copy of the live arcs.
+     *
+     * @return a boolean, true if this graph contains no cycle
+     */
+    @Override public boolean isAcyclic() {
+        return CompactGraph.of(this).isAcyclic();
+    }
+
+    /*
+     * The arcs recorded in a bucket, by tail and by head, with the vertices
+     * added or used in it. The lists of the ids are kept when the segment is
+     * cleared, so that the next buckets fill them again.
+     */
+    private static final class Segment {
+
+        // the bucket held, or FREE
+        long bucket = FREE;
+        int[][] out = new int[16][];
+        int[] outSize = new int[16];
+        int[][] in = new int[16][];
+        int[] inSize = new int[16];
+        boolean[] used = new boolean[16];
+        int[] touched = new int[16];
+        int touchedCount;
+        // the number of arcs
+        int arcs;
+
+        /* Records that the given id was added or used in this bucket. */
+        void touch(int id) {
+            if (id >= used.length) {
+                int capacity = Math.max(id + 1, used.length * 2);
+                out = Arrays.copyOf(out, capacity);
+                outSize = Arrays.copyOf(outSize, capacity);
+                in = Arrays.copyOf(in, capacity);
+                inSize = Arrays.copyOf(inSize, capacity);
+                used = Arrays.copyOf(used, capacity);
+            }
+            if (used[id])
+                return;
+            used[id] = true;
+            if (touchedCount == touched.length)
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            touched[touchedCount++] = id;
+        }
+
+        /* Returns true if the arc from u to x is recorded. */
+        boolean contains(int u, int x) {
+            return u < used.length && indexOf(out[u], outSize[u], x) >= 0;
+        }
+
+        /*
+         * Records the arc from u to x, whose ids are touched, and returns
+         * true if it was not recorded yet.
+         */
+        boolean add(int u, int x) {
+            if (contains(u, x))
+                return false;
+            out[u] = append(out[u], outSize[u]++, x);
+            in[x] = append(in[x], inSize[x]++, u);
+            arcs++;
+            return true;
+        }
+
+        /* Drops the arc from u to x, and returns true if it was recorded. */
+        boolean remove(int u, int x) {
+            if (!contains(u, x))
+                return false;
+            outSize[u] = drop(out[u], outSize[u], x);
+            inSize[x] = drop(in[x], inSize[x], u);
+            arcs--;
+            return true;
+        }
+
+        /* Drops the arcs that start or end at u. */
+        void isolate(int u) {
+            if (u >= used.length)
+                return;
+            while (outSize[u] > 0)
+                remove(u, out[u][outSize[u] - 1]);
+            while (inSize[u] > 0)
+                remove(in[u][inSize[u] - 1], u);
+        }
+
+        /* Empties the segment, in time proportional to its ids. */
+        void clear() {
+            for (int i = 0; i < touchedCount; i++) {
+                int id = touched[i];
+                outSize[id] = 0;
+                inSize[id] = 0;
+                used[id] = false;
+            }
+            touchedCount = 0;
+            arcs = 0;
+            bucket = FREE;
+        }
+
+        private static int indexOf(int[] list, int length, int value) {
+            for (int i = 0; i < length; i++) {
+                if (list[i] == value)
+                    return i;
+            }
+            return -1;
+        }
+
+        private static int[] append(int[] list, int length, int value) {
+            if (list == null)
+                list = new int[4];
+            else if (length == list.length)
+                list = Arrays.copyOf(list, length * 2);
+            list[length] = value;
+            return list;
+        }
+
+        /* Removes value from the list by moving the last entry to its place. */
+        private static int drop(int[] list, int length, int value) {
+            int i = indexOf(list, length, value);
+            list[i] = list[length - 1];
+            return length - 1;
+        }
+    }
+}
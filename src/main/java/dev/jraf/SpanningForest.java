@@ -0,0 +1,207 @@
+package dev.jraf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * A minimum spanning forest of a weighted graph taken as undirected, that is
+ * a set of arcs of least total weight that connects the vertices of every
+ * weakly connected component without cycles. An arc and its reverse are two
+ * edges between the same vertices, and loops are ignored. Arcs of equal
+ * weight are ordered by their position in the compact copy of the graph, so
+ * the forest is unique and does not depend on how it was computed.
+ *
+ * @see WeightedGraph#minimumSpanningForest()
+ */
+public final class SpanningForest {
+
+    private final List<Edge> edges;
+    private final long weight;
+
+    /**
+     * Class constructor that specifies the edges and the weight of the
+     * forest.
+     *
+     * @param edges  a non-null list of edges, the edges of the forest
+     * @param weight a long, the sum of the weights of the edges
+     */
+    SpanningForest(List<Edge> edges, long weight) {
+        this.edges = Collections.unmodifiableList(edges);
+        this.weight = weight;
+    }
+
+    /**
+     * Computes the minimum spanning forest of the given graph, whose arcs
+     * have the given weights. The forest is grown by Borůvka rounds run
+     * concurrently when the graph is large enough, and by Kruskal's algorithm
+     * otherwise.
+     *
+     * @param graph   a non-null compact graph
+     * @param weights the weights of the arcs of graph, by index
+     * @return        the minimum spanning forest of the graph
+     */
+    static SpanningForest of(CompactGraph graph, int[] weights) {
+        int[] tails = tails(graph);
+        long[] chosen = graph.arcCount() >= Components.PARALLEL_THRESHOLD
+            && Runtime.getRuntime().availableProcessors() > 1
+            ? boruvka(graph, tails, weights)
+            : kruskal(graph, tails, weights);
+        int[] targets = graph.targets();
+        List<Edge> edges = new ArrayList<>(chosen.length);
+        long weight = 0;
+        for (long key: chosen) {
+            int i = (int) key;
+            edges.add(Edge.of(graph.labelOf(tails[i]),
+                        graph.labelOf(targets[i])));
+            weight += weights[i];
+        }
+        return new SpanningForest(edges, weight);
+    }
+
+    /* Returns the tail of every arc, by index. */
+    private static int[] tails(CompactGraph graph) {
+        int[] offsets = graph.offsets();
+        int[] tails = new int[graph.arcCount()];
+        for (int u = 0; u < graph.size(); u++)
+            Arrays.fill(tails, offsets[u], offsets[u + 1], u);
+        return tails;
+    }
+
+    /*
+     * Returns the key of arc i, that orders the arcs by weight and then by
+     * index: the weight in the high half and the index in the low half.
+     */
+    private static long key(int[] weights, int i) {
+        return (long) weights[i] << Integer.SIZE | i;
+    }
+
+    /*
+     * Returns the keys of the arcs of the forest in increasing order, found by
+     * scanning the arcs in that order and keeping those that join two trees.
+     */
+    static long[] kruskal(CompactGraph graph, int[] tails, int[] weights) {
+        int[] targets = graph.targets();
+        long[] keys = new long[targets.length];
+        int m = 0;
+        for (int i = 0; i < targets.length; i++) {
+            if (tails[i] != targets[i])
+                keys[m++] = key(weights, i);
+        }
+        Arrays.sort(keys, 0, m);
+        int[] parent = identity(graph.size());
+        long[] chosen = new long[Math.max(graph.size() - 1, 0)];
+        int count = 0;
+        for (int k = 0; k < m && count < chosen.length; k++) {
+            int i = (int) keys[k];
+            int ru = find(parent, tails[i]);
+            int rv = find(parent, targets[i]);
+            if (ru != rv) {
+                parent[Math.max(ru, rv)] = Math.min(ru, rv);
+                chosen[count++] = keys[k];
+            }
+        }
+        return Arrays.copyOf(chosen, count);
+    }
+
+    /*
+     * Returns the keys of the arcs of the forest in increasing order, found by
+     * Borůvka rounds. In each round every tree picks, concurrently over the
+     * remaining arcs, its lightest arc to another tree. As the keys are
+     * distinct the picked arcs never close a cycle, and every tree is joined
+     * to another, so there are at most log2(size()) rounds. The arcs within a
+     * tree are dropped after each round.
+     */
+    static long[] boruvka(CompactGraph graph, int[] tails, int[] weights) {
+        int n = graph.size();
+        int[] targets = graph.targets();
+        int[] tree = identity(n);
+        int[] parent = identity(n);
+        AtomicLongArray lightest = new AtomicLongArray(n);
+        long[] chosen = new long[Math.max(n - 1, 0)];
+        int count = 0;
+        int[] arcs = IntStream.range(0, targets.length).parallel()
+            .filter(i -> tails[i] != targets[i]).toArray();
+        while (arcs.length > 0) {
+            for (int t = 0; t < n; t++)
+                lightest.set(t, Long.MAX_VALUE);
+            int[] live = arcs;
+            IntStream.range(0, live.length).parallel().forEach(k -> {
+                int i = live[k];
+                long key = key(weights, i);
+                lower(lightest, tree[tails[i]], key);
+                lower(lightest, tree[targets[i]], key);
+            });
+            for (int t = 0; t < n; t++) {
+                long key = lightest.get(t);
+                if (key == Long.MAX_VALUE)
+                    continue;
+                int i = (int) key;
+                int ru = find(parent, tree[tails[i]]);
+                int rv = find(parent, tree[targets[i]]);
+                if (ru != rv) {
+                    parent[Math.max(ru, rv)] = Math.min(ru, rv);
+                    chosen[count++] = key;
+                }
+            }
+            // parents are smaller than their children, so one pass in
+            // increasing order links every id to its root
+            for (int t = 0; t < n; t++)
+                parent[t] = parent[parent[t]];
+            IntStream.range(0, n).parallel()
+                .forEach(u -> tree[u] = parent[tree[u]]);
+            arcs = Arrays.stream(live).parallel()
+                .filter(i -> tree[tails[i]] != tree[targets[i]]).toArray();
+        }
+        Arrays.sort(chosen, 0, count);
+        return Arrays.copyOf(chosen, count);
+    }
+
+    /* Lowers the value at index t of the array to key if key is smaller. */
+    private static void lower(AtomicLongArray lightest, int t, long key) {
+        long current = lightest.get(t);
+        while (key < current) {
+            if (lightest.compareAndSet(t, current, key))
+                return;
+            current = lightest.get(t);
+        }
+    }
+
+    private static int[] identity(int n) {
+        int[] ids = new int[n];
+        for (int u = 0; u < n; u++)
+            ids[u] = u;
+        return ids;
+    }
+
+    private static int find(int[] parent, int u) {
+        while (parent[u] != u) {
+            parent[u] = parent[parent[u]];
+            u = parent[u];
+        }
+        return u;
+    }
+
+    /**
+     * Returns the edges of this forest, in increasing order of weight. Each
+     * edge is oriented as the arc of the graph it comes from.
+     *
+     * @return an unmodifiable list of edges, the edges of this forest
+     */
+    public List<Edge> edges() {
+        return edges;
+    }
+
+    /**
+     * Returns the weight of this forest, that is the sum of the weights of
+     * its edges.
+     *
+     * @return a long, the weight of this forest
+     */
+    public long weight() {
+        return weight;
+    }
+}
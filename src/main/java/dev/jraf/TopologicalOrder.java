@@ -0,0 +1,388 @@
+package dev.jraf;
+
+import java.util.Arrays;
+
+/**
+ * A directed acyclic graph on dense ids that maintains a topological order of
+ * its vertices while arcs are inserted, following the algorithm of Pearce and
+ * Kelly. An arc x to y that already agrees with the order is inserted in
+ * constant time. Otherwise, only the vertices whose position lies between the
+ * positions of y and x and that are reachable from y, or that reach x, are
+ * visited and reordered. If x is reachable from y, the arc would close a cycle
+ * and is rejected.
+ *
+ * A removed vertex loses its arcs and keeps its id and its position as a
+ * tombstone, whose successors are null, until compact() renumbers the
+ * remaining vertices.
+ *
+ * @see DirectedAcyclicGraph
+ */
+final class TopologicalOrder {
+
+    private static final int[] EMPTY = new int[0];
+    private int size;
+    private int[][] successors;
+    private int[] outDegree;
+    private int[][] predecessors;
+    private int[] inDegree;
+    private int[] position;
+    private int[] vertexAt;
+    // scratch space of the searches, reset in O(1) by bumping the epoch
+    private int[] visited;
+    private int epoch;
+    private int[] stack;
+    private int[] forward;
+    private int forwardSize;
+    private int[] backward;
+    private int backwardSize;
+
+    /**
+     * Class constructor that creates an empty order.
+     */
+    TopologicalOrder() {
+        int capacity = 16;
+        successors = new int[capacity][];
+        outDegree = new int[capacity];
+        predecessors = new int[capacity][];
+        inDegree = new int[capacity];
+        position = new int[capacity];
+        vertexAt = new int[capacity];
+        visited = new int[capacity];
+        stack = new int[capacity];
+        forward = new int[capacity];
+        backward = new int[capacity];
+    }
+
+    /**
+     * Adds a new vertex, placed last in the order, and returns its id.
+     *
+     * @return an int, the id of the new vertex
+     */
+    int addVertex() {
+        if (size == position.length) {
+            int capacity = size * 2;
+            successors = Arrays.copyOf(successors, capacity);
+            outDegree = Arrays.copyOf(outDegree, capacity);
+            predecessors = Arrays.copyOf(predecessors, capacity);
+            inDegree = Arrays.copyOf(inDegree, capacity);
+            position = Arrays.copyOf(position, capacity);
+            vertexAt = Arrays.copyOf(vertexAt, capacity);
+            visited = Arrays.copyOf(visited, capacity);
+            stack = new int[capacity];
+            forward = new int[capacity];
+            backward = new int[capacity];
+        }
+        int id = size++;
+        successors[id] = EMPTY;
+        predecessors[id] = EMPTY;
+        position[id] = id;
+        vertexAt[id] = id;
+        return id;
+    }
+
+    /**
+     * Returns the number of vertices.
+     *
+     * @return an int, the number of vertices
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the position of the given vertex in the topological order.
+     *
+     * @param id an int, the id of a vertex
+     * @return   an int, between 0 and size() - 1
+     */
+    int positionOf(int id) {
+        return position[id];
+    }
+
+    /**
+     * Returns the vertex at the given position of the topological order.
+     *
+     * @param pos an int, between 0 and size() - 1
+     * @return    an int, the id of the vertex at the position
+     */
+    int vertexAt(int pos) {
+        return vertexAt[pos];
+    }
+
+    /**
+     * Returns the number of successors of the given vertex.
+     *
+     * @param id an int, the id of a vertex
+     * @return   an int, the out-degree of the vertex
+     */
+    int outDegree(int id) {
+        return outDegree[id];
+    }
+
+    /**
+     * Returns the i-th successor of the given vertex.
+     *
+     * @param id an int, the id of a vertex
+     * @param i  an int, between 0 and outDegree(id) - 1
+     * @return   an int, the id of the successor
+     */
+    int successor(int id, int i) {
+        return successors[id][i];
+    }
+
+    /**
+     * Returns the number of predecessors of the given vertex.
+     *
+     * @param id an int, the id of a vertex
+     * @return   an int, the in-degree of the vertex
+     */
+    int inDegree(int id) {
+        return inDegree[id];
+    }
+
+    /**
+     * Returns the i-th predecessor of the given vertex.
+     *
+     * @param id an int, the id of a vertex
+     * @param i  an int, between 0 and inDegree(id) - 1
+     * @return   an int, the id of the predecessor
+     */
+    int predecessor(int id, int i) {
+        return predecessors[id][i];
+    }
+
+    /**
+     * Returns true if the arc from x to y is present.
+     *
+     * @param x an int, the id of the tail
+     * @param y an int, the id of the head
+     * @return  true if the arc is present
+     */
+    boolean hasArc(int x, int y) {
+        return indexOf(successors[x], outDegree[x], y) >= 0;
+    }
+
+    /**
+     * Inserts the arc from x to y, unless it would close a cycle. Inserting a
+     * present arc has no effect.
+     *
+     * @param x an int, the id of the tail
+     * @param y an int, the id of the head
+     * @return  false if the arc would close a cycle, true otherwise
+     */
+    boolean addArc(int x, int y) {
+        if (x == y)
+            return false;
+        if (hasArc(x, y))
+            return true;
+        int lower = position[y];
+        int upper = position[x];
+        if (lower < upper) {
+            if (!discoverForward(y, upper, x))
+                return false;
+            discoverBackward(x, lower);
+            reorder();
+        }
+        successors[x] = append(successors[x], outDegree[x]++, y);
+        predecessors[y] = append(predecessors[y], inDegree[y]++, x);
+        return true;
+    }
+
+    /**
+     * Removes the arc from x to y if it is present. The order stays valid.
+     *
+     * @param x an int, the id of the tail
+     * @param y an int, the id of the head
+     * @return  true if the arc was present
+     */
+    boolean removeArc(int x, int y) {
+        int i = indexOf(successors[x], outDegree[x], y);
+        if (i < 0)
+            return false;
+        successors[x][i] = successors[x][--outDegree[x]];
+        int j = indexOf(predecessors[y], inDegree[y], x);
+        predecessors[y][j] = predecessors[y][--inDegree[y]];
+        return true;
+    }
+
+    /**
+     * Removes the given vertex and its arcs. Its id becomes a tombstone,
+     * which has no arc and keeps its position in the order.
+     *
+     * @param id an int, the id of a present vertex
+     */
+    void removeVertex(int id) {
+        while (outDegree[id] > 0)
+            removeArc(id, successors[id][outDegree[id] - 1]);
+        while (inDegree[id] > 0)
+            removeArc(predecessors[id][inDegree[id] - 1], id);
+        successors[id] = null;
+        predecessors[id] = null;
+    }
+
+    /**
+     * Returns true if the given id is a tombstone, left by removeVertex(int).
+     *
+     * @param id an int, the id of a vertex
+     * @return   true if the vertex was removed
+     */
+    boolean isRemoved(int id) {
+        return successors[id] == null;
+    }
+
+    /**
+     * Gives the remaining vertices new ids, which are their positions in the
+     * order once the tombstones are dropped, and returns the new id of every
+     * old id, or -1 for the tombstones.
+     *
+     * @return an array of length size() before the call, the new ids
+     */
+    int[] compact() {
+        int[] newId = new int[size];
+        int live = 0;
+        for (int pos = 0; pos < size; pos++) {
+            int id = vertexAt[pos];
+            newId[id] = isRemoved(id) ? -1 : live++;
+        }
+        int[][] oldSuccessors = successors;
+        int[] oldOutDegree = outDegree;
+        int[][] oldPredecessors = predecessors;
+        int[] oldInDegree = inDegree;
+        int capacity = Math.max(16, live);
+        successors = new int[capacity][];
+        outDegree = new int[capacity];
+        predecessors = new int[capacity][];
+        inDegree = new int[capacity];
+        position = new int[capacity];
+        vertexAt = new int[capacity];
+        visited = new int[capacity];
+        epoch = 0;
+        stack = new int[capacity];
+        forward = new int[capacity];
+        backward = new int[capacity];
+        for (int id = 0; id < size; id++) {
+            int v = newId[id];
+            if (v < 0)
+                continue;
+            successors[v] = renamed(oldSuccessors[id], oldOutDegree[id], newId);
+            outDegree[v] = oldOutDegree[id];
+            predecessors[v] = renamed(oldPredecessors[id], oldInDegree[id],
+                    newId);
+            inDegree[v] = oldInDegree[id];
+            position[v] = v;
+            vertexAt[v] = v;
+        }
+        size = live;
+        return newId;
+    }
+
+    private static int[] renamed(int[] list, int length, int[] newId) {
+        if (length == 0)
+            return EMPTY;
+        int[] renamed = new int[length];
+        for (int i = 0; i < length; i++)
+            renamed[i] = newId[list[i]];
+        return renamed;
+    }
+
+    private static int indexOf(int[] list, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (list[i] == value)
+                return i;
+        }
+        return -1;
+    }
+
+    private static int[] append(int[] list, int length, int value) {
+        if (length == list.length)
+            list = Arrays.copyOf(list, Math.max(4, length * 2));
+        list[length] = value;
+        return list;
+    }
+
+    private void newEpoch() {
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            epoch = 1;
+        }
+    }
+
+    /*
+     * Collects in forward the vertices reachable from y whose position is at
+     * most upper. Returns false if x is one of them.
+     */
+    private boolean discoverForward(int y, int upper, int x) {
+        newEpoch();
+        forwardSize = 0;
+        int top = 0;
+        stack[top++] = y;
+        visited[y] = epoch;
+        while (top > 0) {
+            int u = stack[--top];
+            forward[forwardSize++] = u;
+            for (int i = 0; i < outDegree[u]; i++) {
+                int w = successors[u][i];
+                if (w == x)
+                    return false;
+                if (visited[w] != epoch && position[w] < upper) {
+                    visited[w] = epoch;
+                    stack[top++] = w;
+                }
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Collects in backward the vertices that reach x whose position is at
+     * least lower. They are disjoint from the forward set, otherwise x would
+     * be reachable from y.
+     */
+    private void discoverBackward(int x, int lower) {
+        backwardSize = 0;
+        int top = 0;
+        stack[top++] = x;
+        visited[x] = epoch;
+        while (top > 0) {
+            int u = stack[--top];
+            backward[backwardSize++] = u;
+            for (int i = 0; i < inDegree[u]; i++) {
+                int w = predecessors[u][i];
+                if (visited[w] != epoch && position[w] > lower) {
+                    visited[w] = epoch;
+                    stack[top++] = w;
+                }
+            }
+        }
+    }
+
+    /*
+     * Gives the positions of the affected vertices back to them, backward set
+     * first, each set keeping its relative order.
+     */
+    private void reorder() {
+        sortByPosition(backward, backwardSize);
+        sortByPosition(forward, forwardSize);
+        int total = backwardSize + forwardSize;
+        int[] pool = new int[total];
+        for (int i = 0; i < backwardSize; i++)
+            pool[i] = position[backward[i]];
+        for (int i = 0; i < forwardSize; i++)
+            pool[backwardSize + i] = position[forward[i]];
+        Arrays.sort(pool);
+        for (int i = 0; i < total; i++) {
+            int u = i < backwardSize ? backward[i] : forward[i - backwardSize];
+            position[u] = pool[i];
+            vertexAt[pool[i]] = u;
+        }
+    }
+
+    private void sortByPosition(int[] ids, int length) {
+        long[] keyed = new long[length];
+        for (int i = 0; i < length; i++)
+            keyed[i] = ((long) position[ids[i]] << 32) | ids[i];
+        Arrays.sort(keyed);
+        for (int i = 0; i < length; i++)
+            ids[i] = (int) keyed[i];
+    }
+}
@@ -0,0 +1,52 @@
+package dev.jraf;
+
+/**
+ * A listener notified of the runs of the traversal algorithms of a graph, to
+ * export their metrics to the metrics registry of an application. A listener
+ * receives one summary per run, with the number of vertices visited, the
+ * number of edges scanned, the peak size of the frontier and the time spent in
+ * every phase of the run.
+ *
+ * The algorithms count in local variables, and only read the clock and build
+ * the summary when their listener is enabled. The default listener, none(), is
+ * a disabled singleton, so that an uninstrumented run does no more than
+ * increment a few counters.
+ *
+ * Listeners are called on the thread that runs the algorithm, and must be
+ * thread-safe if the graph is traversed from several threads.
+ *
+ * @see TraversalSummary
+ * @see AdjacencyGraph#setTraversalListener(TraversalListener)
+ * @see Network#setTraversalListener(TraversalListener)
+ */
+@FunctionalInterface
+public interface TraversalListener {
+
+    /**
+     * Returns the listener that ignores every run. It is disabled, so that no
+     * summary is built for it.
+     *
+     * @return the disabled listener
+     */
+    static TraversalListener none() {
+        return NoTraversalListener.INSTANCE;
+    }
+
+    /**
+     * Returns true if this listener wants the summaries of the runs. The
+     * default implementation returns true.
+     *
+     * @return true if this listener is enabled
+     */
+    default boolean enabled() {
+        return true;
+    }
+
+    /**
+     * Receives the summary of a completed run. Runs that end with an exception
+     * are not reported.
+     *
+     * @param summary the non-null summary of the run
+     */
+    void onCompleted(TraversalSummary summary);
+}
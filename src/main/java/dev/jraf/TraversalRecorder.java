@@ -0,0 +1,148 @@
+package dev.jraf;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import jdk.jfr.EventType;
+
+/**
+ * The counters of a single run of a traversal algorithm, reported to a
+ * listener and to Flight Recorder when the run completes. The clock is only
+ * read, and the phases only recorded, when the listener is enabled. The
+ * Flight Recorder event is only filled in and committed when a recording
+ * enables it. When neither the listener nor a recording wants the run, a
+ * shared recorder that records nothing is used, so that an unobserved run
+ * allocates nothing. The runs count their visited vertices, scanned arcs
+ * and largest frontier in local variables and give the totals to
+ * complete(...) once, so the shared recorder has no state to write.
+ *
+ * @see TraversalListener
+ * @see GraphQueryEvent
+ */
+final class TraversalRecorder {
+
+    private static final EventType QUERY_EVENT =
+        EventType.getEventType(GraphQueryEvent.class);
+    private static final TraversalRecorder DISABLED = new TraversalRecorder();
+    private final TraversalListener listener;
+    private final TraversalSummary.Algorithm algorithm;
+    private final boolean enabled;
+    private final long start;
+    private final GraphQueryEvent event;
+    private Map<String, Long> phases;
+
+    private TraversalRecorder(TraversalListener listener,
+            TraversalSummary.Algorithm algorithm) {
+        this.listener = listener;
+        this.algorithm = algorithm;
+        enabled = listener.enabled();
+        start = enabled ? System.nanoTime() : 0;
+        event = new GraphQueryEvent();
+        event.begin();
+    }
+
+    /* Creates the recorder that records nothing. */
+    private TraversalRecorder() {
+        listener = null;
+        algorithm = null;
+        enabled = false;
+        start = 0;
+        event = null;
+    }
+
+    /**
+     * Starts recording a run of the given algorithm, and returns the shared
+     * recorder that records nothing if the listener is disabled and no
+     * recording enables the query event.
+     *
+     * @param listener  a non-null listener, notified of the run
+     * @param algorithm the algorithm of the run
+     * @return          a recorder of the run
+     */
+    static TraversalRecorder start(TraversalListener listener,
+            TraversalSummary.Algorithm algorithm) {
+        if (!listener.enabled() && !QUERY_EVENT.isEnabled())
+            return DISABLED;
+        return new TraversalRecorder(listener, algorithm);
+    }
+
+    /**
+     * Returns true if the run is recorded by Flight Recorder, in which case
+     * the graph size and the source should be given to the recorder.
+     *
+     * @return true if a recording enables the query event
+     */
+    boolean recording() {
+        return event != null && event.isEnabled();
+    }
+
+    /**
+     * Sets the size of the traversed graph, for Flight Recorder.
+     *
+     * @param size an int, the number of vertices of the graph
+     */
+    void graphSize(int size) {
+        if (event != null)
+            event.graphSize = size;
+    }
+
+    /**
+     * Sets the source of the traversal, for Flight Recorder.
+     *
+     * @param label an int, the label of the source vertex
+     */
+    void source(int label) {
+        if (event == null)
+            return;
+        event.hasSource = true;
+        event.source = label;
+    }
+
+    /**
+     * Returns the current time in nanoseconds if the listener is enabled, and
+     * 0 otherwise. It marks the start of a phase.
+     *
+     * @return a long, the current time or 0
+     */
+    long clock() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Adds the time elapsed since the given time to the given phase.
+     *
+     * @param name  a non-null string, the name of the phase
+     * @param since a long, the time returned by clock() at the phase start
+     */
+    void phase(String name, long since) {
+        if (!enabled)
+            return;
+        if (phases == null)
+            phases = new LinkedHashMap<>();
+        phases.merge(name, System.nanoTime() - since, Long::sum);
+    }
+
+    /**
+     * Ends the run, commits its Flight Recorder event if it is recorded, and
+     * gives its summary to the listener if it is enabled.
+     *
+     * @param vertices a long, the number of vertices visited by the run
+     * @param edges    a long, the number of arcs scanned by the run
+     * @param peak     an int, the largest size of the frontier of the run
+     */
+    void complete(long vertices, long edges, int peak) {
+        if (event == null)
+            return;
+        event.end();
+        if (event.shouldCommit()) {
+            event.algorithm = algorithm.name();
+            event.visited = vertices;
+            event.scanned = edges;
+            event.commit();
+        }
+        if (!enabled)
+            return;
+        long elapsed = System.nanoTime() - start;
+        listener.onCompleted(new TraversalSummary(algorithm, vertices, edges,
+                peak, elapsed, phases == null ? Map.of() : phases));
+    }
+}
@@ -0,0 +1,117 @@
+package dev.jraf;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The summary of a run of a traversal algorithm, given to traversal listeners.
+ * This class is immutable.
+ *
+ * @see TraversalListener
+ */
+public final class TraversalSummary {
+
+    /**
+     * The instrumented algorithms.
+     */
+    public enum Algorithm {
+        /** Graph.breadthFirstSearch(Vertex). */
+        BREADTH_FIRST_SEARCH,
+        /** Graph.isAcyclic(). */
+        ACYCLICITY_CHECK,
+        /** Network.residual(EdgeToNaturalFunction). */
+        RESIDUAL,
+        /** Network.minCut(EdgeToNaturalFunction). */
+        MIN_CUT,
+        /** Graph.shortestPath(Vertex, Vertex). */
+        SHORTEST_PATH
+    }
+
+    private final Algorithm algorithm;
+    private final long verticesVisited;
+    private final long edgesScanned;
+    private final int peakFrontier;
+    private final long elapsedNanos;
+    private final Map<String, Long> phaseNanos;
+
+    TraversalSummary(Algorithm algorithm, long verticesVisited,
+            long edgesScanned, int peakFrontier, long elapsedNanos,
+            Map<String, Long> phaseNanos) {
+        this.algorithm = algorithm;
+        this.verticesVisited = verticesVisited;
+        this.edgesScanned = edgesScanned;
+        this.peakFrontier = peakFrontier;
+        this.elapsedNanos = elapsedNanos;
+        this.phaseNanos = Collections.unmodifiableMap(
+                new LinkedHashMap<>(phaseNanos));
+    }
+
+    /**
+     * Returns the algorithm of the run.
+     *
+     * @return the algorithm of the run
+     */
+    public Algorithm algorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Returns the number of vertices visited during the run, that is the
+     * number of vertices whose neighbors were scanned.
+     *
+     * @return a long, the number of visited vertices
+     */
+    public long verticesVisited() {
+        return verticesVisited;
+    }
+
+    /**
+     * Returns the number of edges scanned during the run.
+     *
+     * @return a long, the number of scanned edges
+     */
+    public long edgesScanned() {
+        return edgesScanned;
+    }
+
+    /**
+     * Returns the largest number of vertices waiting to be visited at the same
+     * time during the run, in the queue or the stack of the traversal.
+     *
+     * @return an int, the peak size of the frontier
+     */
+    public int peakFrontier() {
+        return peakFrontier;
+    }
+
+    /**
+     * Returns the duration of the run, in nanoseconds.
+     *
+     * @return a long, the duration of the run
+     */
+    public long elapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the time spent in every phase of the run, in nanoseconds, by
+     * phase name in the order the phases were first entered.
+     *
+     * @return an unmodifiable map from phase names to durations
+     */
+    public Map<String, Long> phaseNanos() {
+        return phaseNanos;
+    }
+
+    /**
+     * Returns a string representation of this summary.
+     *
+     * @return a string that describes the run
+     */
+    @Override public String toString() {
+        return algorithm + "[vertices=" + verticesVisited + ", edges="
+            + edgesScanned + ", peakFrontier=" + peakFrontier + ", nanos="
+            + elapsedNanos + ", phases=" + phaseNanos + "]";
+    }
+}
@@ -0,0 +1,243 @@
+package dev.jraf;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The reusable memory of a traversal: a visited mark, a parent and a depth
+ * per vertex id, and a queue of ids, plus a distance per id and an indexed
+ * heap for the weighted searches. A workspace grows to the largest graph it
+ * is used on, and is cleared in constant time between traversals by epoch
+ * stamping: a vertex is visited if its stamp is the epoch of the current
+ * traversal, so starting a traversal only increments the epoch.
+ *
+ * Workspaces are pooled per thread. borrow() returns the workspace of the
+ * current thread, and close() gives it back, so that the queries of a thread
+ * allocate no traversal memory once the workspace has grown to the size of
+ * the graph. A workspace borrowed while the one of the thread is in use is a
+ * new one, which is not pooled.
+ *
+ * After breadthFirstSearch(Vertex, TraversalWorkspace), the workspace holds
+ * the reached vertices in the order they were reached, with their parent and
+ * depth, until the next traversal or until it is closed.
+ *
+ * @see Graph#breadthFirstSearch(Vertex, TraversalWorkspace)
+ */
+public final class TraversalWorkspace implements AutoCloseable {
+
+    private static final ThreadLocal<TraversalWorkspace> POOL =
+        ThreadLocal.withInitial(() -> new TraversalWorkspace(true));
+    private final boolean pooled;
+    private boolean borrowed;
+    private int[] stamp = new int[0];
+    private int epoch;
+    // indexed by id
+    int[] parent = new int[0];
+    int[] depth = new int[0];
+    // the ids in the order they were reached
+    int[] queue = new int[0];
+    int reached;
+    // the tentative distances and the queue of the weighted searches
+    long[] distance = new long[0];
+    IndexedHeap heap = new IndexedHeap(0);
+    // the counters of the last traversal
+    long scanned;
+    int peak;
+    private int[] labels;
+
+    private TraversalWorkspace(boolean pooled) {
+        this.pooled = pooled;
+    }
+
+    /**
+     * Class constructor that creates a workspace that is not pooled.
+     */
+    public TraversalWorkspace() {
+        this(false);
+    }
+
+    /**
+     * Borrows the workspace of the current thread, or returns a new workspace
+     * if it is already borrowed. The workspace must be closed after use.
+     *
+     * @return a workspace for the current thread
+     */
+    public static TraversalWorkspace borrow() {
+        TraversalWorkspace workspace = POOL.get();
+        if (workspace.borrowed)
+            return new TraversalWorkspace(false);
+        workspace.borrowed = true;
+        return workspace;
+    }
+
+    /**
+     * Gives this workspace back to the pool of its thread, if it was borrowed,
+     * and forgets the labels of the last traversal.
+     */
+    @Override public void close() {
+        labels = null;
+        reached = 0;
+        if (pooled)
+            borrowed = false;
+    }
+
+    /**
+     * Starts a traversal of a graph of n vertices, whose labels by id are the
+     * given array. Every vertex is unvisited afterwards.
+     *
+     * @param n      an int, the number of vertices
+     * @param labels the labels of the vertices, by id
+     */
+    void start(int n, int[] labels) {
+        if (stamp.length < n) {
+            int capacity = Math.max(n, stamp.length * 2);
+            stamp = new int[capacity];
+            parent = new int[capacity];
+            depth = new int[capacity];
+            queue = new int[capacity];
+            epoch = 0;
+        }
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            epoch = 0;
+        }
+        epoch++;
+        reached = 0;
+        scanned = 0;
+        peak = 0;
+        this.labels = labels;
+    }
+
+    /**
+     * Starts a weighted search of a graph of n vertices, as start(int, int[])
+     * does, and makes the distances and the heap fit the graph. The heap is
+     * empty afterwards, and the distance of an id is only meaningful once the
+     * id is visited.
+     *
+     * @param n      an int, the number of vertices
+     * @param labels the labels of the vertices, by id
+     */
+    void startWeighted(int n, int[] labels) {
+        start(n, labels);
+        if (distance.length < stamp.length) {
+            distance = new long[stamp.length];
+            heap = new IndexedHeap(stamp.length);
+        } else {
+            heap.clear();
+        }
+    }
+
+    /**
+     * Marks the given id as visited, and returns true if it was not visited
+     * yet in the current traversal.
+     *
+     * @param id an int, the id of a vertex
+     * @return   true if the vertex was not visited
+     */
+    boolean visit(int id) {
+        if (stamp[id] == epoch)
+            return false;
+        stamp[id] = epoch;
+        return true;
+    }
+
+    /**
+     * Returns true if the given id was visited by visit(int) in the current
+     * traversal.
+     *
+     * @param id an int, the id of a vertex
+     * @return   true if the vertex was visited
+     */
+    boolean visited(int id) {
+        return stamp[id] == epoch;
+    }
+
+    /**
+     * Marks the given id as visited backward, by the search from the target
+     * of a bidirectional search, and returns true if it was not visited
+     * backward yet. The id must not be visited by visit(int), as the two marks
+     * share the stamp of the vertex.
+     *
+     * @param id an int, the id of a vertex
+     * @return   true if the vertex was not visited backward
+     */
+    boolean visitBackward(int id) {
+        if (stamp[id] == -epoch)
+            return false;
+        stamp[id] = -epoch;
+        return true;
+    }
+
+    /**
+     * Returns true if the given id was visited by visitBackward(int) in the
+     * current traversal.
+     *
+     * @param id an int, the id of a vertex
+     * @return   true if the vertex was visited backward
+     */
+    boolean visitedBackward(int id) {
+        return stamp[id] == -epoch;
+    }
+
+    /**
+     * Returns the label to parent label association of the last traversal, in
+     * the form of the maps returned by Graph.breadthFirstSearch(Vertex).
+     *
+     * @return a new map from the label of every reached vertex to the label of
+     *         its parent
+     */
+    Map<Integer, Integer> parents() {
+        Map<Integer, Integer> parents = new HashMap<>(reached * 4 / 3 + 1);
+        for (int i = 0; i < reached; i++)
+            parents.put(labels[queue[i]], labels[parent[queue[i]]]);
+        return parents;
+    }
+
+    /**
+     * Returns the number of vertices reached by the last traversal.
+     *
+     * @return an int, the number of reached vertices
+     */
+    public int reached() {
+        return reached;
+    }
+
+    private int idAt(int i) {
+        if (i < 0 || i >= reached)
+            throw new IndexOutOfBoundsException("no such reached vertex");
+        return queue[i];
+    }
+
+    /**
+     * Returns the label of the i-th vertex reached by the last traversal.
+     *
+     * @param i an int in [0, reached()), the rank of the vertex
+     * @return  an int, the label of the vertex
+     */
+    public int labelAt(int i) {
+        return labels[idAt(i)];
+    }
+
+    /**
+     * Returns the label of the parent of the i-th vertex reached by the last
+     * traversal. The source is its own parent.
+     *
+     * @param i an int in [0, reached()), the rank of the vertex
+     * @return  an int, the label of the parent of the vertex
+     */
+    public int parentLabelAt(int i) {
+        return labels[parent[idAt(i)]];
+    }
+
+    /**
+     * Returns the depth of the i-th vertex reached by the last traversal, that
+     * is its distance in arcs from the source.
+     *
+     * @param i an int in [0, reached()), the rank of the vertex
+     * @return  an int, the depth of the vertex
+     */
+    public int depthAt(int i) {
+        return depth[idAt(i)];
+    }
+}
@@ -1,7 +1,11 @@
 package dev.jraf;
 
 import java.util.List;
+import java.util.ArrayList;
 import java.util.Map;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.NoSuchElementException;
 
 /**
  * The implementation of a directed rooted tree. A directed rooted tree is a
@@ -9,18 +13,52 @@ import java.util.Map;
  * (a path in the graph that contains at least twice the same vertex) and there
  * is a unique path from the root to every other vertex of the graph.
  *
+ * The vertices are stored in arrays indexed by dense ids: the parent, the depth
+ * and the children (as a first child and next sibling chain) of every vertex.
+ * Ancestry queries use an index made of a binary lifting table and of the
+ * preorder numbering of the vertices. The index is built on the first query
+ * that needs it after a modification of the tree, in O(n log n) time, and then
+ * answers lowest common ancestor queries in O(log n) and ancestry and subtree
+ * size queries in O(1).
+ *
+ * A removed vertex leaves a tombstone, an id without parent, so that the ids
+ * of the other vertices do not move. Once half the ids are tombstones, the
+ * arrays are compacted and the remaining vertices are given new ids.
+ *
  * @author Guillermo Morón Usón
  * @see    Graph
  * @see    Vertex
  * @see    AdjacencyGraph
  */
 public class Tree implements Graph {
-    private final Graph graph;
-    private final Vertex root;
+
+    private static final String NULL_VERTEX_ERR = "vertex must be non-null";
+    private static final String NO_SUCH_VERTEX_ERR = "no such vertex";
+    private static final int NONE = -1;
+    private LabelIndex index;
+    private int root;
+    // the number of ids given, tombstones included
+    private int size;
+    private int removed;
+    private int[] labels;
+    private int[] parent;
+    private int[] depth;
+    private int[] firstChild;
+    private int[] lastChild;
+    private int[] nextSibling;
+    // ancestry index, null when outdated
+    private int[][] ancestors;
+    private int[] preorder;
+    private int[] subtreeSize;
+    // the number of changes of the vertices and arcs
+    private long version;
 
     /**
      * Class constructor that specifies for each vertex label the label of its
-     * parent, except for the root vertex that is associated to itself.
+     * parent, except for the root vertex that is associated to itself. This is
+     * the form of the maps returned by {@link Graph#breadthFirstSearch}. The
+     * map must contain exactly one root, and following the parents from any
+     * label must lead to the root. The tree is built in linear time.
      *
      * @param parents a non-null map that associates each label to its parent
      *                label
@@ -28,8 +66,108 @@ public class Tree implements Graph {
     Tree(Map<Integer, Integer> parents) {
         if (parents == null)
             throw new NullPointerException("parents map must be non-null");
-        graph = new AdjacencyGraph();
-        root = Vertex.of(0);
+        int n = parents.size();
+        index = new LabelIndex(n);
+        allocate(Math.max(n, 1));
+        int rootId = NONE;
+        for (Map.Entry<Integer, Integer> entry: parents.entrySet()) {
+            int id = newVertex(entry.getKey());
+            if (entry.getKey().equals(entry.getValue())) {
+                if (rootId != NONE)
+                    throw new IllegalArgumentException("parents map must "
+                            + "have exactly one root");
+                rootId = id;
+            }
+        }
+        if (rootId == NONE)
+            throw new IllegalArgumentException("parents map must have "
+                    + "exactly one root");
+        root = rootId;
+        parent[root] = root;
+        for (Map.Entry<Integer, Integer> entry: parents.entrySet()) {
+            int id = index.idOf(entry.getKey());
+            if (id == root)
+                continue;
+            int p = index.idOf(entry.getValue());
+            if (p == NONE)
+                throw new IllegalArgumentException("parent must be present");
+            link(p, id);
+        }
+        // depths top-down, which also proves every vertex reaches the root
+        int[] queue = new int[size];
+        int last = 0;
+        queue[last++] = root;
+        for (int first = 0; first < last; first++) {
+            int u = queue[first];
+            for (int c = firstChild[u]; c != NONE; c = nextSibling[c]) {
+                depth[c] = depth[u] + 1;
+                queue[last++] = c;
+            }
+        }
+        if (last != size)
+            throw new IllegalArgumentException("parents map must not contain "
+                    + "cycles");
+    }
+
+    /**
+     * Creates a tree from the given parents map, of the form returned by
+     * {@link Graph#breadthFirstSearch}: every label is associated to the label
+     * of its parent, and the root is associated to itself.
+     *
+     * @param parents a non-null map with exactly one root, whose labels all
+     *                lead to the root
+     * @return        the tree described by the parents map
+     */
+    public static Tree of(Map<Integer, Integer> parents) {
+        return new Tree(parents);
+    }
+
+    private void allocate(int capacity) {
+        labels = new int[capacity];
+        parent = new int[capacity];
+        depth = new int[capacity];
+        firstChild = new int[capacity];
+        lastChild = new int[capacity];
+        nextSibling = new int[capacity];
+    }
+
+    private int newVertex(int label) {
+        if (size == labels.length) {
+            int capacity = size * 2;
+            labels = Arrays.copyOf(labels, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            depth = Arrays.copyOf(depth, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            lastChild = Arrays.copyOf(lastChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+        }
+        int id = index.add(label);
+        labels[id] = label;
+        parent[id] = NONE;
+        firstChild[id] = NONE;
+        lastChild[id] = NONE;
+        nextSibling[id] = NONE;
+        size++;
+        return id;
+    }
+
+    // appends child to the children of p
+    private void link(int p, int child) {
+        parent[child] = p;
+        if (lastChild[p] == NONE)
+            firstChild[p] = child;
+        else
+            nextSibling[lastChild[p]] = child;
+        lastChild[p] = child;
+    }
+
+    private int idOf(Vertex vertex) {
+        if (vertex == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        int id = index.idOf(vertex.label());
+        if (id == NONE)
+            throw new NoSuchElementException(NO_SUCH_VERTEX_ERR);
+        return id;
     }
 
     /**
@@ -53,19 +191,35 @@ public class Tree implements Graph {
     }
 
     /**
-     * {@inheritDoc}
+     * Adds the edge tail to head to this tree. The tail must be present in the
+     * tree and the head must be absent, so that it becomes a new leaf, child of
+     * the tail. Adding an edge that is already in the tree has no effect.
+     *
+     * @param tail a non-null vertex, present in this tree
+     * @param head a non-null vertex, absent from this tree
      */
     public void add(Vertex tail, Vertex head) {
         if (tail == null || head == null)
             throw new NullPointerException("vertices must be non-null");
-        if (head.equals(root))
+        int h = index.idOf(head.label());
+        if (h == root)
             throw new IllegalArgumentException("root cannot have ingoing "
                     + "edges");
-        graph.add(tail, head);
-        if (!isAcyclic()) {
-            graph.remove(tail, head);
-            throw new IllegalArgumentException("cannot form cycle");
+        int t = index.idOf(tail.label());
+        if (t == NONE)
+            throw new IllegalArgumentException("tail must be present");
+        if (h != NONE) {
+            if (parent[h] == t)
+                return;
+            if (isAncestor(h, t))
+                throw new IllegalArgumentException("cannot form cycle");
+            throw new IllegalArgumentException("head already has a parent");
         }
+        h = newVertex(head.label());
+        link(t, h);
+        depth[h] = depth[t] + 1;
+        ancestors = null;
+        version++;
     }
 
     /**
@@ -76,17 +230,147 @@ public class Tree implements Graph {
     }
 
     /**
-     * {@inheritDoc}
+     * Returns the children of the given vertex.
+     *
+     * @param vertex a non-null, present vertex
+     * @return       a list of vertices, the children of the given vertex
      */
     public List<Vertex> neighborsOf(Vertex vertex) {
-        return graph.neighborsOf(vertex);
+        int id = idOf(vertex);
+        List<Vertex> children = new ArrayList<>();
+        for (int c = firstChild[id]; c != NONE; c = nextSibling[c])
+            children.add(Vertex.of(labels[c]));
+        return children;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The predecessor of a vertex is its parent, and the root has none.
+     *
+     * @param vertex a non-null, present vertex
+     * @return       a list of vertices, the parent of the given vertex or
+     *               nothing for the root
+     */
+    @Override public List<Vertex> predecessorsOf(Vertex vertex) {
+        int id = idOf(vertex);
+        List<Vertex> predecessors = new ArrayList<>(1);
+        if (id != root)
+            predecessors.add(Vertex.of(labels[parent[id]]));
+        return predecessors;
     }
 
     /**
      * {@inheritDoc}
      */
     public List<Vertex> vertices() {
-        return graph.vertices();
+        List<Vertex> vertices = new ArrayList<>(size - removed);
+        for (int id = 0; id < size; id++) {
+            if (parent[id] != NONE)
+                vertices.add(Vertex.of(labels[id]));
+        }
+        return vertices;
+    }
+
+    /**
+     * Removes the given vertex from this tree, and gives its children to its
+     * parent, so that the tree stays connected. The root cannot be removed.
+     * The depths of the descendants of the vertex are updated, in time
+     * proportional to their number.
+     *
+     * @param vertex a non-null present vertex, other than the root
+     */
+    @Override public void remove(Vertex vertex) {
+        int id = idOf(vertex);
+        if (id == root)
+            throw new IllegalArgumentException("cannot remove root");
+        int p = parent[id];
+        unlink(p, id);
+        for (int u = firstChild[id]; u != NONE && u != id; ) {
+            depth[u]--;
+            if (firstChild[u] != NONE) {
+                u = firstChild[u];
+                continue;
+            }
+            while (u != id && nextSibling[u] == NONE)
+                u = parent[u];
+            if (u != id)
+                u = nextSibling[u];
+        }
+        for (int c = firstChild[id]; c != NONE; ) {
+            int next = nextSibling[c];
+            nextSibling[c] = NONE;
+            link(p, c);
+            c = next;
+        }
+        index.remove(labels[id]);
+        parent[id] = NONE;
+        firstChild[id] = NONE;
+        lastChild[id] = NONE;
+        nextSibling[id] = NONE;
+        removed++;
+        ancestors = null;
+        version++;
+        if (removed * 2 > size)
+            compact();
+    }
+
+    /* Removes child from the children of p. */
+    private void unlink(int p, int child) {
+        int previous = NONE;
+        for (int c = firstChild[p]; c != child; c = nextSibling[c])
+            previous = c;
+        if (previous == NONE)
+            firstChild[p] = nextSibling[child];
+        else
+            nextSibling[previous] = nextSibling[child];
+        if (lastChild[p] == child)
+            lastChild[p] = previous;
+        nextSibling[child] = NONE;
+    }
+
+    /*
+     * Gives the vertices new ids in the order of their old ids, without the
+     * tombstones, and shrinks the arrays to them.
+     */
+    private void compact() {
+        int[] newId = new int[size];
+        int live = size - removed;
+        LabelIndex fresh = new LabelIndex(live);
+        int next = 0;
+        for (int id = 0; id < size; id++) {
+            if (parent[id] == NONE) {
+                newId[id] = NONE;
+            } else {
+                newId[id] = next++;
+                fresh.add(labels[id]);
+            }
+        }
+        int[] oldLabels = labels;
+        int[] oldParent = parent;
+        int[] oldDepth = depth;
+        int[] oldFirstChild = firstChild;
+        int[] oldLastChild = lastChild;
+        int[] oldNextSibling = nextSibling;
+        allocate(Math.max(live, 1));
+        for (int id = 0; id < size; id++) {
+            int v = newId[id];
+            if (v == NONE)
+                continue;
+            labels[v] = oldLabels[id];
+            parent[v] = newId[oldParent[id]];
+            depth[v] = oldDepth[id];
+            firstChild[v] = renamed(newId, oldFirstChild[id]);
+            lastChild[v] = renamed(newId, oldLastChild[id]);
+            nextSibling[v] = renamed(newId, oldNextSibling[id]);
+        }
+        root = newId[root];
+        index = fresh;
+        size = live;
+        removed = 0;
+    }
+
+    private static int renamed(int[] newId, int id) {
+        return id == NONE ? NONE : newId[id];
     }
 
     /**
@@ -95,27 +379,281 @@ public class Tree implements Graph {
      * @return a vertex, the tree of this tree
      */
     public Vertex root() {
-        return root;
+        return Vertex.of(labels[root]);
+    }
+
+    /**
+     * Returns the parent of the given vertex. The root is its own parent.
+     *
+     * @param vertex a non-null, present vertex
+     * @return       a vertex, the parent of the given vertex
+     */
+    public Vertex parentOf(Vertex vertex) {
+        return Vertex.of(labels[parent[idOf(vertex)]]);
+    }
+
+    /**
+     * Returns the depth of the given vertex, that is the number of edges of
+     * the path from the root to the vertex.
+     *
+     * @param vertex a non-null, present vertex
+     * @return       an int, the depth of the vertex
+     */
+    public int depth(Vertex vertex) {
+        return depth[idOf(vertex)];
+    }
+
+    /**
+     * Returns the number of vertices of the subtree rooted at the given
+     * vertex, including the vertex itself.
+     *
+     * @param vertex a non-null, present vertex
+     * @return       an int, the size of the subtree rooted at the vertex
+     */
+    public int subtreeSize(Vertex vertex) {
+        int id = idOf(vertex);
+        buildIndex();
+        return subtreeSize[id];
+    }
+
+    /**
+     * Returns true if the first vertex is an ancestor of the second one. A
+     * vertex is an ancestor of itself.
+     *
+     * @param ancestor   a non-null, present vertex
+     * @param descendant a non-null, present vertex
+     * @return           true if ancestor is on the path from the root to
+     *                   descendant
+     */
+    public boolean isAncestor(Vertex ancestor, Vertex descendant) {
+        return isAncestor(idOf(ancestor), idOf(descendant));
+    }
+
+    /*
+     * Uses the index if it is up to date, and otherwise climbs from the
+     * descendant, which costs at most the difference of depths.
+     */
+    private boolean isAncestor(int a, int d) {
+        if (ancestors != null)
+            return preorder[a] <= preorder[d]
+                && preorder[d] < preorder[a] + subtreeSize[a];
+        while (depth[d] > depth[a])
+            d = parent[d];
+        return d == a;
+    }
+
+    /**
+     * Returns the lowest common ancestor of the given vertices, that is their
+     * common ancestor of maximal depth.
+     *
+     * @param u a non-null, present vertex
+     * @param v a non-null, present vertex
+     * @return  a vertex, the lowest common ancestor of u and v
+     */
+    public Vertex lowestCommonAncestor(Vertex u, Vertex v) {
+        int a = idOf(u);
+        int b = idOf(v);
+        buildIndex();
+        return Vertex.of(labels[lca(a, b)]);
+    }
+
+    private int lca(int a, int b) {
+        if (isAncestor(a, b))
+            return a;
+        if (isAncestor(b, a))
+            return b;
+        for (int k = ancestors.length - 1; k >= 0; k--) {
+            if (!isAncestor(ancestors[k][a], b))
+                a = ancestors[k][a];
+        }
+        return parent[a];
+    }
+
+    /**
+     * Returns the path between the given vertices when the direction of the
+     * edges is ignored: the vertices from u up to the lowest common ancestor
+     * of u and v, and then down to v. Both ends are included.
+     *
+     * @param u a non-null, present vertex, the first vertex of the path
+     * @param v a non-null, present vertex, the last vertex of the path
+     * @return  a list of vertices, the path from u to v
+     */
+    public List<Vertex> pathBetween(Vertex u, Vertex v) {
+        int a = idOf(u);
+        int b = idOf(v);
+        buildIndex();
+        int c = lca(a, b);
+        List<Vertex> path = new ArrayList<>(depth[a] + depth[b] - 2 * depth[c]
+                + 1);
+        for (int x = a; x != c; x = parent[x])
+            path.add(Vertex.of(labels[x]));
+        path.add(Vertex.of(labels[c]));
+        int mark = path.size();
+        for (int x = b; x != c; x = parent[x])
+            path.add(Vertex.of(labels[x]));
+        Collections.reverse(path.subList(mark, path.size()));
+        return path;
     }
 
     /**
      * {@inheritDoc}
+     * As the arcs go from parents to children, there is a path only from a
+     * vertex to its descendants, and it is unique: it is found by climbing
+     * from the last vertex to the first one.
+     *
+     * @param from a non-null present vertex, the first vertex of the path
+     * @param to   a non-null present vertex, the last vertex of the path
+     * @return     a list of vertices, the path from the first vertex down to
+     *             the last one, or an empty list
      */
-    @Override public void remove(Vertex tail, Vertex head) {
-        throw new UnsupportedOperationException("todo");
+    @Override public List<Vertex> shortestPath(Vertex from, Vertex to) {
+        if (from == null || to == null)
+            throw new NullPointerException("vertices must be non-null");
+        int a = index.idOf(from.label());
+        int b = index.idOf(to.label());
+        if (a == NONE || b == NONE)
+            throw new IllegalArgumentException("vertices must be present");
+        List<Vertex> path = new ArrayList<>();
+        if (!isAncestor(a, b))
+            return path;
+        for (int x = b; x != a; x = parent[x])
+            path.add(Vertex.of(labels[x]));
+        path.add(Vertex.of(labels[a]));
+        Collections.reverse(path);
+        return path;
+    }
+
+    /*
+     * Numbers the vertices in preorder with an explicit stack, so that the
+     * subtree of u is the preorder range [preorder[u], preorder[u] +
+     * subtreeSize[u]), and fills the binary lifting table.
+     */
+    private void buildIndex() {
+        if (ancestors != null)
+            return;
+        preorder = new int[size];
+        subtreeSize = new int[size];
+        int[] order = new int[size];
+        int[] stack = new int[size];
+        int top = 0;
+        int next = 0;
+        int maxDepth = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            int u = stack[--top];
+            preorder[u] = next;
+            order[next++] = u;
+            maxDepth = Math.max(maxDepth, depth[u]);
+            for (int c = firstChild[u]; c != NONE; c = nextSibling[c])
+                stack[top++] = c;
+        }
+        for (int i = next - 1; i >= 0; i--) {
+            int u = order[i];
+            subtreeSize[u]++;
+            if (u != root)
+                subtreeSize[parent[u]] += subtreeSize[u];
+        }
+        int levels = 32 - Integer.numberOfLeadingZeros(maxDepth);
+        int[][] table = new int[levels][];
+        if (levels > 0)
+            table[0] = Arrays.copyOf(parent, size);
+        for (int k = 1; k < levels; k++) {
+            table[k] = new int[size];
+            for (int u = 0; u < size; u++) {
+                int a = table[k - 1][u];
+                table[k][u] = a == NONE ? NONE : table[k - 1][a];
+            }
+        }
+        ancestors = table;
     }
 
     /**
      * {@inheritDoc}
      */
+    @Override public long version() {
+        return version;
+    }
+
+    /**
+     * Throws an UnsupportedOperationException as a Tree must be connected (that
+     * is removing one of its edges would disconnect the subtree of the head).
+     * Vertices can be removed instead.
+     *
+     * @param tail a vertex, possibly null
+     * @param head a vertex, possibly null
+     */
+    @Override public void remove(Vertex tail, Vertex head) {
+        throw new UnsupportedOperationException("cannot disconnect tree");
+    }
+
+    /**
+     * Performs a breadth-first search in the subtree rooted at the given
+     * vertex. As there is a unique path from the vertex to each of its
+     * descendants, every descendant is associated to its parent in this tree.
+     *
+     * @param source a non-null present vertex
+     * @return       a map that associates an integer to an integer, the parents
+     *               association obtained by performing the BFS run.
+     */
     @Override public Map<Integer, Integer> breadthFirstSearch(Vertex source) {
-        return graph.breadthFirstSearch(source);
+        if (source == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        int src = index.idOf(source.label());
+        if (src == NONE)
+            throw new IllegalArgumentException("vertex must be present");
+        try (TraversalWorkspace workspace = TraversalWorkspace.borrow()) {
+            search(src, workspace);
+            return workspace.parents();
+        }
     }
 
     /**
      * {@inheritDoc}
+     * Searches the subtree rooted at the given vertex, as
+     * breadthFirstSearch(Vertex) does.
+     *
+     * @param source    a non-null present vertex
+     * @param workspace a non-null workspace
+     * @return          an int, the size of the subtree rooted at the source
+     */
+    @Override public int breadthFirstSearch(Vertex source,
+            TraversalWorkspace workspace) {
+        if (source == null)
+            throw new NullPointerException(NULL_VERTEX_ERR);
+        if (workspace == null)
+            throw new NullPointerException("workspace must be non-null");
+        int src = index.idOf(source.label());
+        if (src == NONE)
+            throw new IllegalArgumentException("vertex must be present");
+        search(src, workspace);
+        return workspace.reached;
+    }
+
+    /* Visits the subtree rooted at the vertex of id src in workspace. */
+    private void search(int src, TraversalWorkspace workspace) {
+        workspace.start(size, labels);
+        int[] queue = workspace.queue;
+        int last = 0;
+        workspace.parent[src] = src;
+        workspace.depth[src] = 0;
+        queue[last++] = src;
+        for (int first = 0; first < last; first++) {
+            int u = queue[first];
+            for (int c = firstChild[u]; c != NONE; c = nextSibling[c]) {
+                workspace.parent[c] = u;
+                workspace.depth[c] = workspace.depth[u] + 1;
+                queue[last++] = c;
+            }
+        }
+        workspace.reached = last;
+    }
+
+    /**
+     * Returns true, as a tree contains no cycle.
+     *
+     * @return true
      */
     @Override public boolean isAcyclic() {
-        return false;
+        return true;
     }
 }
@@ -0,0 +1,89 @@
+package dev.jraf;
+
+import java.util.Arrays;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The bitset kernels written with the incubating vector API, that process
+ * the longs of the preferred vector species at once and finish the arrays
+ * with scalar loops. This class must only be loaded when the
+ * jdk.incubator.vector module is present.
+ *
+ * @see BitKernels
+ */
+final class VectorBitKernels extends BitKernels {
+
+    private static final VectorSpecies<Long> SPECIES =
+        LongVector.SPECIES_PREFERRED;
+
+    /**
+     * Returns true if a vector holds at least two longs.
+     *
+     * @return true if these kernels can be used
+     */
+    @Override boolean isUseful() {
+        return SPECIES.length() >= 2;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override void or(long[] dst, int to, long[] src, int from, int w) {
+        int j = 0;
+        for (int bound = SPECIES.loopBound(w); j < bound;
+                j += SPECIES.length()) {
+            LongVector.fromArray(SPECIES, dst, to + j)
+                .or(LongVector.fromArray(SPECIES, src, from + j))
+                .intoArray(dst, to + j);
+        }
+        for (; j < w; j++)
+            dst[to + j] |= src[from + j];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override boolean isZero(long[] bits, int from, int w) {
+        int j = 0;
+        for (int bound = SPECIES.loopBound(w); j < bound;
+                j += SPECIES.length()) {
+            if (LongVector.fromArray(SPECIES, bits, from + j)
+                    .compare(VectorOperators.NE, 0).anyTrue())
+                return false;
+        }
+        for (; j < w; j++) {
+            if (bits[from + j] != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override boolean sweep(long[] frontier, long[] next, long[] seen,
+            int length) {
+        Arrays.fill(frontier, 0, length, 0);
+        LongVector any = LongVector.zero(SPECIES);
+        int k = 0;
+        for (int bound = SPECIES.loopBound(length); k < bound;
+                k += SPECIES.length()) {
+            LongVector old = LongVector.fromArray(SPECIES, seen, k);
+            LongVector fresh = LongVector.fromArray(SPECIES, next, k)
+                .lanewise(VectorOperators.AND_NOT, old);
+            fresh.intoArray(next, k);
+            old.or(fresh).intoArray(seen, k);
+            any = any.or(fresh);
+        }
+        long rest = 0;
+        for (; k < length; k++) {
+            long fresh = next[k] & ~seen[k];
+            next[k] = fresh;
+            seen[k] |= fresh;
+            rest |= fresh;
+        }
+        return rest != 0 || any.compare(VectorOperators.NE, 0).anyTrue();
+    }
+}
@@ -0,0 +1,111 @@
+package dev.jraf;
+
+import java.util.stream.IntStream;
+
+/**
+ * Runs vertex programs in supersteps over a compact graph. The values of the
+ * vertices are kept in two primitive arrays, one that is read and one that is
+ * written, swapped after each superstep. The vertices are split in ranges of
+ * consecutive ids that are computed in parallel. The run stops when the sum of
+ * the absolute changes of the values is below the tolerance, or after the
+ * maximum number of supersteps.
+ *
+ * @see VertexProgram
+ * @see CompactGraph
+ */
+final class VertexEngine {
+
+    /*
+     * Number of consecutive vertices computed by a task. Small graphs, of at
+     * most one range, are computed sequentially.
+     */
+    static final int RANGE = 4096;
+    private final CompactGraph graph;
+    private final CompactGraph transposed;
+    private int supersteps;
+
+    /**
+     * Class constructor that prepares the given graph, computing the arcs
+     * that enter each vertex once for all the runs.
+     *
+     * @param graph a non-null compact graph
+     */
+    VertexEngine(CompactGraph graph) {
+        this.graph = graph;
+        transposed = graph.transpose();
+    }
+
+    /**
+     * Returns the graph of this engine.
+     *
+     * @return a compact graph
+     */
+    CompactGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Returns the transpose of the graph, in which the neighbors of a vertex
+     * are its predecessors in the graph.
+     *
+     * @return a compact graph, the transpose of the graph
+     */
+    CompactGraph transposed() {
+        return transposed;
+    }
+
+    /**
+     * Returns the number of supersteps of the last run.
+     *
+     * @return an int, the number of supersteps of the last run
+     */
+    int supersteps() {
+        return supersteps;
+    }
+
+    /**
+     * Runs the given program until it converges and returns the final values.
+     *
+     * @param program       a non-null vertex program
+     * @param maxSupersteps an int, the maximum number of supersteps
+     * @param tolerance     a double, the change under which the values are
+     *                      considered stable
+     * @return              the values of the vertices, indexed by id
+     */
+    double[] run(VertexProgram program, int maxSupersteps, double tolerance) {
+        int n = graph.size();
+        double[] current = new double[n];
+        double[] next = new double[n];
+        for (int v = 0; v < n; v++)
+            current[v] = program.initialValue(v);
+        int ranges = (n + RANGE - 1) / RANGE;
+        supersteps = 0;
+        while (supersteps < maxSupersteps) {
+            program.beforeSuperstep(current);
+            double[] read = current;
+            double[] write = next;
+            IntStream tasks = IntStream.range(0, ranges);
+            if (ranges > 1)
+                tasks = tasks.parallel();
+            double change = tasks.mapToDouble(
+                    r -> computeRange(program, r, read, write)).sum();
+            current = write;
+            next = read;
+            supersteps++;
+            if (change < tolerance)
+                break;
+        }
+        return current;
+    }
+
+    private double computeRange(VertexProgram program, int range,
+            double[] read, double[] write) {
+        int end = Math.min(graph.size(), (range + 1) * RANGE);
+        double change = 0;
+        for (int v = range * RANGE; v < end; v++) {
+            write[v] = program.compute(v, read);
+            change += Math.abs(write[v] - read[v]);
+        }
+        return change;
+    }
+}
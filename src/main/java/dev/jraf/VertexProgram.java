@@ -0,0 +1,40 @@
+package dev.jraf;
+
+/**
+ * An iterative algorithm expressed from the point of view of a vertex. At each
+ * superstep, the new value of every vertex is computed from the values of the
+ * previous superstep only, so that the vertices can be computed in any order
+ * and in parallel.
+ *
+ * @see VertexEngine
+ */
+interface VertexProgram {
+
+    /**
+     * Returns the value of the given vertex before the first superstep.
+     *
+     * @param vertex an int, the id of a vertex
+     * @return       a double, the initial value of the vertex
+     */
+    double initialValue(int vertex);
+
+    /**
+     * Called once at the start of each superstep, before any vertex is
+     * computed. This is where values that depend on the whole graph, such as
+     * sums, are computed from the previous values.
+     *
+     * @param previous the values of the previous superstep, indexed by id
+     */
+    default void beforeSuperstep(double[] previous) {
+    }
+
+    /**
+     * Returns the new value of the given vertex. This method is called
+     * concurrently for different vertices and must not write shared state.
+     *
+     * @param vertex   an int, the id of a vertex
+     * @param previous the values of the previous superstep, indexed by id
+     * @return         a double, the new value of the vertex
+     */
+    double compute(int vertex, double[] previous);
+}
@@ -1,7 +1,11 @@
 package dev.jraf;
 
 import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.IntToLongFunction;
 
 /**
  * The implementation of a weighted graph. A weighted graph associates an
@@ -16,10 +20,20 @@ public class WeightedGraph implements Graph {
     private final Graph graph;
     private final EdgeFunction weightFun;
     private static final int DEFAULT_WEIGHT = 1;
-    
+    // compact copy searched for routes, with its weights by arc, null when
+    // outdated
+    private CompactGraph snapshot;
+    private int[] weights;
+    // the number of weight updates, added to the version of the graph
+    private long reweighted;
+
     private WeightedGraph(Graph graph) {
+        this(graph, new EdgeFunction());
+    }
+
+    private WeightedGraph(Graph graph, EdgeFunction weightFun) {
         this.graph = graph;
-        weightFun = new EdgeFunction();
+        this.weightFun = weightFun;
     }
 
     /**
@@ -32,18 +46,46 @@ public class WeightedGraph implements Graph {
         return new WeightedGraph(new AdjacencyGraph());
     }
 
+    /**
+     * Creates a new weighted graph in adjacency list representation with the
+     * vertices and arcs of the given compact graph, where the weight of the
+     * i-th arc, in the order of the targets array, is weights[i].
+     *
+     * @param graph   a non-null compact graph without parallel arcs
+     * @param weights an array of weights, indexed by arc
+     * @return        a new weighted graph with the given arcs and weights
+     */
+    static WeightedGraph of(CompactGraph graph, int[] weights) {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        EdgeFunction weightFun = new EdgeFunction(targets.length);
+        for (int u = 0; u < graph.size(); u++) {
+            Vertex tail = Vertex.of(graph.labelOf(u));
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                weightFun.add(tail, Vertex.of(graph.labelOf(targets[i])),
+                        weights[i]);
+            }
+        }
+        WeightedGraph weighted = new WeightedGraph(AdjacencyGraph.of(graph),
+                weightFun);
+        weighted.snapshot = graph;
+        weighted.weights = weights;
+        return weighted;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override public void add(Vertex vertex) {
         graph.add(vertex);
+        snapshot = null;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override public void add(int label) {
-        graph.add(Vertex.of(label));
+        add(Vertex.of(label));
     }
 
     /**
@@ -82,6 +124,8 @@ public class WeightedGraph implements Graph {
     public void add(Vertex tail, Vertex head, int weight) {
         graph.add(tail, head);
         weightFun.add(tail, head, weight);
+        snapshot = null;
+        reweighted++;
     }
 
     /**
@@ -91,6 +135,13 @@ public class WeightedGraph implements Graph {
         return graph.neighborsOf(vertex);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public List<Vertex> predecessorsOf(Vertex vertex) {
+        return graph.predecessorsOf(vertex);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -112,9 +163,46 @@ public class WeightedGraph implements Graph {
 
     /**
      * {@inheritDoc}
+     * The version also counts the updates of the weights.
+     *
+     * @return a long, the version of this graph
+     */
+    @Override public long version() {
+        return graph.version() + reweighted;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The weight of the edge is removed with it.
+     *
+     * @param tail a non-null present vertex, the tail of the edge to remove
+     * @param head a non-null present vertex, the head of the edge to remove
      */
     @Override public void remove(Vertex tail, Vertex head) {
-        throw new UnsupportedOperationException("todo");
+        graph.remove(tail, head);
+        if (weightFun.contains(tail, head)) {
+            weightFun.remove(tail, head);
+            snapshot = null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The weights of the removed edges are removed with them.
+     *
+     * @param vertex a non-null present vertex, the vertex to remove
+     */
+    @Override public void remove(Vertex vertex) {
+        List<Vertex> neighbors = graph.neighborsOf(vertex);
+        List<Vertex> predecessors = graph.predecessorsOf(vertex);
+        graph.remove(vertex);
+        for (Vertex head: neighbors)
+            weightFun.remove(vertex, head);
+        for (Vertex tail: predecessors) {
+            if (!tail.equals(vertex))
+                weightFun.remove(tail, vertex);
+        }
+        snapshot = null;
     }
 
     /**
@@ -124,6 +212,241 @@ public class WeightedGraph implements Graph {
         return graph.breadthFirstSearch(source);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override public int breadthFirstSearch(Vertex source,
+            TraversalWorkspace workspace) {
+        return graph.breadthFirstSearch(source, workspace);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<Vertex> shortestPath(Vertex from, Vertex to) {
+        return graph.shortestPath(from, to);
+    }
+
+    /*
+     * Returns the compact copy of this graph, and fills the weights of its
+     * arcs, made again if the graph changed since the last copy.
+     */
+    private CompactGraph snapshot() {
+        if (snapshot == null) {
+            CompactGraph copy = CompactGraph.of(graph);
+            int[] offsets = copy.offsets();
+            int[] targets = copy.targets();
+            weights = new int[targets.length];
+            for (int u = 0; u < copy.size(); u++) {
+                Vertex tail = Vertex.of(copy.labelOf(u));
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    weights[i] = weightFun.get(tail,
+                            Vertex.of(copy.labelOf(targets[i])));
+                }
+            }
+            snapshot = copy;
+        }
+        return snapshot;
+    }
+
+    /* Throws an IllegalStateException if an arc has a negative weight. */
+    private void requireNonNegativeWeights() {
+        for (int weight: weights) {
+            if (weight < 0)
+                throw new IllegalStateException("weights must be "
+                        + "non-negative");
+        }
+    }
+
+    /**
+     * Returns a shortest route from the given vertex to the other given
+     * vertex, found with Dijkstra's algorithm. The weights of the arcs must
+     * be non-negative.
+     *
+     * @param from a non-null present vertex, the first vertex of the route
+     * @param to   a non-null present vertex, the last vertex of the route
+     * @return     a shortest route, that does not exist if the last vertex is
+     *             not reachable from the first one
+     */
+    public Route shortestRoute(Vertex from, Vertex to) {
+        return shortestRoute(from, to, label -> 0);
+    }
+
+    /**
+     * Returns a shortest route from the given vertex to the other given
+     * vertex, found with the A* algorithm guided by the given heuristic. The
+     * heuristic maps the label of a vertex to an estimate of its distance to
+     * the last vertex, and is evaluated once per improvement of the distance
+     * of a vertex. The route is a shortest one if the heuristic never
+     * overestimates the distance, and the search settles each vertex at most
+     * once if the heuristic is also consistent, that is if the estimate of a
+     * tail never exceeds the weight of an arc plus the estimate of its head.
+     * The closer the estimates are to the distances, the fewer vertices the
+     * search settles. The weights of the arcs must be non-negative.
+     *
+     * @param from      a non-null present vertex, the first vertex of the
+     *                  route
+     * @param to        a non-null present vertex, the last vertex of the
+     *                  route
+     * @param heuristic a non-null function from a label to a non-negative
+     *                  estimate of the distance from its vertex to the last
+     *                  vertex, such as Landmarks.heuristic(Vertex)
+     * @return          a shortest route, that does not exist if the last
+     *                  vertex is not reachable from the first one
+     */
+    public Route shortestRoute(Vertex from, Vertex to,
+            IntToLongFunction heuristic) {
+        if (from == null || to == null)
+            throw new NullPointerException("vertices must be non-null");
+        if (heuristic == null)
+            throw new NullPointerException("heuristic must be non-null");
+        CompactGraph g = snapshot();
+        int src = g.idOf(from.label());
+        int dst = g.idOf(to.label());
+        if (src < 0 || dst < 0)
+            throw new IllegalArgumentException("vertices must be present");
+        requireNonNegativeWeights();
+        Landmarks.Bound bound = heuristic instanceof Landmarks.Bound b
+            && b.graph() == g ? b : null;
+        try (TraversalWorkspace workspace = TraversalWorkspace.borrow()) {
+            return search(g, weights, src, dst, heuristic, bound, workspace);
+        }
+    }
+
+    /**
+     * Runs the A* search from src to dst in the given graph, whose arcs have
+     * the given weights, in the given workspace. The estimates are read by
+     * id from bound if it is non-null, and from the heuristic otherwise.
+     *
+     * @param g         a non-null compact graph
+     * @param weights   the non-negative weights of the arcs of g, by index
+     * @param src       an int, the id of the first vertex
+     * @param dst       an int, the id of the last vertex
+     * @param heuristic a non-null function from a label to an estimate
+     * @param bound     the landmark estimates by id, or null
+     * @param workspace a non-null workspace
+     * @return          a shortest route from src to dst
+     */
+    static Route search(CompactGraph g, int[] weights, int src, int dst,
+            IntToLongFunction heuristic, Landmarks.Bound bound,
+            TraversalWorkspace workspace) {
+        workspace.startWeighted(g.size(), null);
+        int[] offsets = g.offsets();
+        int[] targets = g.targets();
+        long[] dist = workspace.distance;
+        int[] parent = workspace.parent;
+        IndexedHeap heap = workspace.heap;
+        workspace.visit(src);
+        dist[src] = 0;
+        parent[src] = src;
+        heap.offer(src, 0);
+        int settled = 0;
+        boolean found = false;
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settled++;
+            if (u == dst) {
+                found = true;
+                break;
+            }
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = targets[i];
+                long d = dist[u] + weights[i];
+                if (workspace.visit(v) || d < dist[v]) {
+                    dist[v] = d;
+                    parent[v] = u;
+                    long h = bound != null ? bound.ofId(v)
+                        : heuristic.applyAsLong(g.labelOf(v));
+                    heap.offer(v, d + h);
+                }
+            }
+        }
+        if (!found)
+            return new Route(new ArrayList<>(), -1, settled);
+        List<Vertex> path = new ArrayList<>();
+        for (int v = dst; v != src; v = parent[v])
+            path.add(Vertex.of(g.labelOf(v)));
+        path.add(Vertex.of(g.labelOf(src)));
+        Collections.reverse(path);
+        return new Route(path, dist[dst], settled);
+    }
+
+    /**
+     * Chooses at most count landmarks in this graph and computes their
+     * distances from and to every vertex, for the ALT heuristic of
+     * shortestRoute(Vertex, Vertex, IntToLongFunction). The weights of the
+     * arcs must be non-negative.
+     *
+     * @param count a positive int, the number of landmarks
+     * @return      the landmarks of this graph
+     */
+    public Landmarks landmarks(int count) {
+        CompactGraph g = snapshot();
+        requireNonNegativeWeights();
+        return Landmarks.of(g, weights, count);
+    }
+
+    /**
+     * Builds the contraction hierarchy of this graph, an index that answers
+     * shortest route queries much faster than shortestRoute(Vertex, Vertex)
+     * on a graph that no longer changes. The weights of the arcs must be
+     * non-negative.
+     *
+     * @return the contraction hierarchy of this graph
+     */
+    public ContractionHierarchy contractionHierarchy() {
+        CompactGraph g = snapshot();
+        requireNonNegativeWeights();
+        return ContractionHierarchy.of(g, weights);
+    }
+
+    /**
+     * Returns an executor of batches of queries on a copy of this graph as it
+     * is now, that runs them with the given executor and also answers
+     * shortest route queries. The weights of the arcs must be non-negative.
+     *
+     * @param executor a non-null executor, that runs the queries
+     * @return         a query executor on a copy of this graph
+     */
+    public QueryExecutor queryExecutor(Executor executor) {
+        if (executor == null)
+            throw new NullPointerException("executor must be non-null");
+        CompactGraph g = snapshot();
+        requireNonNegativeWeights();
+        return new QueryExecutor(g, weights, executor);
+    }
+
+    /**
+     * Returns a minimum spanning forest of this graph taken as undirected,
+     * that is a set of arcs of least total weight that connects every weakly
+     * connected component. The weights may be negative.
+     *
+     * @return the minimum spanning forest of this graph
+     */
+    public SpanningForest minimumSpanningForest() {
+        return SpanningForest.of(snapshot(), weights);
+    }
+
+    /**
+     * Returns a minimum arborescence of this graph rooted at the given vertex,
+     * that is a tree of arcs of this graph of least total weight in which the
+     * root reaches every vertex reachable from it in this graph. The weights
+     * may be negative.
+     *
+     * @param root a non-null present vertex, the root of the arborescence
+     * @return     a minimum arborescence, as a tree of the vertices
+     *             reachable from the root
+     */
+    public Tree minimumArborescence(Vertex root) {
+        if (root == null)
+            throw new NullPointerException("vertex must be non-null");
+        CompactGraph g = snapshot();
+        int id = g.idOf(root.label());
+        if (id < 0)
+            throw new IllegalArgumentException("vertex must be present");
+        return Arborescence.of(g, weights, id);
+    }
+
     /**
      * {@inheritDoc}
      */
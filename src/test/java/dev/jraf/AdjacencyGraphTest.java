@@ -319,4 +319,99 @@ class AdjacencyGraphTest {
         sut.add(0, 3);
         assertEquals(0, sut.degreeOf(Vertex.of(1)));
     }
+
+    @Test
+    void predecessorsOfFollowsAddedAndRemovedArcs() {
+        Graph sut = new AdjacencyGraph();
+        sut.add(0, 2);
+        sut.add(1, 2);
+        sut.add(2, 2);
+        sut.add(3);
+        assertEquals(List.of(Vertex.of(0), Vertex.of(1), Vertex.of(2)),
+                sut.predecessorsOf(Vertex.of(2)));
+        sut.remove(Vertex.of(1), Vertex.of(2));
+        assertEquals(List.of(Vertex.of(0), Vertex.of(2)),
+                sut.predecessorsOf(Vertex.of(2)));
+        assertEquals(List.of(), sut.predecessorsOf(Vertex.of(3)));
+    }
+
+    @Test
+    void predecessorsOfAbsentVertexThrowsNoSuchElementExceptionWithMessage() {
+        Graph sut = new AdjacencyGraph();
+        Exception e = assertThrows(NoSuchElementException.class,
+                () -> sut.predecessorsOf(Vertex.of(42)));
+        assertEquals("no such vertex", e.getMessage());
+    }
+
+    @Test
+    void predecessorsOfBulkLoadedGraphAreIndexed() {
+        Graph generated = GraphGenerator.erdosRenyi(50, 300, 1).graph();
+        Graph sut = AdjacencyGraph.of(CompactGraph.of(generated));
+        for (Vertex v: generated.vertices()) {
+            for (Vertex u: sut.predecessorsOf(v))
+                assertTrue(sut.neighborsOf(u).contains(v));
+            assertEquals(generated.predecessorsOf(v).size(),
+                    sut.predecessorsOf(v).size());
+        }
+    }
+
+    @Test
+    void shortestPathFollowsTheFewestArcs() {
+        Graph sut = new AdjacencyGraph();
+        sut.add(0, 1);
+        sut.add(1, 2);
+        sut.add(2, 3);
+        sut.add(3, 4);
+        sut.add(0, 5);
+        sut.add(5, 3);
+        List<Vertex> path = sut.shortestPath(Vertex.of(0), Vertex.of(4));
+        assertEquals(List.of(Vertex.of(0), Vertex.of(5), Vertex.of(3),
+                    Vertex.of(4)), path);
+        assertEquals(List.of(Vertex.of(2)),
+                sut.shortestPath(Vertex.of(2), Vertex.of(2)));
+        assertEquals(List.of(), sut.shortestPath(Vertex.of(4), Vertex.of(0)));
+        sut.remove(Vertex.of(5), Vertex.of(3));
+        assertEquals(5, sut.shortestPath(Vertex.of(0), Vertex.of(4)).size());
+    }
+
+    @Test
+    void shortestPathWithAbsentVertexThrowsIAEWithMessage() {
+        Graph sut = new AdjacencyGraph();
+        sut.add(0);
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> sut.shortestPath(Vertex.of(0), Vertex.of(1)));
+        assertEquals("vertices must be present", e.getMessage());
+    }
+
+    @Test
+    void shortestPathWithNullVertexThrowsNPEWithMessage() {
+        Graph sut = new AdjacencyGraph();
+        sut.add(0);
+        Exception e = assertThrows(NullPointerException.class,
+                () -> sut.shortestPath(null, Vertex.of(0)));
+        assertEquals("vertices must be non-null", e.getMessage());
+    }
+
+    @Test
+    void removeVertexRemovesItsArcs() {
+        AdjacencyGraph sut = new AdjacencyGraph();
+        sut.add(1, 2);
+        sut.add(2, 3);
+        sut.add(3, 2);
+        sut.add(2, 2);
+        sut.remove(Vertex.of(2));
+        assertEquals(2, sut.vertices().size());
+        assertEquals(List.of(), sut.neighborsOf(Vertex.of(1)));
+        assertEquals(List.of(), sut.predecessorsOf(Vertex.of(3)));
+        assertThrows(NoSuchElementException.class,
+                () -> sut.neighborsOf(Vertex.of(2)));
+    }
+
+    @Test
+    void removeAbsentVertexThrowsNSEEWithMessage() {
+        AdjacencyGraph sut = new AdjacencyGraph();
+        Exception e = assertThrows(NoSuchElementException.class,
+                () -> sut.remove(Vertex.of(1)));
+        assertEquals("no such vertex", e.getMessage());
+    }
 }
@@ -0,0 +1,120 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import java.util.Random;
+
+class ArborescenceTest {
+
+    /* Returns the weight of the arcs from the parents to the vertices. */
+    private static long weightOf(WeightedGraph graph, Tree tree) {
+        long weight = 0;
+        for (Vertex v: tree.vertices()) {
+            if (!v.equals(tree.root()))
+                weight += graph.weight(tree.parentOf(v), v);
+        }
+        return weight;
+    }
+
+    /*
+     * Returns the least weight of an arborescence of the given graph of
+     * vertices 0 to n - 1 rooted at 0, by trying every choice of parents of
+     * the vertices reachable from the root.
+     */
+    private static long bruteForce(WeightedGraph graph, int n,
+            int[] parents, int v, List<Vertex> reachable) {
+        if (v == reachable.size()) {
+            for (Vertex u: reachable) {
+                int x = u.label();
+                for (int steps = 0; x != 0; steps++) {
+                    if (steps == n)
+                        return Long.MAX_VALUE;
+                    x = parents[x];
+                }
+            }
+            long weight = 0;
+            for (Vertex u: reachable) {
+                if (u.label() != 0)
+                    weight += graph.weight(Vertex.of(parents[u.label()]), u);
+            }
+            return weight;
+        }
+        Vertex head = reachable.get(v);
+        if (head.label() == 0)
+            return bruteForce(graph, n, parents, v + 1, reachable);
+        long best = Long.MAX_VALUE;
+        for (Vertex tail: graph.predecessorsOf(head)) {
+            if (tail.equals(head) || !reachable.contains(tail))
+                continue;
+            parents[head.label()] = tail.label();
+            best = Math.min(best,
+                    bruteForce(graph, n, parents, v + 1, reachable));
+        }
+        return best;
+    }
+
+    @Test
+    void minimumArborescencePrefersACheapCycleToTheDirectArcs() {
+        WeightedGraph sut = WeightedGraph.newAdjacencyWeightedGraph();
+        sut.add(Vertex.of(0), Vertex.of(1), 10);
+        sut.add(Vertex.of(0), Vertex.of(2), 10);
+        sut.add(Vertex.of(0), Vertex.of(3), 10);
+        sut.add(Vertex.of(1), Vertex.of(2), 1);
+        sut.add(Vertex.of(2), Vertex.of(3), 1);
+        sut.add(Vertex.of(3), Vertex.of(1), 1);
+        Tree tree = sut.minimumArborescence(Vertex.of(0));
+        assertEquals(Vertex.of(0), tree.root());
+        assertEquals(4, tree.vertices().size());
+        assertEquals(12, weightOf(sut, tree));
+    }
+
+    @Test
+    void minimumArborescenceSpansTheVerticesReachableFromTheRoot() {
+        WeightedGraph sut = WeightedGraph.newAdjacencyWeightedGraph();
+        sut.add(Vertex.of(7), Vertex.of(8), -3);
+        sut.add(Vertex.of(9), Vertex.of(7), 2);
+        sut.add(Vertex.of(8), Vertex.of(8), -5);
+        Tree tree = sut.minimumArborescence(Vertex.of(7));
+        assertEquals(List.of(Vertex.of(7), Vertex.of(8)), tree.vertices());
+        assertEquals(Vertex.of(7), tree.parentOf(Vertex.of(8)));
+        Tree alone = sut.minimumArborescence(Vertex.of(8));
+        assertEquals(List.of(Vertex.of(8)), alone.vertices());
+    }
+
+    @Test
+    void minimumArborescenceOfAbsentRootThrowsIAEWithMessage() {
+        WeightedGraph sut = WeightedGraph.newAdjacencyWeightedGraph();
+        sut.add(Vertex.of(0), Vertex.of(1), 1);
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class,
+                () -> sut.minimumArborescence(Vertex.of(2)));
+        assertEquals("vertex must be present", e.getMessage());
+        NullPointerException npe = assertThrows(NullPointerException.class,
+                () -> sut.minimumArborescence(null));
+        assertEquals("vertex must be non-null", npe.getMessage());
+    }
+
+    @Test
+    void minimumArborescenceHasTheWeightOfTheBestChoiceOfParents() {
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            int n = 2 + random.nextInt(5);
+            WeightedGraph sut = WeightedGraph.newAdjacencyWeightedGraph();
+            for (int v = 0; v < n; v++)
+                sut.add(Vertex.of(v));
+            int arcs = random.nextInt(3 * n);
+            for (int k = 0; k < arcs; k++) {
+                sut.add(Vertex.of(random.nextInt(n)),
+                        Vertex.of(random.nextInt(n)),
+                        random.nextInt(21) - 5);
+            }
+            Tree tree = sut.minimumArborescence(Vertex.of(0));
+            List<Vertex> reachable = tree.vertices();
+            assertEquals(sut.breadthFirstSearch(Vertex.of(0)).size(),
+                    reachable.size());
+            assertEquals(bruteForce(sut, n, new int[n], 0, reachable),
+                    weightOf(sut, tree));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.NoSuchElementException;
+
+class BipartiteMatchingTest {
+
+    private static List<Vertex> vertices(int... labels) {
+        List<Vertex> vertices = new ArrayList<>();
+        for (int label: labels)
+            vertices.add(Vertex.of(label));
+        return vertices;
+    }
+
+    private static void assertValid(BipartiteMatching matching,
+            List<Edge> edges) {
+        Set<Vertex> used = new HashSet<>();
+        for (Edge edge: matching.edges()) {
+            assertTrue(edges.contains(edge));
+            assertTrue(used.add(edge.tail()));
+            assertTrue(used.add(edge.head()));
+        }
+        List<Vertex> cover = matching.minimumVertexCover();
+        assertEquals(matching.size(), cover.size());
+        for (Edge edge: edges)
+            assertTrue(cover.contains(edge.tail())
+                    || cover.contains(edge.head()));
+    }
+
+    @Test
+    void ofNullVerticesThrowsNPEWithMessage() {
+        Exception e = assertThrows(NullPointerException.class,
+                () -> BipartiteMatching.of(null, null, List.of()));
+        assertEquals("vertices must be non-null", e.getMessage());
+    }
+
+    @Test
+    void ofIntersectingSidesThrowsIAEWithMessage() {
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> BipartiteMatching.of(vertices(0, 1), vertices(1, 2),
+                        List.of()));
+        assertEquals("sides must be disjoint", e.getMessage());
+    }
+
+    @Test
+    void ofEdgeFromRightThrowsIAEWithMessage() {
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> BipartiteMatching.of(vertices(0), vertices(1),
+                        List.of(Edge.of(1, 0))));
+        assertEquals("edge must go from left to right", e.getMessage());
+    }
+
+    @Test
+    void matchingNeedsAugmentingPath() {
+        // greedily matching 0 with 10 blocks 1, the augmenting path fixes it
+        List<Edge> edges = List.of(Edge.of(0, 10), Edge.of(0, 11),
+                Edge.of(1, 10), Edge.of(2, 11));
+        BipartiteMatching sut = BipartiteMatching.of(vertices(0, 1, 2),
+                vertices(10, 11, 12), edges);
+        assertEquals(2, sut.size());
+        assertValid(sut, edges);
+        assertEquals(Optional.empty(), sut.mateOf(Vertex.of(12)));
+    }
+
+    @Test
+    void perfectMatchingMatchesEveryVertex() {
+        List<Edge> edges = List.of(Edge.of(0, 10), Edge.of(1, 10),
+                Edge.of(1, 11), Edge.of(2, 11), Edge.of(2, 12));
+        BipartiteMatching sut = BipartiteMatching.of(vertices(0, 1, 2),
+                vertices(10, 11, 12), edges);
+        assertEquals(3, sut.size());
+        assertEquals(Optional.of(Vertex.of(10)), sut.mateOf(Vertex.of(0)));
+        assertEquals(Optional.of(Vertex.of(2)), sut.mateOf(Vertex.of(12)));
+        assertValid(sut, edges);
+    }
+
+    @Test
+    void mateOfAbsentVertexThrowsNSEEWithMessage() {
+        BipartiteMatching sut = BipartiteMatching.of(vertices(0),
+                vertices(1), List.of());
+        Exception e = assertThrows(NoSuchElementException.class,
+                () -> sut.mateOf(Vertex.of(2)));
+        assertEquals("no such vertex", e.getMessage());
+    }
+
+    @Test
+    void randomGraphsHaveCoverOfMatchingSize() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            List<Edge> edges = new ArrayList<>();
+            for (int i = 0; i < 60; i++)
+                edges.add(Edge.of(random.nextInt(30), 100 + random.nextInt(30)));
+            List<Vertex> left = new ArrayList<>();
+            List<Vertex> right = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                left.add(Vertex.of(i));
+                right.add(Vertex.of(100 + i));
+            }
+            assertValid(BipartiteMatching.of(left, right, edges), edges);
+        }
+    }
+
+    @Test
+    void matchingOfUnitNetworkHasSizeOfMaximumFlow() {
+        Vertex s = Vertex.of(-1);
+        Vertex t = Vertex.of(-2);
+        Network network = Network.newAdjacency(s, t);
+        for (int i = 0; i < 3; i++) {
+            network.add(s, Vertex.of(i));
+            network.add(Vertex.of(10 + i), t);
+        }
+        network.add(0, 10);
+        network.add(0, 11);
+        network.add(1, 10);
+        network.add(2, 10);
+        BipartiteMatching sut = BipartiteMatching.of(network);
+        assertEquals(network.minCostMaxFlow().value(), sut.size());
+        assertEquals(2, sut.size());
+    }
+
+    @Test
+    void ofNetworkWithNonUnitCapacityThrowsIAEWithMessage() {
+        Network network = Network.newAdjacency(Vertex.of(-1), Vertex.of(-2));
+        network.add(Vertex.of(-1), Vertex.of(0), 2);
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> BipartiteMatching.of(network));
+        assertEquals("network must have unit capacities", e.getMessage());
+    }
+
+    @Test
+    void ofNonBipartiteNetworkThrowsIAEWithMessage() {
+        Network network = Network.newAdjacency(Vertex.of(-1), Vertex.of(-2));
+        network.add(-1, 0);
+        network.add(-1, 1);
+        network.add(0, 1);
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> BipartiteMatching.of(network));
+        assertEquals("network must be bipartite", e.getMessage());
+    }
+}
@@ -0,0 +1,79 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+import java.util.Arrays;
+import java.util.Random;
+
+class BitKernelsTest {
+
+    /* Returns an array of random longs, with many zeros. */
+    private static long[] random(Random random, int length) {
+        long[] bits = new long[length];
+        for (int i = 0; i < length; i++)
+            bits[i] = random.nextInt(3) == 0 ? 0 : random.nextLong();
+        return bits;
+    }
+
+    @Test
+    void instanceFollowsTheSelectionRule() {
+        BitKernels vector = BitKernels.vector();
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+            assertNull(vector);
+        if (vector != null)
+            assertTrue(vector.isUseful());
+        boolean optedOut = "false".equals(
+                System.getProperty("dev.jraf.vector"));
+        BitKernels expected = vector != null && !optedOut ? vector
+            : BitKernels.scalar();
+        assertSame(expected, BitKernels.INSTANCE);
+    }
+
+    @Test
+    void vectorKernelsGiveTheResultsOfTheScalarKernels() {
+        BitKernels vector = BitKernels.vector();
+        assumeTrue(vector != null);
+        BitKernels scalar = BitKernels.scalar();
+        Random random = new Random(17);
+        for (int w = 0; w <= 19; w++) {
+            long[] src = random(random, 3 * w + 5);
+            long[] expected = random(random, 3 * w + 5);
+            long[] actual = expected.clone();
+            scalar.or(expected, 2, src, w + 1, w);
+            vector.or(actual, 2, src, w + 1, w);
+            assertArrayEquals(expected, actual);
+
+            long[] bits = new long[w + 3];
+            assertEquals(scalar.isZero(bits, 1, w), vector.isZero(bits, 1, w));
+            if (w > 0)
+                bits[w] = 1;
+            assertEquals(scalar.isZero(bits, 1, w), vector.isZero(bits, 1, w));
+
+            long[] frontier = random(random, w + 4);
+            long[] next = random(random, w + 4);
+            long[] seen = random(random, w + 4);
+            long[] frontier2 = frontier.clone();
+            long[] next2 = next.clone();
+            long[] seen2 = seen.clone();
+            assertEquals(scalar.sweep(frontier, next, seen, w + 2),
+                    vector.sweep(frontier2, next2, seen2, w + 2));
+            assertArrayEquals(frontier, frontier2);
+            assertArrayEquals(next, next2);
+            assertArrayEquals(seen, seen2);
+        }
+    }
+
+    @Test
+    void sweepKeepsOnlyTheNewBits() {
+        long[] frontier = {5, 6};
+        long[] next = {0b1100, 0};
+        long[] seen = {0b0110, 0};
+        assertTrue(BitKernels.scalar().sweep(frontier, next, seen, 2));
+        assertArrayEquals(new long[] {0, 0}, frontier);
+        assertArrayEquals(new long[] {0b1000, 0}, next);
+        assertArrayEquals(new long[] {0b1110, 0}, seen);
+        Arrays.fill(next, 0);
+        assertFalse(BitKernels.scalar().sweep(frontier, next, seen, 2));
+    }
+}
@@ -0,0 +1,176 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import java.util.Map;
+
+class CachedGraphTest {
+
+    private static AdjacencyGraph path(int length) {
+        AdjacencyGraph graph = new AdjacencyGraph();
+        for (int i = 0; i < length; i++)
+            graph.add(i, i + 1);
+        return graph;
+    }
+
+    @Test
+    void repeatedSearchIsAHit() {
+        AdjacencyGraph graph = path(10);
+        CachedGraph sut = CachedGraph.of(graph, 1 << 20);
+        Map<Integer, Integer> first = sut.breadthFirstSearch(Vertex.of(0));
+        Map<Integer, Integer> second = sut.breadthFirstSearch(Vertex.of(0));
+        assertSame(first, second);
+        assertEquals(graph.breadthFirstSearch(Vertex.of(0)), first);
+        CachedGraph.Stats stats = sut.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.entries());
+        assertEquals(CachedGraph.MAP_BYTES + 11 * CachedGraph.ENTRY_BYTES,
+                stats.bytes());
+        assertEquals(0.5, stats.hitRate());
+    }
+
+    @Test
+    void mutationInvalidatesTheResults() {
+        AdjacencyGraph graph = path(5);
+        CachedGraph sut = CachedGraph.of(graph, 1 << 20);
+        sut.breadthFirstSearch(Vertex.of(0));
+        assertTrue(sut.isAcyclic());
+        graph.add(5, 0);
+        assertEquals(6, sut.breadthFirstSearch(Vertex.of(3)).size());
+        assertFalse(sut.isAcyclic());
+        CachedGraph.Stats stats = sut.stats();
+        assertEquals(0, stats.hits());
+        assertEquals(4, stats.misses());
+        assertEquals(2, stats.invalidations());
+        sut.add(6, 7);
+        assertFalse(sut.isAcyclic());
+        assertFalse(sut.isAcyclic());
+        assertEquals(1, sut.stats().hits());
+        assertEquals(5, sut.stats().misses());
+    }
+
+    @Test
+    void leastRecentlyUsedSearchIsEvicted() {
+        AdjacencyGraph graph = path(9);
+        long search = CachedGraph.MAP_BYTES + 10 * CachedGraph.ENTRY_BYTES;
+        CachedGraph sut = CachedGraph.of(graph, 2 * search);
+        sut.breadthFirstSearch(Vertex.of(0));
+        sut.breadthFirstSearch(Vertex.of(1));
+        sut.breadthFirstSearch(Vertex.of(0));
+        sut.breadthFirstSearch(Vertex.of(2));
+        assertEquals(1, sut.stats().evictions());
+        sut.breadthFirstSearch(Vertex.of(0));
+        assertEquals(2, sut.stats().hits());
+        sut.breadthFirstSearch(Vertex.of(1));
+        assertEquals(2, sut.stats().hits());
+        assertTrue(sut.stats().bytes() <= sut.capacity());
+    }
+
+    @Test
+    void searchLargerThanTheCapacityIsNotKept() {
+        CachedGraph sut = CachedGraph.of(path(100), 1000);
+        sut.breadthFirstSearch(Vertex.of(0));
+        sut.breadthFirstSearch(Vertex.of(0));
+        assertEquals(0, sut.stats().hits());
+        assertEquals(0, sut.stats().entries());
+        assertEquals(0, sut.stats().evictions());
+    }
+
+    @Test
+    void cachedSearchIsUnmodifiable() {
+        CachedGraph sut = CachedGraph.of(path(3), 1 << 20);
+        Map<Integer, Integer> search = sut.breadthFirstSearch(Vertex.of(0));
+        assertThrows(UnsupportedOperationException.class,
+                () -> search.put(7, 7));
+    }
+
+    @Test
+    void unversionedGraphIsNeverCached() {
+        Graph graph = path(3);
+        Graph unversioned = new Graph() {
+            public void add(Vertex vertex) {
+                graph.add(vertex);
+            }
+            public void add(int label) {
+                graph.add(label);
+            }
+            public void add(Vertex tail, Vertex head) {
+                graph.add(tail, head);
+            }
+            public void add(int tail, int head) {
+                graph.add(tail, head);
+            }
+            public List<Vertex> neighborsOf(Vertex vertex) {
+                return graph.neighborsOf(vertex);
+            }
+            public List<Vertex> vertices() {
+                return graph.vertices();
+            }
+            public void remove(Vertex tail, Vertex head) {
+                graph.remove(tail, head);
+            }
+            public void remove(Vertex vertex) {
+                graph.remove(vertex);
+            }
+            public Map<Integer, Integer> breadthFirstSearch(Vertex source) {
+                return graph.breadthFirstSearch(source);
+            }
+            public boolean isAcyclic() {
+                return graph.isAcyclic();
+            }
+        };
+        CachedGraph sut = CachedGraph.of(unversioned, 1 << 20);
+        sut.breadthFirstSearch(Vertex.of(0));
+        sut.breadthFirstSearch(Vertex.of(0));
+        sut.isAcyclic();
+        sut.isAcyclic();
+        assertEquals(0, sut.stats().hits());
+        assertEquals(4, sut.stats().misses());
+    }
+
+    @Test
+    void versionCountsTheChangesOfEveryMutableGraph() {
+        AdjacencyGraph adjacency = new AdjacencyGraph();
+        adjacency.add(1, 2);
+        long version = adjacency.version();
+        adjacency.add(1, 2);
+        assertEquals(version, adjacency.version());
+        adjacency.remove(Vertex.of(1), Vertex.of(2));
+        assertTrue(adjacency.version() > version);
+
+        DirectedAcyclicGraph dag =
+            DirectedAcyclicGraph.newDirectedAcyclicGraph();
+        version = dag.version();
+        dag.add(1, 2);
+        assertTrue(dag.version() > version);
+
+        WeightedGraph weighted = WeightedGraph.newAdjacencyWeightedGraph();
+        weighted.add(Vertex.of(1), Vertex.of(2), 3);
+        version = weighted.version();
+        weighted.add(Vertex.of(1), Vertex.of(2), 4);
+        assertTrue(weighted.version() > version);
+
+        Tree tree = Tree.of(Map.of(1, 1));
+        version = tree.version();
+        tree.add(1, 2);
+        assertTrue(tree.version() > version);
+
+        assertEquals(0, CompactGraph.of(adjacency).version());
+    }
+
+    @Test
+    void nullGraphThrowsNPEWithMessage() {
+        Exception e = assertThrows(NullPointerException.class,
+                () -> CachedGraph.of(null, 10));
+        assertEquals("graph must be non-null", e.getMessage());
+    }
+
+    @Test
+    void negativeCapacityThrowsIAEWithMessage() {
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> CachedGraph.of(path(1), -1));
+        assertEquals("capacity must be non-negative", e.getMessage());
+    }
+}
@@ -0,0 +1,127 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+class CompactGraphTest {
+
+    private static Graph someGraph() {
+        Graph graph = new AdjacencyGraph();
+        graph.add(10, 20);
+        graph.add(10, 30);
+        graph.add(20, 30);
+        graph.add(30, 40);
+        graph.add(50);
+        return graph;
+    }
+
+    @Test
+    void compactCopyHasSameVerticesAndNeighbors() {
+        Graph graph = someGraph();
+        CompactGraph sut = CompactGraph.of(graph);
+        assertEquals(5, sut.size());
+        assertEquals(4, sut.arcCount());
+        for (Vertex vertex: graph.vertices()) {
+            List<Vertex> expected = graph.neighborsOf(vertex);
+            List<Vertex> actual = sut.neighborsOf(vertex);
+            assertTrue(expected.containsAll(actual)
+                    && actual.containsAll(expected));
+            assertEquals(expected.size(), sut.degreeOf(vertex));
+        }
+    }
+
+    @Test
+    void idsAndLabelsAreInverse() {
+        CompactGraph sut = CompactGraph.of(someGraph());
+        for (int id = 0; id < sut.size(); id++)
+            assertEquals(id, sut.idOf(sut.labelOf(id)));
+        assertEquals(-1, sut.idOf(42));
+    }
+
+    @Test
+    void transposeReversesArcs() {
+        CompactGraph sut = CompactGraph.of(someGraph()).transpose();
+        List<Vertex> predecessors = sut.neighborsOf(Vertex.of(30));
+        assertEquals(2, predecessors.size());
+        assertTrue(predecessors.contains(Vertex.of(10)));
+        assertTrue(predecessors.contains(Vertex.of(20)));
+        assertEquals(0, sut.degreeOf(Vertex.of(10)));
+    }
+
+    @Test
+    void bfsMatchesAdjacencyGraphBfs() {
+        Graph graph = someGraph();
+        Map<Integer, Integer> parents =
+            CompactGraph.of(graph).breadthFirstSearch(Vertex.of(10));
+        assertEquals(graph.breadthFirstSearch(Vertex.of(10)), parents);
+    }
+
+    @Test
+    void isAcyclicDetectsCyclesAndLoops() {
+        assertTrue(CompactGraph.of(someGraph()).isAcyclic());
+        Graph cycle = someGraph();
+        cycle.add(40, 10);
+        assertFalse(CompactGraph.of(cycle).isAcyclic());
+        Graph loop = someGraph();
+        loop.add(50, 50);
+        assertFalse(CompactGraph.of(loop).isAcyclic());
+    }
+
+    @Test
+    void addThrowsUOEWithMessage() {
+        CompactGraph sut = CompactGraph.of(someGraph());
+        Exception e = assertThrows(UnsupportedOperationException.class,
+                () -> sut.add(1, 2));
+        assertEquals("graph is read-only", e.getMessage());
+    }
+
+    @Test
+    void neighborsOfAbsentVertexThrowsNSEEWithMessage() {
+        CompactGraph sut = CompactGraph.of(someGraph());
+        Exception e = assertThrows(NoSuchElementException.class,
+                () -> sut.neighborsOf(Vertex.of(42)));
+        assertEquals("no such vertex", e.getMessage());
+    }
+
+    @Test
+    void predecessorsOfReadsTheTranspose() {
+        CompactGraph sut = CompactGraph.of(someGraph());
+        Graph graph = someGraph();
+        for (Vertex v: graph.vertices()) {
+            assertEquals(Set.copyOf(graph.predecessorsOf(v)),
+                    Set.copyOf(sut.predecessorsOf(v)));
+        }
+    }
+
+    @Test
+    void shortestPathHasTheLengthOfTheBreadthFirstSearchDepth() {
+        CompactGraph sut = CompactGraph.of(GraphGenerator.rmat(10, 3, 9)
+                .graph());
+        TraversalWorkspace workspace = new TraversalWorkspace();
+        for (int s = 0; s < 1024; s += 97) {
+            Vertex source = Vertex.of(s);
+            sut.breadthFirstSearch(source, workspace);
+            int[] depths = new int[1024];
+            Arrays.fill(depths, -1);
+            for (int i = 0; i < workspace.reached(); i++)
+                depths[workspace.labelAt(i)] = workspace.depthAt(i);
+            for (int t = 0; t < 1024; t += 13) {
+                List<Vertex> path = sut.shortestPath(source, Vertex.of(t));
+                assertEquals(depths[t] + 1, path.size());
+                if (path.isEmpty())
+                    continue;
+                assertEquals(source, path.get(0));
+                assertEquals(Vertex.of(t), path.get(path.size() - 1));
+                for (int i = 0; i + 1 < path.size(); i++) {
+                    assertTrue(sut.neighborsOf(path.get(i))
+                            .contains(path.get(i + 1)));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.NoSuchElementException;
+
+class ComponentsTest {
+
+    @Test
+    void componentsOfEmptyGraphAreEmpty() {
+        Graph sut = new AdjacencyGraph();
+        assertEquals(0, sut.weaklyConnectedComponents().count());
+    }
+
+    @Test
+    void componentsIgnoreDirectionOfArcs() {
+        Graph sut = new AdjacencyGraph();
+        sut.add(1, 0);
+        sut.add(2, 0);
+        sut.add(3, 4);
+        sut.add(5);
+        Components components = sut.weaklyConnectedComponents();
+        assertEquals(3, components.count());
+        assertTrue(components.connected(Vertex.of(1), Vertex.of(2)));
+        assertTrue(components.connected(Vertex.of(4), Vertex.of(3)));
+        assertFalse(components.connected(Vertex.of(0), Vertex.of(5)));
+        int big = components.componentOf(Vertex.of(0));
+        assertEquals(3, components.sizeOf(big));
+        assertEquals(1, components.sizeOf(components.componentOf(
+                        Vertex.of(5))));
+    }
+
+    @Test
+    void assignmentIsIndexedLikeVertices() {
+        Graph sut = new AdjacencyGraph();
+        sut.add(7, 8);
+        sut.add(9, 9);
+        Components components = sut.weaklyConnectedComponents();
+        int[] assignment = components.assignment();
+        int i = 0;
+        for (Vertex vertex: components.vertices())
+            assertEquals(components.componentOf(vertex), assignment[i++]);
+        int total = 0;
+        for (int size: components.sizes())
+            total += size;
+        assertEquals(3, total);
+    }
+
+    @Test
+    void componentOfNullVertexThrowsNPEWithMessage() {
+        Components sut = new AdjacencyGraph().weaklyConnectedComponents();
+        Exception e = assertThrows(NullPointerException.class,
+                () -> sut.componentOf(null));
+        assertEquals("vertex must be non-null", e.getMessage());
+    }
+
+    @Test
+    void componentOfAbsentVertexThrowsNSEEWithMessage() {
+        Components sut = new AdjacencyGraph().weaklyConnectedComponents();
+        Exception e = assertThrows(NoSuchElementException.class,
+                () -> sut.componentOf(Vertex.of(0)));
+        assertEquals("no such vertex", e.getMessage());
+    }
+
+    @Test
+    void sizeOfAbsentComponentThrowsIAEWithMessage() {
+        Components sut = new AdjacencyGraph().weaklyConnectedComponents();
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> sut.sizeOf(0));
+        assertEquals("no such component", e.getMessage());
+    }
+
+    @Test
+    void parallelAndSequentialUnionFindAgree() {
+        Graph graph = new AdjacencyGraph();
+        int n = 20000;
+        for (int i = 0; i < n; i++) {
+            graph.add(i, (i * 7 + 3) % n);
+            if (i % 5 != 0)
+                graph.add(i, (i * 13 + 1) % n);
+        }
+        CompactGraph compact = CompactGraph.of(graph);
+        assertArrayEquals(Components.sequentialRoots(compact),
+                Components.parallelRoots(compact));
+    }
+}
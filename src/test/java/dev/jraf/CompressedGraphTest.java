@@ -0,0 +1,156 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static dev.jraf.GraphAssertions.assertSameArcs;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+class CompressedGraphTest {
+
+    @Test
+    void roundTripsWithEveryCompression() {
+        Graph[] graphs = {
+            GraphGenerator.rmat(9, 8, 1).graph(),
+            GraphGenerator.grid(15, 17, 0).graph(),
+            GraphGenerator.erdosRenyi(300, 3000, 2).graph(),
+            GraphGenerator.layeredDag(4, 50, 20, 3).graph()
+        };
+        int[][] settings = {{7, 4}, {0, 4}, {7, 0}, {0, 0}, {1, 2}};
+        for (Graph graph: graphs) {
+            for (int[] setting: settings) {
+                CompressedGraph compressed = CompressedGraph.of(graph,
+                        setting[0], setting[1]);
+                assertSameArcs(graph, compressed);
+                assertEquals(graph.vertices(), compressed.vertices());
+                for (Vertex v: graph.vertices()) {
+                    List<Vertex> neighbors = compressed.neighborsOf(v);
+                    for (int i = 1; i < neighbors.size(); i++) {
+                        assertTrue(neighbors.get(i - 1).label()
+                                < neighbors.get(i).label());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void roundTripsArbitraryLabels() {
+        Graph graph = new AdjacencyGraph();
+        graph.add(1000, -5);
+        graph.add(-5, 1000);
+        graph.add(42, 42);
+        graph.add(7);
+        for (int i = 0; i < 10; i++)
+            graph.add(1000, 2000 + i);
+        CompressedGraph compressed = CompressedGraph.of(graph);
+        assertEquals(graph.vertices().size(), compressed.size());
+        assertEquals(13, compressed.arcCount());
+        for (Vertex v: graph.vertices()) {
+            assertEquals(graph.neighborsOf(v).size(), compressed.degreeOf(v));
+            assertTrue(compressed.neighborsOf(v).containsAll(
+                        graph.neighborsOf(v)));
+        }
+    }
+
+    @Test
+    void cursorDecodesEveryListInOrder() {
+        Graph graph = GraphGenerator.rmat(8, 16, 5).graph();
+        CompressedGraph compressed = CompressedGraph.of(graph);
+        CompressedGraph.Cursor cursor = compressed.cursor();
+        int count = 0;
+        long arcs = 0;
+        while (cursor.next()) {
+            Vertex v = cursor.vertex();
+            assertEquals(graph.vertices().get(count++), v);
+            List<Vertex> neighbors = compressed.neighborsOf(v);
+            assertEquals(neighbors.size(), cursor.degree());
+            for (int i = 0; i < cursor.degree(); i++)
+                assertEquals(neighbors.get(i).label(), cursor.successor(i));
+            arcs += cursor.degree();
+        }
+        assertEquals(graph.vertices().size(), count);
+        assertEquals(compressed.arcCount(), arcs);
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    void cursorBeforeFirstVertexThrowsIllegalStateException() {
+        CompressedGraph compressed = CompressedGraph.of(
+                GraphGenerator.grid(2, 2, 0).graph());
+        Exception e = assertThrows(IllegalStateException.class,
+                () -> compressed.cursor().degree());
+        assertEquals("cursor is not on a vertex", e.getMessage());
+    }
+
+    /* The size in bytes of the offsets and targets arrays of a graph. */
+    private static long arraySize(CompressedGraph graph) {
+        return 4L * (graph.size() + 1) + 4L * graph.arcCount();
+    }
+
+    @Test
+    void compressesLocalGraphsSeveralTimes() {
+        CompressedGraph grid = CompressedGraph.of(
+                GraphGenerator.grid(200, 200, 0).graph());
+        assertTrue(grid.byteSize() * 3 / 2 < arraySize(grid));
+        CompressedGraph layered = CompressedGraph.of(
+                GraphGenerator.layeredDag(10, 1000, 30, 0).graph());
+        assertTrue(layered.byteSize() * 3 < arraySize(layered));
+        Graph dense = GraphGenerator.layeredDag(10, 64, 48, 0).graph();
+        CompressedGraph intervals = CompressedGraph.of(dense);
+        CompressedGraph gapsOnly = CompressedGraph.of(dense, 0, 0);
+        assertTrue(intervals.byteSize() < gapsOnly.byteSize());
+    }
+
+    @Test
+    void breadthFirstSearchAndAcyclicityMatchTheOriginal() {
+        Graph graph = GraphGenerator.barabasiAlbert(500, 3, 4).graph();
+        CompressedGraph compressed = CompressedGraph.of(graph);
+        assertEquals(graph.breadthFirstSearch(Vertex.of(17)),
+                compressed.breadthFirstSearch(Vertex.of(17)));
+        assertFalse(compressed.isAcyclic());
+        Graph dag = GraphGenerator.layeredDag(6, 30, 4, 4).graph();
+        assertTrue(CompressedGraph.of(dag).isAcyclic());
+    }
+
+    @Test
+    void compressedGraphIsReadOnly() {
+        CompressedGraph compressed = CompressedGraph.of(new AdjacencyGraph());
+        Exception e = assertThrows(UnsupportedOperationException.class,
+                () -> compressed.add(0, 1));
+        assertEquals("graph is read-only", e.getMessage());
+    }
+
+    @Test
+    void neighborsOfAbsentVertexThrowsNoSuchElementExceptionWithMessage() {
+        CompressedGraph compressed = CompressedGraph.of(
+                GraphGenerator.grid(2, 2, 0).graph());
+        Exception e = assertThrows(NoSuchElementException.class,
+                () -> compressed.neighborsOf(Vertex.of(4)));
+        assertEquals("no such vertex", e.getMessage());
+    }
+
+    @Test
+    void windowAbove64ThrowsIllegalArgumentExceptionWithMessage() {
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> CompressedGraph.of(new AdjacencyGraph(), 65, 4));
+        assertEquals("window must be in [0, 64]", e.getMessage());
+    }
+
+    @Test
+    void minimumIntervalOfOneThrowsIllegalArgumentExceptionWithMessage() {
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> CompressedGraph.of(new AdjacencyGraph(), 7, 1));
+        assertEquals("minimum interval must be 0 or > 1", e.getMessage());
+    }
+
+    @Test
+    void maxDegreeKeepsEveryHeaderInAnInt() {
+        for (int window = 0; window <= CompressedGraph.MAX_WINDOW; window++) {
+            long max = CompressedGraph.maxDegree(window);
+            assertTrue(max * (window + 1) + window <= Integer.MAX_VALUE);
+            assertTrue((max + 1) * (window + 1) + window
+                    > Integer.MAX_VALUE);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+class ContractionHierarchyTest {
+
+    /* The sum of the weights of the arcs along the given vertices. */
+    private static long lengthOf(WeightedGraph graph, List<Vertex> vertices) {
+        long length = 0;
+        for (int i = 1; i < vertices.size(); i++)
+            length += graph.weight(vertices.get(i - 1), vertices.get(i));
+        return length;
+    }
+
+    @Test
+    void routesHaveTheLengthOfDijkstraRoutes() {
+        WeightedGraph sut = GraphGenerator.erdosRenyi(1000, 5000, 7)
+            .weightedGraph(1, 20);
+        ContractionHierarchy hierarchy = sut.contractionHierarchy();
+        for (int from = 0; from < 1000; from += 97) {
+            for (int to = 1; to < 1000; to += 61) {
+                Route dijkstra = sut.shortestRoute(Vertex.of(from),
+                        Vertex.of(to));
+                Route route = hierarchy.route(Vertex.of(from), Vertex.of(to));
+                assertEquals(dijkstra.exists(), route.exists());
+                assertEquals(dijkstra.length(), route.length());
+            }
+        }
+    }
+
+    @Test
+    void routesAreUnpackedIntoArcsOfTheGraph() {
+        WeightedGraph sut = GraphGenerator.grid(30, 30, 0)
+            .weightedGraph(1, 9);
+        ContractionHierarchy hierarchy = sut.contractionHierarchy();
+        assertTrue(hierarchy.shortcutCount() > 0);
+        Vertex from = Vertex.of(0);
+        Vertex to = Vertex.of(899);
+        Route route = hierarchy.route(from, to);
+        List<Vertex> vertices = route.vertices();
+        assertEquals(from, vertices.get(0));
+        assertEquals(to, vertices.get(vertices.size() - 1));
+        assertEquals(route.length(), lengthOf(sut, vertices));
+        assertEquals(sut.shortestRoute(from, to).length(), route.length());
+    }
+
+    @Test
+    void queriesSettleFewerVerticesThanDijkstra() {
+        int side = 100;
+        WeightedGraph sut = GraphGenerator.grid(side, side, 0)
+            .weightedGraph(1, 1);
+        Vertex from = Vertex.of(0);
+        Vertex to = Vertex.of(side * side - 1);
+        Route dijkstra = sut.shortestRoute(from, to);
+        Route route = sut.contractionHierarchy().route(from, to);
+        assertEquals(dijkstra.length(), route.length());
+        assertTrue(route.settledCount() * 10 <= dijkstra.settledCount());
+    }
+
+    @Test
+    void unreachableVertexGivesNoRoute() {
+        WeightedGraph sut = WeightedGraph.newAdjacencyWeightedGraph();
+        sut.add(Vertex.of(0), Vertex.of(1), 2);
+        sut.add(Vertex.of(2), Vertex.of(1), 3);
+        Route route = sut.contractionHierarchy()
+            .route(Vertex.of(0), Vertex.of(2));
+        assertFalse(route.exists());
+        assertTrue(route.vertices().isEmpty());
+    }
+
+    @Test
+    void routeToItselfIsTheVertexAlone() {
+        WeightedGraph sut = WeightedGraph.newAdjacencyWeightedGraph();
+        sut.add(Vertex.of(0), Vertex.of(1), 2);
+        Route route = sut.contractionHierarchy()
+            .route(Vertex.of(1), Vertex.of(1));
+        assertEquals(List.of(Vertex.of(1)), route.vertices());
+        assertEquals(0, route.length());
+    }
+
+    @Test
+    void hierarchyReadBackAnswersTheSameRoutes() throws IOException {
+        WeightedGraph sut = GraphGenerator.erdosRenyi(500, 2500, 11)
+            .weightedGraph(1, 50);
+        ContractionHierarchy hierarchy = sut.contractionHierarchy();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        hierarchy.writeTo(bytes);
+        ContractionHierarchy read = ContractionHierarchy.readFrom(
+                new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(hierarchy.size(), read.size());
+        assertEquals(hierarchy.shortcutCount(), read.shortcutCount());
+        for (int to = 1; to < 500; to += 37) {
+            Route expected = hierarchy.route(Vertex.of(3), Vertex.of(to));
+            Route actual = read.route(Vertex.of(3), Vertex.of(to));
+            assertEquals(expected.vertices(), actual.vertices());
+            assertEquals(expected.length(), actual.length());
+        }
+    }
+
+    @Test
+    void readingOtherBytesThrowsIOExceptionWithMessage() {
+        byte[] bytes = {1, 2, 3, 4, 5, 6, 7, 8};
+        Exception e = assertThrows(IOException.class,
+                () -> ContractionHierarchy.readFrom(
+                        new ByteArrayInputStream(bytes)));
+        assertEquals("not a contraction hierarchy", e.getMessage());
+    }
+
+    @Test
+    void absentVertexThrowsIAEWithMessage() {
+        WeightedGraph sut = WeightedGraph.newAdjacencyWeightedGraph();
+        sut.add(Vertex.of(0), Vertex.of(1), 2);
+        ContractionHierarchy hierarchy = sut.contractionHierarchy();
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> hierarchy.route(Vertex.of(0), Vertex.of(5)));
+        assertEquals("vertices must be present", e.getMessage());
+    }
+
+    @Test
+    void nullVertexThrowsNPEWithMessage() {
+        WeightedGraph sut = WeightedGraph.newAdjacencyWeightedGraph();
+        sut.add(Vertex.of(0), Vertex.of(1), 2);
+        ContractionHierarchy hierarchy = sut.contractionHierarchy();
+        Exception e = assertThrows(NullPointerException.class,
+                () -> hierarchy.route(null, Vertex.of(1)));
+        assertEquals("vertices must be non-null", e.getMessage());
+    }
+}
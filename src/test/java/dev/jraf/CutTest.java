@@ -0,0 +1,121 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+
+class CutTest {
+
+    /*
+     * Two routes from 0 to 5, with bottlenecks 1 to 3 (capacity 2) and 2 to 4
+     * (capacity 3).
+     */
+    private static Network someNetwork() {
+        Network network = Network.newAdjacency(Vertex.of(0), Vertex.of(5));
+        network.add(Vertex.of(0), Vertex.of(1), 10);
+        network.add(Vertex.of(0), Vertex.of(2), 10);
+        network.add(Vertex.of(1), Vertex.of(3), 2);
+        network.add(Vertex.of(2), Vertex.of(4), 3);
+        network.add(Vertex.of(1), Vertex.of(2), 1);
+        network.add(Vertex.of(3), Vertex.of(5), 10);
+        network.add(Vertex.of(4), Vertex.of(5), 10);
+        return network;
+    }
+
+    @Test
+    void minCutFindsBottleneckEdges() {
+        Network network = someNetwork();
+        Cut sut = network.minCut();
+        assertEquals(5, sut.capacity());
+        assertEquals(network.minCostMaxFlow().value(), sut.capacity());
+        assertEquals(2, sut.edges().size());
+        assertTrue(sut.edges().contains(Edge.of(1, 3)));
+        assertTrue(sut.edges().contains(Edge.of(2, 4)));
+        assertEquals(3, sut.sourceSide().size());
+        assertTrue(sut.sourceSide().contains(Vertex.of(0)));
+    }
+
+    @Test
+    void minCutFollowsBackwardResidualEdges() {
+        // 0 -> 1 -> 3 is full, but 2 is reached from 1 by undoing 2 -> 1, and
+        // 2 -> 3 has room left
+        Network network = Network.newAdjacency(Vertex.of(0), Vertex.of(3));
+        network.add(Vertex.of(0), Vertex.of(2), 1);
+        network.add(Vertex.of(0), Vertex.of(1), 5);
+        network.add(Vertex.of(2), Vertex.of(1), 1);
+        network.add(Vertex.of(1), Vertex.of(3), 2);
+        network.add(Vertex.of(2), Vertex.of(3), 1);
+        EdgeToNaturalFunction flow = new EdgeToNaturalFunction();
+        flow.add(Vertex.of(0), Vertex.of(2), 1);
+        flow.add(Vertex.of(0), Vertex.of(1), 1);
+        flow.add(Vertex.of(2), Vertex.of(1), 1);
+        flow.add(Vertex.of(1), Vertex.of(3), 2);
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> network.minCut(flow));
+        assertEquals("flow is not maximum", e.getMessage());
+        flow.add(Vertex.of(0), Vertex.of(1), 2);
+        flow.add(Vertex.of(2), Vertex.of(1), 0);
+        flow.add(Vertex.of(2), Vertex.of(3), 1);
+        Cut sut = network.minCut(flow);
+        assertEquals(3, sut.capacity());
+        assertEquals(List.of(Vertex.of(0), Vertex.of(1)), sut.sourceSide());
+    }
+
+    @Test
+    void minCutOfNonMaximumFlowThrowsIAEWithMessage() {
+        Network network = someNetwork();
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> network.minCut(new EdgeToNaturalFunction()));
+        assertEquals("flow is not maximum", e.getMessage());
+    }
+
+    @Test
+    void minCutWithNullFlowThrowsNPEWithMessage() {
+        Network network = someNetwork();
+        Exception e = assertThrows(NullPointerException.class,
+                () -> network.minCut(null));
+        assertEquals("edge function must be non-null", e.getMessage());
+    }
+
+    @Test
+    void minCutSeesCapacityUpdates() {
+        Network network = someNetwork();
+        network.minCut();
+        network.add(Vertex.of(1), Vertex.of(3), 20);
+        Cut sut = network.minCut();
+        assertEquals(13, sut.capacity());
+        assertTrue(sut.edges().contains(Edge.of(0, 1)));
+        assertTrue(sut.edges().contains(Edge.of(2, 4)));
+    }
+
+    @Test
+    void minCutIgnoresNegativeCostCycles() {
+        Network network = Network.newAdjacency(Vertex.of(0), Vertex.of(3));
+        network.add(Vertex.of(0), Vertex.of(1), 4);
+        network.add(Vertex.of(1), Vertex.of(2), 5, -2);
+        network.add(Vertex.of(2), Vertex.of(1), 5, 1);
+        network.add(Vertex.of(1), Vertex.of(3), 3);
+        Cut sut = network.minCut();
+        assertEquals(3, sut.capacity());
+        assertEquals(List.of(Edge.of(1, 3)), sut.edges());
+    }
+
+    @Test
+    void minCutSeesCapacityUpdatesOfGeneratedNetworks() {
+        Network network = GraphGenerator.grid(4, 4, 7)
+            .network(Vertex.of(0), Vertex.of(15), 5);
+        for (Edge edge: network.minCut().edges())
+            network.add(edge.tail(), edge.head(), 100);
+        Network rebuilt = Network.newAdjacency(Vertex.of(0), Vertex.of(15));
+        for (Vertex tail: network.vertices()) {
+            for (Vertex head: network.neighborsOf(tail))
+                rebuilt.add(tail, head, network.capacity(tail, head));
+        }
+        Cut sut = network.minCut();
+        assertEquals(rebuilt.minCut().capacity(), sut.capacity());
+        long capacity = 0;
+        for (Edge edge: sut.edges())
+            capacity += network.capacity(edge.tail(), edge.head());
+        assertEquals(capacity, sut.capacity());
+    }
+}
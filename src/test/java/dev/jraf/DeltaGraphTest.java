@@ -0,0 +1,248 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static dev.jraf.GraphAssertions.assertSameArcs;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+class DeltaGraphTest {
+
+    @Test
+    void randomChangesMatchAnAdjacencyGraph() {
+        AdjacencyGraph expected = new AdjacencyGraph();
+        DeltaGraph sut = DeltaGraph.of(expected, 7, Runnable::run);
+        Random random = new Random(3);
+        for (int step = 0; step < 2000; step++) {
+            Vertex tail = Vertex.of(random.nextInt(40));
+            Vertex head = Vertex.of(random.nextInt(40));
+            if (random.nextInt(3) == 0 && expected.vertices().contains(tail)
+                    && expected.vertices().contains(head)) {
+                expected.remove(tail, head);
+                sut.remove(tail, head);
+            } else {
+                expected.add(tail, head);
+                sut.add(tail, head);
+            }
+            if (step % 97 == 0)
+                assertSameArcs(expected, sut);
+        }
+        assertSameArcs(expected, sut);
+        assertTrue(sut.compactionCount() > 0);
+        for (Vertex v: expected.vertices()) {
+            assertEquals(expected.breadthFirstSearch(v).keySet(),
+                    sut.breadthFirstSearch(v).keySet());
+        }
+        assertEquals(expected.isAcyclic(), sut.isAcyclic());
+    }
+
+    @Test
+    void baseIsLoadedFromTheGraph() {
+        Graph graph = GraphGenerator.erdosRenyi(200, 800, 5).graph();
+        DeltaGraph sut = DeltaGraph.of(graph);
+        assertEquals(0, sut.deltaSize());
+        assertSameArcs(graph, sut);
+        Vertex source = graph.vertices().get(0);
+        assertEquals(graph.breadthFirstSearch(source),
+                sut.breadthFirstSearch(source));
+    }
+
+    @Test
+    void removedAndAddedAgainArcIsPresentOnce() {
+        AdjacencyGraph graph = new AdjacencyGraph();
+        graph.add(1, 2);
+        DeltaGraph sut = DeltaGraph.of(graph);
+        sut.remove(Vertex.of(1), Vertex.of(2));
+        assertEquals(List.of(), sut.neighborsOf(Vertex.of(1)));
+        sut.add(1, 2);
+        assertEquals(List.of(Vertex.of(2)), sut.neighborsOf(Vertex.of(1)));
+        assertEquals(0, sut.deltaSize());
+    }
+
+    @Test
+    void compactMergesTheDeltaIntoTheBase() {
+        DeltaGraph sut = DeltaGraph.newDeltaGraph();
+        sut.add(1, 2);
+        sut.add(2, 3);
+        sut.add(4);
+        long version = sut.version();
+        assertEquals(2, sut.deltaSize());
+        sut.compact();
+        assertEquals(0, sut.deltaSize());
+        assertEquals(1, sut.compactionCount());
+        assertEquals(version, sut.version());
+        assertEquals(Map.of(1, 1, 2, 1, 3, 2),
+                sut.breadthFirstSearch(Vertex.of(1)));
+        assertEquals(List.of(Vertex.of(1), Vertex.of(2), Vertex.of(3)),
+                sut.shortestPath(Vertex.of(1), Vertex.of(3)));
+        assertEquals(4, sut.vertices().size());
+    }
+
+    @Test
+    void readersSeeAPrefixOfThePathDuringCompactions() throws Exception {
+        int length = 20000;
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            DeltaGraph sut = DeltaGraph.of(new AdjacencyGraph(), 64, executor);
+            sut.add(0);
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread reader = new Thread(() -> {
+                try {
+                    int seen = 1;
+                    while (seen <= length) {
+                        Map<Integer, Integer> parents =
+                            sut.breadthFirstSearch(Vertex.of(0));
+                        for (int v = 1; v < parents.size(); v++)
+                            assertEquals(v - 1, parents.get(v));
+                        assertTrue(parents.size() >= seen);
+                        seen = parents.size();
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            reader.start();
+            for (int v = 0; v < length; v++)
+                sut.add(v, v + 1);
+            reader.join();
+            assertNull(failure.get());
+            sut.compact();
+            assertEquals(0, sut.deltaSize());
+            assertTrue(sut.compactionCount() > 1);
+            assertEquals(length + 1, sut.breadthFirstSearch(Vertex.of(0))
+                    .size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void versionCountsTheChanges() {
+        DeltaGraph sut = DeltaGraph.newDeltaGraph();
+        sut.add(1, 2);
+        long version = sut.version();
+        sut.add(1, 2);
+        assertEquals(version, sut.version());
+        sut.remove(Vertex.of(1), Vertex.of(2));
+        assertTrue(sut.version() > version);
+    }
+
+    @Test
+    void removingWithAbsentVertexThrowsIAEWithMessage() {
+        DeltaGraph sut = DeltaGraph.newDeltaGraph();
+        sut.add(1);
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> sut.remove(Vertex.of(1), Vertex.of(2)));
+        assertEquals("vertices must be present", e.getMessage());
+    }
+
+    @Test
+    void neighborsOfAbsentVertexThrowsNSEEWithMessage() {
+        DeltaGraph sut = DeltaGraph.newDeltaGraph();
+        Exception e = assertThrows(NoSuchElementException.class,
+                () -> sut.neighborsOf(Vertex.of(1)));
+        assertEquals("no such vertex", e.getMessage());
+    }
+
+    @Test
+    void nonPositiveThresholdThrowsIAEWithMessage() {
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> DeltaGraph.of(new AdjacencyGraph(), 0, Runnable::run));
+        assertEquals("threshold must be positive", e.getMessage());
+    }
+
+    @Test
+    void randomVertexRemovalsMatchAnAdjacencyGraph() {
+        AdjacencyGraph expected = new AdjacencyGraph();
+        DeltaGraph sut = DeltaGraph.of(expected, 11, Runnable::run);
+        Random random = new Random(7);
+        for (int step = 0; step < 3000; step++) {
+            Vertex tail = Vertex.of(random.nextInt(50));
+            Vertex head = Vertex.of(random.nextInt(50));
+            if (random.nextInt(8) == 0
+                    && expected.vertices().contains(tail)) {
+                expected.remove(tail);
+                sut.remove(tail);
+            } else {
+                expected.add(tail, head);
+                sut.add(tail, head);
+            }
+            if (step % 89 == 0)
+                assertSameArcs(expected, sut);
+        }
+        assertSameArcs(expected, sut);
+        assertEquals(expected.weaklyConnectedComponents().count(),
+                sut.weaklyConnectedComponents().count());
+    }
+
+    @Test
+    void removedVertexIsAbsentFromTheSnapshots() {
+        AdjacencyGraph graph = new AdjacencyGraph();
+        graph.add(1, 2);
+        graph.add(2, 3);
+        graph.add(3, 4);
+        graph.add(4, 5);
+        DeltaGraph sut = DeltaGraph.of(graph);
+        sut.remove(Vertex.of(3));
+        assertEquals(List.of(), sut.shortestPath(Vertex.of(1), Vertex.of(5)));
+        assertEquals(2, sut.weaklyConnectedComponents().count());
+        assertThrows(IllegalArgumentException.class,
+                () -> sut.shortestPath(Vertex.of(1), Vertex.of(3)));
+        sut.remove(Vertex.of(4));
+        sut.remove(Vertex.of(5));
+        assertEquals(2, sut.vertices().size());
+        assertEquals(0, sut.deltaSize());
+        assertEquals(Map.of(1, 1, 2, 1), sut.breadthFirstSearch(Vertex.of(1)));
+    }
+
+    @Test
+    void repeatedQueriesSeeTheChangesBetweenThem() {
+        DeltaGraph sut = DeltaGraph.newDeltaGraph();
+        sut.add(1, 2);
+        sut.add(2, 3);
+        sut.add(3, 4);
+        List<Vertex> path = sut.shortestPath(Vertex.of(1), Vertex.of(4));
+        assertEquals(4, path.size());
+        assertEquals(path, sut.shortestPath(Vertex.of(1), Vertex.of(4)));
+        assertTrue(sut.isAcyclic());
+        sut.add(1, 3);
+        assertEquals(List.of(Vertex.of(1), Vertex.of(3), Vertex.of(4)),
+                sut.shortestPath(Vertex.of(1), Vertex.of(4)));
+        sut.add(4, 1);
+        assertFalse(sut.isAcyclic());
+        sut.remove(Vertex.of(3));
+        assertEquals(List.of(), sut.shortestPath(Vertex.of(1), Vertex.of(4)));
+        assertEquals(1, sut.weaklyConnectedComponents().count());
+    }
+
+    @Test
+    void manyChangesOfOneVertexKeepItsHeadsInOrder() {
+        AdjacencyGraph expected = new AdjacencyGraph();
+        for (int x = 0; x < 1000; x++)
+            expected.add(x);
+        for (int x = 0; x < 1000; x += 2)
+            expected.add(0, x);
+        DeltaGraph sut = DeltaGraph.of(expected, 100000, Runnable::run);
+        Random random = new Random(13);
+        for (int step = 0; step < 3000; step++) {
+            Vertex head = Vertex.of(random.nextInt(1000));
+            if (expected.neighborsOf(Vertex.of(0)).contains(head)) {
+                expected.remove(Vertex.of(0), head);
+                sut.remove(Vertex.of(0), head);
+            } else {
+                expected.add(Vertex.of(0), head);
+                sut.add(Vertex.of(0), head);
+            }
+        }
+        List<Vertex> heads = sut.neighborsOf(Vertex.of(0));
+        for (int i = 1; i < heads.size(); i++)
+            assertTrue(heads.get(i - 1).label() < heads.get(i).label());
+        assertEquals(expected.neighborsOf(Vertex.of(0)).size(), heads.size());
+        assertSameArcs(expected, sut);
+    }
+}
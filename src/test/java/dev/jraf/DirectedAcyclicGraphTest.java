@@ -0,0 +1,202 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+class DirectedAcyclicGraphTest {
+
+    private static void assertTopological(DirectedAcyclicGraph dag) {
+        List<Vertex> order = dag.topologicalOrder();
+        assertEquals(dag.vertices().size(), order.size());
+        for (Vertex tail: dag.vertices()) {
+            for (Vertex head: dag.neighborsOf(tail))
+                assertTrue(order.indexOf(tail) < order.indexOf(head));
+        }
+    }
+
+    @Test
+    void addLoopThrowsIAEWithMessage() {
+        DirectedAcyclicGraph sut =
+            DirectedAcyclicGraph.newDirectedAcyclicGraph();
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> sut.add(0, 0));
+        assertEquals("cannot form cycle", e.getMessage());
+    }
+
+    @Test
+    void addArcClosingCycleThrowsIAEAndLeavesGraphUnchanged() {
+        DirectedAcyclicGraph sut =
+            DirectedAcyclicGraph.newDirectedAcyclicGraph();
+        sut.add(0, 1);
+        sut.add(1, 2);
+        sut.add(2, 3);
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> sut.add(3, 0));
+        assertEquals("cannot form cycle", e.getMessage());
+        assertTrue(sut.neighborsOf(Vertex.of(3)).isEmpty());
+        assertTopological(sut);
+    }
+
+    @Test
+    void addArcAgainstOrderReordersVertices() {
+        DirectedAcyclicGraph sut =
+            DirectedAcyclicGraph.newDirectedAcyclicGraph();
+        sut.add(0);
+        sut.add(1);
+        sut.add(2);
+        sut.add(3);
+        sut.add(2, 3);
+        sut.add(3, 1);
+        sut.add(1, 0);
+        assertEquals(List.of(Vertex.of(2), Vertex.of(3), Vertex.of(1),
+                        Vertex.of(0)), sut.topologicalOrder());
+    }
+
+    @Test
+    void removedArcCanBeAddedBackReversed() {
+        DirectedAcyclicGraph sut =
+            DirectedAcyclicGraph.newDirectedAcyclicGraph();
+        sut.add(0, 1);
+        sut.remove(Vertex.of(0), Vertex.of(1));
+        sut.add(1, 0);
+        assertEquals(List.of(Vertex.of(0)), sut.neighborsOf(Vertex.of(1)));
+        assertTopological(sut);
+    }
+
+    @Test
+    void removingAbsentArcKeepsTheVersion() {
+        DirectedAcyclicGraph sut =
+            DirectedAcyclicGraph.newDirectedAcyclicGraph();
+        sut.add(0, 1);
+        sut.add(2);
+        long version = sut.version();
+        sut.remove(Vertex.of(1), Vertex.of(2));
+        assertEquals(version, sut.version());
+        sut.remove(Vertex.of(0), Vertex.of(1));
+        assertEquals(version + 1, sut.version());
+    }
+
+    @Test
+    void removeAbsentVerticesThrowsIAEWithMessage() {
+        DirectedAcyclicGraph sut =
+            DirectedAcyclicGraph.newDirectedAcyclicGraph();
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> sut.remove(Vertex.of(0), Vertex.of(1)));
+        assertEquals("vertices must be present", e.getMessage());
+    }
+
+    @Test
+    void randomInsertionsAgreeWithFullAcyclicityCheck() {
+        Random random = new Random(42);
+        DirectedAcyclicGraph sut =
+            DirectedAcyclicGraph.newDirectedAcyclicGraph();
+        Graph reference = new AdjacencyGraph();
+        for (int i = 0; i < 60; i++) {
+            sut.add(i);
+            reference.add(i);
+        }
+        for (int i = 0; i < 400; i++) {
+            int tail = random.nextInt(60);
+            int head = random.nextInt(60);
+            reference.add(tail, head);
+            boolean acyclic = CompactGraph.of(reference).isAcyclic();
+            if (acyclic) {
+                sut.add(tail, head);
+            } else {
+                assertThrows(IllegalArgumentException.class,
+                        () -> sut.add(tail, head));
+                reference.remove(Vertex.of(tail), Vertex.of(head));
+            }
+        }
+        assertTopological(sut);
+    }
+
+    @Test
+    void bfsAndDegreeAreCorrect() {
+        DirectedAcyclicGraph sut =
+            DirectedAcyclicGraph.newDirectedAcyclicGraph();
+        sut.add(1, 2);
+        sut.add(1, 3);
+        sut.add(3, 4);
+        assertEquals(2, sut.degreeOf(Vertex.of(1)));
+        assertEquals(4, sut.breadthFirstSearch(Vertex.of(1)).size());
+        assertEquals(3, sut.breadthFirstSearch(Vertex.of(1)).get(4));
+        assertTrue(sut.isAcyclic());
+    }
+
+    @Test
+    void predecessorsOfFollowsAddedAndRemovedArcs() {
+        DirectedAcyclicGraph sut =
+            DirectedAcyclicGraph.newDirectedAcyclicGraph();
+        sut.add(1, 3);
+        sut.add(2, 3);
+        assertEquals(List.of(Vertex.of(1), Vertex.of(2)),
+                sut.predecessorsOf(Vertex.of(3)));
+        sut.remove(Vertex.of(1), Vertex.of(3));
+        assertEquals(List.of(Vertex.of(2)), sut.predecessorsOf(Vertex.of(3)));
+    }
+
+    @Test
+    void shortestPathSeesArcsAddedAfterAPreviousQuery() {
+        DirectedAcyclicGraph sut =
+            DirectedAcyclicGraph.newDirectedAcyclicGraph();
+        sut.add(0, 1);
+        sut.add(1, 2);
+        sut.add(2, 3);
+        assertEquals(4, sut.shortestPath(Vertex.of(0), Vertex.of(3)).size());
+        sut.add(0, 3);
+        assertEquals(List.of(Vertex.of(0), Vertex.of(3)),
+                sut.shortestPath(Vertex.of(0), Vertex.of(3)));
+        assertEquals(List.of(), sut.shortestPath(Vertex.of(3), Vertex.of(0)));
+    }
+
+    @Test
+    void removeVertexRemovesItsArcsAndKeepsTheOrder() {
+        DirectedAcyclicGraph sut =
+            DirectedAcyclicGraph.newDirectedAcyclicGraph();
+        sut.add(1, 2);
+        sut.add(2, 3);
+        sut.add(1, 3);
+        sut.remove(Vertex.of(2));
+        assertEquals(List.of(Vertex.of(3)), sut.neighborsOf(Vertex.of(1)));
+        assertEquals(List.of(Vertex.of(1), Vertex.of(3)),
+                sut.topologicalOrder());
+        sut.add(3, 2);
+        assertTopological(sut);
+    }
+
+    @Test
+    void randomRemovalsKeepTheOrderTopological() {
+        DirectedAcyclicGraph sut =
+            DirectedAcyclicGraph.newDirectedAcyclicGraph();
+        AdjacencyGraph expected = new AdjacencyGraph();
+        Random random = new Random(5);
+        for (int step = 0; step < 3000; step++) {
+            int tail = random.nextInt(60);
+            int head = random.nextInt(60);
+            if (random.nextInt(4) == 0 && expected.vertices()
+                    .contains(Vertex.of(tail))) {
+                sut.remove(Vertex.of(tail));
+                expected.remove(Vertex.of(tail));
+            } else if (tail != head) {
+                try {
+                    sut.add(tail, head);
+                    expected.add(tail, head);
+                } catch (IllegalArgumentException e) {
+                    assertTrue(expected.breadthFirstSearch(Vertex.of(head))
+                            .containsKey(tail));
+                }
+            }
+        }
+        assertEquals(new HashSet<>(expected.vertices()),
+                new HashSet<>(sut.vertices()));
+        for (Vertex v: expected.vertices()) {
+            assertEquals(new HashSet<>(expected.neighborsOf(v)),
+                    new HashSet<>(sut.neighborsOf(v)));
+        }
+        assertTopological(sut);
+    }
+}
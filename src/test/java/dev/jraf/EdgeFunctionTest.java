@@ -54,4 +54,12 @@ class EdgeFunctionTest {
                 () -> sut.get(Vertex.of(0), Vertex.of(1)));
         assertEquals("no such edge", e.getMessage());
     }
+
+    @Test
+    void containsReturnsTrueOnlyForAssociatedEdges() {
+        EdgeFunction sut = new EdgeFunction();
+        sut.add(Vertex.of(0), Vertex.of(1), 42);
+        assertTrue(sut.contains(Vertex.of(0), Vertex.of(1)));
+        assertFalse(sut.contains(Vertex.of(1), Vertex.of(0)));
+    }
 }
@@ -0,0 +1,38 @@
+package dev.jraf;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Set;
+
+/* Assertions on whole graphs, shared by the tests of the graph classes. */
+final class GraphAssertions {
+
+    private GraphAssertions() {
+    }
+
+    /*
+     * Asserts that both graphs have the same vertices, and that every vertex
+     * has the same neighbors, predecessors and degree, in any order.
+     */
+    static void assertSameArcs(Graph expected, Graph actual) {
+        assertEquals(Set.copyOf(expected.vertices()),
+                Set.copyOf(actual.vertices()));
+        for (Vertex v: expected.vertices()) {
+            assertEquals(Set.copyOf(expected.neighborsOf(v)),
+                    Set.copyOf(actual.neighborsOf(v)));
+            assertEquals(Set.copyOf(expected.predecessorsOf(v)),
+                    Set.copyOf(actual.predecessorsOf(v)));
+            assertEquals(expected.degreeOf(v), actual.degreeOf(v));
+        }
+    }
+
+    /*
+     * Asserts that both graphs have the same arcs, and also list their
+     * vertices and the neighbors of every vertex in the same order.
+     */
+    static void assertSameArcsInOrder(Graph expected, Graph actual) {
+        assertSameArcs(expected, actual);
+        assertEquals(expected.vertices(), actual.vertices());
+        for (Vertex v: expected.vertices())
+            assertEquals(expected.neighborsOf(v), actual.neighborsOf(v));
+    }
+}
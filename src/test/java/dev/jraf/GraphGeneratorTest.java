@@ -0,0 +1,156 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static dev.jraf.GraphAssertions.assertSameArcsInOrder;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+public class GraphGeneratorTest {
+
+    private static Graph generateWith(int threads,
+            Supplier<GraphGenerator> generator) throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> generator.get().graph()).get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test void sameSeedGivesSameGraphWhateverTheThreadCount()
+            throws Exception {
+        Supplier<GraphGenerator> rmat = () -> GraphGenerator.rmat(12, 8, 42);
+        assertSameArcsInOrder(generateWith(1, rmat), generateWith(4, rmat));
+        Supplier<GraphGenerator> ba =
+            () -> GraphGenerator.barabasiAlbert(5000, 3, 7);
+        assertSameArcsInOrder(generateWith(1, ba), generateWith(3, ba));
+    }
+
+    @Test void differentSeedsGiveDifferentGraphs() {
+        Graph g1 = GraphGenerator.erdosRenyi(100, 500, 1).graph();
+        Graph g2 = GraphGenerator.erdosRenyi(100, 500, 2).graph();
+        boolean differ = false;
+        for (Vertex v: g1.vertices())
+            differ |= !g1.neighborsOf(v).equals(g2.neighborsOf(v));
+        assertTrue(differ);
+    }
+
+    @Test void rmatHasPowerOfTwoVerticesAndAtMostTheSampledArcs() {
+        GraphGenerator gen = GraphGenerator.rmat(10, 16, 3);
+        assertEquals(1024, gen.vertexCount());
+        assertTrue(gen.arcCount() <= 16 * 1024);
+        assertTrue(gen.arcCount() > 0);
+    }
+
+    @Test void erdosRenyiHasExactlyMDistinctArcsWithoutLoops() {
+        GraphGenerator gen = GraphGenerator.erdosRenyi(50, 2000, 11);
+        assertEquals(50, gen.vertexCount());
+        assertEquals(2000, gen.arcCount());
+        Graph graph = gen.graph();
+        for (Vertex v: graph.vertices())
+            assertFalse(graph.neighborsOf(v).contains(v));
+    }
+
+    @Test void erdosRenyiCanBeComplete() {
+        GraphGenerator gen = GraphGenerator.erdosRenyi(10, 90, 5);
+        for (Vertex v: gen.graph().vertices())
+            assertEquals(9, gen.graph().degreeOf(v));
+    }
+
+    @Test void barabasiAlbertIsSymmetricAndConnected() {
+        Graph graph = GraphGenerator.barabasiAlbert(2000, 2, 9).graph();
+        for (Vertex u: graph.vertices()) {
+            for (Vertex v: graph.neighborsOf(u)) {
+                assertNotEquals(u, v);
+                assertTrue(graph.neighborsOf(v).contains(u));
+            }
+        }
+        assertEquals(1, graph.weaklyConnectedComponents().count());
+    }
+
+    @Test void gridConnectsNeighborsInBothDirections() {
+        Graph graph = GraphGenerator.grid(3, 4, 0).graph();
+        assertEquals(12, graph.vertices().size());
+        assertEquals(List.of(Vertex.of(1), Vertex.of(4)),
+                graph.neighborsOf(Vertex.of(0)));
+        assertEquals(List.of(Vertex.of(1), Vertex.of(4), Vertex.of(6),
+                    Vertex.of(9)), graph.neighborsOf(Vertex.of(5)));
+        assertEquals(2 * (3 * 3 + 2 * 4),
+                GraphGenerator.grid(3, 4, 0).arcCount());
+    }
+
+    @Test void layeredDagOnlyHasArcsToTheNextLayer() {
+        Graph graph = GraphGenerator.layeredDag(5, 20, 3, 13).graph();
+        assertTrue(graph.isAcyclic());
+        for (Vertex u: graph.vertices()) {
+            for (Vertex v: graph.neighborsOf(u))
+                assertEquals(u.label() / 20 + 1, v.label() / 20);
+            if (u.label() >= 80)
+                assertEquals(0, graph.degreeOf(u));
+            else
+                assertTrue(graph.degreeOf(u) > 0);
+        }
+    }
+
+    @Test void weightedGraphHasTheGeneratedArcsAndWeightsInRange() {
+        GraphGenerator gen = GraphGenerator.grid(10, 10, 21);
+        WeightedGraph weighted = gen.weightedGraph(5, 8);
+        assertSameArcsInOrder(gen.graph(), weighted);
+        for (Vertex u: weighted.vertices()) {
+            for (Vertex v: weighted.neighborsOf(u)) {
+                int w = weighted.weight(u, v);
+                assertTrue(w >= 5 && w <= 8);
+            }
+        }
+        WeightedGraph again = gen.weightedGraph(5, 8);
+        for (Vertex u: weighted.vertices()) {
+            for (Vertex v: weighted.neighborsOf(u))
+                assertEquals(weighted.weight(u, v), again.weight(u, v));
+        }
+    }
+
+    @Test void networkLeavesOutArcsItCannotHold() {
+        GraphGenerator gen = GraphGenerator.rmat(8, 8, 17);
+        Vertex source = Vertex.of(0);
+        Vertex sink = Vertex.of(255);
+        Network network = gen.network(source, sink, 10);
+        assertTrue(network.neighborsOf(sink).isEmpty());
+        for (Vertex u: network.vertices()) {
+            for (Vertex v: network.neighborsOf(u)) {
+                assertNotEquals(u, v);
+                assertNotEquals(source, v);
+                int c = network.capacity(u, v);
+                assertTrue(c >= 1 && c <= 10);
+            }
+        }
+        MinCostFlow flow = network.minCostMaxFlow();
+        assertEquals(flow.value(), network.minCut().capacity());
+    }
+
+    @Test void networkRejectsAbsentSource() {
+        GraphGenerator gen = GraphGenerator.grid(2, 2, 0);
+        Exception e = assertThrows(java.util.NoSuchElementException.class,
+                () -> gen.network(Vertex.of(4), Vertex.of(0), 1));
+        assertEquals("no such vertex", e.getMessage());
+    }
+
+    @Test void invalidParametersAreRejected() {
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> GraphGenerator.erdosRenyi(3, 7, 0));
+        assertEquals("m must be in [0, n(n - 1)]", e.getMessage());
+        e = assertThrows(IllegalArgumentException.class,
+                () -> GraphGenerator.rmat(0, 1, 0));
+        assertEquals("scale must be in [1, 30]", e.getMessage());
+        e = assertThrows(IllegalArgumentException.class,
+                () -> GraphGenerator.grid(1, 1, 0).weightedGraph(2, 1));
+        assertEquals("weight range must be non-empty", e.getMessage());
+    }
+
+    @Test void generatedGraphIsReadOnly() {
+        Graph graph = GraphGenerator.grid(2, 2, 0).graph();
+        assertThrows(UnsupportedOperationException.class,
+                () -> graph.add(0, 3));
+    }
+}
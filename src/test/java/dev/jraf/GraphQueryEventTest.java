@@ -0,0 +1,107 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class GraphQueryEventTest {
+
+    private static List<RecordedEvent> record(Runnable work)
+            throws Exception {
+        Path file = Files.createTempFile("jraf", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("dev.jraf.GraphQuery")
+                .withThreshold(Duration.ZERO);
+            recording.enable("dev.jraf.GraphMutation")
+                .withThreshold(Duration.ZERO);
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().startsWith("dev.jraf"))
+                .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void breadthFirstSearchAndAcyclicityCheckAreRecorded() throws Exception {
+        AdjacencyGraph graph = new AdjacencyGraph();
+        graph.add(0, 1);
+        graph.add(1, 2);
+        graph.add(5);
+        List<RecordedEvent> events = record(() -> {
+            graph.breadthFirstSearch(Vertex.of(0));
+            graph.isAcyclic();
+        });
+        assertEquals(2, events.size());
+        RecordedEvent bfs = events.get(0);
+        assertEquals("BREADTH_FIRST_SEARCH", bfs.getString("algorithm"));
+        assertEquals(4, bfs.getInt("graphSize"));
+        assertTrue(bfs.getBoolean("hasSource"));
+        assertEquals(0, bfs.getInt("source"));
+        assertEquals(3, bfs.getLong("visited"));
+        assertEquals(2, bfs.getLong("scanned"));
+        RecordedEvent check = events.get(1);
+        assertEquals("ACYCLICITY_CHECK", check.getString("algorithm"));
+        assertFalse(check.getBoolean("hasSource"));
+        assertEquals(4, check.getLong("visited"));
+    }
+
+    @Test
+    void residualIsRecorded() throws Exception {
+        Network network = Network.newAdjacency(Vertex.of(0), Vertex.of(2));
+        network.add(Vertex.of(0), Vertex.of(1), 2);
+        network.add(Vertex.of(1), Vertex.of(2), 1);
+        EdgeToNaturalFunction flow = new EdgeToNaturalFunction();
+        flow.add(Vertex.of(0), Vertex.of(1), 1);
+        flow.add(Vertex.of(1), Vertex.of(2), 1);
+        List<RecordedEvent> events = record(() -> network.residual(flow));
+        RecordedEvent residual = events.stream()
+            .filter(e -> "RESIDUAL".equals(e.getString("algorithm")))
+            .findFirst().orElseThrow();
+        assertEquals(3, residual.getInt("graphSize"));
+        assertEquals(0, residual.getInt("source"));
+        assertEquals(2, residual.getLong("visited"));
+    }
+
+    @Test
+    void bulkConstructionsAreRecorded() throws Exception {
+        List<RecordedEvent> events = record(
+                () -> GraphGenerator.grid(2, 3, 0).weightedGraph(1, 1));
+        assertEquals(2, events.size());
+        assertEquals("generate grid", events.get(0).getString("operation"));
+        assertEquals(6, events.get(0).getInt("graphSize"));
+        assertEquals(14, events.get(0).getLong("arcs"));
+        assertEquals("bulk load", events.get(1).getString("operation"));
+        assertEquals(14, events.get(1).getLong("arcs"));
+    }
+
+    @Test
+    void nothingIsRecordedWhenTheEventsAreDisabled() throws Exception {
+        Path file = Files.createTempFile("jraf", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.disable("dev.jraf.GraphQuery");
+            recording.start();
+            AdjacencyGraph graph = new AdjacencyGraph();
+            graph.add(0, 1);
+            graph.breadthFirstSearch(Vertex.of(0));
+            recording.stop();
+            recording.dump(file);
+            assertTrue(RecordingFile.readAllEvents(file).stream()
+                    .noneMatch(e -> e.getEventType().getName()
+                        .equals("dev.jraf.GraphQuery")));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
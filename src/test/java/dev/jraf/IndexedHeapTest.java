@@ -0,0 +1,52 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.NoSuchElementException;
+
+class IndexedHeapTest {
+
+    @Test
+    void pollReturnsIdsByIncreasingKey() {
+        IndexedHeap sut = new IndexedHeap(5);
+        sut.offer(0, 30);
+        sut.offer(1, 10);
+        sut.offer(2, 20);
+        sut.offer(3, 40);
+        assertEquals(1, sut.poll());
+        assertEquals(2, sut.poll());
+        assertEquals(0, sut.poll());
+        assertEquals(3, sut.poll());
+        assertTrue(sut.isEmpty());
+    }
+
+    @Test
+    void offerDecreasesKeyButNeverIncreasesIt() {
+        IndexedHeap sut = new IndexedHeap(3);
+        sut.offer(0, 10);
+        sut.offer(1, 20);
+        assertTrue(sut.offer(1, 5));
+        assertFalse(sut.offer(0, 50));
+        assertEquals(5, sut.peekKey());
+        assertEquals(1, sut.poll());
+        assertEquals(10, sut.keyOf(0));
+    }
+
+    @Test
+    void clearRemovesEveryId() {
+        IndexedHeap sut = new IndexedHeap(3);
+        sut.offer(0, 1);
+        sut.offer(2, 2);
+        sut.clear();
+        assertTrue(sut.isEmpty());
+        assertFalse(sut.contains(2));
+    }
+
+    @Test
+    void pollOfEmptyHeapThrowsNSEEWithMessage() {
+        IndexedHeap sut = new IndexedHeap(1);
+        Exception e = assertThrows(NoSuchElementException.class,
+                () -> sut.poll());
+        assertEquals("heap is empty", e.getMessage());
+    }
+}
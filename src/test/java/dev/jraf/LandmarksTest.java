@@ -0,0 +1,109 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.NoSuchElementException;
+import java.util.function.IntToLongFunction;
+
+class LandmarksTest {
+
+    @Test
+    void landmarksRoutesHaveTheLengthOfDijkstraRoutes() {
+        WeightedGraph sut = GraphGenerator.erdosRenyi(1000, 6000, 3)
+            .weightedGraph(1, 20);
+        Landmarks landmarks = sut.landmarks(8);
+        for (int label = 1; label < 1000; label += 53) {
+            Vertex to = Vertex.of(label);
+            Route dijkstra = sut.shortestRoute(Vertex.of(0), to);
+            Route alt = sut.shortestRoute(Vertex.of(0), to,
+                    landmarks.heuristic(to));
+            assertEquals(dijkstra.length(), alt.length());
+            assertTrue(alt.settledCount() <= dijkstra.settledCount());
+        }
+    }
+
+    @Test
+    void landmarksOfGridSettleTenTimesFewerVertices() {
+        int side = 100;
+        WeightedGraph sut = GraphGenerator.grid(side, side, 0)
+            .weightedGraph(1, 1);
+        Vertex from = Vertex.of(side / 2 * side);
+        Vertex to = Vertex.of(side / 2 * side + side - 1);
+        Landmarks landmarks = sut.landmarks(4);
+        Route dijkstra = sut.shortestRoute(from, to);
+        Route alt = sut.shortestRoute(from, to, landmarks.heuristic(to));
+        assertEquals(dijkstra.length(), alt.length());
+        assertTrue(alt.settledCount() * 10 <= dijkstra.settledCount());
+    }
+
+    @Test
+    void heuristicNeverOverestimates() {
+        WeightedGraph sut = GraphGenerator.erdosRenyi(300, 1500, 5)
+            .weightedGraph(1, 9);
+        Landmarks landmarks = sut.landmarks(4);
+        Vertex to = Vertex.of(17);
+        IntToLongFunction heuristic = landmarks.heuristic(to);
+        for (int label = 0; label < 300; label++) {
+            Route route = sut.shortestRoute(Vertex.of(label), to);
+            if (route.exists())
+                assertTrue(heuristic.applyAsLong(label) <= route.length());
+        }
+    }
+
+    @Test
+    void landmarksAreSpreadAndDistinct() {
+        WeightedGraph sut = GraphGenerator.grid(20, 20, 0)
+            .weightedGraph(1, 1);
+        Landmarks landmarks = sut.landmarks(4);
+        assertEquals(4, landmarks.count());
+        assertEquals(4, landmarks.vertices().stream().distinct().count());
+    }
+
+    @Test
+    void countIsClampedToTheNumberOfVertices() {
+        WeightedGraph sut = WeightedGraph.newAdjacencyWeightedGraph();
+        sut.add(Vertex.of(0), Vertex.of(1), 2);
+        sut.add(Vertex.of(1), Vertex.of(0), 3);
+        assertEquals(2, sut.landmarks(10).count());
+    }
+
+    @Test
+    void nonPositiveCountThrowsIAEWithMessage() {
+        WeightedGraph sut = WeightedGraph.newAdjacencyWeightedGraph();
+        sut.add(Vertex.of(0), Vertex.of(1), 2);
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> sut.landmarks(0));
+        assertEquals("count must be positive", e.getMessage());
+    }
+
+    @Test
+    void heuristicOfNullVertexThrowsNPEWithMessage() {
+        WeightedGraph sut = WeightedGraph.newAdjacencyWeightedGraph();
+        sut.add(Vertex.of(0), Vertex.of(1), 2);
+        Landmarks landmarks = sut.landmarks(1);
+        Exception e = assertThrows(NullPointerException.class,
+                () -> landmarks.heuristic(null));
+        assertEquals("vertex must be non-null", e.getMessage());
+    }
+
+    @Test
+    void heuristicOfAbsentVertexThrowsNSEEWithMessage() {
+        WeightedGraph sut = WeightedGraph.newAdjacencyWeightedGraph();
+        sut.add(Vertex.of(0), Vertex.of(1), 2);
+        Landmarks landmarks = sut.landmarks(1);
+        Exception e = assertThrows(NoSuchElementException.class,
+                () -> landmarks.heuristic(Vertex.of(5)));
+        assertEquals("no such vertex", e.getMessage());
+    }
+
+    @Test
+    void heuristicOfAbsentLabelThrowsNSEEWithMessage() {
+        WeightedGraph sut = WeightedGraph.newAdjacencyWeightedGraph();
+        sut.add(Vertex.of(0), Vertex.of(1), 2);
+        IntToLongFunction heuristic = sut.landmarks(1)
+            .heuristic(Vertex.of(1));
+        Exception e = assertThrows(NoSuchElementException.class,
+                () -> heuristic.applyAsLong(5));
+        assertEquals("no such vertex", e.getMessage());
+    }
+}
@@ -0,0 +1,60 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.time.Duration;
+import java.util.Random;
+
+class MaxFlowTest {
+
+    @Test
+    void flowIsFeasibleAndAsLargeAsTheMinimumCostFlow() {
+        Random random = new Random(3);
+        CompactGraph[] graphs = {
+            CompactGraph.of(GraphGenerator.grid(12, 12, 1).graph()),
+            CompactGraph.of(GraphGenerator.erdosRenyi(200, 1500, 2).graph()),
+            CompactGraph.of(GraphGenerator.rmat(8, 8, 3).graph())
+        };
+        for (CompactGraph graph: graphs) {
+            int n = graph.size();
+            int[] offsets = graph.offsets();
+            int[] targets = graph.targets();
+            int[] capacity = new int[graph.arcCount()];
+            for (int i = 0; i < capacity.length; i++)
+                capacity[i] = random.nextInt(20);
+            int source = 0;
+            int sink = n - 1;
+            int[] sut = MaxFlow.solve(graph, source, sink, capacity);
+            long[] excess = new long[n];
+            for (int u = 0; u < n; u++) {
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    assertTrue(sut[i] >= 0 && sut[i] <= capacity[i]);
+                    excess[u] -= sut[i];
+                    excess[targets[i]] += sut[i];
+                }
+            }
+            for (int u = 0; u < n; u++) {
+                if (u != source && u != sink)
+                    assertEquals(0, excess[u]);
+            }
+            MinCostFlow expected = MinCostFlow.solve(graph, source, sink,
+                    capacity, new long[capacity.length]);
+            assertEquals(expected.value(), excess[sink]);
+        }
+    }
+
+    @Test
+    void flowIsFoundInFewPhasesWhateverTheCapacities() {
+        // the zero cost augmenting paths can alternate over the middle arc,
+        // one unit at a time, where the shortest paths never use it
+        Network network = Network.newAdjacency(Vertex.of(0), Vertex.of(3));
+        network.add(Vertex.of(0), Vertex.of(1), Integer.MAX_VALUE / 2);
+        network.add(Vertex.of(0), Vertex.of(2), Integer.MAX_VALUE / 2);
+        network.add(Vertex.of(1), Vertex.of(2), 1);
+        network.add(Vertex.of(1), Vertex.of(3), Integer.MAX_VALUE / 2);
+        network.add(Vertex.of(2), Vertex.of(3), Integer.MAX_VALUE / 2);
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertEquals(2L * (Integer.MAX_VALUE / 2),
+                    network.minCut().capacity()));
+    }
+}
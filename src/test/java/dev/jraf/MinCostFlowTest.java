@@ -0,0 +1,103 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinCostFlowTest {
+
+    @Test
+    void flowOfNetworkWithoutEdgesIsEmpty() {
+        Network sut = Network.newAdjacency(Vertex.of(0), Vertex.of(1));
+        MinCostFlow flow = sut.minCostMaxFlow();
+        assertEquals(0, flow.value());
+        assertEquals(0, flow.cost());
+    }
+
+    @Test
+    void cheapestRoutesAreChosenAmongMaximumFlows() {
+        Vertex s = Vertex.of(0);
+        Vertex a = Vertex.of(1);
+        Vertex b = Vertex.of(2);
+        Vertex t = Vertex.of(3);
+        Network sut = Network.newAdjacency(s, t);
+        sut.add(s, a, 2, 1);
+        sut.add(s, b, 2, 1);
+        sut.add(a, t, 1, 10);
+        sut.add(a, b, 2, 1);
+        sut.add(b, t, 2, 1);
+        MinCostFlow flow = sut.minCostMaxFlow();
+        assertEquals(3, flow.value());
+        assertEquals(15, flow.cost());
+        assertEquals(1, flow.flow().get(s, a));
+        assertEquals(2, flow.flow().get(s, b));
+        assertEquals(0, flow.flow().get(a, b));
+        assertEquals(1, flow.flow().get(a, t));
+        assertEquals(2, flow.flow().get(b, t));
+    }
+
+    @Test
+    void augmentingPathsCanCancelFlow() {
+        // the first shortest path s, a, b, t must be partially undone
+        Vertex s = Vertex.of(0);
+        Vertex a = Vertex.of(1);
+        Vertex b = Vertex.of(2);
+        Vertex t = Vertex.of(3);
+        Network sut = Network.newAdjacency(s, t);
+        sut.add(s, a, 1, 1);
+        sut.add(s, b, 1, 5);
+        sut.add(a, b, 1, 1);
+        sut.add(a, t, 1, 5);
+        sut.add(b, t, 1, 1);
+        MinCostFlow flow = sut.minCostMaxFlow();
+        assertEquals(2, flow.value());
+        assertEquals(12, flow.cost());
+        assertEquals(0, flow.flow().get(a, b));
+    }
+
+    @Test
+    void negativeCostsAreSupported() {
+        Vertex s = Vertex.of(0);
+        Vertex a = Vertex.of(1);
+        Vertex t = Vertex.of(2);
+        Network sut = Network.newAdjacency(s, t);
+        sut.add(s, a, 1, -5);
+        sut.add(a, t, 1, 1);
+        sut.add(s, t, 1, 0);
+        MinCostFlow flow = sut.minCostMaxFlow();
+        assertEquals(2, flow.value());
+        assertEquals(-4, flow.cost());
+    }
+
+    @Test
+    void negativeCostCycleThrowsIAEWithMessage() {
+        Vertex s = Vertex.of(0);
+        Vertex t = Vertex.of(3);
+        Network sut = Network.newAdjacency(s, t);
+        sut.add(s, Vertex.of(1), 1, 0);
+        sut.add(Vertex.of(1), Vertex.of(2), 1, -1);
+        sut.add(Vertex.of(2), Vertex.of(1), 1, -1);
+        sut.add(Vertex.of(2), t, 1, 0);
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> sut.minCostMaxFlow());
+        assertEquals("network must not contain negative cost cycles",
+                e.getMessage());
+    }
+
+    @Test
+    void flowRespectsCapacitiesOfResidual() {
+        Vertex s = Vertex.of(0);
+        Vertex t = Vertex.of(4);
+        Network sut = Network.newAdjacency(s, t);
+        sut.add(s, Vertex.of(1), 7);
+        sut.add(s, Vertex.of(2), 3);
+        sut.add(Vertex.of(1), Vertex.of(3), 4);
+        sut.add(Vertex.of(1), Vertex.of(2), 1);
+        sut.add(Vertex.of(1), t, 8);
+        sut.add(Vertex.of(2), t, 9);
+        sut.add(Vertex.of(3), t, 2);
+        MinCostFlow flow = sut.minCostMaxFlow();
+        assertEquals(10, flow.value());
+        Network residual = sut.residual(flow.flow());
+        assertTrue(residual.neighborsOf(s).isEmpty());
+    }
+}
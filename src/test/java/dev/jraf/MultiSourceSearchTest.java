@@ -0,0 +1,112 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+class MultiSourceSearchTest {
+
+    /* Checks every distance against a single-source search. */
+    private static void assertSameAsSingleSearches(Graph graph,
+            List<Vertex> sources) {
+        MultiSourceSearch search = MultiSourceSearch.distances(graph, sources);
+        assertEquals(sources.size(), search.sourceCount());
+        TraversalWorkspace workspace = new TraversalWorkspace();
+        for (int s = 0; s < sources.size(); s++) {
+            int reached = graph.breadthFirstSearch(sources.get(s), workspace);
+            assertEquals(reached, search.reachedCount(s));
+            for (int i = 0; i < reached; i++) {
+                Vertex v = Vertex.of(workspace.labelAt(i));
+                assertEquals(workspace.depthAt(i), search.distance(s, v));
+            }
+            Map<Integer, Integer> parents =
+                graph.breadthFirstSearch(sources.get(s));
+            for (Vertex v: graph.vertices()) {
+                assertEquals(parents.containsKey(v.label()),
+                        search.reaches(s, v));
+                if (!parents.containsKey(v.label()))
+                    assertEquals(-1, search.distance(s, v));
+            }
+        }
+    }
+
+    @Test
+    void distancesMatchSingleSourceSearches() {
+        Graph graph = GraphGenerator.rmat(9, 3, 7).graph();
+        List<Vertex> sources = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            sources.add(Vertex.of(i * 5));
+        assertSameAsSingleSearches(graph, sources);
+    }
+
+    @Test
+    void sourcesBeyondOneBatchAreSearched() {
+        Graph graph = GraphGenerator.grid(25, 25, 0).graph();
+        List<Vertex> sources = new ArrayList<>();
+        for (int i = 0; i < MultiSourceSearch.BATCH_SIZE + 70; i++)
+            sources.add(Vertex.of(i % 625));
+        assertSameAsSingleSearches(graph, sources);
+    }
+
+    @Test
+    void reachabilityFollowsArcDirection() {
+        Graph graph = new AdjacencyGraph();
+        graph.add(1, 2);
+        graph.add(2, 3);
+        graph.add(4, 2);
+        MultiSourceSearch search = MultiSourceSearch.reachability(graph,
+                List.of(Vertex.of(1), Vertex.of(3), Vertex.of(1)));
+        assertTrue(search.reaches(0, Vertex.of(3)));
+        assertFalse(search.reaches(0, Vertex.of(4)));
+        assertFalse(search.reaches(1, Vertex.of(2)));
+        assertEquals(3, search.reachedCount(0));
+        assertEquals(1, search.reachedCount(1));
+        assertEquals(3, search.reachedCount(2));
+    }
+
+    @Test
+    void noSourceGivesEmptySearch() {
+        MultiSourceSearch search = MultiSourceSearch.distances(
+                GraphGenerator.grid(2, 2, 0).graph(), List.of());
+        assertEquals(0, search.sourceCount());
+    }
+
+    @Test
+    void distanceOfReachabilitySearchThrowsIllegalStateExceptionWithMessage() {
+        MultiSourceSearch search = MultiSourceSearch.reachability(
+                GraphGenerator.grid(2, 2, 0).graph(), List.of(Vertex.of(0)));
+        Exception e = assertThrows(IllegalStateException.class,
+                () -> search.distance(0, Vertex.of(1)));
+        assertEquals("distances were not kept", e.getMessage());
+    }
+
+    @Test
+    void absentSourceThrowsIllegalArgumentExceptionWithMessage() {
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> MultiSourceSearch.reachability(
+                    GraphGenerator.grid(2, 2, 0).graph(),
+                    List.of(Vertex.of(9))));
+        assertEquals("sources must be present", e.getMessage());
+    }
+
+    @Test
+    void absentTargetThrowsNoSuchElementExceptionWithMessage() {
+        MultiSourceSearch search = MultiSourceSearch.reachability(
+                GraphGenerator.grid(2, 2, 0).graph(), List.of(Vertex.of(0)));
+        Exception e = assertThrows(NoSuchElementException.class,
+                () -> search.reaches(0, Vertex.of(9)));
+        assertEquals("no such vertex", e.getMessage());
+    }
+
+    @Test
+    void unknownSourceNumberThrowsIndexOutOfBoundsExceptionWithMessage() {
+        MultiSourceSearch search = MultiSourceSearch.reachability(
+                GraphGenerator.grid(2, 2, 0).graph(), List.of(Vertex.of(0)));
+        Exception e = assertThrows(IndexOutOfBoundsException.class,
+                () -> search.reachedCount(1));
+        assertEquals("no such source", e.getMessage());
+    }
+}
@@ -209,4 +209,48 @@ class NetworkTest {
         boolean correctCap = cap02 && cap01 && cap14 && cap24 && cap13 && cap34;
         assertTrue(contains0 && contains1 && containsOnlyThose && correctCap);
     }
+
+    @Test
+    void costOfEdgeAddedWithoutCostIs0() {
+        Network sut = Network.newAdjacency(Vertex.of(0), Vertex.of(1));
+        sut.add(Vertex.of(0), Vertex.of(1), 42);
+        assertEquals(0, sut.cost(Vertex.of(0), Vertex.of(1)));
+    }
+
+    @Test
+    void costOfEdgeAddedWithCostIsItsCost() {
+        Network sut = Network.newAdjacency(Vertex.of(0), Vertex.of(1));
+        sut.add(Vertex.of(0), Vertex.of(1), 42, -3);
+        assertEquals(42, sut.capacity(Vertex.of(0), Vertex.of(1)));
+        assertEquals(-3, sut.cost(Vertex.of(0), Vertex.of(1)));
+    }
+
+    @Test
+    void costOfAbsentEdgeThrowsNSEEWithMessage() {
+        Network sut = Network.newAdjacency(Vertex.of(0), Vertex.of(1));
+        Exception e = assertThrows(NoSuchElementException.class,
+                () -> sut.cost(Vertex.of(0), Vertex.of(1)));
+        assertEquals("no such edge", e.getMessage());
+    }
+
+    @Test
+    void removeVertexRemovesTheCapacitiesOfItsEdges() {
+        Network sut = Network.newAdjacency(Vertex.of(0), Vertex.of(1));
+        sut.add(Vertex.of(0), Vertex.of(2), 3, 1);
+        sut.add(Vertex.of(2), Vertex.of(1), 4);
+        sut.add(Vertex.of(0), Vertex.of(1), 1);
+        sut.remove(Vertex.of(2));
+        assertEquals(List.of(Vertex.of(1)), sut.neighborsOf(Vertex.of(0)));
+        assertEquals(1, sut.minCut().capacity());
+        sut.add(Vertex.of(0), Vertex.of(2), 6);
+        assertEquals(0, sut.cost(Vertex.of(0), Vertex.of(2)));
+    }
+
+    @Test
+    void removeSourceThrowsIAEWithMessage() {
+        Network sut = Network.newAdjacency(Vertex.of(0), Vertex.of(1));
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> sut.remove(Vertex.of(0)));
+        assertEquals("cannot remove source or sink", e.getMessage());
+    }
 }
@@ -0,0 +1,101 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+class PageRankTest {
+
+    private static final double EPSILON = 1e-6;
+
+    private static double sum(Map<Integer, Double> ranks) {
+        double sum = 0;
+        for (double rank: ranks.values())
+            sum += rank;
+        return sum;
+    }
+
+    @Test
+    void ranksOfCycleAreUniform() {
+        Graph graph = new AdjacencyGraph();
+        graph.add(0, 1);
+        graph.add(1, 2);
+        graph.add(2, 3);
+        graph.add(3, 0);
+        Map<Integer, Double> ranks = PageRank.compute(graph);
+        for (double rank: ranks.values())
+            assertEquals(0.25, rank, EPSILON);
+    }
+
+    @Test
+    void ranksWithDanglingVerticesSumTo1() {
+        Graph graph = new AdjacencyGraph();
+        graph.add(0, 1);
+        graph.add(0, 2);
+        graph.add(1, 2);
+        graph.add(3);
+        Map<Integer, Double> ranks = PageRank.compute(graph);
+        assertEquals(1, sum(ranks), EPSILON);
+        assertTrue(ranks.get(2) > ranks.get(1));
+        assertTrue(ranks.get(1) > ranks.get(0));
+        assertEquals(ranks.get(0), ranks.get(3), EPSILON);
+    }
+
+    @Test
+    void ranksOfTwoVerticesMatchClosedForm() {
+        // 0 -> 1, 1 dangling: r0 = 0.15 / 2 + 0.85 r1 / 2, r0 + r1 = 1
+        Graph graph = new AdjacencyGraph();
+        graph.add(0, 1);
+        Map<Integer, Double> ranks = PageRank.compute(graph);
+        double r0 = 0.15 / 2 + 0.85 / 2 * ranks.get(1);
+        assertEquals(r0, ranks.get(0), EPSILON);
+        assertEquals(1, sum(ranks), EPSILON);
+    }
+
+    @Test
+    void personalizedRanksFavorSeeds() {
+        Graph graph = new AdjacencyGraph();
+        graph.add(0, 1);
+        graph.add(1, 0);
+        graph.add(2, 3);
+        graph.add(3, 2);
+        Map<Integer, Double> ranks =
+            PageRank.personalized(graph, List.of(Vertex.of(0)));
+        assertEquals(1, sum(ranks), EPSILON);
+        assertEquals(0, ranks.get(2), EPSILON);
+        assertEquals(0, ranks.get(3), EPSILON);
+        assertTrue(ranks.get(0) > ranks.get(1));
+    }
+
+    @Test
+    void largeGraphIsComputedInParallelRanges() {
+        Graph graph = new AdjacencyGraph();
+        int n = 3 * VertexEngine.RANGE;
+        for (int i = 0; i < n; i++) {
+            graph.add(i, (i + 1) % n);
+            graph.add(i, (i * 31 + 7) % n);
+        }
+        Map<Integer, Double> ranks = PageRank.compute(graph);
+        assertEquals(n, ranks.size());
+        assertEquals(1, sum(ranks), EPSILON);
+    }
+
+    @Test
+    void personalizedWithAbsentSeedThrowsNSEEWithMessage() {
+        Graph graph = new AdjacencyGraph();
+        graph.add(0);
+        Exception e = assertThrows(NoSuchElementException.class,
+                () -> PageRank.personalized(graph, List.of(Vertex.of(1))));
+        assertEquals("no such vertex", e.getMessage());
+    }
+
+    @Test
+    void computeWithInvalidDampingThrowsIAEWithMessage() {
+        Graph graph = new AdjacencyGraph();
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> PageRank.compute(graph, 2, 1e-9, 10));
+        assertEquals("damping must be in [0, 1]", e.getMessage());
+    }
+}
@@ -0,0 +1,131 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+class QueryExecutorTest {
+
+    @Test
+    void searchesMatchTheSearchesOfTheGraph() {
+        Graph graph = GraphGenerator.erdosRenyi(500, 1500, 3).graph();
+        QueryExecutor sut = QueryExecutor.of(graph);
+        List<Vertex> sources = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            sources.add(Vertex.of(i * 7 % 500));
+        List<CompletableFuture<Map<Integer, Integer>>> results =
+            sut.breadthFirstSearches(sources);
+        assertEquals(sources.size(), results.size());
+        for (int i = 0; i < sources.size(); i++) {
+            assertEquals(graph.breadthFirstSearch(sources.get(i)).keySet(),
+                    results.get(i).join().keySet());
+        }
+    }
+
+    @Test
+    void pairsAreAnsweredInTheirOrder() throws Exception {
+        Graph graph = GraphGenerator.grid(20, 20, 0).graph();
+        List<Edge> pairs = new ArrayList<>();
+        for (int i = 0; i < 200; i++)
+            pairs.add(Edge.of(i, 399 - i));
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            QueryExecutor sut = QueryExecutor.of(graph, pool);
+            List<CompletableFuture<Boolean>> reachable =
+                sut.reachability(pairs);
+            List<CompletableFuture<List<Vertex>>> paths =
+                sut.shortestPaths(pairs);
+            for (int i = 0; i < pairs.size(); i++) {
+                Edge pair = pairs.get(i);
+                List<Vertex> expected = graph.shortestPath(pair.tail(),
+                        pair.head());
+                assertEquals(!expected.isEmpty(), reachable.get(i).get());
+                List<Vertex> path = paths.get(i).get();
+                assertEquals(expected.size(), path.size());
+                if (!path.isEmpty()) {
+                    assertEquals(pair.tail(), path.get(0));
+                    assertEquals(pair.head(), path.get(path.size() - 1));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void routesHaveTheLengthOfDijkstraRoutes() {
+        WeightedGraph graph = GraphGenerator.erdosRenyi(300, 1200, 5)
+            .weightedGraph(1, 30);
+        QueryExecutor sut = graph.queryExecutor(Runnable::run);
+        List<Edge> pairs = new ArrayList<>();
+        for (int i = 0; i < 50; i++)
+            pairs.add(Edge.of(i, 299 - i));
+        List<CompletableFuture<Route>> routes = sut.shortestRoutes(pairs);
+        for (int i = 0; i < pairs.size(); i++) {
+            Route expected = graph.shortestRoute(pairs.get(i).tail(),
+                    pairs.get(i).head());
+            assertEquals(expected.length(), routes.get(i).join().length());
+        }
+    }
+
+    @Test
+    void routesOfUnweightedGraphThrowISEWithMessage() {
+        QueryExecutor sut = QueryExecutor.of(new AdjacencyGraph());
+        Exception e = assertThrows(IllegalStateException.class,
+                () -> sut.shortestRoutes(List.of()));
+        assertEquals("graph must be weighted", e.getMessage());
+    }
+
+    @Test
+    void absentVertexThrowsIAEWithMessage() {
+        AdjacencyGraph graph = new AdjacencyGraph();
+        graph.add(1, 2);
+        QueryExecutor sut = QueryExecutor.of(graph, Runnable::run);
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> sut.reachability(List.of(Edge.of(1, 3))));
+        assertEquals("vertices must be present", e.getMessage());
+    }
+
+    @Test
+    void nullExecutorThrowsNPEWithMessage() {
+        Exception e = assertThrows(NullPointerException.class,
+                () -> QueryExecutor.of(new AdjacencyGraph(), null));
+        assertEquals("executor must be non-null", e.getMessage());
+    }
+
+    @Test
+    void rejectedChunksCompleteTheirFuturesExceptionally() {
+        Graph graph = GraphGenerator.grid(10, 10, 0).graph();
+        int[] accepted = {0};
+        QueryExecutor sut = QueryExecutor.of(graph, task -> {
+            if (accepted[0]++ > 0)
+                throw new RejectedExecutionException("shut down");
+            task.run();
+        });
+        List<Vertex> sources = new ArrayList<>();
+        for (int i = 0; i < 3 * QueryExecutor.CHUNK_SIZE; i++)
+            sources.add(Vertex.of(i));
+        List<CompletableFuture<Map<Integer, Integer>>> results =
+            sut.breadthFirstSearches(sources);
+        assertEquals(2, accepted[0]);
+        for (int i = 0; i < sources.size(); i++) {
+            CompletableFuture<Map<Integer, Integer>> result = results.get(i);
+            assertTrue(result.isDone());
+            if (i < QueryExecutor.CHUNK_SIZE) {
+                assertFalse(result.isCompletedExceptionally());
+            } else {
+                CompletionException e = assertThrows(
+                        CompletionException.class, result::join);
+                assertInstanceOf(RejectedExecutionException.class,
+                        e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static dev.jraf.GraphAssertions.assertSameArcs;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+class ReorderingTest {
+
+    /* A path on labels scattered by a multiplicative hash. */
+    private static Graph scatteredPath(int n) {
+        Graph graph = new AdjacencyGraph();
+        for (int i = 0; i + 1 < n; i++)
+            graph.add(i * 7919 % 10007, (i + 1) * 7919 % 10007);
+        return graph;
+    }
+
+    private static int bandwidth(Graph renumbered) {
+        int bandwidth = 0;
+        for (Vertex u: renumbered.vertices()) {
+            for (Vertex v: renumbered.neighborsOf(u)) {
+                bandwidth = Math.max(bandwidth,
+                        Math.abs(u.label() - v.label()));
+            }
+        }
+        return bandwidth;
+    }
+
+    @Test
+    void everyStrategyKeepsTheArcsInOriginalLabels() {
+        Graph graph = GraphGenerator.rmat(8, 4, 1).graph();
+        for (Reordering.Strategy strategy: Reordering.Strategy.values()) {
+            Reordering reordering = Reordering.of(graph, strategy);
+            assertSameArcs(graph, reordering.graph());
+        }
+    }
+
+    @Test
+    void positionsAndVerticesAreInverse() {
+        Graph graph = scatteredPath(50);
+        for (Reordering.Strategy strategy: Reordering.Strategy.values()) {
+            Reordering reordering = Reordering.of(graph, strategy);
+            assertEquals(50, reordering.size());
+            Set<Integer> positions = new HashSet<>();
+            for (Vertex v: graph.vertices()) {
+                int p = reordering.positionOf(v);
+                positions.add(p);
+                assertEquals(v, reordering.vertexAt(p));
+            }
+            assertEquals(50, positions.size());
+        }
+    }
+
+    @Test
+    void renumberedGraphIsLabeledByPosition() {
+        Graph graph = scatteredPath(20);
+        Reordering reordering = Reordering.of(graph,
+                Reordering.Strategy.BREADTH_FIRST);
+        Graph renumbered = reordering.renumbered();
+        for (Vertex u: graph.vertices()) {
+            Vertex pu = Vertex.of(reordering.positionOf(u));
+            for (Vertex v: graph.neighborsOf(u)) {
+                assertTrue(renumbered.neighborsOf(pu).contains(
+                            Vertex.of(reordering.positionOf(v))));
+            }
+        }
+    }
+
+    @Test
+    void degreeOrderPutsHubsFirst() {
+        Graph graph = new AdjacencyGraph();
+        graph.add(5, 1);
+        graph.add(9, 1);
+        graph.add(9, 2);
+        graph.add(9, 3);
+        graph.add(7, 1);
+        graph.add(7, 2);
+        Reordering reordering = Reordering.of(graph,
+                Reordering.Strategy.DEGREE);
+        assertEquals(Vertex.of(9), reordering.vertexAt(0));
+        assertEquals(Vertex.of(7), reordering.vertexAt(1));
+        assertEquals(Vertex.of(5), reordering.vertexAt(2));
+    }
+
+    @Test
+    void reverseCuthillMcKeeGivesPathBandwidthOne() {
+        Graph graph = scatteredPath(100);
+        assertEquals(1, bandwidth(Reordering.of(graph,
+                    Reordering.Strategy.REVERSE_CUTHILL_MCKEE).renumbered()));
+    }
+
+    @Test
+    void reverseCuthillMcKeeReducesGridBandwidth() {
+        Graph grid = GraphGenerator.grid(20, 20, 0).graph();
+        Graph shuffled = new AdjacencyGraph();
+        for (Vertex u: grid.vertices()) {
+            for (Vertex v: grid.neighborsOf(u))
+                shuffled.add(u.label() * 211 % 401, v.label() * 211 % 401);
+        }
+        int before = bandwidth(Reordering.of(shuffled,
+                    Reordering.Strategy.DEGREE).renumbered());
+        int after = bandwidth(Reordering.of(shuffled,
+                    Reordering.Strategy.REVERSE_CUTHILL_MCKEE).renumbered());
+        assertTrue(after <= 25, "bandwidth " + after);
+        assertTrue(after < before);
+    }
+
+    @Test
+    void breadthFirstSearchOnReorderedGraphReportsOriginalLabels() {
+        Graph graph = scatteredPath(30);
+        Vertex source = Vertex.of(0);
+        Reordering reordering = Reordering.of(graph,
+                Reordering.Strategy.GORDER);
+        assertEquals(graph.breadthFirstSearch(source),
+                reordering.graph().breadthFirstSearch(source));
+    }
+
+    @Test
+    void gorderPlacesSiblingsTogether() {
+        Graph graph = new AdjacencyGraph();
+        // 0 points to 10, 11, 12 and 1 points to 20, 21, 22
+        for (int i = 0; i < 3; i++) {
+            graph.add(0, 10 + i);
+            graph.add(1, 20 + i);
+        }
+        Reordering reordering = Reordering.of(graph,
+                Reordering.Strategy.GORDER);
+        List<Integer> first = List.of(10, 11, 12);
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int label: first) {
+            int p = reordering.positionOf(Vertex.of(label));
+            min = Math.min(min, p);
+            max = Math.max(max, p);
+        }
+        assertTrue(max - min <= 3);
+    }
+
+    @Test
+    void emptyGraphCanBeReordered() {
+        Graph empty = new AdjacencyGraph();
+        for (Reordering.Strategy strategy: Reordering.Strategy.values())
+            assertEquals(0, Reordering.of(empty, strategy).size());
+    }
+
+    @Test
+    void positionOfAbsentVertexThrowsNoSuchElementExceptionWithMessage() {
+        Reordering reordering = Reordering.of(scatteredPath(3),
+                Reordering.Strategy.DEGREE);
+        Exception e = assertThrows(NoSuchElementException.class,
+                () -> reordering.positionOf(Vertex.of(-1)));
+        assertEquals("no such vertex", e.getMessage());
+    }
+
+    @Test
+    void nullStrategyThrowsNullPointerExceptionWithMessage() {
+        Exception e = assertThrows(NullPointerException.class,
+                () -> Reordering.of(new AdjacencyGraph(), null));
+        assertEquals("strategy must be non-null", e.getMessage());
+    }
+}
@@ -0,0 +1,143 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+
+class SlidingWindowGraphTest {
+
+    @Test
+    void arcsExpireWithTheirBucket() {
+        SlidingWindowGraph sut = SlidingWindowGraph.of(100, 4);
+        sut.add(1, 2, 10);
+        sut.add(2, 3, 60);
+        assertEquals(Map.of(1, 1, 2, 1, 3, 2),
+                sut.breadthFirstSearch(Vertex.of(1)));
+        sut.advanceTo(99);
+        assertEquals(3, sut.breadthFirstSearch(Vertex.of(1)).size());
+        sut.advanceTo(100);
+        assertEquals(Set.of(Vertex.of(2), Vertex.of(3)),
+                new HashSet<>(sut.vertices()));
+        assertEquals(List.of(), sut.predecessorsOf(Vertex.of(2)));
+        sut.advanceTo(175);
+        assertEquals(List.of(), sut.vertices());
+    }
+
+    @Test
+    void arcAddedAgainLivesAsLongAsTheLaterAddition() {
+        SlidingWindowGraph sut = SlidingWindowGraph.of(100, 4);
+        sut.add(1, 2, 0);
+        sut.add(1, 2, 80);
+        sut.advanceTo(150);
+        assertEquals(List.of(Vertex.of(2)), sut.neighborsOf(Vertex.of(1)));
+        assertEquals(1, sut.degreeOf(Vertex.of(1)));
+        sut.advanceTo(200);
+        assertEquals(List.of(), sut.vertices());
+    }
+
+    @Test
+    void lateArcInTheWindowIsKeptAndOlderIsDropped() {
+        SlidingWindowGraph sut = SlidingWindowGraph.of(100, 4);
+        sut.advanceTo(130);
+        sut.add(1, 2, 60);
+        sut.add(3, 4, 40);
+        assertEquals(130, sut.now());
+        assertEquals(List.of(Vertex.of(1), Vertex.of(2)), sut.vertices());
+        sut.advanceTo(150);
+        assertEquals(List.of(), sut.vertices());
+    }
+
+    @Test
+    void randomStreamMatchesTheArcsOfTheWindow() {
+        int window = 1000;
+        SlidingWindowGraph sut = SlidingWindowGraph.of(window, 10);
+        Deque<long[]> events = new ArrayDeque<>();
+        Random random = new Random(13);
+        long time = 0;
+        for (int step = 0; step < 5000; step++) {
+            time += random.nextInt(5);
+            long[] event = {random.nextInt(30), random.nextInt(30), time};
+            events.add(event);
+            sut.add((int) event[0], (int) event[1], time);
+            if (step % 250 != 0)
+                continue;
+            // the arcs of the buckets that did not leave the window
+            long oldest = time / 100 - 9;
+            while (events.peek()[2] / 100 < oldest)
+                events.poll();
+            AdjacencyGraph expected = new AdjacencyGraph();
+            for (long[] e: events)
+                expected.add((int) e[0], (int) e[1]);
+            assertEquals(new HashSet<>(expected.vertices()),
+                    new HashSet<>(sut.vertices()));
+            for (Vertex v: expected.vertices()) {
+                assertEquals(new HashSet<>(expected.neighborsOf(v)),
+                        new HashSet<>(sut.neighborsOf(v)));
+                assertEquals(new HashSet<>(expected.predecessorsOf(v)),
+                        new HashSet<>(sut.predecessorsOf(v)));
+                assertEquals(expected.breadthFirstSearch(v).keySet(),
+                        sut.breadthFirstSearch(v).keySet());
+            }
+        }
+    }
+
+    @Test
+    void removedVertexLosesItsArcsAndItsIdIsGivenAgain() {
+        SlidingWindowGraph sut = SlidingWindowGraph.of(100, 4);
+        sut.add(1, 2, 0);
+        sut.add(2, 3, 0);
+        sut.remove(Vertex.of(2));
+        assertEquals(List.of(), sut.neighborsOf(Vertex.of(1)));
+        sut.add(4, 1, 5);
+        assertEquals(Set.of(Vertex.of(1), Vertex.of(3), Vertex.of(4)),
+                new HashSet<>(sut.vertices()));
+        assertEquals(List.of(Vertex.of(1)), sut.neighborsOf(Vertex.of(4)));
+        sut.remove(Vertex.of(4), Vertex.of(1));
+        assertTrue(sut.isAcyclic());
+        assertEquals(0, sut.degreeOf(Vertex.of(4)));
+    }
+
+    @Test
+    void versionCountsTheExpiries() {
+        SlidingWindowGraph sut = SlidingWindowGraph.of(100, 4);
+        sut.add(1, 2, 0);
+        long version = sut.version();
+        sut.advanceTo(50);
+        assertEquals(version, sut.version());
+        sut.advanceTo(100);
+        assertTrue(sut.version() > version);
+    }
+
+    @Test
+    void neighborsOfExpiredVertexThrowsNSEEWithMessage() {
+        SlidingWindowGraph sut = SlidingWindowGraph.of(100, 4);
+        sut.add(1, 2, 0);
+        sut.advanceTo(1000);
+        Exception e = assertThrows(NoSuchElementException.class,
+                () -> sut.neighborsOf(Vertex.of(1)));
+        assertEquals("no such vertex", e.getMessage());
+    }
+
+    @Test
+    void windowNotMultipleOfBucketsThrowsIAEWithMessage() {
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> SlidingWindowGraph.of(100, 3));
+        assertEquals("window must be a positive multiple of buckets",
+                e.getMessage());
+    }
+
+    @Test
+    void negativeTimeThrowsIAEWithMessage() {
+        SlidingWindowGraph sut = SlidingWindowGraph.of(100, 4);
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> sut.add(1, 2, -1));
+        assertEquals("time must be non-negative", e.getMessage());
+    }
+}
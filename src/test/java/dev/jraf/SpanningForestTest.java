@@ -0,0 +1,77 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+class SpanningForestTest {
+
+    /* Returns a square 0 1 2 3 with a heavy diagonal and an isolated pair. */
+    private static WeightedGraph square() {
+        WeightedGraph sut = WeightedGraph.newAdjacencyWeightedGraph();
+        sut.add(Vertex.of(0), Vertex.of(1), 3);
+        sut.add(Vertex.of(2), Vertex.of(1), 1);
+        sut.add(Vertex.of(2), Vertex.of(3), 4);
+        sut.add(Vertex.of(3), Vertex.of(0), 2);
+        sut.add(Vertex.of(0), Vertex.of(2), 5);
+        sut.add(Vertex.of(5), Vertex.of(4), -7);
+        sut.add(Vertex.of(4), Vertex.of(4), -9);
+        return sut;
+    }
+
+    @Test
+    void minimumSpanningForestKeepsTheLightestArcsOfEveryComponent() {
+        SpanningForest forest = square().minimumSpanningForest();
+        assertEquals(List.of(Edge.of(5, 4), Edge.of(2, 1), Edge.of(3, 0),
+                    Edge.of(0, 1)), forest.edges());
+        assertEquals(-1, forest.weight());
+    }
+
+    @Test
+    void minimumSpanningForestIgnoresTheDirectionOfArcs() {
+        WeightedGraph sut = WeightedGraph.newAdjacencyWeightedGraph();
+        sut.add(Vertex.of(0), Vertex.of(1), 8);
+        sut.add(Vertex.of(1), Vertex.of(0), 2);
+        sut.add(Vertex.of(2), Vertex.of(0), 3);
+        SpanningForest forest = sut.minimumSpanningForest();
+        assertEquals(List.of(Edge.of(1, 0), Edge.of(2, 0)), forest.edges());
+        assertEquals(5, forest.weight());
+    }
+
+    @Test
+    void minimumSpanningForestOfEmptyGraphIsEmpty() {
+        SpanningForest forest = WeightedGraph.newAdjacencyWeightedGraph()
+            .minimumSpanningForest();
+        assertTrue(forest.edges().isEmpty());
+        assertEquals(0, forest.weight());
+    }
+
+    @Test
+    void minimumSpanningForestSeesWeightUpdates() {
+        WeightedGraph sut = square();
+        sut.minimumSpanningForest();
+        sut.add(Vertex.of(0), Vertex.of(2), 0);
+        assertEquals(-4, sut.minimumSpanningForest().weight());
+    }
+
+    @Test
+    void boruvkaFindsTheForestOfKruskal() {
+        Random random = new Random(5);
+        CompactGraph graph = CompactGraph.of(GraphGenerator
+                .erdosRenyi(2000, 5000, 3).graph());
+        int[] weights = new int[graph.arcCount()];
+        for (int i = 0; i < weights.length; i++)
+            weights[i] = random.nextInt(50) - 10;
+        int[] tails = new int[graph.arcCount()];
+        int[] offsets = graph.offsets();
+        for (int u = 0; u < graph.size(); u++)
+            Arrays.fill(tails, offsets[u], offsets[u + 1], u);
+        long[] kruskal = SpanningForest.kruskal(graph, tails, weights);
+        long[] boruvka = SpanningForest.boruvka(graph, tails, weights);
+        assertArrayEquals(kruskal, boruvka);
+        int components = graph.size() - kruskal.length;
+        assertEquals(Components.weakOf(graph).count(), components);
+    }
+}
@@ -0,0 +1,201 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+
+class TraversalListenerTest {
+
+    private static AdjacencyGraph path(int n) {
+        AdjacencyGraph graph = new AdjacencyGraph();
+        for (int i = 0; i + 1 < n; i++)
+            graph.add(i, i + 1);
+        return graph;
+    }
+
+    @Test
+    void noneIsDisabled() {
+        assertFalse(TraversalListener.none().enabled());
+    }
+
+    @Test
+    void lambdaListenerIsEnabled() {
+        TraversalListener listener = summary -> { };
+        assertTrue(listener.enabled());
+    }
+
+    @Test
+    void unobservedRunsShareARecorderThatRecordsNothing() {
+        TraversalRecorder first = TraversalRecorder.start(
+                TraversalListener.none(),
+                TraversalSummary.Algorithm.BREADTH_FIRST_SEARCH);
+        assertSame(first, TraversalRecorder.start(TraversalListener.none(),
+                    TraversalSummary.Algorithm.SHORTEST_PATH));
+        assertFalse(first.recording());
+        assertEquals(0, first.clock());
+        first.complete(1, 2, 3);
+        TraversalListener listener = summary -> { };
+        assertNotSame(TraversalRecorder.start(listener,
+                    TraversalSummary.Algorithm.BREADTH_FIRST_SEARCH),
+                TraversalRecorder.start(listener,
+                    TraversalSummary.Algorithm.BREADTH_FIRST_SEARCH));
+    }
+
+    @Test
+    void breadthFirstSearchReportsItsRun() {
+        AdjacencyGraph graph = new AdjacencyGraph();
+        graph.add(0, 1);
+        graph.add(0, 2);
+        graph.add(1, 2);
+        graph.add(3, 0);
+        List<TraversalSummary> runs = new ArrayList<>();
+        graph.setTraversalListener(runs::add);
+        graph.breadthFirstSearch(Vertex.of(0));
+        assertEquals(1, runs.size());
+        TraversalSummary run = runs.get(0);
+        assertEquals(TraversalSummary.Algorithm.BREADTH_FIRST_SEARCH,
+                run.algorithm());
+        assertEquals(3, run.verticesVisited());
+        assertEquals(3, run.edgesScanned());
+        assertEquals(2, run.peakFrontier());
+        assertEquals(List.of("snapshot", "search"),
+                List.copyOf(run.phaseNanos().keySet()));
+        assertTrue(run.elapsedNanos() >= run.phaseNanos().get("search"));
+    }
+
+    @Test
+    void unchangedGraphIsNotCopiedAgain() {
+        AdjacencyGraph graph = path(4);
+        List<TraversalSummary> runs = new ArrayList<>();
+        graph.setTraversalListener(runs::add);
+        graph.breadthFirstSearch(Vertex.of(0));
+        graph.isAcyclic();
+        graph.add(0, 1);
+        graph.breadthFirstSearch(Vertex.of(0));
+        graph.add(3, 0);
+        graph.breadthFirstSearch(Vertex.of(0));
+        assertTrue(runs.get(0).phaseNanos().containsKey("snapshot"));
+        assertFalse(runs.get(1).phaseNanos().containsKey("snapshot"));
+        assertFalse(runs.get(2).phaseNanos().containsKey("snapshot"));
+        assertTrue(runs.get(3).phaseNanos().containsKey("snapshot"));
+        assertEquals(4, runs.get(3).edgesScanned());
+    }
+
+    @Test
+    void acyclicityCheckReportsItsPhases() {
+        AdjacencyGraph graph = path(5);
+        List<TraversalSummary> runs = new ArrayList<>();
+        graph.setTraversalListener(runs::add);
+        assertTrue(graph.isAcyclic());
+        graph.add(4, 0);
+        assertFalse(graph.isAcyclic());
+        assertEquals(2, runs.size());
+        for (TraversalSummary run: runs) {
+            assertEquals(TraversalSummary.Algorithm.ACYCLICITY_CHECK,
+                    run.algorithm());
+            assertTrue(run.phaseNanos().containsKey("snapshot"));
+            assertTrue(run.phaseNanos().containsKey("sort"));
+        }
+        assertEquals(5, runs.get(0).verticesVisited());
+        assertEquals(4, runs.get(0).edgesScanned());
+        // no vertex of a cycle without entry is ever free of predecessors
+        assertEquals(0, runs.get(1).verticesVisited());
+    }
+
+    @Test
+    void listenerCanBeRemoved() {
+        AdjacencyGraph graph = path(3);
+        List<TraversalSummary> runs = new ArrayList<>();
+        graph.setTraversalListener(runs::add);
+        graph.setTraversalListener(TraversalListener.none());
+        graph.breadthFirstSearch(Vertex.of(0));
+        assertTrue(runs.isEmpty());
+    }
+
+    @Test
+    void disabledListenerIsNotNotified() {
+        AdjacencyGraph graph = path(3);
+        List<TraversalSummary> runs = new ArrayList<>();
+        graph.setTraversalListener(new TraversalListener() {
+            @Override public boolean enabled() {
+                return false;
+            }
+
+            @Override public void onCompleted(TraversalSummary summary) {
+                runs.add(summary);
+            }
+        });
+        graph.isAcyclic();
+        assertTrue(runs.isEmpty());
+    }
+
+    @Test
+    void setNullListenerThrowsNullPointerExceptionWithMessage() {
+        AdjacencyGraph graph = new AdjacencyGraph();
+        Exception e = assertThrows(NullPointerException.class,
+                () -> graph.setTraversalListener(null));
+        assertEquals("listener must be non-null", e.getMessage());
+    }
+
+    @Test
+    void networkReportsResidualMinCutAndSearch() {
+        Network network = Network.newAdjacency(Vertex.of(0), Vertex.of(3));
+        network.add(Vertex.of(0), Vertex.of(1), 2);
+        network.add(Vertex.of(0), Vertex.of(2), 1);
+        network.add(Vertex.of(1), Vertex.of(3), 1);
+        network.add(Vertex.of(2), Vertex.of(3), 2);
+        List<TraversalSummary> runs = new ArrayList<>();
+        network.setTraversalListener(runs::add);
+        EdgeToNaturalFunction flow = network.minCostMaxFlow().flow();
+        network.residual(flow);
+        network.minCut(flow);
+        network.breadthFirstSearch(Vertex.of(0));
+        assertEquals(3, runs.size());
+        assertEquals(TraversalSummary.Algorithm.RESIDUAL,
+                runs.get(0).algorithm());
+        assertEquals(3, runs.get(0).edgesScanned());
+        TraversalSummary cut = runs.get(1);
+        assertEquals(TraversalSummary.Algorithm.MIN_CUT, cut.algorithm());
+        assertEquals(List.of("snapshot", "search"),
+                List.copyOf(cut.phaseNanos().keySet()));
+        assertEquals(2, cut.verticesVisited());
+        assertEquals(TraversalSummary.Algorithm.BREADTH_FIRST_SEARCH,
+                runs.get(2).algorithm());
+        assertEquals(4, runs.get(2).verticesVisited());
+    }
+
+    @Test
+    void failedRunIsNotReported() {
+        Network network = Network.newAdjacency(Vertex.of(0), Vertex.of(1));
+        network.add(Vertex.of(0), Vertex.of(1), 1);
+        List<TraversalSummary> runs = new ArrayList<>();
+        network.setTraversalListener(runs::add);
+        assertThrows(IllegalArgumentException.class,
+                () -> network.minCut(new EdgeToNaturalFunction()));
+        assertTrue(runs.isEmpty());
+    }
+
+    @Test
+    void shortestPathScansFarFewerArcsThanBreadthFirstSearch() {
+        AdjacencyGraph graph = AdjacencyGraph.of(CompactGraph.of(
+                    GraphGenerator.barabasiAlbert(20000, 4, 3).graph()));
+        List<TraversalSummary> runs = new ArrayList<>();
+        graph.setTraversalListener(runs::add);
+        long searched = 0;
+        long bidirectional = 0;
+        for (int i = 1; i <= 10; i++) {
+            Vertex from = Vertex.of(i * 997);
+            graph.breadthFirstSearch(from);
+            searched += runs.get(runs.size() - 1).edgesScanned();
+            assertFalse(graph.shortestPath(from, Vertex.of(i * 1931))
+                    .isEmpty());
+            TraversalSummary run = runs.get(runs.size() - 1);
+            assertEquals(TraversalSummary.Algorithm.SHORTEST_PATH,
+                    run.algorithm());
+            bidirectional += run.edgesScanned();
+        }
+        assertTrue(bidirectional * 100 < searched,
+                bidirectional + " arcs scanned against " + searched);
+    }
+}
@@ -0,0 +1,138 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+class TraversalWorkspaceTest {
+
+    /* The parents association held by the workspace after a search. */
+    private static Map<Integer, Integer> parents(TraversalWorkspace workspace) {
+        Map<Integer, Integer> parents = new HashMap<>();
+        for (int i = 0; i < workspace.reached(); i++)
+            parents.put(workspace.labelAt(i), workspace.parentLabelAt(i));
+        return parents;
+    }
+
+    @Test
+    void searchMatchesTheMapSearchOfEveryGraph() {
+        Graph graph = GraphGenerator.rmat(8, 4, 3).graph();
+        Graph[] graphs = {
+            graph,
+            AdjacencyGraph.of(CompactGraph.of(graph)),
+            CompressedGraph.of(graph),
+            Reordering.of(graph, Reordering.Strategy.DEGREE).graph()
+        };
+        Vertex source = graph.vertices().get(0);
+        try (TraversalWorkspace workspace = TraversalWorkspace.borrow()) {
+            for (Graph g: graphs) {
+                int reached = g.breadthFirstSearch(source, workspace);
+                assertEquals(g.breadthFirstSearch(source), parents(workspace));
+                assertEquals(reached, workspace.reached());
+            }
+        }
+    }
+
+    @Test
+    void depthsAreDistancesFromTheSource() {
+        AdjacencyGraph graph = new AdjacencyGraph();
+        graph.add(10, 20);
+        graph.add(10, 30);
+        graph.add(20, 40);
+        graph.add(30, 40);
+        graph.add(40, 50);
+        graph.add(60, 10);
+        TraversalWorkspace workspace = new TraversalWorkspace();
+        assertEquals(5, graph.breadthFirstSearch(Vertex.of(10), workspace));
+        Map<Integer, Integer> depths = new HashMap<>();
+        for (int i = 0; i < workspace.reached(); i++)
+            depths.put(workspace.labelAt(i), workspace.depthAt(i));
+        assertEquals(Map.of(10, 0, 20, 1, 30, 1, 40, 2, 50, 3), depths);
+        assertEquals(10, workspace.labelAt(0));
+        assertEquals(50, workspace.labelAt(4));
+    }
+
+    @Test
+    void workspaceIsResetBetweenSearchesOfDifferentGraphs() {
+        Graph large = GraphGenerator.grid(20, 20, 0).graph();
+        Graph small = DirectedAcyclicGraph.newDirectedAcyclicGraph();
+        small.add(0, 1);
+        small.add(2, 3);
+        TraversalWorkspace workspace = new TraversalWorkspace();
+        assertEquals(400, large.breadthFirstSearch(Vertex.of(0), workspace));
+        assertEquals(2, small.breadthFirstSearch(Vertex.of(0), workspace));
+        assertEquals(Map.of(0, 0, 1, 0), parents(workspace));
+        assertEquals(400, large.breadthFirstSearch(Vertex.of(399), workspace));
+    }
+
+    @Test
+    void treeSearchesTheSubtreeOfTheSource() {
+        Tree tree = new Tree(Map.of(0, 0, 1, 0, 2, 0, 3, 1, 4, 3));
+        TraversalWorkspace workspace = new TraversalWorkspace();
+        assertEquals(3, tree.breadthFirstSearch(Vertex.of(1), workspace));
+        assertEquals(Map.of(1, 1, 3, 1, 4, 3), parents(workspace));
+        assertEquals(2, workspace.depthAt(2));
+    }
+
+    @Test
+    void borrowReturnsThePooledWorkspaceOnceClosed() {
+        TraversalWorkspace first = TraversalWorkspace.borrow();
+        TraversalWorkspace nested = TraversalWorkspace.borrow();
+        assertNotSame(first, nested);
+        nested.close();
+        first.close();
+        try (TraversalWorkspace again = TraversalWorkspace.borrow()) {
+            assertSame(first, again);
+        }
+    }
+
+    @Test
+    void closedWorkspaceHasNoReachedVertex() {
+        Graph graph = GraphGenerator.grid(3, 3, 0).graph();
+        TraversalWorkspace workspace = TraversalWorkspace.borrow();
+        graph.breadthFirstSearch(Vertex.of(0), workspace);
+        workspace.close();
+        assertEquals(0, workspace.reached());
+        Exception e = assertThrows(IndexOutOfBoundsException.class,
+                () -> workspace.labelAt(0));
+        assertEquals("no such reached vertex", e.getMessage());
+    }
+
+    @Test
+    void repeatedSearchesAllocateNoMemory() {
+        ThreadMXBean threads =
+            (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Graph graph = GraphGenerator.rmat(12, 8, 1).graph();
+        Vertex source = Vertex.of(0);
+        long thread = Thread.currentThread().getId();
+        try (TraversalWorkspace workspace = TraversalWorkspace.borrow()) {
+            graph.breadthFirstSearch(source, workspace);
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < 100; i++)
+                graph.breadthFirstSearch(source, workspace);
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            assertTrue(allocated < 1024, allocated + " bytes allocated");
+        }
+    }
+
+    @Test
+    void nullWorkspaceThrowsNullPointerExceptionWithMessage() {
+        Graph graph = new AdjacencyGraph();
+        graph.add(0);
+        Exception e = assertThrows(NullPointerException.class,
+                () -> graph.breadthFirstSearch(Vertex.of(0), null));
+        assertEquals("workspace must be non-null", e.getMessage());
+    }
+
+    @Test
+    void absentSourceThrowsIllegalArgumentExceptionWithMessage() {
+        Graph graph = GraphGenerator.grid(2, 2, 0).graph();
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> graph.breadthFirstSearch(Vertex.of(4),
+                    new TraversalWorkspace()));
+        assertEquals("vertex must be present", e.getMessage());
+    }
+}
@@ -2,13 +2,269 @@ package dev.jraf;
 
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.NoSuchElementException;
 
 class TreeTest {
 
+    /*
+     *         1
+     *       /   \
+     *      2     3
+     *     / \     \
+     *    4   5     6
+     *        |
+     *        7
+     */
+    private static Tree someTree() {
+        Map<Integer, Integer> parents = new HashMap<>();
+        parents.put(1, 1);
+        parents.put(2, 1);
+        parents.put(3, 1);
+        parents.put(4, 2);
+        parents.put(5, 2);
+        parents.put(6, 3);
+        parents.put(7, 5);
+        return Tree.of(parents);
+    }
+
     @Test
     void treeFromNullMapThrowsNPEWithMessage() {
         Exception e = assertThrows(NullPointerException.class,
                 () -> new Tree(null));
         assertEquals("parents map must be non-null", e.getMessage());
     }
+
+    @Test
+    void treeFromMapWithoutRootThrowsIAEWithMessage() {
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> new Tree(Map.of(1, 2, 2, 1)));
+        assertEquals("parents map must have exactly one root",
+                e.getMessage());
+    }
+
+    @Test
+    void treeFromMapWithCycleThrowsIAEWithMessage() {
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> new Tree(Map.of(0, 0, 1, 2, 2, 1)));
+        assertEquals("parents map must not contain cycles", e.getMessage());
+    }
+
+    @Test
+    void treeFromMapWithAbsentParentThrowsIAEWithMessage() {
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> new Tree(Map.of(0, 0, 1, 2)));
+        assertEquals("parent must be present", e.getMessage());
+    }
+
+    @Test
+    void treeFromBfsHasRootAndChildren() {
+        Graph graph = new AdjacencyGraph();
+        graph.add(5, 6);
+        graph.add(5, 7);
+        graph.add(6, 7);
+        Tree sut = Tree.of(graph.breadthFirstSearch(Vertex.of(5)));
+        assertEquals(Vertex.of(5), sut.root());
+        assertEquals(3, sut.vertices().size());
+        assertEquals(2, sut.neighborsOf(Vertex.of(5)).size());
+        assertTrue(sut.neighborsOf(Vertex.of(6)).isEmpty());
+        assertTrue(sut.isAcyclic());
+    }
+
+    @Test
+    void depthAndParentAreCorrect() {
+        Tree sut = someTree();
+        assertEquals(0, sut.depth(Vertex.of(1)));
+        assertEquals(2, sut.depth(Vertex.of(6)));
+        assertEquals(3, sut.depth(Vertex.of(7)));
+        assertEquals(Vertex.of(5), sut.parentOf(Vertex.of(7)));
+        assertEquals(Vertex.of(1), sut.parentOf(Vertex.of(1)));
+    }
+
+    @Test
+    void lowestCommonAncestorIsCorrect() {
+        Tree sut = someTree();
+        assertEquals(Vertex.of(2),
+                sut.lowestCommonAncestor(Vertex.of(4), Vertex.of(7)));
+        assertEquals(Vertex.of(1),
+                sut.lowestCommonAncestor(Vertex.of(7), Vertex.of(6)));
+        assertEquals(Vertex.of(5),
+                sut.lowestCommonAncestor(Vertex.of(5), Vertex.of(7)));
+        assertEquals(Vertex.of(3),
+                sut.lowestCommonAncestor(Vertex.of(3), Vertex.of(3)));
+    }
+
+    @Test
+    void pathBetweenGoesThroughLowestCommonAncestor() {
+        Tree sut = someTree();
+        assertEquals(List.of(Vertex.of(7), Vertex.of(5), Vertex.of(2),
+                        Vertex.of(1), Vertex.of(3), Vertex.of(6)),
+                sut.pathBetween(Vertex.of(7), Vertex.of(6)));
+        assertEquals(List.of(Vertex.of(1), Vertex.of(2), Vertex.of(5)),
+                sut.pathBetween(Vertex.of(1), Vertex.of(5)));
+        assertEquals(List.of(Vertex.of(4)),
+                sut.pathBetween(Vertex.of(4), Vertex.of(4)));
+    }
+
+    @Test
+    void subtreeSizeAndAncestryAreCorrect() {
+        Tree sut = someTree();
+        assertEquals(7, sut.subtreeSize(Vertex.of(1)));
+        assertEquals(4, sut.subtreeSize(Vertex.of(2)));
+        assertEquals(1, sut.subtreeSize(Vertex.of(7)));
+        assertTrue(sut.isAncestor(Vertex.of(2), Vertex.of(7)));
+        assertFalse(sut.isAncestor(Vertex.of(3), Vertex.of(7)));
+    }
+
+    @Test
+    void addLeafUpdatesQueries() {
+        Tree sut = someTree();
+        assertEquals(2, sut.subtreeSize(Vertex.of(3)));
+        sut.add(6, 8);
+        assertEquals(3, sut.depth(Vertex.of(8)));
+        assertEquals(3, sut.subtreeSize(Vertex.of(3)));
+        assertEquals(Vertex.of(1),
+                sut.lowestCommonAncestor(Vertex.of(8), Vertex.of(7)));
+        assertTrue(sut.neighborsOf(Vertex.of(6)).contains(Vertex.of(8)));
+    }
+
+    @Test
+    void addEdgeToRootThrowsIAEWithMessage() {
+        Tree sut = someTree();
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> sut.add(7, 1));
+        assertEquals("root cannot have ingoing edges", e.getMessage());
+    }
+
+    @Test
+    void addEdgeToAncestorThrowsIAEWithMessage() {
+        Tree sut = someTree();
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> sut.add(7, 2));
+        assertEquals("cannot form cycle", e.getMessage());
+    }
+
+    @Test
+    void addEdgeToVertexWithParentThrowsIAEWithMessage() {
+        Tree sut = someTree();
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> sut.add(6, 4));
+        assertEquals("head already has a parent", e.getMessage());
+    }
+
+    @Test
+    void removeEdgeThrowsUOEWithMessage() {
+        Tree sut = someTree();
+        Exception e = assertThrows(UnsupportedOperationException.class,
+                () -> sut.remove(Vertex.of(1), Vertex.of(2)));
+        assertEquals("cannot disconnect tree", e.getMessage());
+        assertTrue(sut.neighborsOf(Vertex.of(1)).contains(Vertex.of(2)));
+    }
+
+    @Test
+    void addEdgeFromAbsentTailThrowsIAEWithMessage() {
+        Tree sut = someTree();
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> sut.add(42, 43));
+        assertEquals("tail must be present", e.getMessage());
+    }
+
+    @Test
+    void addPresentEdgeHasNoEffect() {
+        Tree sut = someTree();
+        sut.add(5, 7);
+        assertEquals(7, sut.vertices().size());
+    }
+
+    @Test
+    void depthOfAbsentVertexThrowsNSEEWithMessage() {
+        Tree sut = someTree();
+        Exception e = assertThrows(NoSuchElementException.class,
+                () -> sut.depth(Vertex.of(42)));
+        assertEquals("no such vertex", e.getMessage());
+    }
+
+    @Test
+    void bfsOfSubtreeReturnsParentsInSubtree() {
+        Tree sut = someTree();
+        Map<Integer, Integer> parents = sut.breadthFirstSearch(Vertex.of(2));
+        assertEquals(Map.of(2, 2, 4, 2, 5, 2, 7, 5), parents);
+    }
+
+    @Test
+    void deepTreeAnswersQueries() {
+        Map<Integer, Integer> parents = new HashMap<>();
+        int n = 100000;
+        parents.put(0, 0);
+        for (int i = 1; i < n; i++)
+            parents.put(i, i - 1);
+        Tree sut = Tree.of(parents);
+        assertEquals(n - 1, sut.depth(Vertex.of(n - 1)));
+        assertEquals(Vertex.of(500),
+                sut.lowestCommonAncestor(Vertex.of(500), Vertex.of(n - 1)));
+        assertEquals(n / 2, sut.subtreeSize(Vertex.of(n / 2)));
+    }
+
+    @Test
+    void predecessorsOfVertexIsItsParent() {
+        Tree sut = someTree();
+        assertEquals(List.of(Vertex.of(5)), sut.predecessorsOf(Vertex.of(7)));
+        assertEquals(List.of(), sut.predecessorsOf(Vertex.of(1)));
+    }
+
+    @Test
+    void shortestPathGoesDownFromAnAncestor() {
+        Tree sut = someTree();
+        List<Vertex> path = sut.shortestPath(Vertex.of(1), Vertex.of(7));
+        assertEquals(List.of(Vertex.of(1), Vertex.of(2), Vertex.of(5),
+                    Vertex.of(7)), path);
+        assertEquals(List.of(), sut.shortestPath(Vertex.of(7), Vertex.of(1)));
+        assertEquals(List.of(), sut.shortestPath(Vertex.of(4), Vertex.of(6)));
+    }
+
+    @Test
+    void removeVertexMovesItsChildrenToItsParent() {
+        Tree sut = Tree.of(Map.of(0, 0, 1, 0, 2, 1, 3, 1, 4, 3));
+        sut.remove(Vertex.of(1));
+        assertEquals(Vertex.of(0), sut.parentOf(Vertex.of(2)));
+        assertEquals(Vertex.of(0), sut.parentOf(Vertex.of(3)));
+        assertEquals(2, sut.depth(Vertex.of(4)));
+        assertEquals(4, sut.vertices().size());
+        assertEquals(Vertex.of(0), sut.lowestCommonAncestor(Vertex.of(2),
+                    Vertex.of(4)));
+        assertThrows(NoSuchElementException.class,
+                () -> sut.depth(Vertex.of(1)));
+    }
+
+    @Test
+    void removingMostVerticesKeepsTheTreeConsistent() {
+        Map<Integer, Integer> parents = new HashMap<>();
+        parents.put(0, 0);
+        for (int v = 1; v < 100; v++)
+            parents.put(v, (v - 1) / 2);
+        Tree sut = Tree.of(parents);
+        for (int v = 1; v < 100; v += 2)
+            sut.remove(Vertex.of(v));
+        sut.remove(Vertex.of(4));
+        sut.add(0, 100);
+        assertEquals(50, sut.vertices().size());
+        assertEquals(Vertex.of(0), sut.parentOf(Vertex.of(10)));
+        assertEquals(Vertex.of(0), sut.parentOf(Vertex.of(100)));
+        assertEquals(Vertex.of(2), sut.parentOf(Vertex.of(6)));
+        assertEquals(Vertex.of(0), sut.parentOf(Vertex.of(8)));
+        assertEquals(2, sut.depth(Vertex.of(6)));
+        assertEquals(50, sut.subtreeSize(Vertex.of(0)));
+        assertTrue(sut.isAncestor(Vertex.of(2), Vertex.of(98)));
+        assertEquals(50, sut.breadthFirstSearch(Vertex.of(0)).size());
+    }
+
+    @Test
+    void removeRootThrowsIAEWithMessage() {
+        Tree sut = Tree.of(Map.of(0, 0, 1, 0));
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> sut.remove(Vertex.of(0)));
+        assertEquals("cannot remove root", e.getMessage());
+    }
 }
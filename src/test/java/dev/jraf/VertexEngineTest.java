@@ -0,0 +1,54 @@
+package dev.jraf;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class VertexEngineTest {
+
+    /*
+     * Every vertex takes the maximum of its value and of the values of its
+     * predecessors, so the maximum label spreads along the arcs.
+     */
+    private static VertexProgram maxLabel(VertexEngine engine) {
+        CompactGraph in = engine.transposed();
+        return new VertexProgram() {
+            @Override public double initialValue(int vertex) {
+                return engine.graph().labelOf(vertex);
+            }
+
+            @Override public double compute(int vertex, double[] previous) {
+                double max = previous[vertex];
+                for (int i = in.offsets()[vertex];
+                        i < in.offsets()[vertex + 1]; i++)
+                    max = Math.max(max, previous[in.targets()[i]]);
+                return max;
+            }
+        };
+    }
+
+    @Test
+    void runStopsWhenValuesAreStable() {
+        Graph graph = new AdjacencyGraph();
+        graph.add(3, 0);
+        graph.add(0, 1);
+        graph.add(1, 2);
+        VertexEngine sut = new VertexEngine(CompactGraph.of(graph));
+        double[] values = sut.run(maxLabel(sut), 100, 0.5);
+        for (double value: values)
+            assertEquals(3, value);
+        assertEquals(4, sut.supersteps());
+    }
+
+    @Test
+    void runStopsAfterMaximumSupersteps() {
+        Graph graph = new AdjacencyGraph();
+        graph.add(3, 0);
+        graph.add(0, 1);
+        graph.add(1, 2);
+        CompactGraph compact = CompactGraph.of(graph);
+        VertexEngine sut = new VertexEngine(compact);
+        double[] values = sut.run(maxLabel(sut), 1, 0.5);
+        assertEquals(1, sut.supersteps());
+        assertEquals(2, values[compact.idOf(2)]);
+    }
+}
@@ -3,6 +3,7 @@ package dev.jraf;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 import java.util.List;
+import java.util.function.IntToLongFunction;
 
 class WeightedGraphTest {
     
@@ -31,4 +32,136 @@ class WeightedGraphTest {
         sut.add(Vertex.of(0), Vertex.of(1), 42);
         assertEquals(42, sut.weight(Vertex.of(0), Vertex.of(1)));
     }
+
+    /* Returns a weighted graph of three routes from 0 to 3. */
+    private static WeightedGraph diamond() {
+        WeightedGraph sut = WeightedGraph.newAdjacencyWeightedGraph();
+        sut.add(Vertex.of(0), Vertex.of(1), 4);
+        sut.add(Vertex.of(1), Vertex.of(3), 4);
+        sut.add(Vertex.of(0), Vertex.of(2), 1);
+        sut.add(Vertex.of(2), Vertex.of(3), 5);
+        sut.add(Vertex.of(0), Vertex.of(3), 9);
+        return sut;
+    }
+
+    @Test
+    void shortestRouteFollowsTheLightestPath() {
+        Route route = diamond().shortestRoute(Vertex.of(0), Vertex.of(3));
+        assertTrue(route.exists());
+        assertEquals(6, route.length());
+        assertEquals(List.of(Vertex.of(0), Vertex.of(2), Vertex.of(3)),
+                route.vertices());
+    }
+
+    @Test
+    void shortestRouteSeesWeightUpdates() {
+        WeightedGraph sut = diamond();
+        sut.shortestRoute(Vertex.of(0), Vertex.of(3));
+        sut.add(Vertex.of(0), Vertex.of(3), 2);
+        Route route = sut.shortestRoute(Vertex.of(0), Vertex.of(3));
+        assertEquals(2, route.length());
+        assertEquals(List.of(Vertex.of(0), Vertex.of(3)), route.vertices());
+    }
+
+    @Test
+    void shortestRouteToItselfIsTheVertexAlone() {
+        Route route = diamond().shortestRoute(Vertex.of(1), Vertex.of(1));
+        assertEquals(0, route.length());
+        assertEquals(List.of(Vertex.of(1)), route.vertices());
+    }
+
+    @Test
+    void shortestRouteToUnreachableVertexDoesNotExist() {
+        Route route = diamond().shortestRoute(Vertex.of(3), Vertex.of(0));
+        assertFalse(route.exists());
+        assertEquals(-1, route.length());
+        assertTrue(route.vertices().isEmpty());
+    }
+
+    @Test
+    void shortestRouteOfGeneratedGraphMatchesBreadthFirstSearch() {
+        WeightedGraph sut = GraphGenerator.erdosRenyi(500, 3000, 7)
+            .weightedGraph(1, 1);
+        Vertex from = Vertex.of(0);
+        for (int label = 0; label < 500; label += 37) {
+            Vertex to = Vertex.of(label);
+            List<Vertex> path = sut.shortestPath(from, to);
+            Route route = sut.shortestRoute(from, to);
+            assertEquals(path.size() - 1, route.length());
+        }
+    }
+
+    @Test
+    void shortestRouteWithTightHeuristicSettlesTenTimesFewerVertices() {
+        int side = 100;
+        WeightedGraph sut = GraphGenerator.grid(side, side, 0)
+            .weightedGraph(1, 1);
+        Vertex from = Vertex.of(side / 2 * side);
+        Vertex to = Vertex.of(side / 2 * side + side - 1);
+        IntToLongFunction manhattan = label ->
+            Math.abs(label / side - side / 2)
+            + Math.abs(label % side - (side - 1));
+        Route dijkstra = sut.shortestRoute(from, to);
+        Route astar = sut.shortestRoute(from, to, manhattan);
+        assertEquals(side - 1, dijkstra.length());
+        assertEquals(side - 1, astar.length());
+        assertTrue(astar.settledCount() * 10 <= dijkstra.settledCount());
+    }
+
+    @Test
+    void shortestRouteWithNullVertexThrowsNPEWithMessage() {
+        WeightedGraph sut = diamond();
+        Exception e = assertThrows(NullPointerException.class,
+                () -> sut.shortestRoute(null, Vertex.of(3)));
+        assertEquals("vertices must be non-null", e.getMessage());
+    }
+
+    @Test
+    void shortestRouteWithNullHeuristicThrowsNPEWithMessage() {
+        WeightedGraph sut = diamond();
+        Exception e = assertThrows(NullPointerException.class,
+                () -> sut.shortestRoute(Vertex.of(0), Vertex.of(3), null));
+        assertEquals("heuristic must be non-null", e.getMessage());
+    }
+
+    @Test
+    void shortestRouteWithAbsentVertexThrowsIAEWithMessage() {
+        WeightedGraph sut = diamond();
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> sut.shortestRoute(Vertex.of(0), Vertex.of(7)));
+        assertEquals("vertices must be present", e.getMessage());
+    }
+
+    @Test
+    void shortestRouteWithNegativeWeightThrowsISEWithMessage() {
+        WeightedGraph sut = diamond();
+        sut.add(Vertex.of(2), Vertex.of(1), -1);
+        Exception e = assertThrows(IllegalStateException.class,
+                () -> sut.shortestRoute(Vertex.of(0), Vertex.of(3)));
+        assertEquals("weights must be non-negative", e.getMessage());
+    }
+
+    @Test
+    void removeVertexRemovesTheWeightsOfItsArcs() {
+        WeightedGraph sut = WeightedGraph.newAdjacencyWeightedGraph();
+        sut.add(Vertex.of(1), Vertex.of(2), 4);
+        sut.add(Vertex.of(2), Vertex.of(3), 5);
+        sut.add(Vertex.of(1), Vertex.of(3), 7);
+        sut.remove(Vertex.of(2));
+        assertEquals(List.of(Vertex.of(3)), sut.neighborsOf(Vertex.of(1)));
+        assertEquals(7, sut.weight(Vertex.of(1), Vertex.of(3)));
+        sut.add(Vertex.of(1), Vertex.of(2), 9);
+        assertEquals(9, sut.weight(Vertex.of(1), Vertex.of(2)));
+        assertEquals(List.of(), sut.neighborsOf(Vertex.of(2)));
+    }
+
+    @Test
+    void removeArcRemovesItsWeight() {
+        WeightedGraph sut = WeightedGraph.newAdjacencyWeightedGraph();
+        sut.add(Vertex.of(1), Vertex.of(2), 4);
+        sut.remove(Vertex.of(1), Vertex.of(2));
+        assertEquals(List.of(), sut.neighborsOf(Vertex.of(1)));
+        assertThrows(RuntimeException.class,
+                () -> sut.weight(Vertex.of(1), Vertex.of(2)));
+    }
 }